@@ -133,6 +133,50 @@ CREATE TABLE categories (
                           name VARCHAR(100) UNIQUE NOT NULL
 );
 
+-- Sessions (SESSION_MODE=db), gültig bis expires_at (Epoch-Sekunden); Abgelaufene räumt AuthService regelmäßig ab
+CREATE TABLE sessions (
+                        session_id VARCHAR(64) PRIMARY KEY,
+                        user_id INT NOT NULL,
+                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        expires_at BIGINT NOT NULL DEFAULT 0,
+                        INDEX idx_sessions_expires_at (expires_at)
+);
+
+-- Gesperrte JWTs (SESSION_MODE=jwt), nur bis zu ihrem Ablauf (Epoch-Sekunden)
+CREATE TABLE revoked_tokens (
+                              jti CHAR(36) PRIMARY KEY,
+                              expires_at BIGINT NOT NULL,
+                              INDEX idx_revoked_tokens_expires_at (expires_at)
+);
+
+CREATE TABLE achievements (
+                            id INT AUTO_INCREMENT PRIMARY KEY,
+                            user_id INT NOT NULL,
+                            achievement_type VARCHAR(100) NOT NULL,
+                            achieved_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Zähler pro Benutzer (UserStats), achievement ist der höchste erreichte Erfolg
+CREATE TABLE user_stats (
+                          user_id INT NOT NULL PRIMARY KEY,
+                          recipe_count INT NOT NULL DEFAULT 0,
+                          favorites_received INT NOT NULL DEFAULT 0,
+                          comments_received INT NOT NULL DEFAULT 0,
+                          achievement VARCHAR(100) NULL,
+                          achievement_level INT NOT NULL DEFAULT 0,
+                          FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Vert.x-Web-Sessions (WEB_SESSION_STORE=db), Ablauf in Epoch-Sekunden
+CREATE TABLE web_sessions (
+                            id VARCHAR(64) PRIMARY KEY,
+                            data VARBINARY(4096) NOT NULL,
+                            version INT NOT NULL DEFAULT 0,
+                            expires_at BIGINT NOT NULL,
+                            INDEX idx_web_sessions_expires_at (expires_at)
+);
+
 
 INSERT INTO users (name, email, password_hash)
 VALUES ('Testnutzer', 'test@example.com', 'dummyhash123');
@@ -0,0 +1,134 @@
+package com.example.starter;
+
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.web.RoutingContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Zugriffsschutz für die Betriebs-Endpunkte.
+ *
+ * {@code /admin/*} verlangt {@code Authorization: Bearer <ADMIN_TOKEN>}; ist {@value #ADMIN_TOKEN} nicht
+ * gesetzt, sind die Routen gesperrt. {@code /metrics} ist für die Adressen aus {@value #METRICS_ALLOWLIST}
+ * (Standard: nur localhost) offen und sonst nur mit {@value #METRICS_TOKEN} bzw. dem Admin-Token.
+ * Geprüft wird die Adresse der TCP-Verbindung, hinter einem Reverse Proxy also die des Proxys.
+ */
+public class AdminAccess implements Handler<RoutingContext> {
+
+  private static final Logger log = LoggerFactory.getLogger(AdminAccess.class);
+
+  public static final String ADMIN_TOKEN = "ADMIN_TOKEN";
+  public static final String METRICS_TOKEN = "METRICS_TOKEN";
+  public static final String METRICS_ALLOWLIST = "METRICS_ALLOWLIST";
+
+  private static final String BEARER = "Bearer ";
+
+  private final Set<String> tokens;
+  private final Set<InetAddress> allowlist;
+
+  AdminAccess(Set<String> tokens, Set<InetAddress> allowlist) {
+    this.tokens = tokens;
+    this.allowlist = allowlist;
+  }
+
+  /**
+   * Für {@code /admin/*}: nur mit Admin-Token.
+   */
+  public static AdminAccess admin(JsonObject config) {
+    Set<String> tokens = tokens(config, ADMIN_TOKEN);
+    if (tokens.isEmpty()) {
+      log.warn("⚠ {} nicht gesetzt, /admin/* ist gesperrt", ADMIN_TOKEN);
+    }
+    return new AdminAccess(tokens, Set.of());
+  }
+
+  /**
+   * Für {@code /metrics}: Adressen aus der Allowlist oder Metrics- bzw. Admin-Token.
+   */
+  public static AdminAccess metrics(JsonObject config) {
+    return new AdminAccess(tokens(config, METRICS_TOKEN, ADMIN_TOKEN),
+      allowlist(config.getString(METRICS_ALLOWLIST, "127.0.0.1,::1")));
+  }
+
+  @Override
+  public void handle(RoutingContext context) {
+    if (allowed(context.request().remoteAddress(), context.request().getHeader(HttpHeaders.AUTHORIZATION))) {
+      context.next();
+      return;
+    }
+    RequestLog.warn(log, context).log("⚠ Zugriff auf {} verweigert", context.request().path());
+    context.response()
+      .setStatusCode(401)
+      .putHeader("WWW-Authenticate", "Bearer")
+      .end("❌ Nicht berechtigt");
+  }
+
+  boolean allowed(SocketAddress remote, String authorization) {
+    if (remote != null && remote.host() != null && allowlist.contains(address(remote.host()))) {
+      return true;
+    }
+    if (authorization == null || !authorization.startsWith(BEARER)) {
+      return false;
+    }
+    byte[] presented = authorization.substring(BEARER.length()).trim().getBytes(StandardCharsets.UTF_8);
+    boolean match = false;
+    for (String token : tokens) {
+      // ohne vorzeitigen Abbruch vergleichen, damit die Laufzeit nichts über den Token verrät
+      match |= MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), presented);
+    }
+    return match;
+  }
+
+  private static Set<String> tokens(JsonObject config, String... keys) {
+    Set<String> tokens = new HashSet<>();
+    for (String key : keys) {
+      String token = config.getString(key, "");
+      if (!token.isBlank()) {
+        tokens.add(token);
+      }
+    }
+    return tokens;
+  }
+
+  /**
+   * Kommagetrennte IP-Adressen (IPv4 oder IPv6), ungültige Einträge werden mit Warnung übergangen.
+   */
+  static Set<InetAddress> allowlist(String value) {
+    Set<InetAddress> addresses = new HashSet<>();
+    for (String entry : value.split(",")) {
+      String ip = entry.trim();
+      if (ip.isEmpty()) {
+        continue;
+      }
+      InetAddress address = address(ip);
+      if (address == null) {
+        log.warn("⚠ Ungültige Adresse in {}: {}", METRICS_ALLOWLIST, ip);
+      } else {
+        addresses.add(address);
+      }
+    }
+    return addresses;
+  }
+
+  // nur IP-Literale, damit hier nie eine DNS-Abfrage den Event-Loop blockiert
+  private static InetAddress address(String ip) {
+    if (!ip.matches("\\d{1,3}(\\.\\d{1,3}){3}") && !ip.matches("[0-9a-fA-F:.]*:[0-9a-fA-F:.]*")) {
+      return null;
+    }
+    try {
+      return InetAddress.getByName(ip);
+    } catch (UnknownHostException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,253 @@
+package com.example.starter;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.ext.auth.jwt.JWTAuth;
+import io.vertx.ext.web.sstore.SessionStore;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Gemeinsamer Zustand aller {@link MainVerticle}-Instanzen einer Vert.x-Instanz.
+ *
+ * Konfiguration, Datenbank-Client, Services, Caches und Suchindizes werden nur einmal angelegt und
+ * über eine {@link LocalMap} an alle Instanzen verteilt. So sehen alle Event-Loops dieselben Sessions,
+ * dieselben Indizes und dasselbe Zutaten-Wörterbuch; Änderungen über eine Instanz sind sofort überall sichtbar.
+ * Alle enthaltenen Objekte sind dafür threadsicher (synchronisierte Caches, Indizes mit ReadWriteLock,
+ * gemeinsamer Pool).
+ *
+ * Angelegt wird alles in einem eigenen, internen Verticle, nicht in der ersten {@link MainVerticle}-Instanz.
+ * Pro Instanz bleiben nur Router und HTTP-Server; Vert.x verteilt die Verbindungen auf dem gemeinsamen
+ * Port reihum an die Instanzen. Zwischen mehreren Prozessen (Knoten im Cluster) gleicht der
+ * {@link InvalidationBus} die Caches ab.
+ */
+public class AppContext implements Shareable {
+
+  private static final String MAP_NAME = "recipe-app";
+  private static final String KEY = "context";
+
+  private final Promise<AppContext> ready = Promise.promise();
+
+  private JsonObject config;
+  private DatabaseClient dbClient;
+  private AuthService authService;
+  private UserService userService;
+  private HashingExecutor hashing;
+  private PasswordHasher passwordHasher;
+  private TokenSessions tokenSessions;
+  private JWTAuth jwtAuth;
+  private IngredientDictionary ingredientDictionary;
+  private IngredientRepository ingredientRepository;
+  private RecipeSearchIndex searchIndex;
+  private IngredientRecipeIndex ingredientIndex;
+  private RecipeCache recipeCache;
+  private RecipeService recipeService;
+  private FavoriteService favoriteService;
+  private UserStats userStats;
+  private InvalidationBus invalidation;
+  private SessionStore webSessions;
+  private TemplateCache templates;
+  private StaticAssets staticAssets;
+  private Metrics metrics;
+
+  private AppContext() {
+  }
+
+  /**
+   * Liefert den gemeinsamen Kontext; die erste Instanz legt ihn an, alle weiteren warten darauf.
+   * Das Ergebnis wird auf dem Context des Aufrufers gemeldet, damit jede Instanz ihren Server
+   * auf ihrem eigenen Event-Loop startet.
+   */
+  public static Future<AppContext> get(Vertx vertx, JsonObject deploymentConfig) {
+    Context caller = vertx.getOrCreateContext();
+    LocalMap<String, AppContext> map = vertx.sharedData().getLocalMap(MAP_NAME);
+    AppContext created = new AppContext();
+    AppContext existing = map.putIfAbsent(KEY, created);
+    AppContext context = existing != null ? existing : created;
+
+    if (existing == null) {
+      // Von einem Thread außerhalb von Vert.x deployen: aus dem Context des Aufrufers heraus würde der
+      // InfraVerticle ein Kind dieser Instanz und mit ihr undeployt
+      CompletableFuture.runAsync(() -> vertx.deployVerticle(new InfraVerticle(created, deploymentConfig))
+        .onComplete(res -> {
+          if (res.failed()) {
+            // nächster Deploy-Versuch soll neu initialisieren
+            map.remove(KEY, created);
+          }
+          created.ready.handle(res.map(created));
+        }));
+    }
+
+    Promise<AppContext> result = Promise.promise();
+    context.ready.future().onComplete(res -> caller.runOnContext(v -> result.handle(res)));
+    return result.future();
+  }
+
+  /**
+   * Legt die gemeinsamen Services auf einem eigenen Context an. Timer (Sweeper, Abgleich der Token-Sperrliste,
+   * Aktualisierung des Wörterbuchs), Event-Bus-Consumer, Pool und Worker-Executor gehören zum Context, in dem sie
+   * entstehen, und enden mit dessen Undeployment. So laufen sie weiter, wenn einzelne {@link MainVerticle}-Instanzen
+   * undeployt werden, und erst {@code vertx.close()} beendet sie.
+   */
+  private static final class InfraVerticle extends AbstractVerticle {
+    private final AppContext app;
+    private final JsonObject deploymentConfig;
+
+    InfraVerticle(AppContext app, JsonObject deploymentConfig) {
+      this.app = app;
+      this.deploymentConfig = deploymentConfig;
+    }
+
+    @Override
+    public void start(Promise<Void> startPromise) {
+      app.init(vertx, deploymentConfig).onComplete(startPromise);
+    }
+  }
+
+  private Future<Void> init(Vertx vertx, JsonObject deploymentConfig) {
+    // Konfiguration laden, gemeinsamen Pool holen und die Datenbank prüfen, bevor der Server startet
+    return ConfigLoader.load(vertx, deploymentConfig)
+      .compose(conf -> {
+        config = conf;
+        RequestLog.configure(conf);
+        metrics = Metrics.of(vertx);
+        dbClient = DatabaseConfig.connect(vertx, conf);
+        return DatabaseConfig.verifyConnection(dbClient, conf);
+      })
+      .compose(v -> DatabaseMigrations.migrate(vertx, dbClient, config))
+      .map(v -> {
+        // JWT-Auth initialisieren, Schlüssel aus der Konfiguration (JWT_SECRET)
+        jwtAuth = TokenSessions.createAuth(vertx, config);
+        tokenSessions = TokenSessions.enabled(config) ? new TokenSessions(vertx, dbClient, jwtAuth, config) : null;
+
+        hashing = new HashingExecutor(vertx, config);
+        passwordHasher = PasswordHasher.fromConfig(config);
+        invalidation = new InvalidationBus(vertx, config);
+        invalidation.start();
+        authService = new AuthService(vertx, dbClient, hashing, passwordHasher, tokenSessions, invalidation, config);
+        userService = new UserService(vertx, dbClient, hashing, passwordHasher);
+        ingredientDictionary = new IngredientDictionary(vertx, dbClient, config);
+        ingredientDictionary.reload(); // Vorladen, der Server wartet nicht darauf
+        ingredientRepository = new IngredientRepository(dbClient, ingredientDictionary);
+        DomainEvents.register(vertx);
+        searchIndex = new RecipeSearchIndex(dbClient);
+        searchIndex.build(); // bis der Index steht, sucht /search/recipes per LIKE
+        ingredientIndex = new IngredientRecipeIndex(dbClient);
+        ingredientIndex.build();
+        subscribeIndexes(vertx);
+        recipeCache = new RecipeCache(dbClient, config);
+        userStats = new UserStats(vertx, dbClient, recipeCache, invalidation, config);
+        userStats.start();
+        recipeService = new RecipeService(vertx, dbClient, ingredientRepository, searchIndex, ingredientIndex,
+          ingredientDictionary, recipeCache, invalidation, config.getInteger("SEARCH_PAGE_SIZE", 20));
+        favoriteService = new FavoriteService(vertx, dbClient, authService, invalidation, config);
+        webSessions = DbSessionStore.fromConfig(vertx, dbClient, invalidation, config);
+        templates = new TemplateCache(vertx, config);
+        staticAssets = new StaticAssets("frontend", config);
+        staticAssets.load(vertx); // bis dahin liefert der StaticHandler allein aus
+
+        return null;
+      });
+  }
+
+  // Die Suchindizes ziehen sich nach jedem Schreibzugriff auf ein Rezept asynchron nach
+  private void subscribeIndexes(Vertx vertx) {
+    DomainEvents.consumer(vertx, DomainEvents.RecipeCreated.class, e -> {
+      searchIndex.reindex(e.recipeId);
+      ingredientIndex.reindex(e.recipeId);
+    });
+    DomainEvents.consumer(vertx, DomainEvents.RecipeUpdated.class, e -> {
+      searchIndex.reindex(e.recipeId);
+      ingredientIndex.reindex(e.recipeId);
+    });
+    DomainEvents.consumer(vertx, DomainEvents.RecipeDeleted.class, e -> {
+      searchIndex.remove(e.recipeId);
+      ingredientIndex.remove(e.recipeId);
+    });
+  }
+
+  public JsonObject config() {
+    return config;
+  }
+
+  public DatabaseClient dbClient() {
+    return dbClient;
+  }
+
+  public AuthService authService() {
+    return authService;
+  }
+
+  public UserService userService() {
+    return userService;
+  }
+
+  public HashingExecutor hashing() {
+    return hashing;
+  }
+
+  public PasswordHasher passwordHasher() {
+    return passwordHasher;
+  }
+
+  /**
+   * {@code null}, solange {@code SESSION_MODE} nicht {@code jwt} ist.
+   */
+  public TokenSessions tokenSessions() {
+    return tokenSessions;
+  }
+
+  public JWTAuth jwtAuth() {
+    return jwtAuth;
+  }
+
+  public IngredientDictionary ingredientDictionary() {
+    return ingredientDictionary;
+  }
+
+  public IngredientRepository ingredientRepository() {
+    return ingredientRepository;
+  }
+
+  public RecipeCache recipeCache() {
+    return recipeCache;
+  }
+
+  public RecipeService recipeService() {
+    return recipeService;
+  }
+
+  public FavoriteService favoriteService() {
+    return favoriteService;
+  }
+
+  public UserStats userStats() {
+    return userStats;
+  }
+
+  public InvalidationBus invalidation() {
+    return invalidation;
+  }
+
+  public SessionStore webSessions() {
+    return webSessions;
+  }
+
+  public TemplateCache templates() {
+    return templates;
+  }
+
+  public Metrics metrics() {
+    return metrics;
+  }
+
+  public StaticAssets staticAssets() {
+    return staticAssets;
+  }
+}
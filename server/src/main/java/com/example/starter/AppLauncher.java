@@ -0,0 +1,113 @@
+package com.example.starter;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Launcher;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.metrics.MetricsOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Startet {@link MainVerticle} mit mehreren Instanzen, standardmäßig eine pro CPU-Kern.
+ *
+ * Die Anzahl kommt aus {@value #HTTP_INSTANCES} (System-Property vor Umgebungsvariable vor
+ * Konfigurationsdatei, wie im {@link ConfigLoader}). Fehlt der Wert oder ist er 0, gilt {@code -instances} von
+ * der Kommandozeile, und wenn auch das fehlt, {@link Runtime#availableProcessors()}.
+ * Mit {@code HTTP_INSTANCES=1} läuft der Server wie früher auf einem einzigen Event-Loop.
+ *
+ * Die Anzahl muss vor dem Deployment feststehen; die übrige Konfiguration lädt weiterhin der {@link AppContext}.
+ * Ebenso {@link Metrics} als Metrics-SPI von Vert.x, abschaltbar mit {@code METRICS_ENABLED=false}.
+ *
+ * Mit {@code -cluster} (gebaut mit dem Maven-Profil {@code cluster}) bilden mehrere Prozesse einen Cluster mit
+ * gemeinsamem Event-Bus, über den der {@link InvalidationBus} die Caches der Knoten abgleicht.
+ */
+public class AppLauncher extends Launcher {
+
+  private static final Logger log = LoggerFactory.getLogger(AppLauncher.class);
+
+  public static final String HTTP_INSTANCES = "HTTP_INSTANCES";
+
+  public static void main(String[] args) {
+    new AppLauncher().dispatch(args);
+  }
+
+  @Override
+  public void beforeStartingVertx(VertxOptions options) {
+    if (Metrics.enabled(setting(Metrics.METRICS_ENABLED))) {
+      options.setMetricsOptions(new MetricsOptions().setEnabled(true).setFactory(vertxOptions -> new Metrics()));
+    }
+  }
+
+  @Override
+  public void beforeDeployingVerticle(DeploymentOptions deploymentOptions) {
+    Integer configured = configuredInstances();
+    if (configured != null) {
+      deploymentOptions.setInstances(configured);
+    } else if (!instancesOnCommandLine(getProcessArguments())) {
+      // ohne -instances setzt der Launcher 1, das gilt hier nicht als Angabe
+      deploymentOptions.setInstances(Runtime.getRuntime().availableProcessors());
+    }
+    log.info("Starte {} Server-Instanz(en)", deploymentOptions.getInstances());
+  }
+
+  /**
+   * {@code true}, wenn {@code -instances} (auch {@code --instances}, mit Leerzeichen oder {@code =}) angegeben ist.
+   */
+  static boolean instancesOnCommandLine(List<String> args) {
+    if (args == null) {
+      return false;
+    }
+    for (String arg : args) {
+      String option = arg.startsWith("--") ? arg.substring(2) : arg.startsWith("-") ? arg.substring(1) : null;
+      if (option != null && (option.equals("instances") || option.startsWith("instances="))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static Integer configuredInstances() {
+    String value = setting(HTTP_INSTANCES);
+    if (value == null) {
+      return null;
+    }
+    try {
+      int instances = Integer.parseInt(value.trim());
+      return instances > 0 ? instances : null;
+    } catch (NumberFormatException e) {
+      log.warn("⚠ Ungültiger Wert für {}: {}", HTTP_INSTANCES, value);
+      return null;
+    }
+  }
+
+  // System-Property vor Umgebungsvariable vor Konfigurationsdatei
+  private static String setting(String key) {
+    String value = System.getProperty(key);
+    if (value == null) {
+      value = System.getenv(key);
+    }
+    return value != null ? value : fromConfigFile(key);
+  }
+
+  private static String fromConfigFile(String key) {
+    Path path = Paths.get(System.getProperty("config.file", ConfigLoader.DEFAULT_CONFIG_FILE));
+    if (!Files.isReadable(path)) {
+      return null;
+    }
+    try {
+      Object value = new JsonObject(new String(Files.readAllBytes(path), StandardCharsets.UTF_8)).getValue(key);
+      return value != null ? value.toString() : null;
+    } catch (IOException | RuntimeException e) {
+      log.warn("⚠ {} konnte nicht gelesen werden: {}", path, e.getMessage());
+      return null;
+    }
+  }
+}
@@ -11,33 +11,67 @@ import io.vertx.core.http.CookieSameSite;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.auth.JWTOptions;
-import io.vertx.ext.auth.jdbc.JDBCAuth;
 import io.vertx.ext.auth.jwt.JWTAuth;
-import io.vertx.ext.jdbc.JDBCClient;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 public class AuthService {
+
+  private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
+  // Session-Cache: Session-ID -> User-ID (-1 = unbekannte Session, negativ gecacht)
+  private static final int SESSION_CACHE_MAX_ENTRIES = 10_000;
+  private static final long SESSION_CACHE_TTL_MS = 5 * 60 * 1000;
+  private static final long SESSION_CACHE_NEGATIVE_TTL_MS = 30 * 1000;
+  private static final long SESSION_CACHE_PURGE_INTERVAL_MS = 60 * 1000;
+
+  // Laufzeit der Sessions in der Tabelle "sessions" und Aufräumen abgelaufener Zeilen
+  public static final String SESSION_TTL_S = "SESSION_TTL_S";
+  public static final String SESSION_SWEEP_INTERVAL_S = "SESSION_SWEEP_INTERVAL_S";
+  public static final String SESSION_SWEEP_BATCH = "SESSION_SWEEP_BATCH";
+  private static final long SESSION_SWEEP_PAUSE_MS = 100;
+
   private final Vertx vertx;
-  private final JDBCClient dbClient;
-  private final JDBCAuth authProvider;
+  private final DatabaseClient dbClient;
+  private final HashingExecutor hashing;
+  private final PasswordHasher passwordHasher;
+  // null im Standardmodus SESSION_MODE=db
+  private final TokenSessions tokenSessions;
+  private final InvalidationBus invalidation;
+  private final LruCache<String, Integer> sessionCache =
+    new LruCache<>(SESSION_CACHE_MAX_ENTRIES, SESSION_CACHE_TTL_MS);
+  private final int sessionTtlSeconds;
+  private final int sweepBatch;
 
-  private String activeSessionId = UUID.randomUUID().toString();
   private int failedAttempts = 0;
 
-  public AuthService(Vertx vertx, JDBCClient dbClient) {
+  public AuthService(Vertx vertx, DatabaseClient dbClient, HashingExecutor hashing, PasswordHasher passwordHasher,
+                     TokenSessions tokenSessions, InvalidationBus invalidation, JsonObject config) {
     this.vertx = vertx;
     this.dbClient = dbClient;
-    this.authProvider = JDBCAuth.create(vertx, dbClient);
+    this.hashing = hashing;
+    this.passwordHasher = passwordHasher;
+    this.tokenSessions = tokenSessions;
+    this.invalidation = invalidation;
+    this.sessionTtlSeconds = config.getInteger(SESSION_TTL_S, 7 * 24 * 3600);
+    this.sweepBatch = config.getInteger(SESSION_SWEEP_BATCH, 1000);
+
+    // Abgelaufene Einträge regelmäßig entfernen, damit sie nicht bis zur Verdrängung liegen bleiben
+    vertx.setPeriodic(SESSION_CACHE_PURGE_INTERVAL_MS, id -> sessionCache.purgeExpired());
+    invalidation.register(InvalidationBus.SESSIONS, sessionCache::invalidate);
+    if (tokenSessions == null) {
+      vertx.setPeriodic(config.getInteger(SESSION_SWEEP_INTERVAL_S, 300) * 1000L, id -> sweepExpiredSessions());
+    }
   }
 
-
-  public String hashPassword(String password) {
-    return authProvider.computeHash(password, null);
+  public LruCache<String, Integer> getSessionCache() {
+    return sessionCache;
   }
 
 
@@ -67,23 +101,23 @@ public class AuthService {
       return;
     }
 
-    String hashedPassword = authProvider.computeHash(password, null);
-    String query = "INSERT INTO users (name, email, password_hash) VALUES (?, ?, ?)";
-
-    dbClient.updateWithParams(query, new JsonArray().add(name).add(email).add(hashedPassword), res -> {
-      if (res.succeeded()) {
-        context.response()
-                .setStatusCode(303)
-                .putHeader("Location", "/login.html") // Umleitung zur Login-Seite nach Registrierung
-                .end();
-        System.out.println("okay");
-
-      } else {
-        System.out.println("nicht gut ");
+    String query = Statements.USER_INSERT;
 
-        context.response().setStatusCode(500).end("❌ Fehler bei Registrierung");
-      }
-    });
+    // Hash im Hash-Pool berechnen, nicht auf dem Event-Loop
+    hashing.submit("register", () -> passwordHasher.hash(password))
+      .compose(hashedPassword -> dbClient.update(query, Tuple.of(name, email, hashedPassword)))
+      .onComplete(res -> {
+        if (res.succeeded()) {
+          context.response()
+                  .setStatusCode(303)
+                  .putHeader("Location", "/login.html") // Umleitung zur Login-Seite nach Registrierung
+                  .end();
+          RequestLog.debug(log, context).log("Benutzer registriert: {}", email);
+        } else if (!HashingExecutor.handleRejected(context, res.cause())) {
+          RequestLog.warn(log, context).log("❌ Registrierung fehlgeschlagen: {}", res.cause().getMessage());
+          context.response().setStatusCode(500).end("❌ Fehler bei Registrierung");
+        }
+      });
   }
 
 
@@ -115,59 +149,139 @@ public class AuthService {
       return;
     }
 
-    String query = "SELECT id, password_hash FROM users WHERE email = ?";
+    String query = Statements.USER_LOGIN;
 
-    dbClient.queryWithParams(query, new JsonArray().add(email), res -> {
+    dbClient.query(query, Tuple.of(email)).onComplete(res -> {
       if (res.failed()) {
         context.response().setStatusCode(500).end("❌ Datenbankfehler!");
         return;
       }
 
-      if (res.result().getRows().isEmpty()) {
+      if (res.result().isEmpty()) {
         context.response().setStatusCode(404).end("❌ Benutzer nicht gefunden!");
         return;
       }
 
-      JsonObject user = res.result().getRows().get(0);
+      JsonObject user = res.result().get(0);
       int userId = user.getInteger("id");
       String storedHash = user.getString("password_hash");
 
-      if (authProvider.computeHash(password, null).equals(storedHash)) {
-        failedAttempts = 0; // Erfolgreicher Login -> Zurücksetzen der fehlgeschlagenen Versuche
-
-        // Neue Session-ID generieren
-        String newSessionId = UUID.randomUUID().toString();
-
-        // Session in die Datenbank speichern
-        String insertSessionQuery = "INSERT INTO sessions (session_id, user_id) VALUES (?, ?)";
-
-        dbClient.updateWithParams(insertSessionQuery, new JsonArray().add(newSessionId).add(userId), sessionRes -> {
-          if (sessionRes.succeeded()) {
-            // Session-Cookie setzen
-            context.addCookie(Cookie.cookie("session-id", newSessionId)
-              .setHttpOnly(true)
-              .setSameSite(CookieSameSite.LAX));
+      hashing.submit("login", () -> passwordHasher.verify(password, storedHash)).onComplete(check -> {
+        if (check.failed()) {
+          if (!HashingExecutor.handleRejected(context, check.cause())) {
+            context.response().setStatusCode(500).end("❌ Fehler bei der Passwortprüfung!");
+          }
+          return;
+        }
 
+        if (check.result()) {
+          failedAttempts = 0; // Erfolgreicher Login -> Zurücksetzen der fehlgeschlagenen Versuche
+          if (passwordHasher.needsRehash(storedHash)) {
+            rehash(userId, password, storedHash);
+          }
 
-            // Weiterleitung zur Startseite
+          // Token-Modus: signierte Cookies statt Eintrag in "sessions"
+          if (tokenSessions != null) {
+            tokenSessions.issue(context, userId);
             context.response()
               .setStatusCode(303)
               .putHeader("Location", "/homePage.html")
               .end();
-          } else {
-            context.response().setStatusCode(500).end("❌ Fehler beim Speichern der Session!");
+            return;
           }
-        });
-      } else {
-        failedAttempts++;
-        context.response().setStatusCode(401).end("❌ Falsches Passwort!");
-      }
+
+          // Neue Session-ID generieren
+          String newSessionId = UUID.randomUUID().toString();
+
+          // Session mit Ablaufzeit in die Datenbank speichern
+          String insertSessionQuery = Statements.SESSION_INSERT;
+          long expiresAt = nowSeconds() + sessionTtlSeconds;
+
+          dbClient.update(insertSessionQuery, Tuple.of(newSessionId, userId, expiresAt)).onComplete(sessionRes -> {
+            if (sessionRes.succeeded()) {
+              sessionCache.put(newSessionId, userId, Math.min(SESSION_CACHE_TTL_MS, sessionTtlSeconds * 1000L));
+
+              // Session-Cookie setzen, gültig so lange wie die Session
+              context.addCookie(Cookie.cookie("session-id", newSessionId)
+                .setHttpOnly(true)
+                .setSameSite(CookieSameSite.LAX)
+                .setPath("/")
+                .setMaxAge(sessionTtlSeconds));
+
+
+              // Weiterleitung zur Startseite
+              context.response()
+                .setStatusCode(303)
+                .putHeader("Location", "/homePage.html")
+                .end();
+            } else {
+              context.response().setStatusCode(500).end("❌ Fehler beim Speichern der Session!");
+            }
+          });
+        } else {
+          failedAttempts++;
+          context.response().setStatusCode(401).end("❌ Falsches Passwort!");
+        }
+      });
     });
   }
 
 
 
+  /**
+   * Ersetzt einen veralteten Hash nach erfolgreichem Login durch einen neuen. Läuft im Hintergrund,
+   * der Login wartet nicht darauf; schlägt es fehl, wird es beim nächsten Login erneut versucht.
+   * Die Bedingung auf den alten Hash verhindert, dass eine zwischenzeitliche Passwortänderung überschrieben wird.
+   */
+  private void rehash(int userId, String password, String oldHash) {
+    hashing.submit("rehash", () -> passwordHasher.hash(password))
+      .compose(newHash -> dbClient.update(Statements.USER_REHASH,
+        Tuple.of(newHash, userId, oldHash)))
+      .onComplete(res -> {
+        if (res.succeeded()) {
+          log.info("✅ Passwort-Hash von Benutzer {} aktualisiert", userId);
+        } else {
+          log.warn("⚠ Passwort-Hash von Benutzer {} nicht aktualisiert: {}", userId, res.cause().getMessage());
+        }
+      });
+  }
+
+  /**
+   * Löscht abgelaufene Sessions in Blöcken zu höchstens {@code SESSION_SWEEP_BATCH} Zeilen, mit kurzer Pause
+   * dazwischen, damit die Tabelle nicht lange gesperrt wird. Liefert die Anzahl gelöschter Zeilen.
+   */
+  public Future<Long> sweepExpiredSessions() {
+    return sweepBatch(nowSeconds(), 0)
+      .onSuccess(total -> {
+        if (total > 0) {
+          log.info("✅ Abgelaufene Sessions gelöscht: {}", total);
+        }
+      })
+      .onFailure(err -> log.warn("⚠ Abgelaufene Sessions konnten nicht gelöscht werden: {}", err.getMessage()));
+  }
+
+  private Future<Long> sweepBatch(long now, long deletedSoFar) {
+    return dbClient.update(Statements.SESSION_SWEEP, Tuple.of(now, sweepBatch))
+      .compose(rows -> {
+        long total = deletedSoFar + rows.rowCount();
+        if (rows.rowCount() < sweepBatch) {
+          return Future.succeededFuture(total);
+        }
+        return vertx.timer(SESSION_SWEEP_PAUSE_MS).compose(v -> sweepBatch(now, total));
+      });
+  }
+
+  private static long nowSeconds() {
+    return System.currentTimeMillis() / 1000;
+  }
+
   public void getUserIdFromSession(RoutingContext context, Handler<AsyncResult<Integer>> resultHandler) {
+    // Token-Modus: nur Signatur und Sperrliste prüfen, keine Datenbankabfrage
+    if (tokenSessions != null) {
+      tokenSessions.resolve(context).onComplete(resultHandler);
+      return;
+    }
+
     String sessionId = context.getCookie("session-id") != null ? context.getCookie("session-id").getValue() : null;
 
     if (sessionId == null) {
@@ -175,13 +289,29 @@ public class AuthService {
       return;
     }
 
-    String query = "SELECT user_id FROM sessions WHERE session_id = ?";
+    // Schneller Pfad: Session bereits bekannt (auch unbekannte Sessions werden kurz gecacht)
+    Integer cachedUserId = sessionCache.get(sessionId);
+    if (cachedUserId != null) {
+      resultHandler.handle(Future.succeededFuture(cachedUserId));
+      return;
+    }
 
-    dbClient.queryWithParams(query, new JsonArray().add(sessionId), res -> {
-      if (res.failed() || res.result().getRows().isEmpty()) {
+    // session_id ist indiziert (siehe db/migration/001_sessions_expiry.sql)
+    String query = Statements.SESSION_LOOKUP;
+
+    dbClient.query(query, Tuple.of(sessionId, nowSeconds())).onComplete(res -> {
+      if (res.failed()) {
+        // Datenbankfehler nicht cachen, beim nächsten Request erneut versuchen
+        resultHandler.handle(Future.succeededFuture(-1));
+      } else if (res.result().isEmpty()) {
+        sessionCache.put(sessionId, -1, SESSION_CACHE_NEGATIVE_TTL_MS);
         resultHandler.handle(Future.succeededFuture(-1));
       } else {
-        int userId = res.result().getRows().get(0).getInteger("user_id");
+        JsonObject session = res.result().get(0);
+        int userId = session.getInteger("user_id");
+        // nicht länger cachen, als die Session noch gültig ist
+        long remainingMs = (session.getLong("expires_at") - nowSeconds()) * 1000L;
+        sessionCache.put(sessionId, userId, Math.max(0, Math.min(SESSION_CACHE_TTL_MS, remainingMs)));
         resultHandler.handle(Future.succeededFuture(userId));
       }
     });
@@ -196,12 +326,12 @@ public class AuthService {
       }
 
       int userId = userIdResult.result();
-      String query = "SELECT title, description, portions, image_url FROM recipes WHERE user_id = ?";
+      String query = Statements.RECIPE_CARDS_OF_USER;
       //String query = "INSERT INTO recipes (user_id, , created_at) VALUES (?, ?, ?, ?, ?, NOW())";
 
-      dbClient.queryWithParams(query, new JsonArray().add(userId), res -> {
+      dbClient.query(query, Tuple.of(userId)).onComplete(res -> {
         if (res.succeeded()) {
-          JsonArray recipes = new JsonArray(res.result().getRows());
+          JsonArray recipes = new JsonArray(res.result());
           context.response().putHeader("Content-Type", "application/json").end(recipes.encode());
         } else {
           context.response().setStatusCode(500).end("❌ Fehler beim Abrufen der Rezepte");
@@ -224,8 +354,21 @@ public class AuthService {
    * @apiSuccess {Cookie} session-id Das Session-Cookie wird gelöscht.
    *
    * @apiError (Unauthorized 401) Unauthorized Kein aktiver Login gefunden (kein Session-Cookie vorhanden).
+   * @apiError (Server Error 500) ServerError Die Session konnte nicht gelöscht werden; das Cookie bleibt erhalten.
    */
   public void logoutUser(RoutingContext context) {
+    if (tokenSessions != null) {
+      if (!tokenSessions.hasTokens(context)) {
+        context.response().setStatusCode(401).end("❌ Kein aktiver Login gefunden.");
+        return;
+      }
+      // Tokens sperren, bevor umgeleitet wird, damit sie danach sicher ungültig sind
+      tokenSessions.logout(context).onComplete(res -> context.response().setStatusCode(303)
+        .putHeader("Location", "/login.html")
+        .end("erfolgreich ausgeloggt"));
+      return;
+    }
+
     Cookie authCookie = context.getCookie("session-id");
 
     if (authCookie == null) {
@@ -234,21 +377,32 @@ public class AuthService {
       return;
     }
 
-    // Lösche das Authentifizierungs-Cookie
-    context.response().addCookie(Cookie.cookie("session-id", "")
-      .setHttpOnly(true)
-      .setSecure(false)  // Falls du HTTPS nutzt, setze `true`
-      .setSameSite(CookieSameSite.LAX)
-      .setPath("/")
-      .setMaxAge(0)); // Sofort löschen
-
-    // Setze die Session-ID zurück
-    activeSessionId = UUID.randomUUID().toString();
-
-    // Weiterleitung zur Login-Seite nach dem Logout
-    context.response().setStatusCode(303)
-      .putHeader("Location", "/login.html")
-      .end("erfolgreich ausgeloggt");
+    // Erst aus der Datenbank löschen, dann aus dem Cache (auf allen Knoten) entfernen und antworten: würde vorher
+    // verworfen, könnte ein Request dazwischen die noch vorhandene Zeile lesen und die Session bis zu
+    // SESSION_CACHE_TTL_MS erneut cachen
+    String sessionId = authCookie.getValue();
+    dbClient.update(Statements.SESSION_DELETE, Tuple.of(sessionId)).onComplete(res -> {
+      invalidation.invalidate(InvalidationBus.SESSIONS, sessionId);
+      if (res.failed()) {
+        // die Zeile gilt weiter, also kein Logout melden und das Cookie behalten, damit es wiederholt werden kann
+        RequestLog.warn(log, context).log("⚠ Session konnte nicht gelöscht werden: {}", res.cause().getMessage());
+        context.response().setStatusCode(500).end("❌ Logout fehlgeschlagen, bitte erneut versuchen.");
+        return;
+      }
+
+      // Lösche das Authentifizierungs-Cookie
+      context.response().addCookie(Cookie.cookie("session-id", "")
+        .setHttpOnly(true)
+        .setSecure(false)  // Falls du HTTPS nutzt, setze `true`
+        .setSameSite(CookieSameSite.LAX)
+        .setPath("/")
+        .setMaxAge(0)); // Sofort löschen
+
+      // Weiterleitung zur Login-Seite nach dem Logout
+      context.response().setStatusCode(303)
+        .putHeader("Location", "/login.html")
+        .end("erfolgreich ausgeloggt");
+    });
   }
 
 
@@ -0,0 +1,43 @@
+package com.example.starter;
+
+import io.vertx.config.ConfigRetriever;
+import io.vertx.config.ConfigRetrieverOptions;
+import io.vertx.config.ConfigStoreOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Lädt die Anwendungskonfiguration aus mehreren Quellen. Spätere Quellen überschreiben frühere:
+ *
+ * <ol>
+ *   <li>Konfigurationsdatei ({@code conf/config.json}, Pfad über {@code -Dconfig.file=...} änderbar, optional)</li>
+ *   <li>Umgebungsvariablen (z.B. {@code DB_POOL_SIZE=20})</li>
+ *   <li>System-Properties (z.B. {@code -DDB_POOL_SIZE=20})</li>
+ *   <li>Deployment-Konfiguration des Verticles</li>
+ * </ol>
+ */
+public class ConfigLoader {
+
+  public static final String DEFAULT_CONFIG_FILE = "conf/config.json";
+
+  public static Future<JsonObject> load(Vertx vertx, JsonObject deploymentConfig) {
+    String configFile = System.getProperty("config.file", DEFAULT_CONFIG_FILE);
+
+    ConfigRetrieverOptions options = new ConfigRetrieverOptions()
+      .setScanPeriod(0)
+      .setIncludeDefaultStores(false)
+      .addStore(new ConfigStoreOptions()
+        .setType("file")
+        .setOptional(true)
+        .setConfig(new JsonObject().put("path", configFile)))
+      .addStore(new ConfigStoreOptions().setType("env"))
+      .addStore(new ConfigStoreOptions().setType("sys"))
+      .addStore(new ConfigStoreOptions()
+        .setType("json")
+        .setConfig(deploymentConfig));
+
+    ConfigRetriever retriever = ConfigRetriever.create(vertx, options);
+    return retriever.getConfig().onComplete(res -> retriever.close());
+  }
+}
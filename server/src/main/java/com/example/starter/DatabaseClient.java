@@ -0,0 +1,212 @@
+package com.example.starter;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.jdbcclient.JDBCPool;
+import io.vertx.mysqlclient.MySQLClient;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.SqlConnection;
+import io.vertx.sqlclient.Tuple;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Schlanker Zugriff auf die Datenbank über einen {@link Pool} der Vert.x SQL-Client-API.
+ *
+ * Der Pool ist entweder der reaktive MySQL/MariaDB-Client (läuft direkt auf dem Event-Loop)
+ * oder der JDBC-Pool mit dem blockierenden MariaDB-Treiber. Die Services arbeiten nur mit
+ * dieser Klasse und laufen deshalb unverändert in beiden Modi.
+ */
+public class DatabaseClient {
+
+  public enum Mode {
+    REACTIVE,
+    JDBC
+  }
+
+  public static final int DEFAULT_FETCH_SIZE = 100;
+
+  private final Pool pool;
+  private final Mode mode;
+  private final int fetchSize;
+  private final Metrics metrics;
+
+  public DatabaseClient(Pool pool, Mode mode) {
+    this(pool, mode, DEFAULT_FETCH_SIZE, null);
+  }
+
+  /**
+   * @param metrics erfasst die Dauer jeder Abfrage pro Statement-Form, {@code null} für keine Messung
+   */
+  public DatabaseClient(Pool pool, Mode mode, int fetchSize, Metrics metrics) {
+    this.pool = pool;
+    this.mode = mode;
+    this.fetchSize = fetchSize;
+    this.metrics = metrics;
+  }
+
+  public Pool getPool() {
+    return pool;
+  }
+
+  public Mode getMode() {
+    return mode;
+  }
+
+  public Future<List<JsonObject>> query(String sql) {
+    return query(sql, Tuple.tuple());
+  }
+
+  public Future<List<JsonObject>> query(String sql, Tuple params) {
+    return timed(sql, () -> pool.preparedQuery(sql).execute(params)).map(DatabaseClient::toJson);
+  }
+
+  /**
+   * Führt INSERT/UPDATE/DELETE aus. Die Anzahl betroffener Zeilen liefert {@link RowSet#rowCount()},
+   * eine generierte ID {@link #lastInsertId(RowSet)}.
+   */
+  public Future<RowSet<Row>> update(String sql, Tuple params) {
+    return timed(sql, () -> pool.preparedQuery(sql).execute(params));
+  }
+
+  // Dauer inkl. Warten auf eine Verbindung, so wie sie der Aufrufer erlebt
+  private <T> Future<T> timed(String sql, Supplier<Future<T>> execute) {
+    if (metrics == null) {
+      return execute.get();
+    }
+    long start = System.nanoTime();
+    return execute.get().onComplete(res -> metrics.recordQuery(sql, start, res.succeeded()));
+  }
+
+  public <T> Future<T> withTransaction(Function<SqlConnection, Future<T>> block) {
+    return pool.withTransaction(block);
+  }
+
+  public <T> Future<T> withConnection(Function<SqlConnection, Future<T>> block) {
+    return pool.withConnection(block);
+  }
+
+  /**
+   * Liest das Ergebnis zeilenweise als {@link ReadStream}, ohne es vorher komplett in den Speicher zu laden.
+   * Der reaktive Client holt dazu über einen Cursor jeweils {@code DB_FETCH_SIZE} Zeilen; die Verbindung
+   * bleibt belegt, bis das Future von {@code consumer} abgeschlossen ist.
+   *
+   * Der JDBC-Pool unterstützt keine Cursor: dort wird das Ergebnis einmal geladen und dann ebenfalls
+   * zeilenweise (mit pause/resume) ausgeliefert.
+   */
+  public <T> Future<T> stream(String sql, Tuple params, Function<ReadStream<Row>, Future<T>> consumer) {
+    if (mode == Mode.JDBC) {
+      return pool.preparedQuery(sql).execute(params)
+        .compose(rows -> consumer.apply(new IteratorStream(rows.iterator())));
+    }
+    return pool.withConnection(conn -> conn.prepare(sql).compose(statement ->
+      consumer.apply(statement.createStream(fetchSize, params))
+        .onComplete(done -> statement.close())));
+  }
+
+  /**
+   * Liefert die vom INSERT erzeugte AUTO_INCREMENT-ID, unabhängig vom Client-Modus.
+   */
+  public long lastInsertId(RowSet<Row> rows) {
+    if (mode == Mode.REACTIVE) {
+      Long id = rows.property(MySQLClient.LAST_INSERTED_ID);
+      return id != null ? id : -1;
+    }
+    Row keys = rows.property(JDBCPool.GENERATED_KEYS);
+    return keys != null && keys.size() > 0 ? keys.getLong(0) : -1;
+  }
+
+  public Future<Void> close() {
+    return pool.close();
+  }
+
+  // Liefert bereits geladene Zeilen als ReadStream aus und respektiert dabei pause/resume
+  private static final class IteratorStream implements ReadStream<Row> {
+    private final Iterator<Row> rows;
+    private Handler<Row> handler;
+    private Handler<Void> endHandler;
+    private long demand = Long.MAX_VALUE;
+    private boolean emitting;
+
+    IteratorStream(Iterator<Row> rows) {
+      this.rows = rows;
+    }
+
+    @Override
+    public ReadStream<Row> exceptionHandler(Handler<Throwable> handler) {
+      return this;
+    }
+
+    @Override
+    public ReadStream<Row> handler(Handler<Row> handler) {
+      this.handler = handler;
+      emit();
+      return this;
+    }
+
+    @Override
+    public ReadStream<Row> pause() {
+      demand = 0;
+      return this;
+    }
+
+    @Override
+    public ReadStream<Row> resume() {
+      return fetch(Long.MAX_VALUE);
+    }
+
+    @Override
+    public ReadStream<Row> fetch(long amount) {
+      demand = Long.MAX_VALUE - demand <= amount ? Long.MAX_VALUE : demand + amount;
+      emit();
+      return this;
+    }
+
+    @Override
+    public ReadStream<Row> endHandler(Handler<Void> endHandler) {
+      this.endHandler = endHandler;
+      if (handler != null) {
+        emit();
+      }
+      return this;
+    }
+
+    private void emit() {
+      if (emitting || handler == null) {
+        return;
+      }
+      emitting = true;
+      try {
+        while (demand > 0 && rows.hasNext()) {
+          if (demand != Long.MAX_VALUE) {
+            demand--;
+          }
+          handler.handle(rows.next());
+        }
+        if (!rows.hasNext() && endHandler != null) {
+          Handler<Void> end = endHandler;
+          endHandler = null;
+          end.handle(null);
+        }
+      } finally {
+        emitting = false;
+      }
+    }
+  }
+
+  public static List<JsonObject> toJson(RowSet<Row> rows) {
+    List<JsonObject> result = new ArrayList<>(rows.size());
+    for (Row row : rows) {
+      result.add(row.toJson());
+    }
+    return result;
+  }
+}
@@ -1,28 +1,143 @@
 package com.example.starter;
 
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
-import io.vertx.ext.jdbc.JDBCClient;
 import io.vertx.core.json.JsonObject;
+import io.vertx.jdbcclient.JDBCPool;
+import io.vertx.mysqlclient.MySQLBuilder;
+import io.vertx.mysqlclient.MySQLConnectOptions;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.PoolOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
 
 public class DatabaseConfig {
-  public static JDBCClient connect(Vertx vertx) {
-    JsonObject config = new JsonObject()
-      .put("url", "jdbc:mariadb://ip1-dbs.mni.thm.de:3306/InfP-WS2425-37")
-      .put("driver_class", "org.mariadb.jdbc.Driver")
-      .put("user", "InfP-WS2425-37")
-      .put("password", "zY7EcCPw*wWvUSLo");
-
-    System.out.println("🔗 Versuche, eine Verbindung zur Datenbank herzustellen...");
-    JDBCClient client = JDBCClient.createShared(vertx, config);
-
-    client.getConnection(res -> {
-      if (res.succeeded()) {
-        System.out.println("✅ Erfolgreich mit der Datenbank verbunden!");
-      } else {
-        System.out.println("❌ Fehler bei der Verbindung: " + res.cause().getMessage());
-      }
-    });
-
-    return client;
+
+  private static final Logger log = LoggerFactory.getLogger(DatabaseConfig.class);
+
+  // Konfigurationsschlüssel (conf/config.json, Umgebungsvariablen, System-Properties, siehe ConfigLoader)
+  public static final String DB_CLIENT = "DB_CLIENT";
+  public static final String DB_HOST = "DB_HOST";
+  public static final String DB_PORT = "DB_PORT";
+  public static final String DB_NAME = "DB_NAME";
+  public static final String DB_USER = "DB_USER";
+  public static final String DB_PASSWORD = "DB_PASSWORD";
+  public static final String DB_POOL_SIZE = "DB_POOL_SIZE";
+  public static final String DB_MIN_IDLE = "DB_MIN_IDLE";
+  public static final String DB_ACQUIRE_TIMEOUT_MS = "DB_ACQUIRE_TIMEOUT_MS";
+  public static final String DB_MAX_WAIT_QUEUE = "DB_MAX_WAIT_QUEUE";
+  public static final String DB_IDLE_TIMEOUT_S = "DB_IDLE_TIMEOUT_S";
+  public static final String DB_PIPELINING_LIMIT = "DB_PIPELINING_LIMIT";
+  public static final String DB_STATEMENT_CACHE_SIZE = "DB_STATEMENT_CACHE_SIZE";
+  public static final String DB_USE_SERVER_PREP_STMTS = "DB_USE_SERVER_PREP_STMTS";
+  public static final String DB_CACHE_PREP_STMTS = "DB_CACHE_PREP_STMTS";
+  public static final String DB_VERIFY_ON_START = "DB_VERIFY_ON_START";
+  public static final String DB_FETCH_SIZE = "DB_FETCH_SIZE";
+
+  // Alle Aufrufer (auch mehrere Verticle-Instanzen) teilen sich den Pool mit diesem Namen
+  private static final String POOL_NAME = "recipe-db";
+
+  public static DatabaseClient connect(Vertx vertx) {
+    return connect(vertx, new JsonObject());
+  }
+
+  /**
+   * Erstellt den gemeinsamen Datenbank-Pool bzw. liefert den bereits bestehenden Pool gleichen Namens.
+   * Mit {@code DB_CLIENT=reactive} (Standard) wird der nicht-blockierende MySQL/MariaDB-Client verwendet,
+   * mit {@code DB_CLIENT=jdbc} der MariaDB-JDBC-Treiber.
+   */
+  public static DatabaseClient connect(Vertx vertx, JsonObject config) {
+    String host = string(config, DB_HOST, "ip1-dbs.mni.thm.de");
+    int port = config.getInteger(DB_PORT, 3306);
+    String database = string(config, DB_NAME, "InfP-WS2425-37");
+    String user = string(config, DB_USER, "InfP-WS2425-37");
+    String password = string(config, DB_PASSWORD, "zY7EcCPw*wWvUSLo");
+    int poolSize = config.getInteger(DB_POOL_SIZE, 10);
+    int minIdle = Math.min(config.getInteger(DB_MIN_IDLE, 2), poolSize);
+    int acquireTimeoutMs = config.getInteger(DB_ACQUIRE_TIMEOUT_MS, 5000);
+    int statementCacheSize = config.getInteger(DB_STATEMENT_CACHE_SIZE, 256);
+    boolean useServerPrepStmts = config.getBoolean(DB_USE_SERVER_PREP_STMTS, true);
+    boolean cachePrepStmts = config.getBoolean(DB_CACHE_PREP_STMTS, true);
+    int fetchSize = config.getInteger(DB_FETCH_SIZE, DatabaseClient.DEFAULT_FETCH_SIZE);
+
+    if (cachePrepStmts && Statements.maxShapes() > statementCacheSize) {
+      log.warn("⚠ {} = {} ist kleiner als die {} möglichen Statements aus dem Katalog, Prepared Statements werden verdrängt",
+        DB_STATEMENT_CACHE_SIZE, statementCacheSize, Statements.maxShapes());
+    }
+
+    if ("jdbc".equalsIgnoreCase(string(config, DB_CLIENT, "reactive"))) {
+      String url = "jdbc:mariadb://" + host + ":" + port + "/" + database
+        + "?useServerPrepStmts=" + useServerPrepStmts
+        + "&cachePrepStmts=" + cachePrepStmts
+        + "&prepStmtCacheSize=" + statementCacheSize
+        + "&connectTimeout=" + acquireTimeoutMs;
+
+      JsonObject jdbcConfig = new JsonObject()
+        .put("url", url)
+        .put("driver_class", "org.mariadb.jdbc.Driver")
+        .put("user", user)
+        .put("password", password)
+        .put("datasourceName", POOL_NAME)
+        .put("max_pool_size", poolSize)
+        .put("min_pool_size", minIdle)
+        .put("initial_pool_size", minIdle)
+        .put("max_idle_time", config.getInteger(DB_IDLE_TIMEOUT_S, 300));
+
+      return new DatabaseClient(JDBCPool.pool(vertx, jdbcConfig), DatabaseClient.Mode.JDBC, fetchSize, Metrics.of(vertx));
+    }
+
+    MySQLConnectOptions connectOptions = new MySQLConnectOptions()
+      .setHost(host)
+      .setPort(port)
+      .setDatabase(database)
+      .setUser(user)
+      .setPassword(password)
+      .setPipeliningLimit(config.getInteger(DB_PIPELINING_LIMIT, 256))
+      .setCachePreparedStatements(cachePrepStmts && statementCacheSize > 0)
+      .setPreparedStatementCacheMaxSize(Math.max(statementCacheSize, 1));
+
+    // Der reaktive Pool hält keine Mindestanzahl an Verbindungen (DB_MIN_IDLE gilt nur für JDBC),
+    // Prepared Statements laufen hier immer serverseitig.
+    PoolOptions poolOptions = new PoolOptions()
+      .setShared(true)
+      .setName(POOL_NAME)
+      .setMaxSize(poolSize)
+      .setMaxWaitQueueSize(config.getInteger(DB_MAX_WAIT_QUEUE, 256))
+      .setConnectionTimeout(acquireTimeoutMs)
+      .setConnectionTimeoutUnit(TimeUnit.MILLISECONDS)
+      .setIdleTimeout(config.getInteger(DB_IDLE_TIMEOUT_S, 300))
+      .setIdleTimeoutUnit(TimeUnit.SECONDS);
+
+    Pool pool = MySQLBuilder.pool()
+      .with(poolOptions)
+      .connectingTo(connectOptions)
+      .using(vertx)
+      .build();
+    return new DatabaseClient(pool, DatabaseClient.Mode.REACTIVE, fetchSize, Metrics.of(vertx));
+  }
+
+  /**
+   * Prüft beim Start, ob die Datenbank erreichbar ist. Schlägt die Prüfung fehl, startet der Server nicht.
+   * Mit {@code DB_VERIFY_ON_START=false} lässt sich die Prüfung abschalten (z.B. für Tests ohne Datenbank).
+   */
+  public static Future<Void> verifyConnection(DatabaseClient client, JsonObject config) {
+    if (!config.getBoolean(DB_VERIFY_ON_START, true)) {
+      return Future.succeededFuture();
+    }
+
+    log.info("🔗 Prüfe die Verbindung zur Datenbank ({})...", client.getMode());
+    return client.query(Statements.PING)
+      .<Void>mapEmpty()
+      .onSuccess(v -> log.info("✅ Erfolgreich mit der Datenbank verbunden!"))
+      .recover(err -> Future.failedFuture(
+        new IllegalStateException("❌ Keine Verbindung zur Datenbank: " + err.getMessage(), err)));
+  }
+
+  // Werte aus Umgebungsvariablen werden ggf. als Zahl geparst, deshalb nicht getString verwenden
+  private static String string(JsonObject config, String key, String defaultValue) {
+    Object value = config.getValue(key);
+    return value != null ? value.toString() : defaultValue;
   }
 }
@@ -0,0 +1,101 @@
+package com.example.starter;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Spielt die SQL-Skripte aus {@code db/migration/} (Classpath) beim Start der Reihe nach ein.
+ *
+ * Bereits eingespielte Skripte stehen in {@code schema_migrations} und werden übersprungen. Die Skripte
+ * selbst sind mit {@code IF NOT EXISTS} formuliert, damit ein gleichzeitiger Start mehrerer Server oder ein
+ * Abbruch mittendrin keinen Schaden anrichtet. Neue Skripte werden unten in {@link #MIGRATIONS} ergänzt.
+ *
+ * Mit {@code DB_MIGRATE_ON_START=false} wird nichts ausgeführt (z.B. für Tests ohne Datenbank).
+ */
+public class DatabaseMigrations {
+
+  private static final Logger log = LoggerFactory.getLogger(DatabaseMigrations.class);
+
+  public static final String DB_MIGRATE_ON_START = "DB_MIGRATE_ON_START";
+
+  static final List<String> MIGRATIONS = Arrays.asList(
+    "001_sessions_expiry.sql",
+    "002_revoked_tokens.sql",
+    "003_user_stats.sql",
+    "004_web_sessions.sql"
+  );
+
+  private static final String DIRECTORY = "db/migration/";
+
+  public static Future<Void> migrate(Vertx vertx, DatabaseClient dbClient, JsonObject config) {
+    if (!config.getBoolean(DB_MIGRATE_ON_START, true)) {
+      return Future.succeededFuture();
+    }
+
+    return dbClient.update("CREATE TABLE IF NOT EXISTS schema_migrations (" +
+        "version VARCHAR(100) NOT NULL PRIMARY KEY, applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)", Tuple.tuple())
+      .compose(v -> dbClient.query(Statements.MIGRATIONS_APPLIED))
+      .compose(rows -> {
+        Set<String> applied = new HashSet<>();
+        rows.forEach(row -> applied.add(row.getString("version")));
+
+        Future<Void> chain = Future.succeededFuture();
+        for (String migration : MIGRATIONS) {
+          if (!applied.contains(migration)) {
+            chain = chain.compose(v -> apply(vertx, dbClient, migration));
+          }
+        }
+        return chain;
+      })
+      .recover(err -> Future.failedFuture(
+        new IllegalStateException("❌ Datenbank-Migration fehlgeschlagen: " + err.getMessage(), err)));
+  }
+
+  private static Future<Void> apply(Vertx vertx, DatabaseClient dbClient, String migration) {
+    return vertx.fileSystem().readFile(DIRECTORY + migration)
+      .compose(file -> {
+        Future<Void> chain = Future.succeededFuture();
+        for (String statement : statements(file.toString())) {
+          chain = chain.compose(v -> dbClient.update(statement, Tuple.tuple()).mapEmpty());
+        }
+        return chain;
+      })
+      .compose(v -> dbClient.update(Statements.MIGRATION_DONE, Tuple.of(migration)))
+      .<Void>mapEmpty()
+      .onSuccess(v -> log.info("✅ Migration eingespielt: {}", migration));
+  }
+
+  /**
+   * Zerlegt ein Skript an {@code ;} am Zeilenende; Zeilen mit {@code --} am Anfang sind Kommentare.
+   */
+  static List<String> statements(String script) {
+    List<String> statements = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    for (String line : script.split("\n")) {
+      String trimmed = line.trim();
+      if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+        continue;
+      }
+      current.append(line).append('\n');
+      if (trimmed.endsWith(";")) {
+        String statement = current.toString().trim();
+        statements.add(statement.substring(0, statement.length() - 1));
+        current.setLength(0);
+      }
+    }
+    if (current.toString().trim().length() > 0) {
+      statements.add(current.toString().trim());
+    }
+    return statements;
+  }
+}
@@ -1,65 +1,60 @@
 package com.example.starter;
 
-import io.vertx.ext.jdbc.JDBCClient;
-import io.vertx.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class DatabaseQueryExecutor {
 
+  private static final Logger log = LoggerFactory.getLogger(DatabaseQueryExecutor.class);
 
-  public static void queryUsers(Vertx vertx) {
-    executeQuery(vertx, "SELECT * FROM users");
-  }
 
- public static void queryRecipes(Vertx vertx) {
-    executeQuery(vertx, "SELECT * FROM recipes");
+  public static void queryUsers(DatabaseClient dbClient) {
+    executeQuery(dbClient, "SELECT * FROM users");
   }
 
- public static void querySteps(Vertx vertx) {
-    executeQuery(vertx, "SELECT * FROM steps");
+ public static void queryRecipes(DatabaseClient dbClient) {
+    executeQuery(dbClient, "SELECT * FROM recipes");
   }
 
-   public static void queryIngredients(Vertx vertx) {
-    executeQuery(vertx, "SELECT * FROM ingredients");
+ public static void querySteps(DatabaseClient dbClient) {
+    executeQuery(dbClient, "SELECT * FROM steps");
   }
 
-   public static void queryRecipeIngredients(Vertx vertx) {
-    executeQuery(vertx, "SELECT * FROM recipe_ingredients");
+   public static void queryIngredients(DatabaseClient dbClient) {
+    executeQuery(dbClient, "SELECT * FROM ingredients");
   }
 
-   public static void queryShoppingLists(Vertx vertx) {
-    executeQuery(vertx, "SELECT * FROM shopping_lists");
+   public static void queryRecipeIngredients(DatabaseClient dbClient) {
+    executeQuery(dbClient, "SELECT * FROM recipe_ingredients");
   }
 
-   public static void queryCategories(Vertx vertx) {
-    executeQuery(vertx, "SELECT * FROM categories");
+   public static void queryShoppingLists(DatabaseClient dbClient) {
+    executeQuery(dbClient, "SELECT * FROM shopping_lists");
   }
 
-   public static void queryRecipeCategories(Vertx vertx) {
-    executeQuery(vertx, "SELECT * FROM recipe_categories");
+   public static void queryCategories(DatabaseClient dbClient) {
+    executeQuery(dbClient, "SELECT * FROM categories");
   }
 
-   public static void queryFavorites(Vertx vertx) {
-    executeQuery(vertx, "SELECT * FROM favorites");
+   public static void queryRecipeCategories(DatabaseClient dbClient) {
+    executeQuery(dbClient, "SELECT * FROM recipe_categories");
   }
 
-   public static void queryComments(Vertx vertx) {
-    executeQuery(vertx, "SELECT * FROM comments");
+   public static void queryFavorites(DatabaseClient dbClient) {
+    executeQuery(dbClient, "SELECT * FROM favorites");
   }
 
-   private static void executeQuery(Vertx vertx, String query) {
-    JDBCClient dbClient = DatabaseConfig.connect(vertx);
+   public static void queryComments(DatabaseClient dbClient) {
+    executeQuery(dbClient, "SELECT * FROM comments");
+  }
 
-    dbClient.getConnection(res -> {
-      if (res.succeeded()) {
-        res.result().query(query, queryResult -> {
-          if (queryResult.succeeded()) {
-            System.out.println(queryResult.result().getRows());
-          } else {
-            System.out.println("Fehler bei der Abfrage: " + queryResult.cause());
-          }
-        });
+   // Nutzt den gemeinsamen Pool des Aufrufers, statt für jede Abfrage einen eigenen Pool zu öffnen
+   private static void executeQuery(DatabaseClient dbClient, String query) {
+    dbClient.query(query).onComplete(queryResult -> {
+      if (queryResult.succeeded()) {
+        log.debug("{}", queryResult.result());
       } else {
-        System.out.println("Verbindungsfehler: " + res.cause());
+        log.warn("Fehler bei der Abfrage: {}", queryResult.cause().getMessage());
       }
     });
   }
@@ -0,0 +1,216 @@
+package com.example.starter;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.auth.VertxContextPRNG;
+import io.vertx.ext.web.Session;
+import io.vertx.ext.web.sstore.ClusteredSessionStore;
+import io.vertx.ext.web.sstore.LocalSessionStore;
+import io.vertx.ext.web.sstore.SessionStore;
+import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Vert.x-Web-Sessions (z.B. {@code darkMode}) in der Tabelle {@code web_sessions}, mit lokalem Near-Cache.
+ *
+ * Damit sieht jeder Knoten hinter dem Load Balancer dieselbe Session, ohne Sticky Sessions. Gespeichert wird
+ * ein kompaktes, versioniertes Binärformat ({@link StoredSession}), und nur, wenn sich die Daten geändert
+ * haben; sonst wird höchstens der Ablauf verlängert, sobald die Hälfte der Laufzeit vorbei ist. Zusammen mit
+ * der verzögerten Session-Erzeugung im {@code SessionHandler} schreibt eine Anfrage, die die Session nicht
+ * anfasst, nichts.
+ *
+ * Der Near-Cache hält die Bytes höchstens {@value #CACHE_TTL_S} Sekunden; geänderte oder gelöschte Sessions
+ * werden über den {@link InvalidationBus} auf allen Knoten verworfen. Wie beim {@link LocalSessionStore}
+ * schlägt das Speichern fehl, wenn ein anderer Knoten die Session inzwischen geändert hat.
+ *
+ * Welcher Store verwendet wird, bestimmt {@value #WEB_SESSION_STORE} (siehe {@link #fromConfig}).
+ */
+public class DbSessionStore implements SessionStore {
+
+  private static final Logger log = LoggerFactory.getLogger(DbSessionStore.class);
+
+  public static final String WEB_SESSION_STORE = "WEB_SESSION_STORE";
+  public static final String CACHE_MAX_ENTRIES = "WEB_SESSION_CACHE_MAX_ENTRIES";
+  public static final String CACHE_TTL_S = "WEB_SESSION_CACHE_TTL_S";
+
+  private static final int SWEEP_BATCH = 1000;
+
+  /**
+   * Die gespeicherte Fassung einer Session, wie sie auch in der Tabelle steht.
+   */
+  private static final class Stored {
+    final Buffer data;
+    final int version;
+    final long expiresAt;
+
+    Stored(Buffer data, int version, long expiresAt) {
+      this.data = data;
+      this.version = version;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  private final Vertx vertx;
+  private final DatabaseClient dbClient;
+  private final InvalidationBus invalidation;
+  private final LruCache<String, Stored> cache;
+  private final long cacheTtlMillis;
+  private final long sweepTimer;
+
+  /**
+   * Der Store für {@value #WEB_SESSION_STORE}: {@code local} (Standard, nur dieser Prozess), {@code clustered}
+   * (verteilte Map des Vert.x-Clusters, siehe Maven-Profil {@code cluster}) oder {@code db}.
+   */
+  public static SessionStore fromConfig(Vertx vertx, DatabaseClient dbClient, InvalidationBus invalidation, JsonObject config) {
+    String mode = config.getString(WEB_SESSION_STORE, "local");
+    switch (mode) {
+      case "db":
+        return new DbSessionStore(vertx, dbClient, invalidation, config);
+      case "clustered":
+        return ClusteredSessionStore.create(vertx);
+      case "local":
+        return LocalSessionStore.create(vertx);
+      default:
+        log.warn("⚠ Unbekannter Wert für {}: {}, verwende local", WEB_SESSION_STORE, mode);
+        return LocalSessionStore.create(vertx);
+    }
+  }
+
+  public DbSessionStore(Vertx vertx, DatabaseClient dbClient, InvalidationBus invalidation, JsonObject config) {
+    this.vertx = vertx;
+    this.dbClient = dbClient;
+    this.invalidation = invalidation;
+    this.cacheTtlMillis = config.getInteger(CACHE_TTL_S, 30) * 1000L;
+    this.cache = new LruCache<>(config.getInteger(CACHE_MAX_ENTRIES, 10_000), cacheTtlMillis);
+    this.sweepTimer = vertx.setPeriodic(config.getInteger(AuthService.SESSION_SWEEP_INTERVAL_S, 300) * 1000L, id -> sweep());
+    invalidation.register(InvalidationBus.WEB_SESSIONS, cache::invalidate);
+  }
+
+  @Override
+  public SessionStore init(Vertx vertx, JsonObject options) {
+    return this;
+  }
+
+  @Override
+  public long retryTimeout() {
+    return 0;
+  }
+
+  @Override
+  public Session createSession(long timeout) {
+    return createSession(timeout, DEFAULT_SESSIONID_LENGTH);
+  }
+
+  @Override
+  public Session createSession(long timeout, int length) {
+    return new StoredSession(VertxContextPRNG.current(vertx), timeout, length);
+  }
+
+  @Override
+  public Future<Session> get(String id) {
+    long now = nowSeconds();
+    Stored cached = cache.get(id);
+    if (cached != null && cached.expiresAt > now) {
+      return Future.succeededFuture(StoredSession.decode(cached.data, VertxContextPRNG.current(vertx)));
+    }
+    return dbClient.query(Statements.WEB_SESSION_GET, Tuple.of(id, now))
+      .map(rows -> {
+        if (rows.isEmpty()) {
+          return null;
+        }
+        JsonObject row = rows.get(0);
+        Stored stored = new Stored(Buffer.buffer(row.getBinary("data")), row.getInteger("version"), row.getLong("expires_at"));
+        remember(id, stored, now);
+        return StoredSession.decode(stored.data, VertxContextPRNG.current(vertx));
+      });
+  }
+
+  @Override
+  public Future<Void> put(Session session) {
+    StoredSession current = (StoredSession) session;
+    String id = current.id();
+    int previousVersion = current.version();
+    current.incrementVersion(); // erhöht die Version nur, wenn sich die Daten geändert haben
+    long now = nowSeconds();
+    long expiresAt = now + timeoutSeconds(current);
+    Stored known = cache.get(id);
+
+    if (known != null && known.version == previousVersion && current.version() == previousVersion) {
+      if (!expiryDue(known.expiresAt, expiresAt, timeoutSeconds(current))) {
+        return Future.succeededFuture();
+      }
+      return dbClient.update(Statements.WEB_SESSION_TOUCH, Tuple.of(expiresAt, id))
+        .onSuccess(rows -> remember(id, new Stored(known.data, known.version, expiresAt), now))
+        .mapEmpty();
+    }
+
+    Buffer data = StoredSession.encode(current);
+    Stored stored = new Stored(data, current.version(), expiresAt);
+    return dbClient.update(Statements.WEB_SESSION_UPDATE, Tuple.of(data, stored.version, expiresAt, id, previousVersion))
+      .compose(updated -> updated.rowCount() > 0
+        ? Future.succeededFuture(updated)
+        : dbClient.update(Statements.WEB_SESSION_INSERT, Tuple.of(id, data, stored.version, expiresAt)))
+      .compose(rows -> {
+        invalidation.invalidate(InvalidationBus.WEB_SESSIONS, id);
+        if (rows.rowCount() == 0) {
+          return Future.failedFuture("Session version mismatch");
+        }
+        remember(id, stored, now);
+        return Future.succeededFuture();
+      });
+  }
+
+  @Override
+  public Future<Void> delete(String id) {
+    invalidation.invalidate(InvalidationBus.WEB_SESSIONS, id);
+    return dbClient.update(Statements.WEB_SESSION_DELETE, Tuple.of(id)).mapEmpty();
+  }
+
+  @Override
+  public Future<Void> clear() {
+    cache.invalidateAll();
+    return dbClient.update(Statements.WEB_SESSIONS_CLEAR, Tuple.tuple()).mapEmpty();
+  }
+
+  @Override
+  public Future<Integer> size() {
+    return dbClient.query(Statements.WEB_SESSIONS_COUNT, Tuple.of(nowSeconds()))
+      .map(rows -> rows.get(0).getInteger("n"));
+  }
+
+  @Override
+  public void close() {
+    vertx.cancelTimer(sweepTimer);
+  }
+
+  public JsonObject stats() {
+    return cache.stats();
+  }
+
+  private void remember(String id, Stored stored, long now) {
+    cache.put(id, stored, Math.min(cacheTtlMillis, (stored.expiresAt - now) * 1000));
+  }
+
+  private void sweep() {
+    dbClient.update(Statements.WEB_SESSION_SWEEP, Tuple.of(nowSeconds(), SWEEP_BATCH))
+      .onFailure(err -> log.warn("⚠ Abgelaufene Web-Sessions konnten nicht gelöscht werden: {}", err.getMessage()));
+  }
+
+  /**
+   * Der Ablauf wird erst verlängert, wenn mehr als die Hälfte der Laufzeit seit dem letzten Schreiben vergangen ist.
+   */
+  static boolean expiryDue(long writtenExpiresAt, long newExpiresAt, long timeoutSeconds) {
+    return newExpiresAt - writtenExpiresAt > timeoutSeconds / 2;
+  }
+
+  private static long timeoutSeconds(Session session) {
+    return Math.max(1, session.timeout() / 1000);
+  }
+
+  private static long nowSeconds() {
+    return System.currentTimeMillis() / 1000;
+  }
+}
@@ -0,0 +1,270 @@
+package com.example.starter;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Fachliche Ereignisse nach erfolgreichen Schreibzugriffen auf Rezepte, Kommentare und Favoriten.
+ *
+ * Wer schreibt, veröffentlicht nach dem Commit ein Ereignis ({@link #publish}); abgeleitete Strukturen
+ * (Suchindizes, Zähler, ...) melden sich mit {@link #consumer} an und ziehen sich asynchron nach, statt beim
+ * Lesen neu zu rechnen. Jedes Ereignis hat eine eigene Adresse und wird an alle Empfänger verteilt.
+ *
+ * Die Ereignisse sind unveränderlich. Ein eigener Codec pro Typ reicht sie innerhalb der JVM als dasselbe
+ * Objekt weiter (keine Kopie, kein JSON); nur im Cluster werden sie als JSON übertragen.
+ */
+public final class DomainEvents {
+
+  private DomainEvents() {
+  }
+
+  /**
+   * Registriert die Codecs aller Ereignisse; einmal pro Vert.x-Instanz.
+   */
+  public static void register(Vertx vertx) {
+    EventBus eventBus = vertx.eventBus();
+    register(eventBus, RecipeCreated.class, RecipeCreated::fromJson);
+    register(eventBus, RecipeUpdated.class, RecipeUpdated::fromJson);
+    register(eventBus, RecipeDeleted.class, RecipeDeleted::fromJson);
+    register(eventBus, CommentAdded.class, CommentAdded::fromJson);
+    register(eventBus, CommentDeleted.class, CommentDeleted::fromJson);
+    register(eventBus, FavoriteToggled.class, FavoriteToggled::fromJson);
+    register(eventBus, FavoritesChanged.class, FavoritesChanged::fromJson);
+  }
+
+  private static <T extends Event> void register(EventBus eventBus, Class<T> type, Function<JsonObject, T> fromJson) {
+    eventBus.registerDefaultCodec(type, new Codec<>(type.getName(), fromJson));
+  }
+
+  public static void publish(Vertx vertx, Event event) {
+    vertx.eventBus().publish(address(event.getClass()), event);
+  }
+
+  /**
+   * Meldet {@code handler} für alle Ereignisse vom Typ {@code type} an, im Cluster auch für die anderer Knoten.
+   */
+  public static <T extends Event> Future<Void> consumer(Vertx vertx, Class<T> type, Handler<T> handler) {
+    Promise<Void> registered = Promise.promise();
+    vertx.eventBus().<T>consumer(address(type), message -> handler.handle(message.body())).completionHandler(registered);
+    return registered.future();
+  }
+
+  /**
+   * Wie {@link #consumer}, aber nur für Ereignisse aus diesem Prozess. Für Empfänger, die die Datenbank
+   * ändern und daher im Cluster nicht auf jedem Knoten laufen dürfen.
+   */
+  public static <T extends Event> Future<Void> localConsumer(Vertx vertx, Class<T> type, Handler<T> handler) {
+    Promise<Void> registered = Promise.promise();
+    vertx.eventBus().<T>localConsumer(address(type), message -> handler.handle(message.body())).completionHandler(registered);
+    return registered.future();
+  }
+
+  static String address(Class<? extends Event> type) {
+    return "events." + type.getSimpleName();
+  }
+
+  /**
+   * Gemeinsame Oberfläche der Ereignisse; {@link #toJson} wird nur für die Übertragung im Cluster gebraucht.
+   */
+  public interface Event {
+    JsonObject toJson();
+  }
+
+  public static final class RecipeCreated implements Event {
+    public final long recipeId;
+    public final int userId;
+
+    public RecipeCreated(long recipeId, int userId) {
+      this.recipeId = recipeId;
+      this.userId = userId;
+    }
+
+    @Override
+    public JsonObject toJson() {
+      return new JsonObject().put("recipe_id", recipeId).put("user_id", userId);
+    }
+
+    static RecipeCreated fromJson(JsonObject json) {
+      return new RecipeCreated(json.getLong("recipe_id"), json.getInteger("user_id"));
+    }
+  }
+
+  public static final class RecipeUpdated implements Event {
+    public final long recipeId;
+
+    public RecipeUpdated(long recipeId) {
+      this.recipeId = recipeId;
+    }
+
+    @Override
+    public JsonObject toJson() {
+      return new JsonObject().put("recipe_id", recipeId);
+    }
+
+    static RecipeUpdated fromJson(JsonObject json) {
+      return new RecipeUpdated(json.getLong("recipe_id"));
+    }
+  }
+
+  /**
+   * Mit dem Rezept sind auch seine Zutaten, Favoriten und Kommentare gelöscht (ON DELETE CASCADE).
+   */
+  public static final class RecipeDeleted implements Event {
+    public final long recipeId;
+    public final int userId;
+
+    public RecipeDeleted(long recipeId, int userId) {
+      this.recipeId = recipeId;
+      this.userId = userId;
+    }
+
+    @Override
+    public JsonObject toJson() {
+      return new JsonObject().put("recipe_id", recipeId).put("user_id", userId);
+    }
+
+    static RecipeDeleted fromJson(JsonObject json) {
+      return new RecipeDeleted(json.getLong("recipe_id"), json.getInteger("user_id"));
+    }
+  }
+
+  public static final class CommentAdded implements Event {
+    public final int recipeId;
+    public final int userId;
+
+    public CommentAdded(int recipeId, int userId) {
+      this.recipeId = recipeId;
+      this.userId = userId;
+    }
+
+    @Override
+    public JsonObject toJson() {
+      return new JsonObject().put("recipe_id", recipeId).put("user_id", userId);
+    }
+
+    static CommentAdded fromJson(JsonObject json) {
+      return new CommentAdded(json.getInteger("recipe_id"), json.getInteger("user_id"));
+    }
+  }
+
+  public static final class CommentDeleted implements Event {
+    public final int commentId;
+    public final int recipeId;
+    public final int userId;
+
+    public CommentDeleted(int commentId, int recipeId, int userId) {
+      this.commentId = commentId;
+      this.recipeId = recipeId;
+      this.userId = userId;
+    }
+
+    @Override
+    public JsonObject toJson() {
+      return new JsonObject().put("comment_id", commentId).put("recipe_id", recipeId).put("user_id", userId);
+    }
+
+    static CommentDeleted fromJson(JsonObject json) {
+      return new CommentDeleted(json.getInteger("comment_id"), json.getInteger("recipe_id"), json.getInteger("user_id"));
+    }
+  }
+
+  /**
+   * Ein Favorit wurde tatsächlich hinzugefügt ({@code added}) oder entfernt.
+   */
+  public static final class FavoriteToggled implements Event {
+    public final int userId;
+    public final int recipeId;
+    public final boolean added;
+
+    public FavoriteToggled(int userId, int recipeId, boolean added) {
+      this.userId = userId;
+      this.recipeId = recipeId;
+      this.added = added;
+    }
+
+    @Override
+    public JsonObject toJson() {
+      return new JsonObject().put("user_id", userId).put("recipe_id", recipeId).put("added", added);
+    }
+
+    static FavoriteToggled fromJson(JsonObject json) {
+      return new FavoriteToggled(json.getInteger("user_id"), json.getInteger("recipe_id"), json.getBoolean("added"));
+    }
+  }
+
+  /**
+   * Mehrere Favoriten auf einmal geändert; welche davon tatsächlich neu bzw. weg sind, ist nicht bekannt.
+   */
+  public static final class FavoritesChanged implements Event {
+    public final int userId;
+    public final List<Integer> recipeIds;
+
+    public FavoritesChanged(int userId, List<Integer> recipeIds) {
+      this.userId = userId;
+      this.recipeIds = Collections.unmodifiableList(new ArrayList<>(recipeIds));
+    }
+
+    @Override
+    public JsonObject toJson() {
+      return new JsonObject().put("user_id", userId).put("recipe_ids", new JsonArray(new ArrayList<>(recipeIds)));
+    }
+
+    static FavoritesChanged fromJson(JsonObject json) {
+      List<Integer> recipeIds = new ArrayList<>();
+      json.getJsonArray("recipe_ids").forEach(id -> recipeIds.add(((Number) id).intValue()));
+      return new FavoritesChanged(json.getInteger("user_id"), recipeIds);
+    }
+  }
+
+  /**
+   * Lokal wird das Objekt selbst weitergereicht (es ist unveränderlich), über das Netz als JSON mit Längenpräfix.
+   */
+  static final class Codec<T extends Event> implements MessageCodec<T, T> {
+    private final String name;
+    private final Function<JsonObject, T> fromJson;
+
+    Codec(String name, Function<JsonObject, T> fromJson) {
+      this.name = name;
+      this.fromJson = fromJson;
+    }
+
+    @Override
+    public void encodeToWire(Buffer buffer, T event) {
+      Buffer json = event.toJson().toBuffer();
+      buffer.appendInt(json.length()).appendBuffer(json);
+    }
+
+    @Override
+    public T decodeFromWire(int pos, Buffer buffer) {
+      int length = buffer.getInt(pos);
+      return fromJson.apply(new JsonObject(buffer.getBuffer(pos + 4, pos + 4 + length)));
+    }
+
+    @Override
+    public T transform(T event) {
+      return event;
+    }
+
+    @Override
+    public String name() {
+      return name;
+    }
+
+    @Override
+    public byte systemCodecID() {
+      return -1;
+    }
+  }
+}
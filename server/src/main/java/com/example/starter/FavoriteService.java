@@ -0,0 +1,539 @@
+package com.example.starter;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.sqlclient.SqlConnection;
+import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Favoriten der Benutzer.
+ *
+ * {@code favorites} hat den Primärschlüssel {@code (user_id, recipe_id)}. Hinzufügen ist deshalb ein einziges
+ * {@code INSERT IGNORE ... SELECT}: doppelte Klicks landen nicht doppelt in der Tabelle, und nicht vorhandene
+ * Rezepte werden gar nicht erst eingefügt. Erst wenn nichts eingefügt wurde, wird auf derselben Verbindung
+ * unterschieden, ob das Rezept schon Favorit war oder nicht existiert.
+ *
+ * Pro Benutzer liegt die Menge der Favoriten-IDs im Cache; damit zeigt die Rezeptsuche ohne weitere Abfrage,
+ * welche Treffer schon Favoriten sind, und eine leere Favoritenliste kostet keine Datenbankabfrage.
+ * Jede Änderung verwirft den Eintrag des Benutzers.
+ */
+public class FavoriteService {
+
+  private static final Logger log = LoggerFactory.getLogger(FavoriteService.class);
+
+  public static final String CACHE_MAX_ENTRIES = "FAVORITES_CACHE_MAX_ENTRIES";
+  public static final String CACHE_TTL_S = "FAVORITES_CACHE_TTL_S";
+  public static final String BULK_MAX = "FAVORITES_BULK_MAX";
+
+  // Schlüssel im RoutingContext für die Favoriten des angemeldeten Benutzers (siehe #loadForRequest)
+  private static final String REQUEST_FAVORITES = "favorites";
+
+
+  private final Vertx vertx;
+  private final DatabaseClient dbClient;
+  private final AuthService authService;
+  private final InvalidationBus invalidation;
+  private final LruCache<Integer, Set<Integer>> cache;
+  private final int bulkMax;
+  // wird bei jeder Änderung erhöht, damit parallele Ladevorgänge nichts Veraltetes ablegen
+  private final AtomicLong generation = new AtomicLong();
+
+  public FavoriteService(Vertx vertx, DatabaseClient dbClient, AuthService authService, InvalidationBus invalidation,
+                         JsonObject config) {
+    this.vertx = vertx;
+    this.dbClient = dbClient;
+    this.authService = authService;
+    this.invalidation = invalidation;
+    this.cache = new LruCache<>(config.getInteger(CACHE_MAX_ENTRIES, 10_000), config.getInteger(CACHE_TTL_S, 600) * 1000L);
+    this.bulkMax = config.getInteger(BULK_MAX, 500);
+    invalidation.register(InvalidationBus.FAVORITES, userId -> evict(Integer.parseInt(userId)));
+  }
+
+  /**
+   * Die IDs der Lieblingsrezepte des Benutzers (unveränderlich), aus dem Cache oder aus der Datenbank.
+   */
+  public Future<Set<Integer>> favoritesOf(int userId) {
+    Set<Integer> cached = cache.get(userId);
+    if (cached != null) {
+      return Future.succeededFuture(cached);
+    }
+
+    long loadGeneration = generation.get();
+    return dbClient.query(Statements.FAVORITE_IDS, Tuple.of(userId)).map(rows -> {
+      Set<Integer> ids = new HashSet<>(rows.size() * 2);
+      rows.forEach(row -> ids.add(row.getInteger("recipe_id")));
+      Set<Integer> favorites = Collections.unmodifiableSet(ids);
+      if (generation.get() == loadGeneration) {
+        cache.put(userId, favorites);
+      }
+      return favorites;
+    });
+  }
+
+  /**
+   * Ergebnis von {@link #add}.
+   */
+  public enum Added {
+    ADDED, ALREADY_FAVORITE, NO_RECIPE
+  }
+
+  /**
+   * Fügt das Rezept hinzu. Wurde nichts eingefügt, wird auf derselben Verbindung nachgesehen, ob es schon Favorit
+   * ist; der Cache kann dafür veraltet sein.
+   */
+  public Future<Added> add(int userId, int recipeId) {
+    return dbClient.withConnection(conn -> conn.preparedQuery(Statements.FAVORITE_INSERT).execute(Tuple.of(userId, recipeId))
+        .compose(rows -> rows.rowCount() > 0
+          ? Future.succeededFuture(Added.ADDED)
+          : conn.preparedQuery(Statements.FAVORITE_EXISTS).execute(Tuple.of(userId, recipeId))
+            .map(found -> found.size() > 0 ? Added.ALREADY_FAVORITE : Added.NO_RECIPE)))
+      .onSuccess(added -> {
+        if (added == Added.ADDED) {
+          invalidate(userId);
+          DomainEvents.publish(vertx, new DomainEvents.FavoriteToggled(userId, recipeId, true));
+        }
+      });
+  }
+
+  /**
+   * Entfernt das Rezept; {@code true}, wenn es Favorit war.
+   */
+  public Future<Boolean> remove(int userId, int recipeId) {
+    return dbClient.update(Statements.FAVORITE_DELETE, Tuple.of(userId, recipeId)).map(rows -> {
+      invalidate(userId);
+      if (rows.rowCount() > 0) {
+        DomainEvents.publish(vertx, new DomainEvents.FavoriteToggled(userId, recipeId, false));
+        return true;
+      }
+      return false;
+    });
+  }
+
+  /**
+   * Fügt {@code add} hinzu und entfernt {@code remove} in einer Transaktion, mit je einem Statement.
+   * Liefert die Anzahl tatsächlich hinzugefügter und entfernter Favoriten.
+   */
+  public Future<JsonObject> bulk(int userId, List<Integer> add, List<Integer> remove) {
+    return dbClient.withTransaction(conn -> bulkInsert(conn, userId, add)
+        .compose(added -> bulkDelete(conn, userId, remove)
+          .map(removed -> new JsonObject().put("added", added).put("removed", removed))))
+      .onComplete(res -> invalidate(userId))
+      .onSuccess(res -> {
+        // nur, wenn sich wirklich etwas geändert hat (nicht bei schon vorhandenen oder fehlenden Rezepten)
+        if (res.getInteger("added") + res.getInteger("removed") > 0) {
+          List<Integer> changed = new ArrayList<>(add);
+          changed.addAll(remove);
+          DomainEvents.publish(vertx, new DomainEvents.FavoritesChanged(userId, changed));
+        }
+      });
+  }
+
+  private static Future<Integer> bulkInsert(SqlConnection conn, int userId, List<Integer> recipeIds) {
+    if (recipeIds.isEmpty()) {
+      return Future.succeededFuture(0);
+    }
+    Statements.InList in = Statements.in(recipeIds);
+    List<Object> params = new ArrayList<>(in.values.size() + 1);
+    params.add(userId);
+    params.addAll(in.values);
+    return conn.preparedQuery(Statements.FAVORITES_INSERT.sql(in))
+      .execute(Tuple.tuple(params))
+      .map(rows -> rows.rowCount());
+  }
+
+  private static Future<Integer> bulkDelete(SqlConnection conn, int userId, List<Integer> recipeIds) {
+    if (recipeIds.isEmpty()) {
+      return Future.succeededFuture(0);
+    }
+    Statements.InList in = Statements.in(recipeIds);
+    List<Object> params = new ArrayList<>(in.values.size() + 1);
+    params.add(userId);
+    params.addAll(in.values);
+    return conn.preparedQuery(Statements.FAVORITES_DELETE.sql(in))
+      .execute(Tuple.tuple(params))
+      .map(rows -> rows.rowCount());
+  }
+
+  /**
+   * Verwirft die Favoriten des Benutzers auf allen Knoten.
+   */
+  public void invalidate(int userId) {
+    invalidation.invalidate(InvalidationBus.FAVORITES, userId);
+  }
+
+  private void evict(int userId) {
+    generation.incrementAndGet();
+    cache.invalidate(userId);
+  }
+
+  public JsonObject stats() {
+    return cache.stats();
+  }
+
+  /**
+   * Legt die Favoriten des angemeldeten Benutzers im RoutingContext ab (für Seiten, die den Favoriten-Status
+   * anzeigen) und ruft den nächsten Handler auf. Gäste und Fehler ergeben eine leere Menge.
+   */
+  public void loadForRequest(RoutingContext context) {
+    authService.getUserIdFromSession(context, userIdResult -> {
+      if (userIdResult.failed() || userIdResult.result() == -1) {
+        context.next();
+        return;
+      }
+      favoritesOf(userIdResult.result()).onComplete(res -> {
+        if (res.succeeded()) {
+          context.put(REQUEST_FAVORITES, res.result());
+        } else {
+          RequestLog.warn(log, context).log("⚠ Favoriten konnten nicht geladen werden: {}", res.cause().getMessage());
+        }
+        context.next();
+      });
+    });
+  }
+
+  /**
+   * Die von {@link #loadForRequest} abgelegten Favoriten, sonst eine leere Menge.
+   */
+  public static Set<Integer> ofRequest(RoutingContext context) {
+    Set<Integer> favorites = context.get(REQUEST_FAVORITES);
+    return favorites != null ? favorites : Collections.emptySet();
+  }
+
+
+  /**
+   * @api {post} /favorites/:recipe_id Fügt ein Rezept zu den Favoriten des Benutzers hinzu
+   * @apiName AddFavorite
+   * @apiGroup Favorites
+   *
+   * @apiDescription Diese Route fügt ein Rezept zu den Favoriten des angemeldeten Benutzers hinzu.
+   * Mehrfaches Absenden (z.B. Doppelklick) legt den Favoriten nur einmal an.
+   *
+   * @apiParam {Number} recipe_id Die ID des Rezepts, das zu den Favoriten hinzugefügt werden soll.
+   *
+   * @apiSuccess {JSON} response Ein JSON-Objekt mit einer Erfolgsmeldung.
+   * @apiSuccessExample {json} Erfolgsantwort:
+   *     {
+   *       "message": "Dieses Rezept wurde erfolgreich zu Favoriten hinzugefügt!"
+   *     }
+   *
+   * @apiError (Bad Request 400) BadRequest Die Rezept-ID ist ungültig oder fehlt.
+   * @apiError (Unauthorized 401) Unauthorized Der Benutzer ist nicht angemeldet.
+   * @apiError (Not Found 404) NotFound Das Rezept existiert nicht.
+   * @apiError (Conflict 409) Conflict Das Rezept ist bereits in den Favoriten enthalten.
+   * @apiError (Server Error 500) ServerError Ein Fehler ist aufgetreten, während das Rezept zu den Favoriten hinzugefügt wurde.
+   */
+  public void addFavorite(RoutingContext context) {
+    authService.getUserIdFromSession(context, res -> {
+      if (res.failed() || res.result() == -1) {
+        context.response().setStatusCode(401).end("Fehler: Sie müssen eingeloggt sein.");
+        return;
+      }
+      int userId = res.result();
+
+      Integer recipeId = recipeId(context);
+      if (recipeId == null) {
+        context.response().setStatusCode(400).end("Fehler: Rezept-ID muss eine Zahl sein.");
+        return;
+      }
+
+      add(userId, recipeId)
+        .onComplete(addRes -> {
+          if (addRes.failed()) {
+            RequestLog.error(log, context).log("❌ Favorit {} konnte nicht hinzugefügt werden: {}", recipeId, addRes.cause().getMessage());
+            context.response().setStatusCode(500).end("Fehler beim Hinzufügen zu den Favoriten.");
+          } else if (addRes.result() == Added.ALREADY_FAVORITE) {
+            context.response().setStatusCode(409).end("Dieses Rezept ist bereits in Ihren Favoriten.");
+          } else if (addRes.result() == Added.NO_RECIPE) {
+            context.response().setStatusCode(404).end("Fehler: Rezept nicht gefunden.");
+          } else {
+            context.response().putHeader("Content-Type", "application/json")
+              .end(new JsonObject().put("message", "Dieses Rezept wurde erfolgreich zu Favoriten hinzugefügt!").encode());
+          }
+        });
+    });
+  }
+
+  /**
+   * @api {delete} /favorites/:recipe_id Favorit entfernen
+   * @apiName DeleteFavorite
+   * @apiGroup Favorites
+   * @apiDescription Entfernt ein Rezept aus der Liste der Favoriten eines Benutzers.
+   * Der Benutzer muss angemeldet sein, um ein Rezept aus seinen Favoriten zu entfernen.
+   *
+   * @apiParam {Number} recipe_id Die ID des Rezepts, das aus den Favoriten entfernt werden soll.
+   *
+   * @apiSuccess {String} status Erfolgreiche Antwort mit dem Status "success", wenn das Rezept entfernt wurde.
+   * @apiSuccessExample {json} Erfolgreiche Antwort:
+   *     HTTP/1.1 200 OK
+   *     {
+   *       "status": "success"
+   *     }
+   *
+   * @apiError (Bad Request 400) BadRequest Die Rezept-ID ist ungültig.
+   * @apiError (Unauthorized) {String} message Fehlende Anmeldung.
+   * @apiErrorExample {json} Nicht angemeldet:
+   *     HTTP/1.1 401 Unauthorized
+   *     {
+   *       "message": "Nicht angemeldet!"
+   *     }
+   *
+   * @apiError (Server Error) {String} message Fehler bei der Datenbankabfrage.
+   * @apiErrorExample {json} Datenbankfehler:
+   *     HTTP/1.1 500 Internal Server Error
+   *     {}
+   */
+  public void deleteFavorite(RoutingContext context) {
+    authService.getUserIdFromSession(context, userIdResult -> {
+      if (userIdResult.failed() || userIdResult.result() == -1) {
+        context.response().setStatusCode(401).end("Nicht angemeldet!");
+        return;
+      }
+      int userId = userIdResult.result();
+
+      Integer recipeId = recipeId(context);
+      if (recipeId == null) {
+        context.response().setStatusCode(400).end("Fehler: Rezept-ID muss eine Zahl sein.");
+        return;
+      }
+
+      remove(userId, recipeId).onComplete(res -> {
+        if (res.succeeded()) {
+          context.response().end(new JsonObject().put("status", "success").encode());
+        } else {
+          context.response().setStatusCode(500).end();
+        }
+      });
+    });
+  }
+
+  /**
+   * @api {patch} /favorites Mehrere Favoriten auf einmal ändern
+   * @apiName BulkFavorites
+   * @apiGroup Favorites
+   * @apiDescription Fügt Rezepte hinzu und entfernt andere in einer Transaktion. Bereits vorhandene Favoriten
+   * und nicht existierende Rezepte werden beim Hinzufügen übersprungen.
+   *
+   * @apiBody {Number[]} [add] IDs der Rezepte, die Favoriten werden sollen.
+   * @apiBody {Number[]} [remove] IDs der Rezepte, die keine Favoriten mehr sein sollen.
+   *
+   * @apiSuccess {Number} added Anzahl neu hinzugefügter Favoriten.
+   * @apiSuccess {Number} removed Anzahl entfernter Favoriten.
+   * @apiSuccessExample {json} Erfolgreiche Antwort:
+   *     HTTP/1.1 200 OK
+   *     {
+   *       "added": 2,
+   *       "removed": 1
+   *     }
+   *
+   * @apiError (Bad Request 400) BadRequest Kein JSON, keine Zahlen, mehr als FAVORITES_BULK_MAX IDs oder dieselbe ID in
+   * add und remove.
+   * @apiError (Unauthorized 401) Unauthorized Der Benutzer ist nicht angemeldet.
+   * @apiError (Server Error 500) ServerError Die Favoriten konnten nicht geändert werden.
+   */
+  public void bulkFavorites(RoutingContext context) {
+    authService.getUserIdFromSession(context, userIdResult -> {
+      if (userIdResult.failed() || userIdResult.result() == -1) {
+        context.response().setStatusCode(401).end("Fehler: Sie müssen eingeloggt sein.");
+        return;
+      }
+      int userId = userIdResult.result();
+
+      JsonObject body;
+      try {
+        body = context.body().asJsonObject();
+      } catch (RuntimeException e) {
+        body = null;
+      }
+      List<Integer> add = body != null ? ids(body.getValue("add")) : null;
+      List<Integer> remove = body != null ? ids(body.getValue("remove")) : null;
+      if (add == null || remove == null) {
+        context.response().setStatusCode(400).end("Fehler: Erwartet wird {\"add\": [IDs], \"remove\": [IDs]}.");
+        return;
+      }
+      if (add.size() + remove.size() > bulkMax) {
+        context.response().setStatusCode(400).end("Fehler: Höchstens " + bulkMax + " Rezept-IDs pro Anfrage.");
+        return;
+      }
+      if (overlaps(add, remove)) {
+        context.response().setStatusCode(400).end("Fehler: Ein Rezept kann nicht zugleich hinzugefügt und entfernt werden.");
+        return;
+      }
+
+      bulk(userId, add, remove).onComplete(res -> {
+        if (res.succeeded()) {
+          context.response().putHeader("Content-Type", "application/json").end(res.result().encode());
+        } else {
+          RequestLog.error(log, context).log("❌ Favoriten konnten nicht geändert werden: {}", res.cause().getMessage());
+          context.response().setStatusCode(500).end("Fehler beim Ändern der Favoriten.");
+        }
+      });
+    });
+  }
+
+  /**
+   * @api {get} /favorites/ids IDs der Favoriten abrufen
+   * @apiName GetFavoriteIds
+   * @apiGroup Favorites
+   * @apiDescription Liefert nur die Rezept-IDs der Favoriten des angemeldeten Benutzers (aufsteigend), z.B. um
+   * auf einer Seite den Favoriten-Status anzuzeigen. Wird in der Regel ohne Datenbankabfrage beantwortet.
+   *
+   * @apiSuccessExample {json} Erfolgreiche Antwort:
+   *     HTTP/1.1 200 OK
+   *     [1, 4, 17]
+   *
+   * @apiError (Unauthorized 401) Unauthorized Der Benutzer ist nicht angemeldet.
+   * @apiError (Server Error 500) ServerError Die Favoriten konnten nicht geladen werden.
+   */
+  public void getFavoriteIds(RoutingContext context) {
+    authService.getUserIdFromSession(context, userIdResult -> {
+      if (userIdResult.failed() || userIdResult.result() == -1) {
+        context.response().setStatusCode(401).end("Fehler: Sie müssen eingeloggt sein.");
+        return;
+      }
+
+      favoritesOf(userIdResult.result()).onComplete(res -> {
+        if (res.succeeded()) {
+          List<Integer> ids = new ArrayList<>(res.result());
+          Collections.sort(ids);
+          context.response().putHeader("Content-Type", "application/json").end(new JsonArray(ids).encode());
+        } else {
+          context.response().setStatusCode(500).end("Fehler beim Abrufen der Favoriten.");
+        }
+      });
+    });
+  }
+
+  /**
+   * @api {get} /favorites Favoriten abrufen
+   * @apiName GetFavorites
+   * @apiGroup Favorites
+   * @apiDescription Gibt die Favoriten des aktuell angemeldeten Benutzers zurück. Der Benutzer muss eingeloggt sein, um seine Favoriten abzurufen.
+   *
+   * @apiParam {Number} [after] Cursor aus dem Header X-Next-Cursor der vorherigen Seite.
+   * @apiParam {Number} [limit=20] Anzahl der Favoriten pro Seite (höchstens 100).
+   * @apiParam {Boolean} [stream=false] Ergebnis zeilenweise streamen (bis zu 10000 Favoriten, kein Cursor-Header).
+   *
+   * @apiSuccess {Object[]} favorites Liste der Favoriten des Benutzers.
+   * @apiSuccess {Number} favorites.id ID des Rezepts.
+   * @apiSuccess {String} favorites.title Titel des Rezepts.
+   * @apiSuccess {String} favorites.description Beschreibung des Rezepts.
+   * @apiSuccess {String} favorites.image_url URL des Rezeps-Bildes.
+   * @apiSuccessExample {json} Erfolgreiche Antwort:
+   *     HTTP/1.1 200 OK
+   *     [
+   *       {
+   *         "id": 1,
+   *         "title": "Spaghetti Carbonara",
+   *         "description": "Leckere Pasta mit Ei und Speck.",
+   *         "image_url": "carbonara.jpg"
+   *       },
+   *       {
+   *         "id": 2,
+   *         "title": "Pizza Margherita",
+   *         "description": "Klassische Pizza mit Tomaten und Mozzarella.",
+   *         "image_url": "pizza_margherita.jpg"
+   *       }
+   *     ]
+   *
+   * @apiError (Unauthorized) {String} message Fehlende Anmeldung.
+   * @apiErrorExample {json} Nicht angemeldet:
+   *     HTTP/1.1 401 Unauthorized
+   *     {
+   *       "message": "Fehler: Sie müssen eingeloggt sein."
+   *     }
+   *
+   * @apiError (Server Error) {String} message Fehler beim Abrufen der Favoriten.
+   * @apiErrorExample {json} Datenbankfehler:
+   *     HTTP/1.1 500 Internal Server Error
+   *     {
+   *       "message": "Fehler beim Abrufen der Favoriten."
+   *     }
+   */
+  public void getFavorites(RoutingContext context) {
+    authService.getUserIdFromSession(context, res -> {
+      if (res.failed() || res.result() == -1) {
+        context.response().setStatusCode(401).end("Fehler: Sie müssen eingeloggt sein.");
+        return;
+      }
+      int userId = res.result();
+
+      favoritesOf(userId).onComplete(favRes -> {
+        // keine Favoriten: ohne JOIN sofort antworten
+        if (favRes.succeeded() && favRes.result().isEmpty()) {
+          context.response().putHeader("Content-Type", "application/json").end("[]");
+          return;
+        }
+
+        // SQL-Abfrage: Holen der gespeicherten Favoriten
+        PageRequest page = PageRequest.from(context);
+        Tuple params = Tuple.of(userId);
+        String query = page.apply(Statements.FAVORITES_PAGE, "r.id", params);
+
+        if (page.streaming()) {
+          ResponseStreamer.streamJson(dbClient, query, params, context.response(), "[", "]");
+          return;
+        }
+
+        dbClient.query(query, params).onComplete(queryRes -> {
+          if (queryRes.succeeded()) {
+            List<JsonObject> favorites = queryRes.result();
+            page.finish(context, favorites, "id"); // Cursor im Header X-Next-Cursor
+            context.response()
+              .putHeader("Content-Type", "application/json")
+              .end(new JsonArray(favorites).encode());
+          } else {
+            context.response().setStatusCode(500).end("Fehler beim Abrufen der Favoriten.");
+          }
+        });
+      });
+    });
+  }
+
+  private static Integer recipeId(RoutingContext context) {
+    try {
+      return Integer.parseInt(context.pathParam("recipe_id"));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * {@code true}, wenn eine ID in beiden Listen steht; das Ergebnis hinge sonst von der Reihenfolge der Statements ab.
+   */
+  static boolean overlaps(List<Integer> add, List<Integer> remove) {
+    return !Collections.disjoint(new HashSet<>(add), remove);
+  }
+
+  /**
+   * Liest eine Liste von Rezept-IDs (ohne Duplikate); fehlt sie, ist sie leer. {@code null} bei ungültigen Werten.
+   */
+  static List<Integer> ids(Object value) {
+    if (value == null) {
+      return Collections.emptyList();
+    }
+    if (!(value instanceof JsonArray)) {
+      return null;
+    }
+    Set<Integer> ids = new LinkedHashSet<>();
+    for (Object id : (JsonArray) value) {
+      if (!(id instanceof Number) || ((Number) id).doubleValue() != ((Number) id).intValue() || ((Number) id).intValue() <= 0) {
+        return null;
+      }
+      ids.add(((Number) id).intValue());
+    }
+    return new ArrayList<>(ids);
+  }
+}
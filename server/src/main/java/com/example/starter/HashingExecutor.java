@@ -0,0 +1,149 @@
+package com.example.starter;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Eigener, begrenzter Worker-Pool für Passwort-Hashes.
+ *
+ * BCrypt ist absichtlich langsam; auf dem Event-Loop würde jeder Hash alle anderen Anfragen dieses Loops
+ * blockieren. Hier laufen höchstens {@value #HASH_POOL_SIZE} Hashes gleichzeitig, weitere warten in einer
+ * Warteschlange mit höchstens {@value #HASH_MAX_QUEUE} Plätzen. Ist auch die voll, wird die Aufgabe sofort mit
+ * {@link RejectedExecutionException} abgelehnt (HTTP 429, siehe {@link #handleRejected}), statt die
+ * Warteschlange und damit die Antwortzeiten bei einem Login-Ansturm unbegrenzt wachsen zu lassen.
+ *
+ * Pro Operation werden Anzahl, Wartezeit und Rechenzeit gezählt ({@link #stats()}).
+ */
+public class HashingExecutor {
+
+  public static final String HASH_POOL_SIZE = "HASH_POOL_SIZE";
+  public static final String HASH_MAX_QUEUE = "HASH_MAX_QUEUE";
+
+  private static final String POOL_NAME = "password-hashing";
+  private static final long MAX_EXECUTE_TIME_S = 10;
+
+  private static final class Timing {
+    final AtomicLong count = new AtomicLong();
+    final AtomicLong failed = new AtomicLong();
+    final AtomicLong rejected = new AtomicLong();
+    final AtomicLong waitNanos = new AtomicLong();
+    final AtomicLong runNanos = new AtomicLong();
+    final AtomicLong maxRunNanos = new AtomicLong();
+
+    void record(long waited, long ran, boolean success) {
+      count.incrementAndGet();
+      if (!success) {
+        failed.incrementAndGet();
+      }
+      waitNanos.addAndGet(waited);
+      runNanos.addAndGet(ran);
+      maxRunNanos.accumulateAndGet(ran, Math::max);
+    }
+
+    JsonObject toJson() {
+      long n = count.get();
+      return new JsonObject()
+        .put("count", n)
+        .put("failed", failed.get())
+        .put("rejected", rejected.get())
+        .put("avgWaitMs", n > 0 ? millis(waitNanos.get() / n) : 0.0)
+        .put("avgRunMs", n > 0 ? millis(runNanos.get() / n) : 0.0)
+        .put("maxRunMs", millis(maxRunNanos.get()));
+    }
+
+    private static double millis(long nanos) {
+      return Math.round(nanos / 10_000.0) / 100.0;
+    }
+  }
+
+  private final WorkerExecutor executor;
+  private final int poolSize;
+  private final int maxQueue;
+  private final AtomicInteger pending = new AtomicInteger();
+  private final Map<String, Timing> timings = new ConcurrentHashMap<>();
+
+  public HashingExecutor(Vertx vertx, JsonObject config) {
+    this(vertx,
+      config.getInteger(HASH_POOL_SIZE, Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+      config.getInteger(HASH_MAX_QUEUE, 100));
+  }
+
+  HashingExecutor(Vertx vertx, int poolSize, int maxQueue) {
+    this.poolSize = Math.max(1, poolSize);
+    this.maxQueue = Math.max(0, maxQueue);
+    this.executor = vertx.createSharedWorkerExecutor(POOL_NAME, this.poolSize, MAX_EXECUTE_TIME_S, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Führt {@code task} im Hash-Pool aus; das Ergebnis kommt auf dem Context des Aufrufers an.
+   * Ist der Pool samt Warteschlange ausgelastet, schlägt das Future sofort mit {@link RejectedExecutionException} fehl.
+   */
+  public <T> Future<T> submit(String operation, Callable<T> task) {
+    Timing timing = timings.computeIfAbsent(operation, k -> new Timing());
+    if (pending.incrementAndGet() > poolSize + maxQueue) {
+      pending.decrementAndGet();
+      timing.rejected.incrementAndGet();
+      return Future.failedFuture(new RejectedExecutionException("Hash-Pool ausgelastet (" + operation + ")"));
+    }
+
+    long submitted = System.nanoTime();
+    Future<T> result;
+    try {
+      result = executor.executeBlocking(() -> {
+        long started = System.nanoTime();
+        boolean success = false;
+        try {
+          T value = task.call();
+          success = true;
+          return value;
+        } finally {
+          timing.record(started - submitted, System.nanoTime() - started, success);
+        }
+      }, false);
+    } catch (RuntimeException e) {
+      pending.decrementAndGet();
+      return Future.failedFuture(e);
+    }
+    // auch wenn die Aufgabe nie läuft (z.B. nach close()), sonst bliebe der Platz belegt
+    return result.onComplete(done -> pending.decrementAndGet());
+  }
+
+  /**
+   * Beantwortet eine abgelehnte Aufgabe mit 429; liefert {@code false}, wenn {@code err} ein anderer Fehler ist.
+   */
+  public static boolean handleRejected(RoutingContext context, Throwable err) {
+    if (!(err instanceof RejectedExecutionException)) {
+      return false;
+    }
+    context.response()
+      .setStatusCode(429)
+      .putHeader("Retry-After", "1")
+      .end("⚠ Zu viele Anfragen gleichzeitig, bitte gleich noch einmal versuchen.");
+    return true;
+  }
+
+  public JsonObject stats() {
+    JsonObject operations = new JsonObject();
+    timings.forEach((name, timing) -> operations.put(name, timing.toJson()));
+    return new JsonObject()
+      .put("poolSize", poolSize)
+      .put("maxQueue", maxQueue)
+      .put("pending", pending.get())
+      .put("operations", operations);
+  }
+
+  public void close() {
+    executor.close();
+  }
+}
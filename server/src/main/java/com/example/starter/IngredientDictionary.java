@@ -0,0 +1,112 @@
+package com.example.starter;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wörterbuch Zutatenname -> ID (und zurück) für den ganzen Prozess.
+ *
+ * Die Zutatenliste ist klein und wiederholt sich ständig (Salz, Eier, Mehl ...), deshalb wird sie
+ * beim Start komplett geladen und danach periodisch neu eingelesen. Einträge, die bei einem Reload
+ * nicht mehr auftauchen (gelöschte Zutaten), laufen nach zwei Refresh-Intervallen ab.
+ * Namen werden ohne Groß-/Kleinschreibung und ohne Leerzeichen am Rand verglichen, wie in der Datenbank.
+ */
+public class IngredientDictionary {
+
+  private static final Logger log = LoggerFactory.getLogger(IngredientDictionary.class);
+
+  public static final String MAX_ENTRIES = "INGREDIENT_DICT_MAX_ENTRIES";
+  public static final String REFRESH_S = "INGREDIENT_DICT_REFRESH_S";
+
+  private final DatabaseClient dbClient;
+  private final int maxEntries;
+  private final LruCache<String, Integer> idsByName;
+  private final LruCache<Integer, String> namesById;
+  private final AtomicLong lastLoadedAt = new AtomicLong();
+
+  public IngredientDictionary(Vertx vertx, DatabaseClient dbClient, JsonObject config) {
+    this.dbClient = dbClient;
+    this.maxEntries = config.getInteger(MAX_ENTRIES, 50_000);
+    long refreshMillis = config.getInteger(REFRESH_S, 600) * 1000L;
+
+    this.idsByName = new LruCache<>(maxEntries, 2 * refreshMillis);
+    this.namesById = new LruCache<>(maxEntries, 2 * refreshMillis);
+
+    vertx.setPeriodic(refreshMillis, id -> reload());
+  }
+
+  /**
+   * Lädt alle Zutaten (höchstens {@code INGREDIENT_DICT_MAX_ENTRIES}) aus der Datenbank.
+   */
+  public Future<Integer> reload() {
+    return dbClient.query(Statements.INGREDIENTS_LOAD, Tuple.of(maxEntries))
+      .map(rows -> {
+        rows.forEach(row -> put(row.getString("name"), row.getInteger("id")));
+        lastLoadedAt.set(System.currentTimeMillis());
+        return rows.size();
+      })
+      .onSuccess(count -> log.info("✅ Zutaten-Wörterbuch geladen: {} Einträge", count))
+      .onFailure(err -> log.warn("⚠ Zutaten-Wörterbuch konnte nicht geladen werden: {}", err.getMessage()));
+  }
+
+  /**
+   * Liefert die ID zum Namen oder {@code null}, wenn die Zutat (noch) nicht bekannt ist.
+   */
+  public Integer idOf(String name) {
+    return name == null ? null : idsByName.get(key(name));
+  }
+
+  public String nameOf(int id) {
+    return namesById.get(id);
+  }
+
+  public void put(String name, int id) {
+    idsByName.put(key(name), id);
+    namesById.put(id, name);
+  }
+
+  public void putAll(Map<String, Integer> ids) {
+    ids.forEach(this::put);
+  }
+
+  public void invalidate(String name) {
+    Integer id = idsByName.invalidate(key(name));
+    if (id != null) {
+      namesById.invalidate(id);
+    }
+  }
+
+  /**
+   * Teilt die Namen in bekannte (mit ID) und unbekannte auf. Unbekannte landen in {@code missing}.
+   */
+  public Map<String, Integer> resolve(Iterable<String> names, Collection<String> missing) {
+    Map<String, Integer> known = new HashMap<>();
+    for (String name : names) {
+      Integer id = idOf(name);
+      if (id != null) {
+        known.put(key(name), id);
+      } else {
+        missing.add(name);
+      }
+    }
+    return known;
+  }
+
+  public JsonObject stats() {
+    return idsByName.stats().put("lastLoadedAt", lastLoadedAt.get());
+  }
+
+  static String key(String name) {
+    return name.trim().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,349 @@
+package com.example.starter;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-Memory-Index Zutat -> Rezepte für die Suche "Was kann ich mit X, Y und Z kochen?".
+ *
+ * Pro Zutat wird ein {@link BitSet} über die Rezept-IDs gehalten. Für eine Anfrage werden die
+ * Bitsets der gesuchten Zutaten verodert (bzw. bei {@code requireAll} verundet) und jedes
+ * Kandidatenrezept nach Abdeckung bewertet: möglichst viele der gesuchten Zutaten, möglichst wenige
+ * fehlende Zutaten. Der Speicherbedarf liegt bei etwa (Anzahl Zutaten x höchste Rezept-ID / 8) Byte.
+ */
+public class IngredientRecipeIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(IngredientRecipeIndex.class);
+
+  /**
+   * Ein Treffer: wie viele der gesuchten Zutaten das Rezept enthält und wie viele weitere es braucht.
+   */
+  public static final class Match {
+    public final int recipeId;
+    public final int matched;
+    public final int missing;
+
+    Match(int recipeId, int matched, int missing) {
+      this.recipeId = recipeId;
+      this.matched = matched;
+      this.missing = missing;
+    }
+
+    public JsonObject toJson() {
+      return new JsonObject().put("id", recipeId).put("matched", matched).put("missing", missing);
+    }
+
+    public Cursor cursor() {
+      return new Cursor(matched, missing, recipeId);
+    }
+  }
+
+  /**
+   * Position hinter einem Treffer als {@code <Treffer>:<fehlend>:<ID>}. Der Rang steht im Cursor selbst, damit
+   * die nächste Seite auch dann stimmt, wenn das Rezept dazwischen geändert oder gelöscht wurde.
+   */
+  public static final class Cursor {
+    final int matched;
+    final int missing;
+    final int recipeId;
+
+    Cursor(int matched, int missing, int recipeId) {
+      this.matched = matched;
+      this.missing = missing;
+      this.recipeId = recipeId;
+    }
+
+    /**
+     * {@code null}, wenn {@code value} kein Cursor dieser Form ist (z.B. nur eine ID).
+     */
+    public static Cursor parse(String value) {
+      if (value == null) {
+        return null;
+      }
+      String[] parts = value.split(":", -1);
+      if (parts.length != 3) {
+        return null;
+      }
+      try {
+        int matched = Integer.parseInt(parts[0]);
+        int missing = Integer.parseInt(parts[1]);
+        int recipeId = Integer.parseInt(parts[2]);
+        return matched > 0 && missing >= 0 && recipeId > 0 ? new Cursor(matched, missing, recipeId) : null;
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+
+    private Match position() {
+      return new Match(recipeId, matched, missing);
+    }
+
+    @Override
+    public String toString() {
+      return matched + ":" + missing + ":" + recipeId;
+    }
+  }
+
+  // beste Treffer zuerst: mehr Übereinstimmungen, dann weniger fehlende Zutaten, dann neuere Rezepte
+  static final Comparator<Match> RANKING = Comparator.<Match>comparingInt(m -> -m.matched)
+    .thenComparingInt(m -> m.missing)
+    .thenComparingInt(m -> -m.recipeId);
+
+  private final DatabaseClient dbClient;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<Integer, BitSet> recipesByIngredient = new HashMap<>();
+  private final Map<Integer, int[]> ingredientsByRecipe = new HashMap<>();
+  // Rezepte, die während eines laufenden build() geändert wurden: ihr Eintrag ist neuer als der Snapshot
+  private final Set<Integer> changedDuringBuild = new HashSet<>();
+  private int buildsRunning;
+  private volatile boolean ready;
+
+  public IngredientRecipeIndex(DatabaseClient dbClient) {
+    this.dbClient = dbClient;
+  }
+
+  /**
+   * Baut den Index komplett aus der Datenbank auf. Rezepte, die während des Ladens über {@link #put}/
+   * {@link #remove} geändert werden, behalten ihren neueren Eintrag; ihre Zeilen aus dem Snapshot werden
+   * übergangen.
+   */
+  public Future<Integer> build() {
+    return build(() -> dbClient.query(Statements.RECIPE_INGREDIENTS_ALL));
+  }
+
+  Future<Integer> build(Supplier<Future<List<JsonObject>>> load) {
+    beginBuild();
+    return load.get()
+      .map(rows -> {
+        Map<Integer, List<Integer>> byRecipe = new HashMap<>();
+        rows.forEach(row -> byRecipe.computeIfAbsent(row.getInteger("recipe_id"), k -> new ArrayList<>())
+          .add(row.getInteger("ingredient_id")));
+
+        lock.writeLock().lock();
+        try {
+          for (Integer recipeId : new ArrayList<>(ingredientsByRecipe.keySet())) {
+            if (!changedDuringBuild.contains(recipeId)) {
+              removeLocked(recipeId);
+            }
+          }
+          byRecipe.forEach((recipeId, ingredientIds) -> {
+            if (!changedDuringBuild.contains(recipeId)) {
+              addLocked(recipeId, ingredientIds);
+            }
+          });
+        } finally {
+          lock.writeLock().unlock();
+        }
+        ready = true;
+        return byRecipe.size();
+      })
+      .onComplete(res -> endBuild())
+      .onSuccess(count -> log.info("✅ Zutaten-Index aufgebaut: {} Rezepte", count))
+      .onFailure(err -> log.warn("⚠ Zutaten-Index konnte nicht aufgebaut werden: {}", err.getMessage()));
+  }
+
+  private void beginBuild() {
+    lock.writeLock().lock();
+    try {
+      buildsRunning++;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void endBuild() {
+    lock.writeLock().lock();
+    try {
+      if (--buildsRunning == 0) {
+        changedDuringBuild.clear();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void changedLocked(int recipeId) {
+    if (buildsRunning > 0) {
+      changedDuringBuild.add(recipeId);
+    }
+  }
+
+  /**
+   * Liest die Zutaten eines Rezepts neu ein (nach Anlegen oder Ändern).
+   */
+  public Future<Void> reindex(long recipeId) {
+    return dbClient.query(Statements.RECIPE_INGREDIENTS_OF, Tuple.of(recipeId))
+      .map(rows -> {
+        List<Integer> ingredientIds = new ArrayList<>(rows.size());
+        rows.forEach(row -> ingredientIds.add(row.getInteger("ingredient_id")));
+        put((int) recipeId, ingredientIds);
+        return (Void) null;
+      })
+      .onFailure(err -> log.warn("⚠ Zutaten von Rezept {} konnten nicht indexiert werden: {}", recipeId, err.getMessage()));
+  }
+
+  void put(int recipeId, List<Integer> ingredientIds) {
+    lock.writeLock().lock();
+    try {
+      changedLocked(recipeId);
+      removeLocked(recipeId);
+      if (!ingredientIds.isEmpty()) {
+        addLocked(recipeId, ingredientIds);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(long recipeId) {
+    lock.writeLock().lock();
+    try {
+      changedLocked((int) recipeId);
+      removeLocked((int) recipeId);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Liefert höchstens {@code limit} Rezepte, die mindestens eine der Zutaten enthalten
+   * (bzw. alle, wenn {@code requireAll} gesetzt ist), sortiert nach {@link #RANKING}.
+   * Mit {@code after} beginnt das Ergebnis hinter diesem Rang, auch wenn das Cursor-Rezept kein Treffer mehr ist.
+   */
+  public List<Match> search(Collection<Integer> ingredientIds, boolean requireAll, Cursor after, int limit) {
+    if (ingredientIds.isEmpty() || limit <= 0) {
+      return Collections.emptyList();
+    }
+
+    lock.readLock().lock();
+    try {
+      List<BitSet> postings = postings(ingredientIds, requireAll);
+      if (postings.isEmpty()) {
+        return Collections.emptyList();
+      }
+      BitSet candidates = candidates(postings, requireAll);
+      Match cursor = after != null ? after.position() : null;
+
+      // Min-Heap mit dem schlechtesten Treffer oben, damit nur "limit" Treffer sortiert werden
+      PriorityQueue<Match> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+      for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+        Match m = match(id, postings);
+        if (cursor != null && RANKING.compare(m, cursor) <= 0) {
+          continue;
+        }
+        top.add(m);
+        if (top.size() > limit) {
+          top.poll();
+        }
+      }
+
+      List<Match> result = new ArrayList<>(top);
+      result.sort(RANKING);
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Cursor für eine reine Rezept-ID (Cursor älterer Links) nach dem aktuellen Stand; {@code null}, wenn das
+   * Rezept kein Treffer der Anfrage ist.
+   */
+  public Cursor cursorAt(Collection<Integer> ingredientIds, boolean requireAll, int recipeId) {
+    lock.readLock().lock();
+    try {
+      List<BitSet> postings = postings(ingredientIds, requireAll);
+      if (postings.isEmpty() || !candidates(postings, requireAll).get(recipeId)) {
+        return null;
+      }
+      return match(recipeId, postings).cursor();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // leer, wenn keine Zutat bekannt ist oder bei requireAll eine fehlt
+  private List<BitSet> postings(Collection<Integer> ingredientIds, boolean requireAll) {
+    List<BitSet> postings = new ArrayList<>(ingredientIds.size());
+    for (Integer ingredientId : ingredientIds) {
+      BitSet posting = recipesByIngredient.get(ingredientId);
+      if (posting != null) {
+        postings.add(posting);
+      } else if (requireAll) {
+        return Collections.emptyList();
+      }
+    }
+    return postings;
+  }
+
+  private static BitSet candidates(List<BitSet> postings, boolean requireAll) {
+    BitSet candidates = (BitSet) postings.get(0).clone();
+    for (int i = 1; i < postings.size(); i++) {
+      if (requireAll) {
+        candidates.and(postings.get(i));
+      } else {
+        candidates.or(postings.get(i));
+      }
+    }
+    return candidates;
+  }
+
+  private Match match(int recipeId, List<BitSet> postings) {
+    int matched = 0;
+    for (BitSet posting : postings) {
+      if (posting.get(recipeId)) {
+        matched++;
+      }
+    }
+    int[] all = ingredientsByRecipe.get(recipeId);
+    int total = all != null ? all.length : matched;
+    return new Match(recipeId, matched, total - matched);
+  }
+
+  private void addLocked(int recipeId, List<Integer> ingredientIds) {
+    int[] ids = ingredientIds.stream().mapToInt(Integer::intValue).distinct().toArray();
+    for (int ingredientId : ids) {
+      recipesByIngredient.computeIfAbsent(ingredientId, k -> new BitSet()).set(recipeId);
+    }
+    ingredientsByRecipe.put(recipeId, ids);
+  }
+
+  private void removeLocked(int recipeId) {
+    int[] ids = ingredientsByRecipe.remove(recipeId);
+    if (ids == null) {
+      return;
+    }
+    for (int ingredientId : ids) {
+      BitSet posting = recipesByIngredient.get(ingredientId);
+      if (posting != null) {
+        posting.clear(recipeId);
+        if (posting.isEmpty()) {
+          recipesByIngredient.remove(ingredientId);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package com.example.starter;
+
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.SqlConnection;
+import io.vertx.sqlclient.Tuple;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Speichert ein Rezept zusammen mit seinen Zutaten in einer Transaktion.
+ *
+ * Statt zwei Abfragen pro Zutat werden unabhängig von der Anzahl der Zutaten höchstens vier
+ * Statements abgesetzt: das Rezept, ein mehrzeiliges {@code INSERT IGNORE} für alle Zutatennamen,
+ * ein {@code SELECT ... IN (...)} für deren IDs und ein Batch für {@code recipe_ingredients}.
+ * Zutaten, die das {@link IngredientDictionary} schon kennt, kosten gar keine Abfrage.
+ */
+public class IngredientRepository {
+
+  /**
+   * Eine Zutatenzeile aus dem Formular.
+   */
+  public static final class IngredientLine {
+    final String name;
+    final double amount;
+    final String unit;
+
+    public IngredientLine(String name, double amount, String unit) {
+      this.name = name;
+      this.amount = amount;
+      this.unit = unit;
+    }
+
+    /**
+     * Erstellt eine Zeile aus den Formularwerten oder liefert {@code null}, wenn kein Name angegeben ist.
+     * Leere oder ungültige Mengen werden als 0 gespeichert, "1,5" wird wie "1.5" gelesen.
+     */
+    public static IngredientLine of(String name, String amount, String unit) {
+      if (name == null || name.trim().isEmpty()) {
+        return null;
+      }
+      double parsedAmount = 0.0;
+      if (amount != null && !amount.trim().isEmpty()) {
+        try {
+          parsedAmount = Double.parseDouble(amount.trim().replace(',', '.'));
+        } catch (NumberFormatException e) {
+          parsedAmount = 0.0;
+        }
+      }
+      return new IngredientLine(name.trim(), parsedAmount, unit != null ? unit.trim() : "");
+    }
+  }
+
+  private final DatabaseClient dbClient;
+  private final IngredientDictionary dictionary;
+
+  public IngredientRepository(DatabaseClient dbClient, IngredientDictionary dictionary) {
+    this.dbClient = dbClient;
+    this.dictionary = dictionary;
+  }
+
+  /**
+   * Legt das Rezept mit {@code recipeInsert} an und verknüpft alle Zutaten. Das Future ist erst
+   * nach dem Commit erfolgreich und liefert die neue Rezept-ID; bei einem Fehler wird alles zurückgerollt.
+   */
+  public Future<Long> createRecipe(String recipeInsert, Tuple recipeParams, List<IngredientLine> ingredients) {
+    Map<String, Integer> resolved = new HashMap<>();
+    return dbClient.withTransaction(conn -> conn.preparedQuery(recipeInsert)
+        .execute(recipeParams)
+        .compose(rows -> {
+          long recipeId = dbClient.lastInsertId(rows);
+          return saveIngredients(conn, recipeId, ingredients, resolved).map(recipeId);
+        }))
+      // Neue IDs erst nach dem Commit übernehmen; schlägt etwas fehl (z.B. eine inzwischen
+      // gelöschte Zutat), werden die beteiligten Namen aus dem Wörterbuch entfernt
+      .onSuccess(id -> dictionary.putAll(resolved))
+      .onFailure(err -> ingredients.forEach(line -> dictionary.invalidate(line.name)));
+  }
+
+  /**
+   * Verknüpft die Zutaten mit einem Rezept innerhalb der übergebenen (Transaktions-)Verbindung.
+   * Aus der Datenbank nachgeladene IDs werden in {@code resolved} eingetragen.
+   */
+  public Future<Void> saveIngredients(SqlConnection conn, long recipeId, List<IngredientLine> ingredients,
+                                      Map<String, Integer> resolved) {
+    if (ingredients.isEmpty()) {
+      return Future.succeededFuture();
+    }
+
+    // Jeder Name nur einmal, die Datenbank vergleicht Namen ohne Groß-/Kleinschreibung
+    Map<String, String> byKey = new LinkedHashMap<>();
+    for (IngredientLine line : ingredients) {
+      byKey.putIfAbsent(key(line.name), line.name);
+    }
+    List<String> missing = new ArrayList<>();
+    Map<String, Integer> ids = dictionary.resolve(byKey.values(), missing);
+
+    return fetchIds(conn, missing)
+      .compose(fetched -> {
+        resolved.putAll(fetched);
+        fetched.forEach((name, id) -> ids.put(key(name), id));
+
+        List<Tuple> batch = new ArrayList<>(ingredients.size());
+        for (IngredientLine line : ingredients) {
+          Integer ingredientId = ids.get(key(line.name));
+          if (ingredientId == null) {
+            return Future.failedFuture("Zutat konnte nicht angelegt werden: " + line.name);
+          }
+          batch.add(Tuple.of(recipeId, ingredientId, line.amount, line.unit));
+        }
+        return conn.preparedQuery(Statements.RECIPE_INGREDIENT_INSERT).executeBatch(batch);
+      })
+      .mapEmpty();
+  }
+
+  // Legt unbekannte Zutaten an und liefert Name -> ID für alle übergebenen Namen
+  private Future<Map<String, Integer>> fetchIds(SqlConnection conn, List<String> names) {
+    if (names.isEmpty()) {
+      return Future.succeededFuture(new HashMap<>());
+    }
+
+    // doppelte Namen aus dem Auffüllen übergeht INSERT IGNORE
+    Statements.InList in = Statements.in(names);
+    Tuple nameParams = Tuple.tuple(in.values);
+
+    return conn.preparedQuery(Statements.INGREDIENTS_INSERT.sql(in))
+      .execute(nameParams)
+      .compose(v -> conn.preparedQuery(Statements.INGREDIENTS_BY_NAME.sql(in))
+        .execute(nameParams))
+      .map(rows -> {
+        Map<String, Integer> ids = new HashMap<>();
+        for (Row row : rows) {
+          ids.put(row.getString("name"), row.getInteger("id"));
+        }
+        return ids;
+      });
+  }
+
+  private static String key(String name) {
+    return IngredientDictionary.key(name);
+  }
+}
@@ -0,0 +1,203 @@
+package com.example.starter;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Verteilt das Verwerfen von Cache-Einträgen an alle Server-Knoten.
+ *
+ * Jeder Cache meldet unter einem Namen ({@link #RECIPES}, {@link #SESSIONS}, ...) an, wie ein Schlüssel lokal
+ * verworfen wird. Wer schreibt, ruft {@link #invalidate}: der Eintrag wird sofort auf diesem Knoten verworfen
+ * und der Schlüssel über den {@link Transport} an die anderen Knoten geschickt, die ihn ebenso verwerfen.
+ * Im Standard-Transport ist das der Event-Bus; mit {@code -cluster} (Maven-Profil {@code cluster}) erreicht
+ * er alle Knoten des Clusters, ohne Cluster nur diesen Prozess.
+ *
+ * Die Zustellung ist "höchstens einmal". Geht eine Nachricht verloren, begrenzt die Ablaufzeit des jeweiligen
+ * Caches, wie lange ein anderer Knoten den alten Stand sieht. Für jede empfangene Nachricht wird die Zeit
+ * zwischen Senden und Verwerfen gemessen; über {@value #MAX_LAG_MS} hinaus gilt sie als verspätet.
+ * Die Messung setzt ungefähr synchrone Uhren voraus (NTP).
+ */
+public class InvalidationBus {
+
+  private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+  public static final String ADDRESS = "cache.invalidate";
+  public static final String MAX_LAG_MS = "CACHE_INVALIDATION_MAX_LAG_MS";
+
+  // Namen der Caches
+  public static final String RECIPES = "recipes";
+  public static final String FAVORITES = "favorites";
+  public static final String USER_STATS = "user_stats";
+  public static final String SESSIONS = "sessions";
+  public static final String WEB_SESSIONS = "web_sessions";
+
+  /**
+   * Überträgt die Nachrichten zwischen den Knoten; der Absender bekommt seine eigenen Nachrichten ggf. auch.
+   */
+  public interface Transport {
+    void publish(JsonObject message);
+
+    Future<Void> subscribe(Handler<JsonObject> handler);
+  }
+
+  /**
+   * Über den Event-Bus von Vert.x (im Cluster an alle Knoten).
+   */
+  public static Transport eventBus(Vertx vertx) {
+    return new Transport() {
+      @Override
+      public void publish(JsonObject message) {
+        vertx.eventBus().publish(ADDRESS, message);
+      }
+
+      @Override
+      public Future<Void> subscribe(Handler<JsonObject> handler) {
+        Promise<Void> registered = Promise.promise();
+        vertx.eventBus().<JsonObject>consumer(ADDRESS, message -> handler.handle(message.body())).completionHandler(registered);
+        return registered.future();
+      }
+    };
+  }
+
+  /**
+   * Stellt im selben Prozess synchron an alle angemeldeten Busse zu; steht in Tests für mehrere Knoten.
+   */
+  static final class InMemoryTransport implements Transport {
+    private final List<Handler<JsonObject>> handlers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(JsonObject message) {
+      handlers.forEach(handler -> handler.handle(message.copy()));
+    }
+
+    @Override
+    public Future<Void> subscribe(Handler<JsonObject> handler) {
+      handlers.add(handler);
+      return Future.succeededFuture();
+    }
+  }
+
+  private static final class CacheStats {
+    final LongAdder sent = new LongAdder();
+    final LongAdder applied = new LongAdder();
+    final LongAdder late = new LongAdder();
+    final Metrics.Histogram lag = new Metrics.Histogram();
+  }
+
+  private final String node = UUID.randomUUID().toString();
+  private final Transport transport;
+  private final long maxLagMillis;
+  private final LongSupplier clock;
+  private final Map<String, Consumer<String>> caches = new ConcurrentHashMap<>();
+  private final Map<String, CacheStats> stats = new ConcurrentHashMap<>();
+  private final LongAdder unknown = new LongAdder();
+
+  public InvalidationBus(Vertx vertx, JsonObject config) {
+    this(eventBus(vertx), config.getLong(MAX_LAG_MS, 1000L), System::currentTimeMillis);
+  }
+
+  InvalidationBus(Transport transport, long maxLagMillis, LongSupplier clock) {
+    this.transport = transport;
+    this.maxLagMillis = maxLagMillis;
+    this.clock = clock;
+  }
+
+  public Future<Void> start() {
+    return transport.subscribe(this::receive);
+  }
+
+  /**
+   * Meldet an, wie ein Schlüssel im Cache {@code cache} auf diesem Knoten verworfen wird.
+   */
+  public void register(String cache, Consumer<String> invalidator) {
+    caches.put(cache, invalidator);
+    stats.putIfAbsent(cache, new CacheStats());
+  }
+
+  /**
+   * Verwirft {@code key} sofort auf diesem Knoten und schickt ihn an alle anderen.
+   */
+  public void invalidate(String cache, Object key) {
+    Consumer<String> invalidator = caches.get(cache);
+    if (invalidator == null) {
+      throw new IllegalArgumentException("Unbekannter Cache: " + cache);
+    }
+    String value = String.valueOf(key);
+    invalidator.accept(value);
+    stats.get(cache).sent.increment();
+    transport.publish(new JsonObject()
+      .put("node", node)
+      .put("cache", cache)
+      .put("key", value)
+      .put("sent_at", clock.getAsLong()));
+  }
+
+  private void receive(JsonObject message) {
+    if (node.equals(message.getString("node"))) {
+      return; // schon beim Senden verworfen
+    }
+    String cache = message.getString("cache");
+    Consumer<String> invalidator = caches.get(cache);
+    if (invalidator == null) {
+      unknown.increment(); // z.B. ein Knoten mit neuerer Version
+      return;
+    }
+    invalidator.accept(message.getString("key"));
+    long lagMillis = Math.max(0, clock.getAsLong() - message.getLong("sent_at", 0L));
+    CacheStats cacheStats = stats.get(cache);
+    cacheStats.applied.increment();
+    cacheStats.lag.record(lagMillis * 1_000_000);
+    if (lagMillis > maxLagMillis) {
+      cacheStats.late.increment();
+      log.warn("⚠ Verspätetes Verwerfen in {}: {} ms", cache, lagMillis);
+    }
+  }
+
+  public JsonObject stats() {
+    JsonObject caches = new JsonObject();
+    new TreeMap<>(stats).forEach((cache, s) -> caches.put(cache, new JsonObject()
+      .put("sent", s.sent.sum())
+      .put("applied", s.applied.sum())
+      .put("late", s.late.sum())
+      .put("lag", s.lag.toJson())));
+    return new JsonObject()
+      .put("node", node)
+      .put("maxLagMs", maxLagMillis)
+      .put("unknown", unknown.sum())
+      .put("caches", caches);
+  }
+
+  /**
+   * Die Kennzahlen im Prometheus-Textformat, zum Anhängen an {@link Metrics#prometheus()}.
+   */
+  public String prometheus() {
+    StringBuilder out = new StringBuilder(2048);
+    out.append("# HELP cache_invalidation_lag_seconds Zeit vom Senden bis zum Verwerfen auf diesem Knoten\n")
+      .append("# TYPE cache_invalidation_lag_seconds histogram\n");
+    new TreeMap<>(stats).forEach((cache, s) -> s.lag.writePrometheus(out, "cache_invalidation_lag_seconds", Metrics.label("cache", cache)));
+    out.append("# HELP cache_invalidation_sent_total Von diesem Knoten verschickte Schlüssel\n")
+      .append("# TYPE cache_invalidation_sent_total counter\n");
+    new TreeMap<>(stats).forEach((cache, s) ->
+      out.append("cache_invalidation_sent_total{").append(Metrics.label("cache", cache)).append("} ").append(s.sent.sum()).append('\n'));
+    out.append("# HELP cache_invalidation_late_total Empfangene Schlüssel über der erlaubten Verzögerung\n")
+      .append("# TYPE cache_invalidation_late_total counter\n");
+    new TreeMap<>(stats).forEach((cache, s) ->
+      out.append("cache_invalidation_late_total{").append(Metrics.label("cache", cache)).append("} ").append(s.late.sum()).append('\n'));
+    return out.toString();
+  }
+}
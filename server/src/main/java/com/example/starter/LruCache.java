@@ -0,0 +1,152 @@
+package com.example.starter;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Begrenzter In-Memory-Cache mit LRU-Verdrängung und Ablaufzeit pro Eintrag.
+ *
+ * Alle Operationen sind synchronisiert und laufen in O(1), der Cache kann daher
+ * direkt auf dem Event-Loop benutzt werden.
+ */
+public class LruCache<K, V> {
+
+  private static final class Entry<V> {
+    final V value;
+    final long expiresAt;
+
+    Entry(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  private final int maxEntries;
+  private final long defaultTtlMillis;
+  private final LongSupplier clock;
+  private final LinkedHashMap<K, Entry<V>> entries;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong expirations = new AtomicLong();
+
+  public LruCache(int maxEntries, long defaultTtlMillis) {
+    this(maxEntries, defaultTtlMillis, System::currentTimeMillis);
+  }
+
+  LruCache(int maxEntries, long defaultTtlMillis, LongSupplier clock) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries muss größer als 0 sein");
+    }
+    this.maxEntries = maxEntries;
+    this.defaultTtlMillis = defaultTtlMillis;
+    this.clock = clock;
+    // accessOrder = true -> die Iterationsreihenfolge ist "zuletzt benutzt zuletzt"
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Liefert den Wert oder {@code null}, wenn der Schlüssel fehlt oder abgelaufen ist.
+   */
+  public synchronized V get(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+    if (entry.expiresAt <= clock.getAsLong()) {
+      entries.remove(key);
+      expirations.incrementAndGet();
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    return entry.value;
+  }
+
+  public void put(K key, V value) {
+    put(key, value, defaultTtlMillis);
+  }
+
+  public synchronized void put(K key, V value, long ttlMillis) {
+    entries.put(key, new Entry<>(value, clock.getAsLong() + ttlMillis));
+    if (entries.size() > maxEntries) {
+      evictOldest();
+    }
+  }
+
+  public synchronized V invalidate(K key) {
+    Entry<V> removed = entries.remove(key);
+    return removed != null ? removed.value : null;
+  }
+
+  public synchronized void invalidateAll() {
+    entries.clear();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Entfernt alle abgelaufenen Einträge. Kann periodisch aufgerufen werden, damit
+   * selten gelesene Einträge nicht bis zur LRU-Verdrängung Speicher belegen.
+   */
+  public synchronized int purgeExpired() {
+    long now = clock.getAsLong();
+    int removed = 0;
+    Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+    while (it.hasNext()) {
+      if (it.next().getValue().expiresAt <= now) {
+        it.remove();
+        removed++;
+      }
+    }
+    expirations.addAndGet(removed);
+    return removed;
+  }
+
+  private void evictOldest() {
+    Iterator<K> it = entries.keySet().iterator();
+    while (entries.size() > maxEntries && it.hasNext()) {
+      it.next();
+      it.remove();
+      evictions.incrementAndGet();
+    }
+  }
+
+  public long hits() {
+    return hits.get();
+  }
+
+  public long misses() {
+    return misses.get();
+  }
+
+  public long evictions() {
+    return evictions.get();
+  }
+
+  public long expirations() {
+    return expirations.get();
+  }
+
+  public JsonObject stats() {
+    long h = hits.get();
+    long m = misses.get();
+    return new JsonObject()
+      .put("size", size())
+      .put("maxEntries", maxEntries)
+      .put("hits", h)
+      .put("misses", m)
+      .put("hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m))
+      .put("evictions", evictions.get())
+      .put("expirations", expirations.get());
+  }
+}
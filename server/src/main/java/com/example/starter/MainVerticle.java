@@ -3,26 +3,25 @@ package com.example.starter;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.AbstractVerticle;
-import io.vertx.core.Launcher;
 import io.vertx.core.MultiMap;
+import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.auth.User;
 import io.vertx.ext.auth.jwt.JWTAuth;
-import io.vertx.ext.auth.jwt.JWTAuthOptions;
-import io.vertx.ext.jdbc.JDBCClient;
-import io.vertx.ext.sql.SQLConnection;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.BodyHandler;
 import io.vertx.ext.web.handler.JWTAuthHandler;
 import io.vertx.ext.web.handler.SessionHandler;
-import io.vertx.ext.web.handler.StaticHandler;
-import io.vertx.ext.web.sstore.LocalSessionStore;
-import io.vertx.ext.web.templ.thymeleaf.ThymeleafTemplateEngine;
+import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Map;
 import java.util.HashMap;
 
@@ -32,42 +31,68 @@ import java.util.stream.Collectors;
 
 public class MainVerticle extends AbstractVerticle {
 
-  private JDBCClient dbClient;
+  private static final Logger log = LoggerFactory.getLogger(MainVerticle.class);
+
+  private DatabaseClient dbClient;
   private AuthService authService;
   private JWTAuth jwtAuth;
   private UserService userService;
   private RecipeService recipeService;
+  private FavoriteService favoriteService;
+  private UserStats userStats;
+  private RecipeCache recipeCache;
+  private IngredientDictionary ingredientDictionary;
+  private IngredientRepository ingredientRepository;
+  private TemplateCache templates;
+  private HashingExecutor hashing;
+  private PasswordHasher passwordHasher;
 
   public static void main(String[] args) {
-    Launcher.executeCommand("run", MainVerticle.class.getName());
+    new AppLauncher().dispatch(new String[]{"run", MainVerticle.class.getName()});
   }
 
 
   @Override
   public void start(Promise<Void> startPromise) {
-    dbClient = DatabaseConfig.connect(vertx);
-    ThymeleafTemplateEngine templateEngine;
-    authService = new AuthService(vertx, dbClient);
-    userService = new UserService(vertx, dbClient);
-    recipeService = new RecipeService(vertx, dbClient);
-   templateEngine = ThymeleafTemplateEngine.create(vertx);
+    // Services und Caches teilen sich alle Instanzen; hier entstehen nur Router und HTTP-Server
+    AppContext.get(vertx, config())
+      .onComplete(res -> {
+        if (res.succeeded()) {
+          startServer(res.result(), startPromise);
+        } else {
+          log.error("❌ Server wird nicht gestartet: {}", res.cause().getMessage());
+          startPromise.fail(res.cause());
+        }
+      });
+  }
 
-    String staticPath = System.getProperty("user.dir") + File.separator + "frontend";
-    System.out.println("Statische Dateien geladen aus: " + staticPath);
+  private void startServer(AppContext app, Promise<Void> startPromise) {
+    JsonObject conf = app.config();
+    dbClient = app.dbClient();
+    authService = app.authService();
+    userService = app.userService();
+    jwtAuth = app.jwtAuth();
+    ingredientDictionary = app.ingredientDictionary();
+    ingredientRepository = app.ingredientRepository();
+    recipeService = app.recipeService();
+    favoriteService = app.favoriteService();
+    userStats = app.userStats();
+    recipeCache = app.recipeCache();
+    templates = app.templates();
+    hashing = app.hashing();
+    passwordHasher = app.passwordHasher();
 
+    String staticPath = System.getProperty("user.dir") + File.separator + "frontend";
+    log.debug("Statische Dateien geladen aus: {}", staticPath);
 
 
-    // JWT-Auth initialisieren
-    JWTAuthOptions authOptions = new JWTAuthOptions()
-      .addJwk(new JsonObject()
-        .put("kty", "oct")
-        .put("k", "geheimesSchluessel")
-        .put("alg", "HS256")
-      );
-    jwtAuth = JWTAuth.create(vertx, authOptions);
 
     // Router einrichten
     Router router = Router.router(vertx);
+    Metrics metrics = app.metrics();
+    router.route().handler(metrics.routeHandler());
+    router.route().handler(RequestLog.handler());
+    router.route().handler(ResponseCompression.minSize(conf));
     router.route().handler(BodyHandler.create());
 
 
@@ -75,11 +100,12 @@ public class MainVerticle extends AbstractVerticle {
     router.post("/register").handler(BodyHandler.create()).handler(this::registerUser);
     router.post("/login").handler(this::loginUser);
     router.post("/logout").handler(authService::logoutUser);
-    router.route("/*").handler(StaticHandler.create("frontend"));
+    StaticAssets staticAssets = app.staticAssets();
+    router.route("/*").handler(staticAssets).handler(staticAssets.staticHandler());
     router.get("/meine-rezepte").handler(this::showRecipe);
 
-    // Session-Handler hinzufügen
-    router.route().handler(SessionHandler.create(LocalSessionStore.create(vertx)));
+    // Session-Handler hinzufügen; Session und Cookie erst, wenn eine Route die Session benutzt (WEB_SESSION_STORE)
+    router.route().handler(SessionHandler.create(app.webSessions()).setLazySession(true));
 
       //dark-mode
     router.post("/toggle-dark-mode").handler(this::toggleDarkMode);
@@ -101,6 +127,38 @@ public class MainVerticle extends AbstractVerticle {
 
 
 
+    // Betriebs-Endpunkte unter /admin/* nur mit ADMIN_TOKEN
+    router.route("/admin/*").handler(AdminAccess.admin(conf));
+
+    // Cache-Statistiken (Treffer, Fehlzugriffe, Verdrängungen) zur Dimensionierung unter Last
+    TokenSessions tokenSessions = app.tokenSessions();
+    InvalidationBus invalidation = app.invalidation();
+    router.get("/admin/cache-stats").handler(ctx -> {
+      JsonObject stats = new JsonObject()
+        .put("sessions", authService.getSessionCache().stats())
+        .put("ingredients", ingredientDictionary.stats())
+        .put("recipes", recipeCache.stats())
+        .put("hashing", hashing.stats())
+        .put("invalidation", invalidation.stats())
+        .put("statements", Statements.stats());
+      if (tokenSessions != null) {
+        stats.put("tokens", tokenSessions.stats());
+      }
+      if (app.webSessions() instanceof DbSessionStore) {
+        stats.put("webSessions", ((DbSessionStore) app.webSessions()).stats());
+      }
+      ctx.response().putHeader("Content-Type", "application/json").end(stats.encode());
+    });
+
+    // Kennzahlen pro Route, Datenbank-Statement und Pool (Prometheus-Format bzw. JSON mit p50/p95/p99);
+    // /metrics nur aus METRICS_ALLOWLIST oder mit Token
+    router.get("/metrics").handler(AdminAccess.metrics(conf)).handler(ctx -> ctx.response()
+      .putHeader("Content-Type", "text/plain; version=0.0.4; charset=utf-8")
+      .end(metrics.prometheus() + invalidation.prometheus()));
+    router.get("/admin/metrics").handler(ctx -> ctx.response()
+      .putHeader("Content-Type", "application/json")
+      .end(metrics.stats().encode()));
+
     router.get("/users/search").handler(userService::getUserByName);
     router.get("/users/nutzer.html").handler(ctx -> {
       ctx.response().sendFile("frontend/nutzer.html");
@@ -114,15 +172,16 @@ public class MainVerticle extends AbstractVerticle {
     router.delete("/recipes/:recipe_id").handler(this::deleteRecipe);
 
     // Rezept-Suchroute
-    router.get("/search/recipes").handler(recipeService::searchRecipes);
+    router.get("/search/recipes").handler(favoriteService::loadForRequest).handler(recipeService::searchRecipes);
+    router.get("/search/ingredients").handler(recipeService::searchByIngredients);
 
     router.post("/add-ingredient").handler(ctx -> {
-      String html = "<div class='input-group mb-3 ingredient-item'>" +
+      Buffer html = templates.fragment("add-ingredient", () -> "<div class='input-group mb-3 ingredient-item'>" +
         "<input type='text' class='form-control' name='ingredients[]' placeholder='Zutat'>" +
         "<input type='number' class='form-control' name='ingredient_amount[]' placeholder='Menge'>" +
         "<input type='text' class='form-control' name='ingredient_unit[]' placeholder='Einheit (kg, l ...)'>" +
         "<button type='button' class='remove-btn' onclick='removeIngredient(this)'>" +
-        "<i class='bi bi-trash'></i></button></div>";
+        "<i class='bi bi-trash'></i></button></div>");
       ctx.response().putHeader("Content-Type", "text/html").end(html);
     });
 
@@ -131,11 +190,11 @@ public class MainVerticle extends AbstractVerticle {
     router.get("/users/:user_id/recipes").handler(recipeService::getAllRecipes);
     router.get("/users/:user_id/recipes/:recipe_id").handler(recipeService::getRecipeByUserAndById);
     router.get("/users/:user_id/recipes").handler(recipeService::getRecipesByUser);
-    router.post("/recipes").handler(JWTAuthHandler.create(jwtAuth)).handler(recipeService::createRecipe);
+    router.post("/recipes").handler(JWTAuthHandler.create(jwtAuth)).handler(TokenSessions::requireAccessToken).handler(recipeService::createRecipe);
 
     router.get("/recipes/:recipe_id").handler(recipeService::getRecipeById);
-    router.put("/users/:user_id/recipes/:recipe_id").handler(JWTAuthHandler.create(jwtAuth)).handler(recipeService::updateRecipePut);
-    router.patch("/users/:user_id/recipes/:recipe_id").handler(JWTAuthHandler.create(jwtAuth)).handler(recipeService::updateRecipePatch);
+    router.put("/users/:user_id/recipes/:recipe_id").handler(JWTAuthHandler.create(jwtAuth)).handler(TokenSessions::requireAccessToken).handler(recipeService::updateRecipePut);
+    router.patch("/users/:user_id/recipes/:recipe_id").handler(JWTAuthHandler.create(jwtAuth)).handler(TokenSessions::requireAccessToken).handler(recipeService::updateRecipePatch);
     router.post("/users/:user_id/recipes/:recipe_id").handler(this::handleDeleteRequest);
     router.get("/meine-rezepte").handler(this::handleMeineRezepte);
 
@@ -161,11 +220,11 @@ public class MainVerticle extends AbstractVerticle {
 
 
 
-   router.post("/favorites/:recipe_id").handler(this::addFavorite);
-    router.delete("/favorites/:recipe_id").handler(this::deleteFavorite);
-
-    router.get("/favorites").handler(this::getFavorites);
-   // router.delete("/favorites/:recipe_id").handler(JWTAuthHandler.create(jwtAuth)).handler(favoriteService::deleteFavorite);
+    router.post("/favorites/:recipe_id").handler(favoriteService::addFavorite);
+    router.delete("/favorites/:recipe_id").handler(favoriteService::deleteFavorite);
+    router.patch("/favorites").handler(favoriteService::bulkFavorites);
+    router.get("/favorites/ids").handler(favoriteService::getFavoriteIds);
+    router.get("/favorites").handler(favoriteService::getFavorites);
     router.get("/users/favorite.html").handler(ctx -> {
       ctx.response().sendFile("frontend/favorite.html");
     });
@@ -173,10 +232,11 @@ public class MainVerticle extends AbstractVerticle {
 
 
     // HTTP-Server starten
-    vertx.createHttpServer().requestHandler(router).listen(8888).onComplete(http -> {
+    int port = conf.getInteger("HTTP_PORT", 8888);
+    vertx.createHttpServer(ResponseCompression.serverOptions(conf)).requestHandler(router).listen(port).onComplete(http -> {
       if (http.succeeded()) {
         startPromise.complete();
-        System.out.println("✅ Server läuft auf Port 8888");
+        log.info("✅ Server läuft auf Port {} ({})", port, Thread.currentThread().getName());
       } else {
         startPromise.fail(http.cause());
       }
@@ -191,96 +251,57 @@ public class MainVerticle extends AbstractVerticle {
     authService.loginUser(context, jwtAuth);
   }
 
+
   private void showRecipe(RoutingContext ctx) {
     authService.getUserIdFromSession(ctx, userIdResult -> {
       if (userIdResult.succeeded() && userIdResult.result() != -1) {
         int userId = userIdResult.result();
 
-        dbClient.getConnection(ar -> {
-          if (ar.succeeded()) {
-            SQLConnection connection = ar.result();
-
-            // SQL-Abfrage: Rezepte mit Zutaten abrufen
-            String query = "SELECT r.id AS recipe_id, r.title, r.description, r.portions, r.image_url, " +
-              "i.name AS ingredient_name, ri.amount AS ingredient_amount, ri.unit AS ingredient_unit " +
-              "FROM recipes r " +
-              "LEFT JOIN recipe_ingredients ri ON r.id = ri.recipe_id " +
-              "LEFT JOIN ingredients i ON ri.ingredient_id = i.id " +
-              "WHERE r.user_id = " + userId;
-
-            connection.query(query, res -> {
-              if (res.succeeded()) {
-                Map<Integer, StringBuilder> recipeMap = new HashMap<>();
-
-                res.result().getRows().forEach(row -> {
-                  int recipeId = row.getInteger("recipe_id");
-                  String title = row.getString("title");
-                  String description = row.getString("description");
-                  int portions = row.getInteger("portions");
-                  String imageUrl = row.getString("image_url");
-
-                  String ingredientName = row.getString("ingredient_name");
-                  String ingredientAmount = row.getValue("ingredient_amount") != null ? row.getValue("ingredient_amount").toString() : "";
-                  String ingredientUnit = row.getString("ingredient_unit");
-
-                  System.out.println("Gefundene Zutat für Rezept " + recipeId + ": " + ingredientName);
-                  System.out.println("Speichere Rezept mit URL: " + imageUrl);
-
-
-                  // Falls das Rezept noch nicht in der Map ist, erstelle einen neuen Eintrag
-                  recipeMap.putIfAbsent(recipeId, new StringBuilder(
-                    "<div class='card shadow-sm'><div class='card-body'>"
-                      + "<h5 class='card-title'>" + title + "</h5>"
-                      + "<p><strong>Beschreibung :</strong> "  + description + "</p>"
-                      + "<p><strong>Portionen :</strong> " + portions + "</p>"
-                      + "<p><strong>URL:</strong> <a href='" + imageUrl + "' target='_blank'>" + imageUrl + "</a></p>"
-                     // + "<h6>Zutaten:</h6><ul>"
-                  ));
-
-
-
-                  // Falls eine Zutat existiert, hinzufügen
-                  if (ingredientName != null) {
-                    recipeMap.get(recipeId).append("<li>").append(ingredientName)
-                      .append(": ").append(ingredientAmount).append(" ").append(ingredientUnit)
-                      .append("</li>");
-                  }
-
-                });
-
-                // Bearbeiten-Button außerhalb der Zutaten-Schleife hinzufügen
-                recipeMap.forEach((recipeId, sb) -> {
-                  sb.append("</ul>") // Zutatenliste schließen
-                    .append("<div style='text-align: right; margin-top: 10px;'>") // Container für Button
-                    .append("<a href='/edit-recipe.html?id=" + recipeId + "' class='btn btn-primary'>Bearbeiten</a>")
-                    .append("<button onclick='deleteRecipe(" + recipeId + ")' class='btn btn-danger'>Löschen</button>")
-                    .append("</div></div>"); // Container und Card schließen
-                });
-
-                // Abschluss des HTML für jedes Rezept
-                List<String> rezepte = recipeMap.values().stream()
-                  .map(sb -> sb.append("</ul></div></div>").toString())
-                  .collect(Collectors.toList());
-
-                // HTML-Datei laden und Platzhalter ersetzen
-                vertx.fileSystem().readFile("frontend/meine-rezepte.html", file -> {
-                  if (file.succeeded()) {
-                    String page = file.result().toString().replace("{{REZEPTLISTE}}", String.join("", rezepte));
-                    ctx.response().putHeader("Content-Type", "text/html").end(page);
-                  } else {
-                    ctx.fail(500);
-                  }
-                });
-
-              } else {
-                ctx.fail(500);
-              }
-              connection.close();
-            });
-
-          } else {
+        // Vorlage aus dem Cache; alles vor dem Platzhalter geht sofort raus, die Rezepte werden gestreamt
+        templates.get("meine-rezepte.html").onComplete(file -> {
+          if (file.failed()) {
             ctx.fail(500);
+            return;
           }
+          Map<String, Object> values = Collections.singletonMap("user_id", userId);
+          Buffer head = file.result().head("REZEPTLISTE", values);
+          Buffer tail = file.result().tail("REZEPTLISTE", values);
+
+          int[] currentId = {-1};
+          int[] rowIndex = {0};
+          StringBuilder[] card = {null};
+
+          ctx.response().putHeader("Content-Type", "text/html");
+          ResponseStreamer.stream(dbClient, Statements.MY_RECIPES, Tuple.of(userId), ctx.response(), head, row -> {
+            int recipeId = row.getInteger("recipe_id");
+            String finished = null;
+            if (RequestLog.sampleRow(log, rowIndex[0]++)) {
+              RequestLog.debug(log, ctx).log("Rezeptzeile {}: Rezept {}, Zutat {}", rowIndex[0], recipeId, row.getString("ingredient_name"));
+            }
+
+            // Neues Rezept: vorherige Karte abschließen und senden
+            if (recipeId != currentId[0]) {
+              finished = card[0] != null ? closeRecipeCard(card[0], currentId[0]) : null;
+              currentId[0] = recipeId;
+              card[0] = new StringBuilder(
+                "<div class='card shadow-sm'><div class='card-body'>"
+                  + "<h5 class='card-title'>" + row.getString("title") + "</h5>"
+                  + "<p><strong>Beschreibung :</strong> "  + row.getString("description") + "</p>"
+                  + "<p><strong>Portionen :</strong> " + row.getInteger("portions") + "</p>"
+                  + "<p><strong>URL:</strong> <a href='" + row.getString("image_url") + "' target='_blank'>" + row.getString("image_url") + "</a></p>"
+              );
+            }
+
+            // Falls eine Zutat existiert, hinzufügen
+            String ingredientName = row.getString("ingredient_name");
+            if (ingredientName != null) {
+              String ingredientAmount = row.getValue("ingredient_amount") != null ? row.getValue("ingredient_amount").toString() : "";
+              card[0].append("<li>").append(ingredientName)
+                .append(": ").append(ingredientAmount).append(" ").append(row.getString("ingredient_unit"))
+                .append("</li>");
+            }
+            return finished;
+          }, () -> card[0] != null ? Buffer.buffer(closeRecipeCard(card[0], currentId[0])).appendBuffer(tail) : tail);
         });
 
       } else {
@@ -292,6 +313,17 @@ public class MainVerticle extends AbstractVerticle {
 
 
 
+  // Bearbeiten-Button außerhalb der Zutaten-Schleife hinzufügen und die Karte abschließen
+  private static String closeRecipeCard(StringBuilder sb, int recipeId) {
+    return sb.append("</ul>") // Zutatenliste schließen
+      .append("<div style='text-align: right; margin-top: 10px;'>") // Container für Button
+      .append("<a href='/edit-recipe.html?id=" + recipeId + "' class='btn btn-primary'>Bearbeiten</a>")
+      .append("<button onclick='deleteRecipe(" + recipeId + ")' class='btn btn-danger'>Löschen</button>")
+      .append("</div></div>") // Container und Card schließen
+      .append("</ul></div></div>")
+      .toString();
+  }
+
   /**
    * @api {post} /users/delete Löscht den angemeldeten Benutzer
    * @apiName DeleteUser
@@ -316,18 +348,18 @@ public class MainVerticle extends AbstractVerticle {
       }
 
       int userId = userIdResult.result();
-      System.out.println("🗑 Benutzer-ID zum Löschen: " + userId); // Debugging
+      RequestLog.debug(log, context).log("🗑 Benutzer-ID zum Löschen: {}", userId);
 
-      String query = "DELETE FROM users WHERE id = ?";
-      JsonArray params = new JsonArray().add(userId);
+      String query = Statements.USER_DELETE;
+      Tuple params = Tuple.of(userId);
 
-      dbClient.updateWithParams(query, params, deleteRes -> {
+      dbClient.update(query, params).onComplete(deleteRes -> {
         if (deleteRes.succeeded()) {
-          int deletedRows = deleteRes.result().getUpdated();
+          int deletedRows = deleteRes.result().rowCount();
 
           if (deletedRows > 0) {
             // Erfolgreiches Löschen des Benutzers
-            System.out.println("✅ Benutzer erfolgreich gelöscht.");
+            RequestLog.info(log, context).log("✅ Benutzer {} gelöscht", userId);
 
             // Umleitung zur Registrierungsseite
             context.response()
@@ -394,9 +426,10 @@ public class MainVerticle extends AbstractVerticle {
 
 
   private void renderTemplate(RoutingContext context, String filePath) {
-    vertx.fileSystem().readFile("frontend/" + filePath, res -> {
+    templates.get(filePath).onComplete(res -> {
       if (res.succeeded()) {
-        context.response().putHeader("Content-Type", "text/html").end(res.result());
+        // Platzhalter {{NAME}} werden aus den Daten des RoutingContext befüllt
+        context.response().putHeader("Content-Type", "text/html").end(res.result().render(context.data()));
       } else {
         context.fail(500);
       }
@@ -411,12 +444,12 @@ public class MainVerticle extends AbstractVerticle {
         context.put("user_id", userId); // Speichert die ID für das HTML-Template
 
         // Rezepte des Benutzers aus der Datenbank holen
-        String query = "SELECT * FROM recipes WHERE user_id = ?";
-        dbClient.queryWithParams(query, new JsonArray().add(userId), res2 -> {
+        String query = Statements.RECIPES_OF_USER;
+        dbClient.query(query, Tuple.of(userId)).onComplete(res2 -> {
           if (res2.succeeded()) {
-            List<JsonObject> rezepte = res2.result().getRows();
+            List<JsonObject> rezepte = res2.result();
             context.put("REZEPTLISTE", rezepte); // Rezepte an das Template übergeben
-            renderTemplate(context, "meinerezepte.html");
+            renderTemplate(context, "meine-rezepte.html");
           } else {
             context.response().setStatusCode(500).end("Fehler beim Laden der Rezepte.");
           }
@@ -490,73 +523,36 @@ public class MainVerticle extends AbstractVerticle {
       }
 
       // 📌 Rezept speichern
-      String recipeQuery = "INSERT INTO recipes (user_id, title, description, portions, image_url, created_at) VALUES (?, ?, ?, ?, ?, NOW())";
+      String recipeQuery = Statements.RECIPE_INSERT_NOW;
+
+      // 📌 Zutaten einsammeln, Rezept und Zutaten werden in einer Transaktion gespeichert
+      List<IngredientRepository.IngredientLine> ingredients = new ArrayList<>();
+      for (int i = 1; ; i++) {
+        String name = context.request().getFormAttribute("ingredient_" + i + "_name");
+        if (name == null) break; // Keine weiteren Zutaten
+
+        IngredientRepository.IngredientLine line = IngredientRepository.IngredientLine.of(name,
+          context.request().getFormAttribute("ingredient_" + i + "_amount"),
+          context.request().getFormAttribute("ingredient_" + i + "_unit"));
+        if (line != null) ingredients.add(line);
+      }
 
-      dbClient.updateWithParams(recipeQuery, new JsonArray().add(userId).add(title).add(description).add(portions).add(imageUrl), res -> {
+      Tuple params = Tuple.of(userId, title, description, portions, imageUrl);
+      ingredientRepository.createRecipe(recipeQuery, params, ingredients).onComplete(res -> {
         if (res.succeeded()) {
-          int recipeId = res.result().getKeys().getInteger(0); // ID des neuen Rezepts holen
-
-          // 📌 Zutaten speichern
-          saveIngredients(recipeId, context);
-
+          recipeService.onRecipeCreated(res.result(), userId);
           context.response()
             .setStatusCode(303)
             .putHeader("Location", "/profil.html") // Weiterleitung zur Profilseite
             .end();
         } else {
-          res.cause().printStackTrace();
+          RequestLog.error(log, context).setCause(res.cause()).log("❌ Rezept konnte nicht gespeichert werden");
           context.response().setStatusCode(500).end("❌ Fehler beim Speichern des Rezepts!");
         }
       });
     });
   }
 
-  private void saveIngredients(int recipeId, RoutingContext context) {
-    int ingredientIndex = 1;
-
-    while (true) {
-      String name = context.request().getFormAttribute("ingredient_" + ingredientIndex + "_name");
-      String amountStr = context.request().getFormAttribute("ingredient_" + ingredientIndex + "_amount");
-      String unit = context.request().getFormAttribute("ingredient_" + ingredientIndex + "_unit");
-
-      if (name == null) break; // Keine weiteren Zutaten
-
-      double amount = (amountStr != null) ? Double.parseDouble(amountStr) : 0.0;
-
-      // 1️⃣ Hol die Ingredient ID oder füge die Zutat neu ein
-      String getOrCreateIngredientQuery =
-        "INSERT INTO ingredients (name) SELECT ? WHERE NOT EXISTS (SELECT 1 FROM ingredients WHERE name = ?)";
-
-      dbClient.updateWithParams(getOrCreateIngredientQuery, new JsonArray().add(name).add(name), res -> {
-        if (res.failed()) {
-          res.cause().printStackTrace();
-          return;
-        }
-
-        // 2️⃣ Danach Ingredient ID holen und Rezept speichern
-        String ingredientQuery =
-          "INSERT INTO recipe_ingredients (recipe_id, ingredient_id, amount, unit) " +
-            "VALUES (?, (SELECT id FROM ingredients WHERE name = ? LIMIT 1), ?, ?)";
-
-        JsonArray params = new JsonArray()
-          .add(recipeId)
-          .add(name)
-          .add(amount)
-          .add(unit);
-
-        dbClient.updateWithParams(ingredientQuery, params, res2 -> {
-          if (res2.succeeded()) {
-            System.out.println("✅ Zutat gespeichert: " + name);
-          } else {
-            res2.cause().printStackTrace();
-          }
-        });
-      });
-
-      ingredientIndex++;
-    }
-  }
-
 
 
 
@@ -594,52 +590,21 @@ public class MainVerticle extends AbstractVerticle {
    *     }
    *
    * @apiError (Not Found 404) NotFound Das Rezept wurde nicht gefunden.
+   * @apiHeader {String} [If-None-Match] ETag einer früheren Antwort; ist das Rezept unverändert, kommt 304 ohne Inhalt.
+   * @apiSuccess (Not Modified 304) NotModified Das Rezept hat sich seit dem angegebenen ETag nicht geändert.
    * @apiError (Server Error 500) ServerError Ein Fehler ist aufgetreten, während das Rezept abgerufen wurde.
    */
   private void getRecipe(RoutingContext ctx) {
-    int recipeId = Integer.parseInt(ctx.request().getParam("id"));
-
-    dbClient.getConnection(ar -> {
-      if (ar.succeeded()) {
-        SQLConnection connection = ar.result();
-
-        String query = "SELECT r.id AS recipe_id, r.title, r.description, r.portions, r.image_url, " +
-          "i.id AS ingredient_id, i.name AS ingredient_name, ri.amount AS ingredient_amount, ri.unit AS ingredient_unit " +
-          "FROM recipes r " +
-          "LEFT JOIN recipe_ingredients ri ON r.id = ri.recipe_id " +
-          "LEFT JOIN ingredients i ON ri.ingredient_id = i.id " +
-          "WHERE r.id = ?";
-
-        connection.queryWithParams(query, new JsonArray().add(recipeId), res -> {
-          if (res.succeeded()) {
-            JsonObject recipe = new JsonObject();
-            List<JsonObject> ingredients = new ArrayList<>();
-
-            res.result().getRows().forEach(row -> {
-              if (!recipe.containsKey("recipe_id")) {
-                recipe.put("recipe_id", row.getInteger("recipe_id"));
-                recipe.put("title", row.getString("title"));
-                recipe.put("description", row.getString("description"));
-                recipe.put("portions", row.getInteger("portions"));
-                recipe.put("image_url", row.getString("image_url"));
-              }
-
-              JsonObject ingredient = new JsonObject()
-                .put("id", row.getInteger("ingredient_id"))
-                .put("name", row.getString("ingredient_name"))
-                .put("amount", row.getValue("ingredient_amount"))
-                .put("unit", row.getString("ingredient_unit"));
-              ingredients.add(ingredient);
-            });
-
-            recipe.put("ingredients", ingredients);
-            ctx.response().putHeader("Content-Type", "application/json").end(recipe.encode());
-          } else {
-            ctx.fail(500);
-          }
-          connection.close();
-        });
+    long recipeId = Long.parseLong(ctx.request().getParam("id"));
 
+    // fertig zusammengesetztes Rezept aus dem Cache, ETag/If-None-Match für 304
+    recipeCache.get(recipeId).onComplete(res -> {
+      if (res.succeeded()) {
+        if (res.result() == null) {
+          ctx.response().putHeader("Content-Type", "application/json").end("{\"ingredients\":[]}");
+          return;
+        }
+        RecipeCache.sendDetail(ctx, res.result());
       } else {
         ctx.fail(500);
       }
@@ -679,11 +644,12 @@ public class MainVerticle extends AbstractVerticle {
     int portions = Integer.parseInt(form.get("portions"));
     String imageUrl = form.get("image_url");
 
-    String updateQuery = "UPDATE recipes SET title = ?, description = ?, portions = ?, image_url = ? WHERE id = ?";
-    JsonArray params = new JsonArray().add(title).add(description).add(portions).add(imageUrl).add(recipeId);
+    String updateQuery = Statements.RECIPE_UPDATE;
+    Tuple params = Tuple.of(title, description, portions, imageUrl, recipeId);
 
-    dbClient.updateWithParams(updateQuery, params, res -> {
+    dbClient.update(updateQuery, params).onComplete(res -> {
       if (res.succeeded()) {
+        recipeService.onRecipeChanged(recipeId);
         ctx.response().putHeader("Content-Type", "application/json").end("{\"status\":\"ok\"}");
       } else {
         ctx.fail(500);
@@ -765,12 +731,12 @@ public class MainVerticle extends AbstractVerticle {
       }
 
       // Überprüfen, ob das Rezept dem Benutzer gehört
-      String checkQuery = "SELECT user_id FROM recipes WHERE id = ?";
-      JsonArray checkParams = new JsonArray().add(recipeId);
+      String checkQuery = Statements.RECIPE_OWNER;
+      Tuple checkParams = Tuple.of(recipeId);
 
-      dbClient.queryWithParams(checkQuery, checkParams, checkRes -> {
-        if (checkRes.succeeded() && !checkRes.result().getRows().isEmpty()) {
-          int recipeOwnerId = checkRes.result().getRows().get(0).getInteger("user_id");
+      dbClient.query(checkQuery, checkParams).onComplete(checkRes -> {
+        if (checkRes.succeeded() && !checkRes.result().isEmpty()) {
+          int recipeOwnerId = checkRes.result().get(0).getInteger("user_id");
 
           if (recipeOwnerId != userId) {
             // Der Benutzer darf dieses Rezept nicht löschen
@@ -781,20 +747,18 @@ public class MainVerticle extends AbstractVerticle {
           }
 
           // Rezept löschen
-          String deleteQuery = "DELETE FROM recipes WHERE id = ?";
-          dbClient.updateWithParams(deleteQuery, new JsonArray().add(recipeId), deleteRes -> {
+          String deleteQuery = Statements.RECIPE_DELETE;
+          dbClient.update(deleteQuery, Tuple.of(recipeId)).onComplete(deleteRes -> {
             if (deleteRes.succeeded()) {
+              recipeService.onRecipeDeleted(recipeId, recipeOwnerId);
               context.response()
                 .setStatusCode(200)
                 .end("✅ Rezept erfolgreich gelöscht!");
             } else {
-              System.err.println("❌ Fehler beim Löschen: " + deleteRes.cause().getMessage());
-
+              RequestLog.error(log, context).log("❌ Fehler beim Löschen von Rezept {}: {}", recipeId, deleteRes.cause().getMessage());
               context.response()
                 .setStatusCode(500)
                 .end("❌ Fehler beim Löschen des Rezepts: " + deleteRes.cause().getMessage());
-              System.err.println("❌ Fehler beim Löschen: " + deleteRes.cause().getMessage());
-
             }
           });
 
@@ -830,28 +794,21 @@ public class MainVerticle extends AbstractVerticle {
       if (res.succeeded() && res.result() != -1) {
         int userId = res.result();
         JsonObject body = context.getBodyAsJson();
-        StringBuilder query = new StringBuilder("UPDATE users SET ");
-        JsonArray params = new JsonArray();
+        Statements.PartialUpdate.Values update = Statements.USER_PATCH.values();
 
         if (body.containsKey("name")) {
-          query.append("name = ?, ");
-          params.add(body.getString("name"));
+          update.set("name", body.getString("name"));
         }
         if (body.containsKey("email")) {
-          query.append("email = ?, ");
-          params.add(body.getString("email"));
+          update.set("email", body.getString("email"));
         }
 
-        if (params.size() == 0) {
+        if (update.isEmpty()) {
           context.response().setStatusCode(400).end("⚠ Keine gültigen Daten zum Aktualisieren!");
           return;
         }
 
-        query.setLength(query.length() - 2);
-        query.append(" WHERE id = ?");
-        params.add(userId);
-
-        dbClient.updateWithParams(query.toString(), params, dbRes -> {
+        dbClient.update(update.sql(), update.tuple(userId)).onComplete(dbRes -> {
           if (dbRes.succeeded()) {
             context.response().setStatusCode(200).end("✅ Profil aktualisiert!");
           } else {
@@ -885,11 +842,11 @@ public class MainVerticle extends AbstractVerticle {
     authService.getUserIdFromSession(context, res -> {
       if (res.succeeded() && res.result() != -1) {
         int userId = res.result();
-        String query = "SELECT name, email FROM users WHERE id = ?";
+        String query = Statements.USER_PROFILE;
 
-        dbClient.queryWithParams(query, new JsonArray().add(userId), dbRes -> {
-          if (dbRes.succeeded() && !dbRes.result().getRows().isEmpty()) {
-            JsonObject user = dbRes.result().getRows().get(0);
+        dbClient.query(query, Tuple.of(userId)).onComplete(dbRes -> {
+          if (dbRes.succeeded() && !dbRes.result().isEmpty()) {
+            JsonObject user = dbRes.result().get(0);
             context.response()
               .putHeader("Content-Type", "application/json")
               .end(user.encode());
@@ -904,157 +861,6 @@ public class MainVerticle extends AbstractVerticle {
   }
 
 
-  /**
-   * @api {post} /favorites/:recipe_id Fügt ein Rezept zu den Favoriten des Benutzers hinzu
-   * @apiName AddFavorite
-   * @apiGroup Favorites
-   *
-   * @apiDescription Diese Route fügt ein Rezept zu den Favoriten des angemeldeten Benutzers hinzu.
-   *
-   * @apiParam {Number} recipe_id Die ID des Rezepts, das zu den Favoriten hinzugefügt werden soll.
-   *
-   * @apiSuccess {JSON} response Ein JSON-Objekt mit einer Erfolgsmeldung.
-   * @apiSuccessExample {json} Erfolgsantwort:
-   *     {
-   *       "message": "Dieses Rezept wurde erfolgreich zu Favoriten hinzugefügt!"
-   *     }
-   *
-   * @apiError (Bad Request 400) BadRequest Die Rezept-ID ist ungültig oder fehlt.
-   * @apiError (Unauthorized 401) Unauthorized Der Benutzer ist nicht angemeldet.
-   * @apiError (Conflict 409) Conflict Das Rezept ist bereits in den Favoriten enthalten.
-   * @apiError (Server Error 500) ServerError Ein Fehler ist aufgetreten, während das Rezept zu den Favoriten hinzugefügt wurde.
-   */
-  public void addFavorite(RoutingContext context) {
-    authService.getUserIdFromSession(context, res -> {
-      if (res.succeeded() && res.result() != -1) {
-        int userId = res.result();
-
-        // Rezept-ID aus der URL extrahieren
-        String recipeIdParam = context.pathParam("recipe_id");
-
-        if (recipeIdParam == null) {
-          context.response().setStatusCode(400).end("Fehler: Ungültige Rezept-ID.");
-          return;
-        }
-
-        int recipeId;
-        try {
-          recipeId = Integer.parseInt(recipeIdParam);
-        } catch (NumberFormatException e) {
-          context.response().setStatusCode(400).end("Fehler: Rezept-ID muss eine Zahl sein.");
-          return;
-        }
-
-        // Überprüfen, ob das Rezept bereits in den Favoriten ist
-        String checkQuery = "SELECT COUNT(*) FROM favorites WHERE user_id = ? AND recipe_id = ?";
-        JsonArray checkParams = new JsonArray().add(userId).add(recipeId);
-
-        dbClient.queryWithParams(checkQuery, checkParams, checkRes -> {
-          if (checkRes.succeeded()) {
-            int count = checkRes.result().getRows().get(0).getInteger("COUNT(*)");
-
-            if (count > 0) {
-              context.response().setStatusCode(409).end("Dieses Rezept ist bereits in Ihren Favoriten.");
-            } else {
-              // Rezept zu den Favoriten hinzufügen
-              String insertQuery = "INSERT INTO favorites (user_id, recipe_id) VALUES (?, ?)";
-              JsonArray insertParams = new JsonArray().add(userId).add(recipeId);
-
-              dbClient.updateWithParams(insertQuery, insertParams, insertRes -> {
-                if (insertRes.succeeded()) {
-                  JsonObject jsonResponse = new JsonObject()
-                    .put("Dieses Rezept ", " wurde erfolgreich zu Favoriten hinzugefügt!");
-                   // .put("redirectUrl", "/favorite.html");  // Hier die URL zur Favoriten-Seite anpassen
-
-                  context.response().putHeader("Content-Type", "application/json")
-                    .setStatusCode(200)
-                    .end(jsonResponse.encode());
-                } else {
-                  context.response().setStatusCode(500).end("Fehler beim Hinzufügen zu den Favoriten.");
-                }
-              });
-            }
-          } else {
-            context.response().setStatusCode(500).end("Fehler beim Überprüfen der Favoriten.");
-          }
-        });
-
-      } else {
-        context.response().setStatusCode(401).end("Fehler: Sie müssen eingeloggt sein.");
-      }
-    });
-  }
-
-
-  /**
-   * @api {get} /favorites Favoriten abrufen
-   * @apiName GetFavorites
-   * @apiGroup Favorites
-   * @apiDescription Gibt die Favoriten des aktuell angemeldeten Benutzers zurück. Der Benutzer muss eingeloggt sein, um seine Favoriten abzurufen.
-   *
-   * @apiSuccess {Object[]} favorites Liste der Favoriten des Benutzers.
-   * @apiSuccess {Number} favorites.id ID des Rezepts.
-   * @apiSuccess {String} favorites.title Titel des Rezepts.
-   * @apiSuccess {String} favorites.description Beschreibung des Rezepts.
-   * @apiSuccess {String} favorites.image_url URL des Rezeps-Bildes.
-   * @apiSuccessExample {json} Erfolgreiche Antwort:
-   *     HTTP/1.1 200 OK
-   *     [
-   *       {
-   *         "id": 1,
-   *         "title": "Spaghetti Carbonara",
-   *         "description": "Leckere Pasta mit Ei und Speck.",
-   *         "image_url": "carbonara.jpg"
-   *       },
-   *       {
-   *         "id": 2,
-   *         "title": "Pizza Margherita",
-   *         "description": "Klassische Pizza mit Tomaten und Mozzarella.",
-   *         "image_url": "pizza_margherita.jpg"
-   *       }
-   *     ]
-   *
-   * @apiError (Unauthorized) {String} message Fehlende Anmeldung.
-   * @apiErrorExample {json} Nicht angemeldet:
-   *     HTTP/1.1 401 Unauthorized
-   *     {
-   *       "message": "Fehler: Sie müssen eingeloggt sein."
-   *     }
-   *
-   * @apiError (Server Error) {String} message Fehler beim Abrufen der Favoriten.
-   * @apiErrorExample {json} Datenbankfehler:
-   *     HTTP/1.1 500 Internal Server Error
-   *     {
-   *       "message": "Fehler beim Abrufen der Favoriten."
-   *     }
-   */
-
-  public void getFavorites(RoutingContext context) {
-    authService.getUserIdFromSession(context, res -> {
-      if (res.succeeded() && res.result() != -1) {
-        int userId = res.result();
-
-        // SQL-Abfrage: Holen der gespeicherten Favoriten
-        String query = "SELECT r.id, r.title, r.description, r.image_url FROM recipes r " +
-          "JOIN favorites f ON r.id = f.recipe_id WHERE f.user_id = ?";
-        JsonArray params = new JsonArray().add(userId);
-
-        dbClient.queryWithParams(query, params, queryRes -> {
-          if (queryRes.succeeded()) {
-            List<JsonObject> favorites = queryRes.result().getRows();
-            context.response()
-              .putHeader("Content-Type", "application/json")
-              .end(new JsonArray(favorites).encode());
-          } else {
-            context.response().setStatusCode(500).end("Fehler beim Abrufen der Favoriten.");
-          }
-        });
-      } else {
-        context.response().setStatusCode(401).end("Fehler: Sie müssen eingeloggt sein.");
-      }
-    });
-  }
-
   /**
    * @api {post} /comments/add Kommentar hinzufügen
    * @apiName AddComment
@@ -1113,11 +919,12 @@ public class MainVerticle extends AbstractVerticle {
       if (userIdResult.succeeded() && userIdResult.result() != -1) {
         Integer userId = userIdResult.result(); // Benutzer-ID aus der Session holen
 
-        String query = "INSERT INTO comments (user_id, recipe_id, content) VALUES (?, ?, ?)";
-        JsonArray params = new JsonArray().add(userId).add(recipeId).add(content);
+        String query = Statements.COMMENT_INSERT;
+        Tuple params = Tuple.of(userId, recipeId, content);
 
-        dbClient.queryWithParams(query, params, res -> {
+        dbClient.query(query, params).onComplete(res -> {
           if (res.succeeded()) {
+            DomainEvents.publish(vertx, new DomainEvents.CommentAdded(recipeId, userId));
             context.response()
               .setStatusCode(303) // 303 See Other - für Redirects nach POST-Anfragen
               .putHeader("Location", "/comment.html?recipeId=" + recipeId)
@@ -1186,11 +993,11 @@ public class MainVerticle extends AbstractVerticle {
       String newContent = body.getString("content");
 
       // 1. Prüfe ob der Nutzer der Kommentar-Besitzer ist
-      String checkOwnership = "SELECT user_id FROM comments WHERE id = ?";
+      String checkOwnership = Statements.COMMENT_OWNER;
 
-      dbClient.queryWithParams(checkOwnership, new JsonArray().add(commentId), checkRes -> {
-        if (checkRes.succeeded() && !checkRes.result().getRows().isEmpty()) {
-          int commentOwnerId = checkRes.result().getRows().get(0).getInteger("user_id");
+      dbClient.query(checkOwnership, Tuple.of(commentId)).onComplete(checkRes -> {
+        if (checkRes.succeeded() && !checkRes.result().isEmpty()) {
+          int commentOwnerId = checkRes.result().get(0).getInteger("user_id");
 
           if (commentOwnerId != currentUserId) {
             context.response().setStatusCode(403).end("Keine Berechtigung!");
@@ -1198,10 +1005,9 @@ public class MainVerticle extends AbstractVerticle {
           }
 
           // 2. Aktualisiere den Kommentar
-          String updateQuery = "UPDATE comments SET content = ? WHERE id = ?";
-          dbClient.updateWithParams(updateQuery,
-            new JsonArray().add(newContent).add(commentId),
-            updateRes -> {
+          String updateQuery = Statements.COMMENT_UPDATE;
+          dbClient.update(updateQuery,
+            Tuple.of(newContent, commentId)).onComplete(updateRes -> {
               if (updateRes.succeeded()) {
                 context.response().end("Kommentar aktualisiert!");
               } else {
@@ -1221,6 +1027,8 @@ public class MainVerticle extends AbstractVerticle {
    * @apiDescription Ruft alle Kommentare für ein bestimmtes Rezept ab. Der Benutzer muss angemeldet sein, um seine eigenen Kommentare zu bearbeiten oder zu löschen.
    *
    * @apiParam {Number} recipeId Die ID des Rezepts, dessen Kommentare abgerufen werden sollen.
+   * @apiParam {Number} [after] Cursor aus dem Header X-Next-Cursor der vorherigen Seite.
+   * @apiParam {Number} [limit=20] Anzahl der Kommentare pro Seite (höchstens 100).
    *
    * @apiSuccess {String} commentsHtml HTML-String der Kommentare. Enthält auch Bearbeitungs- und Lösch-Buttons für den Eigentümer des Kommentars.
    * @apiSuccessExample {json} Erfolgreiche Antwort:
@@ -1251,13 +1059,16 @@ public class MainVerticle extends AbstractVerticle {
     authService.getUserIdFromSession(context, userIdResult -> {
       Integer currentUserId = userIdResult.result(); // -1 wenn nicht angemeldet
 
-      String query = "SELECT c.id, u.id AS user_id, u.name, c.content, c.created_at "
-        + "FROM comments c JOIN users u ON c.user_id = u.id WHERE c.recipe_id = ?";
+      PageRequest page = PageRequest.from(context);
+      Tuple params = Tuple.of(recipeId);
+      String query = page.apply(Statements.COMMENTS_PAGE, "c.id", params);
 
-      dbClient.queryWithParams(query, new JsonArray().add(recipeId), res -> {
+      dbClient.query(query, params).onComplete(res -> {
         if (res.succeeded()) {
+          List<JsonObject> comments = res.result();
+          page.finish(context, comments, "id"); // Cursor im Header X-Next-Cursor
           StringBuilder commentsHtml = new StringBuilder();
-          for (JsonObject row : res.result().getRows()) {
+          for (JsonObject row : comments) {
             Integer commentUserId = row.getInteger("user_id");
             boolean isOwner = currentUserId != -1 && currentUserId.equals(commentUserId);
 
@@ -1324,10 +1135,12 @@ public class MainVerticle extends AbstractVerticle {
       int currentUserId = userIdResult.result();
 
       // 1. Prüfe Kommentar-Besitz
-      String checkQuery = "SELECT user_id FROM comments WHERE id = ?";
-      dbClient.queryWithParams(checkQuery, new JsonArray().add(commentId), checkRes -> {
-        if (checkRes.succeeded() && !checkRes.result().getRows().isEmpty()) {
-          int commentOwnerId = checkRes.result().getRows().get(0).getInteger("user_id");
+      String checkQuery = Statements.COMMENT_BY_ID;
+      dbClient.query(checkQuery, Tuple.of(commentId)).onComplete(checkRes -> {
+        if (checkRes.succeeded() && !checkRes.result().isEmpty()) {
+          int commentOwnerId = checkRes.result().get(0).getInteger("user_id");
+          int recipeId = checkRes.result().get(0).getInteger("recipe_id");
+          int id = checkRes.result().get(0).getInteger("id");
 
           if (commentOwnerId != currentUserId) {
             context.response().setStatusCode(403).end("Keine Berechtigung!");
@@ -1335,10 +1148,13 @@ public class MainVerticle extends AbstractVerticle {
           }
 
           // 2. Lösche Kommentar
-          String deleteQuery = "DELETE FROM comments WHERE id = ?";
-          dbClient.updateWithParams(deleteQuery, new JsonArray().add(commentId), deleteRes -> {
-            if (deleteRes.succeeded()) {
+          String deleteQuery = Statements.COMMENT_DELETE;
+          dbClient.update(deleteQuery, Tuple.of(commentId)).onComplete(deleteRes -> {
+            if (deleteRes.succeeded() && deleteRes.result().rowCount() > 0) {
+              DomainEvents.publish(vertx, new DomainEvents.CommentDeleted(id, recipeId, commentOwnerId));
               context.response().setStatusCode(200).end("Kommentar gelöscht");
+            } else if (deleteRes.succeeded()) {
+              context.response().setStatusCode(404).end("Kommentar nicht gefunden");
             } else {
               context.response().setStatusCode(500).end("Datenbankfehler");
             }
@@ -1410,15 +1226,12 @@ public class MainVerticle extends AbstractVerticle {
           return;
         }
 
-        String query = "SELECT c.id, c.content, c.user_id, u.username FROM comments c " +
-          "JOIN users u ON c.user_id = u.id WHERE c.recipe_id = ?";
-
-        JsonArray params = new JsonArray().add(Integer.parseInt(recipeId));
+        Tuple params = Tuple.of(Integer.parseInt(recipeId));
 
-        dbClient.queryWithParams(query, params, res -> {
+        dbClient.query(Statements.COMMENTS_OF_RECIPE, params).onComplete(res -> {
           if (res.succeeded()) {
             JsonArray comments = new JsonArray();
-            for (JsonObject row : res.result().getRows()) {
+            for (JsonObject row : res.result()) {
               JsonObject comment = new JsonObject()
                 .put("id", row.getInteger("id"))
                 .put("content", row.getString("content"))
@@ -1438,63 +1251,6 @@ public class MainVerticle extends AbstractVerticle {
 
 
 
-  /**
-   * @api {delete} /favorites/:recipe_id Favorit entfernen
-   * @apiName DeleteFavorite
-   * @apiGroup Favorites
-   * @apiDescription Entfernt ein Rezept aus der Liste der Favoriten eines Benutzers.
-   * Der Benutzer muss angemeldet sein, um ein Rezept aus seinen Favoriten zu entfernen.
-   *
-   * @apiParam {Number} recipe_id Die ID des Rezepts, das aus den Favoriten entfernt werden soll.
-   *
-   * @apiSuccess {String} status Erfolgreiche Antwort mit dem Status "success", wenn das Rezept entfernt wurde.
-   * @apiSuccessExample {json} Erfolgreiche Antwort:
-   *     HTTP/1.1 200 OK
-   *     {
-   *       "status": "success"
-   *     }
-   *
-   * @apiError (Unauthorized) {String} message Fehlende Anmeldung.
-   * @apiErrorExample {json} Nicht angemeldet:
-   *     HTTP/1.1 401 Unauthorized
-   *     {
-   *       "message": "Nicht angemeldet!"
-   *     }
-   *
-   * @apiError (Server Error) {String} message Fehler bei der Datenbankabfrage.
-   * @apiErrorExample {json} Datenbankfehler:
-   *     HTTP/1.1 500 Internal Server Error
-   *     {}
-   */
-
-  public void deleteFavorite(RoutingContext context) {
-    authService.getUserIdFromSession(context, userIdResult -> {
-      if (userIdResult.failed() || userIdResult.result() == -1) {
-        context.response().setStatusCode(401).end("Nicht angemeldet!");
-        return;
-      }
-
-      int userId = userIdResult.result();
-      int recipeId = Integer.parseInt(context.pathParam("recipe_id"));
-
-      String deleteQuery = "DELETE FROM favorites WHERE user_id = ? AND recipe_id = ?";
-      dbClient.updateWithParams(deleteQuery,
-        new JsonArray().add(userId).add(recipeId),
-        res -> {
-          if (res.succeeded()) {
-            context.response().end(new JsonObject().put("status", "success").encode());
-          } else {
-            context.response().setStatusCode(500).end();
-          }
-        }
-      );
-    });
-  }
-
-
-
-
-
   /**
    * @api {patch} /users/me/credentials Aktualisiert die Anmeldeinformationen des angemeldeten Benutzers
    * @apiName UpdateUserCredentials
@@ -1516,34 +1272,32 @@ public class MainVerticle extends AbstractVerticle {
       if (res.succeeded() && res.result() != -1) {
         int userId = res.result();
         JsonObject body = context.getBodyAsJson();
-        StringBuilder query = new StringBuilder("UPDATE users SET ");
-        JsonArray params = new JsonArray();
+        Statements.PartialUpdate.Values update = Statements.USER_PATCH.values();
 
         if (body.containsKey("email")) {
-          query.append("email = ?, ");
-          params.add(body.getString("email"));
-        }
-        if (body.containsKey("password")) {
-          String hashedPassword = authService.hashPassword(body.getString("password"));
-          query.append("password_hash = ?, ");
-          params.add(hashedPassword);
+          update.set("email", body.getString("email"));
         }
 
         // Wenn keine gültigen Daten übermittelt wurden
-        if (params.size() == 0) {
+        if (update.isEmpty() && !body.containsKey("password")) {
           context.response().setStatusCode(400).end("⚠ Keine gültigen Daten zum Aktualisieren!");
           return;
         }
 
-        // Letztes Komma entfernen und WHERE-Klausel hinzufügen
-        query.setLength(query.length() - 2);
-        query.append(" WHERE id = ?");
-        params.add(userId);
+        // Passwort im Hash-Pool hashen, nicht auf dem Event-Loop
+        Future<String> passwordHash = body.containsKey("password")
+          ? hashing.submit("update", () -> passwordHasher.hash(body.getString("password")))
+          : Future.succeededFuture();
 
-        dbClient.updateWithParams(query.toString(), params, dbRes -> {
+        passwordHash.compose(hashedPassword -> {
+          if (hashedPassword != null) {
+            update.set("password_hash", hashedPassword);
+          }
+          return dbClient.update(update.sql(), update.tuple(userId));
+        }).onComplete(dbRes -> {
           if (dbRes.succeeded()) {
             context.response().setStatusCode(200).end("✅ Anmeldeinformationen aktualisiert!");
-          } else {
+          } else if (!HashingExecutor.handleRejected(context, dbRes.cause())) {
             context.response().setStatusCode(500).end("❌ Fehler beim Aktualisieren der Anmeldeinformationen!");
           }
         });
@@ -1590,13 +1344,13 @@ public class MainVerticle extends AbstractVerticle {
       context.session().put("darkMode", newDarkModeStatus);
 
       // Speichern des Dunkelmodus-Status in der Datenbank
-      String query = "UPDATE users SET dark_mode = ? WHERE id = ?";
-      dbClient.updateWithParams(query, new JsonArray().add(newDarkModeStatus).add(userId), dbRes -> {
+      String query = Statements.USER_DARK_MODE;
+      dbClient.update(query, Tuple.of(newDarkModeStatus, userId)).onComplete(dbRes -> {
         if (dbRes.succeeded()) {
-          System.out.println("Dunkelmodus-Status für Benutzer " + userId + " aktualisiert: " + newDarkModeStatus);
+          RequestLog.debug(log, context).log("Dunkelmodus-Status für Benutzer {} aktualisiert: {}", userId, newDarkModeStatus);
           response.setStatusCode(200).end();
         } else {
-          System.err.println("Fehler beim Aktualisieren des Dunkelmodus-Status: " + dbRes.cause().getMessage());
+          RequestLog.warn(log, context).log("Fehler beim Aktualisieren des Dunkelmodus-Status: {}", dbRes.cause().getMessage());
           response.setStatusCode(500).end("❌ Fehler beim Aktualisieren des Dunkelmodus-Status");
         }
       });
@@ -1605,23 +1359,24 @@ public class MainVerticle extends AbstractVerticle {
 
 
   /**
-   * @api {post} /users/me/check-achievements Überprüfe und gewähre Erfolge
+   * @api {post} /users/me/check-achievements Aktuellen Erfolg prüfen
    * @apiName CheckAndGrantAchievements
    * @apiGroup User
-   * @apiDescription Überprüft die Anzahl der erstellten Rezepte eines Benutzers und vergibt gegebenenfalls Erfolge.
+   * @apiDescription Liefert den aktuellen Erfolg des Benutzers. Vergeben werden Erfolge inzwischen automatisch,
+   * sobald die Zahl der eigenen Rezepte eine Schwelle erreicht (siehe UserStats); diese Route zählt nichts mehr.
    *
-   * @apiSuccess  {String} message ✅ Erfolg vergeben: [Achievement Type]
-   * @apiSuccessExample {json} Erfolg vergeben:
+   * @apiSuccess  {String} message Aktueller Erfolg: [Achievement Type]
+   * @apiSuccessExample {json} Erfolg erreicht:
    *     HTTP/1.1 200 OK
    *     {
-   *       "message": "✅ Erfolg vergeben: Meisterkoch"
+   *       "message": "Aktueller Erfolg: Meisterkoch"
    *     }
    *
-   * @apiSuccess (Alternative Case) {String} message ⚠ Kein neuer Erfolg vergeben.
-   * @apiSuccessExample {json} Kein neuer Erfolg:
+   * @apiSuccess (Alternative Case) {String} message ⚠ Noch kein Erfolg erreicht.
+   * @apiSuccessExample {json} Noch kein Erfolg:
    *     HTTP/1.1 200 OK
    *     {
-   *       "message": "⚠ Kein neuer Erfolg vergeben."
+   *       "message": "⚠ Noch kein Erfolg erreicht."
    *     }
    *
    * @apiError {String} message ❌ Nicht authentifiziert!
@@ -1637,13 +1392,6 @@ public class MainVerticle extends AbstractVerticle {
    *     {
    *       "message": "❌ Fehler beim Abrufen der Rezeptanzahl!"
    *     }
-   *
-   * @apiError {String} message ❌ Fehler beim Vergeben des Erfolgs!
-   * @apiErrorExample {json} Fehler beim Vergeben:
-   *     HTTP/1.1 500 Internal Server Error
-   *     {
-   *       "message": "❌ Fehler beim Vergeben des Erfolgs!"
-   *     }
    */
   public void checkAndGrantAchievements(RoutingContext context) {
     // Benutzer-ID aus der Session holen
@@ -1653,35 +1401,39 @@ public class MainVerticle extends AbstractVerticle {
         return;
       }
 
-      int userId = userIdResult.result();
-
-      // Anzahl der Rezepte des Benutzers abrufen
-      String countQuery = "SELECT COUNT(*) AS recipe_count FROM recipes WHERE user_id = ?";
-      dbClient.queryWithParams(countQuery, new JsonArray().add(userId), countRes -> {
-        if (countRes.succeeded()) {
-          int recipeCount = countRes.result().getRows().get(0).getInteger("recipe_count");
-
-          // Erfolg basierend auf der Anzahl der Rezepte vergeben
-          String achievementType = getAchievementType(recipeCount);
-          if (achievementType != null) {
-            String insertAchievementQuery = "INSERT INTO achievements (user_id, achievement_type) VALUES (?, ?)";
-            dbClient.updateWithParams(insertAchievementQuery, new JsonArray().add(userId).add(achievementType), insertRes -> {
-              if (insertRes.succeeded()) {
-                context.response().setStatusCode(200).end("✅ Erfolg vergeben: " + achievementType);
-              } else {
-                context.response().setStatusCode(500).end("❌ Fehler beim Vergeben des Erfolgs!");
-              }
-            });
-          } else {
-            context.response().setStatusCode(200).end("⚠ Kein neuer Erfolg vergeben.");
-          }
-        } else {
+      userStats.of(userIdResult.result()).onComplete(statsRes -> {
+        if (statsRes.failed()) {
           context.response().setStatusCode(500).end("❌ Fehler beim Abrufen der Rezeptanzahl!");
+          return;
         }
+        String achievement = statsRes.result().getString("achievement");
+        context.response().setStatusCode(200)
+          .end(achievement != null ? "Aktueller Erfolg: " + achievement : "⚠ Noch kein Erfolg erreicht.");
       });
     });
   }
 
+  /**
+   * @api {get} /users/me/achievements Erfolg und Zähler abrufen
+   * @apiName GetUserAchievements
+   * @apiGroup User
+   * @apiDescription Liefert den höchsten erreichten Erfolg und die Zähler des angemeldeten Benutzers.
+   *
+   * @apiSuccess {String} achievement Erfolg oder "Keine Erfolge verfügbar.".
+   * @apiSuccess {Number} recipes Anzahl eigener Rezepte.
+   * @apiSuccess {Number} favorites_received Wie oft eigene Rezepte als Favorit gespeichert sind.
+   * @apiSuccess {Number} comments_received Anzahl der Kommentare zu eigenen Rezepten.
+   * @apiSuccessExample {json} Erfolgreiche Antwort:
+   *     HTTP/1.1 200 OK
+   *     {
+   *       "achievement": "Koch-Lehrling",
+   *       "recipes": 4,
+   *       "favorites_received": 12,
+   *       "comments_received": 3
+   *     }
+   *
+   * @apiError {String} message ❌ Nicht authentifiziert!
+   */
   public void getUserAchievements(RoutingContext context) {
     // Benutzer-ID aus der Session holen
     authService.getUserIdFromSession(context, userIdResult -> {
@@ -1690,38 +1442,18 @@ public class MainVerticle extends AbstractVerticle {
         return;
       }
 
-      int userId = userIdResult.result();
-
-      // Erfolge des Benutzers abrufen
-      String query = "SELECT achievement_type FROM achievements WHERE user_id = ? ORDER BY achieved_at DESC LIMIT 1";
-      dbClient.queryWithParams(query, new JsonArray().add(userId), res -> {
-        if (res.succeeded() && !res.result().getRows().isEmpty()) {
-          String achievement = res.result().getRows().get(0).getString("achievement_type");
-          context.response()
-            .putHeader("Content-Type", "application/json")
-            .end(new JsonObject().put("achievement", achievement).encode());
-        } else {
-          context.response()
-            .putHeader("Content-Type", "application/json")
-            .end(new JsonObject().put("achievement", "Keine Erfolge verfügbar.").encode());
+      userStats.of(userIdResult.result()).onComplete(res -> {
+        JsonObject body = res.succeeded() ? res.result().copy() : new JsonObject();
+        if (body.getString("achievement") == null) {
+          body.put("achievement", "Keine Erfolge verfügbar.");
         }
+        context.response()
+          .putHeader("Content-Type", "application/json")
+          .end(body.encode());
       });
     });
   }
 
-  private String getAchievementType(int recipeCount) {
-    if (recipeCount >= 1 && recipeCount <= 2) {
-      return "Koch-Anfänger";
-    } else if (recipeCount >= 3 && recipeCount <= 5) {
-      return "Koch-Lehrling";
-    } else if (recipeCount >= 6 && recipeCount <= 10) {
-      return "Rezept-Experte";
-    } else if (recipeCount > 10) {
-      return "Goldener Stern-Koch";
-    }
-    return null;
-  }
-
 }
 
 
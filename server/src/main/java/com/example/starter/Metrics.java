@@ -0,0 +1,305 @@
+package com.example.starter;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.VertxInternal;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.core.spi.metrics.PoolMetrics;
+import io.vertx.core.spi.metrics.VertxMetrics;
+import io.vertx.ext.web.Route;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Kennzahlen des Servers: Anfragen pro Route (Anzahl, Statuscodes, Latenz-Histogramm), Dauer der
+ * Datenbank-Abfragen pro Statement-Form und Wartezeit auf Pool-Verbindungen bzw. Worker-Threads.
+ *
+ * Ausgabe im Prometheus-Textformat unter {@code /metrics}; die Histogramme haben feste Grenzen, die
+ * Quantile (p50/p95/p99) rechnet Prometheus daraus mit {@code histogram_quantile}. {@link #stats()} liefert
+ * dieselben Daten mit geschätzten Quantilen als JSON.
+ *
+ * Die Wartezeit auf Pools kennt nur Vert.x selbst. Dafür wird diese Klasse vom {@link AppLauncher} als
+ * Metrics-SPI eingesetzt ({@link VertxMetrics#createPoolMetrics}); ohne den Launcher (z.B. in Tests) fehlen
+ * nur diese Werte. Alle Zähler sind {@link LongAdder}, das Erfassen sperrt nicht.
+ */
+public class Metrics implements VertxMetrics, Shareable {
+
+  public static final String METRICS_ENABLED = "METRICS_ENABLED";
+
+  // Histogrammgrenzen in Sekunden
+  static final double[] BUCKETS = {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+  // unbegrenzt viele Labels würden den Speicher und Prometheus sprengen
+  private static final int MAX_STATEMENTS = 500;
+  private static final int MAX_STATEMENT_LENGTH = 160;
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+
+  /**
+   * Histogramm mit festen Grenzen ({@link #BUCKETS}) plus Summe und Anzahl.
+   */
+  static final class Histogram {
+    final LongAdder[] counts = new LongAdder[BUCKETS.length + 1];
+    final LongAdder count = new LongAdder();
+    final LongAdder sumNanos = new LongAdder();
+
+    Histogram() {
+      for (int i = 0; i < counts.length; i++) {
+        counts[i] = new LongAdder();
+      }
+    }
+
+    void record(long nanos) {
+      double seconds = nanos / 1e9;
+      int i = 0;
+      while (i < BUCKETS.length && seconds > BUCKETS[i]) {
+        i++;
+      }
+      counts[i].increment();
+      count.increment();
+      sumNanos.add(nanos);
+    }
+
+    /**
+     * Schätzt das Quantil in Millisekunden durch lineare Interpolation innerhalb des Buckets.
+     */
+    double quantileMs(double q) {
+      long total = count.sum();
+      if (total == 0) {
+        return 0;
+      }
+      double rank = q * total;
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        long inBucket = counts[i].sum();
+        if (inBucket > 0 && seen + inBucket >= rank) {
+          double lower = i == 0 ? 0 : BUCKETS[i - 1];
+          double upper = i < BUCKETS.length ? BUCKETS[i] : BUCKETS[BUCKETS.length - 1];
+          return (lower + (upper - lower) * (rank - seen) / inBucket) * 1000;
+        }
+        seen += inBucket;
+      }
+      return BUCKETS[BUCKETS.length - 1] * 1000;
+    }
+
+    JsonObject toJson() {
+      long n = count.sum();
+      return new JsonObject()
+        .put("count", n)
+        .put("avgMs", n == 0 ? 0.0 : sumNanos.sum() / 1e6 / n)
+        .put("p50Ms", quantileMs(0.50))
+        .put("p95Ms", quantileMs(0.95))
+        .put("p99Ms", quantileMs(0.99));
+    }
+
+    void writePrometheus(StringBuilder out, String name, String labels) {
+      long cumulative = 0;
+      for (int i = 0; i < BUCKETS.length; i++) {
+        cumulative += counts[i].sum();
+        out.append(name).append("_bucket{").append(labels).append(",le=\"").append(BUCKETS[i]).append("\"} ")
+          .append(cumulative).append('\n');
+      }
+      out.append(name).append("_bucket{").append(labels).append(",le=\"+Inf\"} ").append(count.sum()).append('\n');
+      out.append(name).append("_sum{").append(labels).append("} ").append(sumNanos.sum() / 1e9).append('\n');
+      out.append(name).append("_count{").append(labels).append("} ").append(count.sum()).append('\n');
+    }
+  }
+
+  private static final class RouteStats {
+    final Histogram latency = new Histogram();
+    final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+  }
+
+  private static final class QueryStats {
+    final Histogram latency = new Histogram();
+    final LongAdder errors = new LongAdder();
+  }
+
+  private static final class PoolStats {
+    final Histogram wait = new Histogram();
+    final LongAdder rejected = new LongAdder();
+  }
+
+  private final Map<String, RouteStats> routes = new ConcurrentHashMap<>();
+  private final Map<String, QueryStats> queries = new ConcurrentHashMap<>();
+  private final Map<String, PoolStats> pools = new ConcurrentHashMap<>();
+  // SQL-Text -> Statement-Form; die meisten Statements sind Konstanten
+  private final Map<String, String> shapes = new ConcurrentHashMap<>();
+
+  /**
+   * Die Metriken dieser Vert.x-Instanz: die vom Launcher eingesetzte SPI-Instanz, sonst eine gemeinsame
+   * Instanz ohne Pool-Wartezeiten.
+   */
+  public static Metrics of(Vertx vertx) {
+    if (vertx instanceof VertxInternal && ((VertxInternal) vertx).metricsSPI() instanceof Metrics) {
+      return (Metrics) ((VertxInternal) vertx).metricsSPI();
+    }
+    LocalMap<String, Metrics> map = vertx.sharedData().getLocalMap("recipe-app-metrics");
+    Metrics created = new Metrics();
+    Metrics existing = map.putIfAbsent("metrics", created);
+    return existing != null ? existing : created;
+  }
+
+  /**
+   * Misst jede Anfrage bis zum Ende der Antwort; muss als erster Handler am Router hängen.
+   * Das Label ist das Muster der Route, die geantwortet hat (z.B. {@code /recipes/:recipe_id}).
+   */
+  public Handler<RoutingContext> routeHandler() {
+    return ctx -> {
+      long start = System.nanoTime();
+      ctx.addEndHandler(v -> {
+        Route route = ctx.currentRoute();
+        recordRequest(ctx.request().method().name() + " " + label(route), ctx.response().getStatusCode(), System.nanoTime() - start);
+      });
+      ctx.next();
+    };
+  }
+
+  // Präfix-Routen wie /* als solche kenntlich machen
+  private static String label(Route route) {
+    if (route == null) {
+      return "unmatched";
+    }
+    if (route.getPath() == null) {
+      return "*";
+    }
+    return route.isExactPath() ? route.getPath() : route.getPath() + "*";
+  }
+
+  void recordRequest(String route, int status, long nanos) {
+    RouteStats stats = routes.computeIfAbsent(route, k -> new RouteStats());
+    stats.latency.record(nanos);
+    stats.statuses.computeIfAbsent(status, k -> new LongAdder()).increment();
+  }
+
+  /**
+   * Erfasst eine Datenbank-Abfrage, die bei {@code startNanos} begonnen hat.
+   */
+  public void recordQuery(String sql, long startNanos, boolean succeeded) {
+    String shape = shape(sql);
+    QueryStats stats = queries.get(shape);
+    if (stats == null) {
+      stats = queries.computeIfAbsent(queries.size() < MAX_STATEMENTS ? shape : "other", k -> new QueryStats());
+    }
+    stats.latency.record(System.nanoTime() - startNanos);
+    if (!succeeded) {
+      stats.errors.increment();
+    }
+  }
+
+  /**
+   * Fasst Statements gleicher Form zusammen: Leerraum vereinheitlicht, IN-Listen beliebiger Länge als
+   * {@code (?...)}, gekürzt auf {@value #MAX_STATEMENT_LENGTH} Zeichen.
+   */
+  String shape(String sql) {
+    String cached = shapes.get(sql);
+    if (cached != null) {
+      return cached;
+    }
+    String shape = IN_LIST.matcher(WHITESPACE.matcher(sql.trim()).replaceAll(" ")).replaceAll("(?...)");
+    if (shape.length() > MAX_STATEMENT_LENGTH) {
+      shape = shape.substring(0, MAX_STATEMENT_LENGTH) + "...";
+    }
+    if (shapes.size() < 4 * MAX_STATEMENTS) {
+      shapes.put(sql, shape);
+    }
+    return shape;
+  }
+
+  @Override
+  public PoolMetrics<?> createPoolMetrics(String poolType, String poolName, int maxPoolSize) {
+    PoolStats stats = pools.computeIfAbsent(poolType + ":" + poolName, k -> new PoolStats());
+    return new PoolMetrics<Long>() {
+      @Override
+      public Long submitted() {
+        return System.nanoTime();
+      }
+
+      @Override
+      public Long begin(Long submittedAt) {
+        if (submittedAt != null) {
+          stats.wait.record(System.nanoTime() - submittedAt);
+        }
+        return null;
+      }
+
+      @Override
+      public void rejected(Long submittedAt) {
+        stats.rejected.increment();
+      }
+    };
+  }
+
+  public JsonObject stats() {
+    JsonObject routeJson = new JsonObject();
+    new TreeMap<>(routes).forEach((route, stats) -> {
+      JsonObject statuses = new JsonObject();
+      new TreeMap<>(stats.statuses).forEach((status, count) -> statuses.put(String.valueOf(status), count.sum()));
+      routeJson.put(route, stats.latency.toJson().put("statuses", statuses));
+    });
+    JsonObject queryJson = new JsonObject();
+    new TreeMap<>(queries).forEach((sql, stats) -> queryJson.put(sql, stats.latency.toJson().put("errors", stats.errors.sum())));
+    JsonObject poolJson = new JsonObject();
+    new TreeMap<>(pools).forEach((pool, stats) -> poolJson.put(pool, stats.wait.toJson().put("rejected", stats.rejected.sum())));
+    return new JsonObject().put("routes", routeJson).put("queries", queryJson).put("pools", poolJson);
+  }
+
+  /**
+   * Alle Kennzahlen im Prometheus-Textformat (Version 0.0.4).
+   */
+  public String prometheus() {
+    StringBuilder out = new StringBuilder(16 * 1024);
+
+    out.append("# HELP http_server_requests_seconds Dauer der HTTP-Anfragen pro Route\n")
+      .append("# TYPE http_server_requests_seconds histogram\n");
+    new TreeMap<>(routes).forEach((route, stats) -> stats.latency.writePrometheus(out, "http_server_requests_seconds", routeLabels(route)));
+
+    out.append("# HELP http_server_responses_total Antworten pro Route und Statuscode\n")
+      .append("# TYPE http_server_responses_total counter\n");
+    new TreeMap<>(routes).forEach((route, stats) -> new TreeMap<>(stats.statuses).forEach((status, count) ->
+      out.append("http_server_responses_total{").append(routeLabels(route)).append(",status=\"").append(status).append("\"} ")
+        .append(count.sum()).append('\n')));
+
+    out.append("# HELP db_query_seconds Dauer der Datenbank-Abfragen pro Statement-Form\n")
+      .append("# TYPE db_query_seconds histogram\n");
+    new TreeMap<>(queries).forEach((sql, stats) -> stats.latency.writePrometheus(out, "db_query_seconds", label("statement", sql)));
+    out.append("# HELP db_query_errors_total Fehlgeschlagene Datenbank-Abfragen pro Statement-Form\n")
+      .append("# TYPE db_query_errors_total counter\n");
+    new TreeMap<>(queries).forEach((sql, stats) ->
+      out.append("db_query_errors_total{").append(label("statement", sql)).append("} ").append(stats.errors.sum()).append('\n'));
+
+    out.append("# HELP pool_wait_seconds Wartezeit auf eine Verbindung bzw. einen Worker-Thread\n")
+      .append("# TYPE pool_wait_seconds histogram\n");
+    new TreeMap<>(pools).forEach((pool, stats) -> stats.wait.writePrometheus(out, "pool_wait_seconds", label("pool", pool)));
+    out.append("# HELP pool_rejected_total Abgelehnte Pool-Anfragen\n")
+      .append("# TYPE pool_rejected_total counter\n");
+    new TreeMap<>(pools).forEach((pool, stats) ->
+      out.append("pool_rejected_total{").append(label("pool", pool)).append("} ").append(stats.rejected.sum()).append('\n'));
+
+    return out.toString();
+  }
+
+  private static String routeLabels(String route) {
+    int space = route.indexOf(' ');
+    return label("method", route.substring(0, space)) + "," + label("route", route.substring(space + 1));
+  }
+
+  static String label(String name, String value) {
+    return name + "=\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+  }
+
+  /**
+   * {@code true}, solange {@value #METRICS_ENABLED} nicht auf {@code false} steht.
+   */
+  static boolean enabled(String value) {
+    return value == null || !value.trim().toLowerCase(Locale.ROOT).equals("false");
+  }
+}
@@ -0,0 +1,120 @@
+package com.example.starter;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.sqlclient.Tuple;
+
+import java.util.List;
+
+/**
+ * Keyset-Pagination für Listen-Routen: {@code ?after=<id>&limit=<n>}.
+ *
+ * Es wird immer eine Zeile mehr als {@code limit} gelesen, um zu erkennen, ob es eine weitere Seite gibt.
+ * Die ID der letzten Zeile einer Seite wird im Header {@value #NEXT_CURSOR_HEADER} als Cursor
+ * für die nächste Seite zurückgegeben. {@code limit} wird serverseitig auf {@link #MAX_LIMIT} begrenzt.
+ *
+ * Mit {@code ?stream=true} wird die Antwort zeilenweise gestreamt (siehe {@link ResponseStreamer}). Dann gilt
+ * die höhere Grenze {@link #MAX_STREAM_LIMIT}, es wird keine Zusatzzeile gelesen und kein Cursor-Header
+ * gesetzt (der steht beim ersten Chunk schon fest): Der Client fragt mit der letzten erhaltenen ID weiter,
+ * bis eine Seite weniger als {@code limit} Zeilen enthält.
+ */
+public class PageRequest {
+
+  public static final int DEFAULT_LIMIT = 20;
+  public static final int MAX_LIMIT = 100;
+  public static final int MAX_STREAM_LIMIT = 10_000;
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  private final Long after;
+  private final int limit;
+  private final boolean streaming;
+
+  PageRequest(Long after, int limit) {
+    this(after, limit, false);
+  }
+
+  PageRequest(Long after, int limit, boolean streaming) {
+    this.after = after;
+    this.limit = Math.max(1, Math.min(limit, streaming ? MAX_STREAM_LIMIT : MAX_LIMIT));
+    this.streaming = streaming;
+  }
+
+  public static PageRequest from(RoutingContext context) {
+    return from(context, DEFAULT_LIMIT);
+  }
+
+  /**
+   * Liest {@code after} und {@code limit} aus der Anfrage. Fehlende oder ungültige Werte
+   * ergeben die erste Seite bzw. {@code defaultLimit}.
+   */
+  public static PageRequest from(RoutingContext context, int defaultLimit) {
+    Long after = parse(context.request().getParam("after"));
+    Long limit = parse(context.request().getParam("limit"));
+    boolean streaming = "true".equalsIgnoreCase(context.request().getParam("stream"));
+    int max = streaming ? MAX_STREAM_LIMIT : MAX_LIMIT;
+    return new PageRequest(after, limit != null ? (int) Math.min(limit, max) : (streaming ? max : defaultLimit), streaming);
+  }
+
+  private static Long parse(String value) {
+    if (value == null || value.isEmpty()) {
+      return null;
+    }
+    try {
+      long parsed = Long.parseLong(value.trim());
+      return parsed >= 0 ? parsed : null;
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  public Long after() {
+    return after;
+  }
+
+  public int limit() {
+    return limit;
+  }
+
+  public boolean streaming() {
+    return streaming;
+  }
+
+  /**
+   * Hängt {@code AND <idColumn> > ? ORDER BY <idColumn> LIMIT ?} an eine Abfrage mit WHERE-Klausel an
+   * und ergänzt die Parameter entsprechend (gelesen wird {@code limit + 1}, beim Streamen {@code limit}).
+   */
+  public String apply(String query, String idColumn, Tuple params) {
+    return apply(query, idColumn, null, params);
+  }
+
+  /**
+   * Wie {@link #apply(String, String, Tuple)}, mit {@code GROUP BY <groupBy>} vor der Sortierung.
+   */
+  public String apply(String query, String idColumn, String groupBy, Tuple params) {
+    StringBuilder sql = new StringBuilder(query);
+    if (after != null) {
+      sql.append(" AND ").append(idColumn).append(" > ?");
+      params.addValue(after);
+    }
+    if (groupBy != null) {
+      sql.append(" GROUP BY ").append(groupBy);
+    }
+    sql.append(" ORDER BY ").append(idColumn).append(" LIMIT ?");
+    params.addValue(streaming ? limit : limit + 1);
+    return sql.toString();
+  }
+
+  /**
+   * Schneidet die zusätzlich gelesene Zeile ab und setzt den Cursor-Header, falls es weitere Zeilen gibt.
+   * Liefert den Cursor oder {@code null} auf der letzten Seite.
+   */
+  public Long finish(RoutingContext context, List<JsonObject> rows, String idField) {
+    if (rows.size() <= limit) {
+      return null;
+    }
+    rows.subList(limit, rows.size()).clear();
+    Long next = rows.get(limit - 1).getLong(idField);
+    context.response().putHeader(NEXT_CURSOR_HEADER, String.valueOf(next));
+    return next;
+  }
+}
@@ -0,0 +1,185 @@
+package com.example.starter;
+
+import io.vertx.core.json.JsonObject;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Erzeugt und prüft Passwort-Hashes.
+ *
+ * Jedes Verfahren erkennt seine eigenen Hashes am gespeicherten Format ({@link #recognizes}); die Parameter
+ * (z.B. der BCrypt-Kostenfaktor in {@code $2a$11$...}) stehen im Hash selbst. Dadurch können alte und neue
+ * Hashes nebeneinander in {@code users.password_hash} liegen. {@link #needsRehash} meldet Hashes, die mit einem
+ * veralteten Verfahren oder zu niedrigen Kosten erzeugt wurden; sie werden beim nächsten erfolgreichen Login
+ * ersetzt.
+ *
+ * Alle Methoden rechnen absichtlich lange und gehören in den {@link HashingExecutor}, nicht auf den Event-Loop.
+ */
+public interface PasswordHasher {
+
+  String PASSWORD_BCRYPT_COST = "PASSWORD_BCRYPT_COST";
+  int DEFAULT_BCRYPT_COST = 11;
+
+  String hash(String password);
+
+  /**
+   * Vergleicht in konstanter Zeit; liefert {@code false} auch für unbekannte Formate.
+   */
+  boolean verify(String password, String storedHash);
+
+  boolean recognizes(String storedHash);
+
+  boolean needsRehash(String storedHash);
+
+  /**
+   * Neue Hashes mit BCrypt ({@value #PASSWORD_BCRYPT_COST}, Standard {@value #DEFAULT_BCRYPT_COST}),
+   * alte SHA-512-Hashes werden weiterhin akzeptiert und beim Login ersetzt.
+   */
+  static PasswordHasher fromConfig(JsonObject config) {
+    return new Delegating(new Bcrypt(config.getInteger(PASSWORD_BCRYPT_COST, DEFAULT_BCRYPT_COST)),
+      new LegacySha512());
+  }
+
+  /**
+   * BCrypt mit festem Kostenfaktor; {@link BCrypt#checkpw} vergleicht ohne vorzeitigen Abbruch.
+   */
+  final class Bcrypt implements PasswordHasher {
+    private static final String PREFIX = "$2a$";
+    private final int cost;
+
+    public Bcrypt(int cost) {
+      if (cost < 4 || cost > 31) {
+        throw new IllegalArgumentException("BCrypt-Kosten müssen zwischen 4 und 31 liegen: " + cost);
+      }
+      this.cost = cost;
+    }
+
+    @Override
+    public String hash(String password) {
+      return BCrypt.hashpw(password, BCrypt.gensalt(cost));
+    }
+
+    @Override
+    public boolean verify(String password, String storedHash) {
+      if (!recognizes(storedHash)) {
+        return false;
+      }
+      try {
+        return BCrypt.checkpw(password, storedHash);
+      } catch (IllegalArgumentException e) {
+        return false; // beschädigter Hash
+      }
+    }
+
+    @Override
+    public boolean recognizes(String storedHash) {
+      return storedHash != null && storedHash.length() == 60 && storedHash.startsWith(PREFIX);
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+      return costOf(storedHash) < cost;
+    }
+
+    static int costOf(String storedHash) {
+      try {
+        return Integer.parseInt(storedHash.substring(PREFIX.length(), PREFIX.length() + 2));
+      } catch (RuntimeException e) {
+        return -1;
+      }
+    }
+  }
+
+  /**
+   * Früheres Format (JDBCAuth-kompatibel): SHA-512 ohne Salt, hexadezimal in Großbuchstaben.
+   * Wird nur noch geprüft, nie neu erzeugt.
+   */
+  final class LegacySha512 implements PasswordHasher {
+
+    @Override
+    public String hash(String password) {
+      try {
+        byte[] digest = MessageDigest.getInstance("SHA-512").digest(password.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+          hex.append(String.format("%02x", b));
+        }
+        return hex.toString().toUpperCase(Locale.ROOT);
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException("SHA-512 ist nicht verfügbar", e);
+      }
+    }
+
+    @Override
+    public boolean verify(String password, String storedHash) {
+      if (!recognizes(storedHash)) {
+        return false;
+      }
+      byte[] expected = storedHash.toUpperCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+      byte[] actual = hash(password).getBytes(StandardCharsets.US_ASCII);
+      return MessageDigest.isEqual(expected, actual);
+    }
+
+    @Override
+    public boolean recognizes(String storedHash) {
+      return storedHash != null && storedHash.length() == 128 && storedHash.chars().allMatch(c -> Character.digit(c, 16) >= 0);
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+      return true;
+    }
+  }
+
+  /**
+   * Hasht mit dem ersten Verfahren und prüft mit dem, das den gespeicherten Hash erkennt.
+   */
+  final class Delegating implements PasswordHasher {
+    private final PasswordHasher current;
+    private final List<PasswordHasher> all;
+
+    public Delegating(PasswordHasher current, PasswordHasher... legacy) {
+      this.current = current;
+      PasswordHasher[] hashers = Arrays.copyOf(new PasswordHasher[]{current}, legacy.length + 1);
+      System.arraycopy(legacy, 0, hashers, 1, legacy.length);
+      this.all = Arrays.asList(hashers);
+    }
+
+    @Override
+    public String hash(String password) {
+      return current.hash(password);
+    }
+
+    @Override
+    public boolean verify(String password, String storedHash) {
+      PasswordHasher hasher = find(storedHash);
+      return hasher != null && hasher.verify(password, storedHash);
+    }
+
+    @Override
+    public boolean recognizes(String storedHash) {
+      return find(storedHash) != null;
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+      PasswordHasher hasher = find(storedHash);
+      return hasher != current || current.needsRehash(storedHash);
+    }
+
+    private PasswordHasher find(String storedHash) {
+      for (PasswordHasher hasher : all) {
+        if (hasher.recognizes(storedHash)) {
+          return hasher;
+        }
+      }
+      return null;
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package com.example.starter;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.sqlclient.Tuple;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-Through-Cache für einzelne Rezepte (Rezept-ID -> fertig zusammengesetztes Rezept mit Zutaten).
+ *
+ * Rezepte werden um Größenordnungen öfter angesehen als geändert. Ein Eintrag enthält deshalb die
+ * bereits kodierten Antworten für {@code /api/recipe/:id} (mit Zutaten) und {@code /recipes/:recipe_id}
+ * samt ETag; ein Treffer kostet weder Datenbank noch JSON-Kodierung. Geändert wird ein Rezept nur über
+ * {@link RecipeService#onRecipeChanged} bzw. {@link RecipeService#onRecipeDeleted}, die den Eintrag verwerfen.
+ *
+ * Ein Laden, das während einer Invalidierung läuft, legt sein (evtl. veraltetes) Ergebnis nicht mehr ab.
+ * Nicht vorhandene Rezepte werden nicht gecacht.
+ */
+public class RecipeCache {
+
+  public static final String MAX_ENTRIES = "RECIPE_CACHE_MAX_ENTRIES";
+  public static final String TTL_S = "RECIPE_CACHE_TTL_S";
+
+  /**
+   * Ein Rezept in den ausgelieferten Darstellungen.
+   */
+  public static final class Entry {
+    final int userId;
+    final Buffer detail;
+    final String detailEtag;
+    final Buffer summary;
+    final String summaryEtag;
+
+    Entry(int userId, JsonObject detail, JsonObject summary) {
+      this.userId = userId;
+      this.detail = detail.toBuffer();
+      this.detailEtag = etag(this.detail);
+      this.summary = summary.toBuffer();
+      this.summaryEtag = etag(this.summary);
+    }
+
+    public int userId() {
+      return userId;
+    }
+  }
+
+  private final DatabaseClient dbClient;
+  private final LruCache<Long, Entry> entries;
+  // wird bei jeder Invalidierung erhöht, damit parallele Ladevorgänge nichts Veraltetes ablegen
+  private final AtomicLong generation = new AtomicLong();
+
+  public RecipeCache(DatabaseClient dbClient, JsonObject config) {
+    this.dbClient = dbClient;
+    this.entries = new LruCache<>(config.getInteger(MAX_ENTRIES, 10_000), config.getInteger(TTL_S, 600) * 1000L);
+  }
+
+  /**
+   * Liefert das Rezept aus dem Cache oder lädt es; {@code null}, wenn es nicht existiert.
+   */
+  public Future<Entry> get(long recipeId) {
+    Entry cached = entries.get(recipeId);
+    if (cached != null) {
+      return Future.succeededFuture(cached);
+    }
+
+    long loadGeneration = generation.get();
+    return dbClient.query(Statements.RECIPE_DETAIL, Tuple.of(recipeId)).map(rows -> {
+      if (rows.isEmpty()) {
+        return null;
+      }
+      JsonObject first = rows.get(0);
+      JsonArray ingredients = new JsonArray();
+      rows.forEach(row -> {
+        if (row.getValue("ingredient_id") != null) {
+          ingredients.add(new JsonObject()
+            .put("id", row.getInteger("ingredient_id"))
+            .put("name", row.getString("ingredient_name"))
+            .put("amount", row.getValue("ingredient_amount"))
+            .put("unit", row.getString("ingredient_unit")));
+        }
+      });
+
+      JsonObject detail = new JsonObject()
+        .put("recipe_id", first.getInteger("recipe_id"))
+        .put("title", first.getString("title"))
+        .put("description", first.getString("description"))
+        .put("portions", first.getInteger("portions"))
+        .put("image_url", first.getString("image_url"))
+        .put("ingredients", ingredients);
+      JsonObject summary = new JsonObject()
+        .put("id", first.getInteger("recipe_id"))
+        .put("title", first.getString("title"))
+        .put("description", first.getString("description"))
+        .put("portions", first.getInteger("portions"))
+        .put("image_url", first.getString("image_url"));
+
+      Entry entry = new Entry(first.getInteger("user_id"), detail, summary);
+      if (generation.get() == loadGeneration) {
+        entries.put(recipeId, entry);
+      }
+      return entry;
+    });
+  }
+
+  public void invalidate(long recipeId) {
+    generation.incrementAndGet();
+    entries.invalidate(recipeId);
+  }
+
+  public JsonObject stats() {
+    return entries.stats();
+  }
+
+  /**
+   * Antwortet mit dem Rezept inkl. Zutaten oder mit 304, wenn der Browser es schon hat.
+   */
+  public static void sendDetail(RoutingContext ctx, Entry entry) {
+    send(ctx, entry.detail, entry.detailEtag);
+  }
+
+  public static void sendSummary(RoutingContext ctx, Entry entry) {
+    send(ctx, entry.summary, entry.summaryEtag);
+  }
+
+  private static void send(RoutingContext ctx, Buffer body, String etag) {
+    // no-cache: der Browser darf speichern, muss aber vor jeder Verwendung mit If-None-Match nachfragen
+    ctx.response()
+      .putHeader("ETag", etag)
+      .putHeader("Cache-Control", "private, no-cache");
+    if (matches(ctx.request().getHeader("If-None-Match"), etag)) {
+      ctx.response().setStatusCode(304).end();
+      return;
+    }
+    ctx.response().putHeader("Content-Type", "application/json").end(body);
+  }
+
+  /**
+   * Prüft eine If-None-Match-Liste (auch {@code *} und schwache Vergleiche mit {@code W/}).
+   */
+  static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      String tag = candidate.trim();
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if (tag.equals("*") || tag.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static String etag(Buffer body) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(body.getBytes());
+      return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 12)) + "\"";
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 ist nicht verfügbar", e);
+    }
+  }
+}
@@ -0,0 +1,450 @@
+package com.example.starter;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.Normalizer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Invertierter In-Memory-Index über Titel, Beschreibung und Zutaten aller Rezepte.
+ *
+ * Ersetzt die Suche mit {@code r.title LIKE '%...%'}, die bei jedem Tastendruck alle Rezepte scannt.
+ * Begriffe werden kleingeschrieben, Umlaute gefaltet (ä -> ae, ß -> ss) und leicht gestemmt
+ * ("Tomaten" und "Tomate" landen beide bei "tomat"). Alle Suchbegriffe müssen vorkommen, der letzte
+ * darf unvollständig sein (Präfixsuche während der Eingabe). Treffer im Titel zählen am meisten,
+ * dann Zutaten, dann Beschreibung.
+ */
+public class RecipeSearchIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(RecipeSearchIndex.class);
+
+  static final float TITLE_WEIGHT = 3.0f;
+  static final float INGREDIENT_WEIGHT = 2.0f;
+  static final float DESCRIPTION_WEIGHT = 1.0f;
+  // Präfixtreffer (unfertiges Wort) zählen weniger als vollständige Wörter
+  static final float PREFIX_FACTOR = 0.5f;
+
+  private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+    "der", "die", "das", "den", "dem", "des", "ein", "eine", "einer", "eines", "einem", "einen",
+    "und", "oder", "mit", "ohne", "fuer", "von", "vom", "zum", "zur", "im", "in", "am", "an", "auf", "aus", "nach"));
+
+  private final DatabaseClient dbClient;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // Begriff -> (Rezept-ID -> Gewicht); sortiert, damit Präfixe als Bereich abgefragt werden können
+  private final TreeMap<String, Map<Integer, Float>> postings = new TreeMap<>();
+  // Rezept-ID -> Begriffe, um ein Rezept beim Ändern/Löschen wieder auszutragen
+  private final Map<Integer, Set<String>> termsByRecipe = new HashMap<>();
+  // Rezepte, die während eines laufenden build() geändert wurden: ihr Eintrag ist neuer als der Snapshot
+  private final Set<Integer> changedDuringBuild = new HashSet<>();
+  private int buildsRunning;
+  private volatile boolean ready;
+
+  public RecipeSearchIndex(DatabaseClient dbClient) {
+    this.dbClient = dbClient;
+  }
+
+  /**
+   * Baut den Index komplett aus der Datenbank auf. Bis dahin meldet {@link #isReady()} {@code false}.
+   * Rezepte, die während des Ladens über {@link #put}/{@link #remove} geändert werden, behalten ihren
+   * neueren Eintrag; ihre Zeilen aus dem Snapshot werden übergangen.
+   */
+  public Future<Integer> build() {
+    return build(() -> dbClient.query(Statements.INDEX_LOAD));
+  }
+
+  Future<Integer> build(Supplier<Future<List<JsonObject>>> load) {
+    beginBuild();
+    return load.get()
+      .map(rows -> {
+        lock.writeLock().lock();
+        try {
+          for (Integer id : new ArrayList<>(termsByRecipe.keySet())) {
+            if (!changedDuringBuild.contains(id)) {
+              removeLocked(id);
+            }
+          }
+          for (JsonObject row : rows) {
+            if (!changedDuringBuild.contains(row.getInteger("id"))) {
+              addLocked(row);
+            }
+          }
+        } finally {
+          lock.writeLock().unlock();
+        }
+        ready = true;
+        return rows.size();
+      })
+      .onComplete(res -> endBuild())
+      .onSuccess(count -> log.info("✅ Suchindex aufgebaut: {} Rezepte", count))
+      .onFailure(err -> log.warn("⚠ Suchindex konnte nicht aufgebaut werden: {}", err.getMessage()));
+  }
+
+  private void beginBuild() {
+    lock.writeLock().lock();
+    try {
+      buildsRunning++;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void endBuild() {
+    lock.writeLock().lock();
+    try {
+      if (--buildsRunning == 0) {
+        changedDuringBuild.clear();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void changedLocked(int id) {
+    if (buildsRunning > 0) {
+      changedDuringBuild.add(id);
+    }
+  }
+
+  /**
+   * Liest ein Rezept neu aus der Datenbank und ersetzt seinen Eintrag (nach Anlegen oder Ändern).
+   * Existiert das Rezept nicht mehr, wird es entfernt.
+   */
+  public Future<Void> reindex(long recipeId) {
+    return dbClient.query(Statements.INDEX_RECIPE, Tuple.of(recipeId))
+      .map(rows -> {
+        if (rows.isEmpty()) {
+          remove(recipeId);
+        } else {
+          rows.forEach(this::put);
+        }
+        return (Void) null;
+      })
+      .onFailure(err -> log.warn("⚠ Rezept {} konnte nicht indexiert werden: {}", recipeId, err.getMessage()));
+  }
+
+  /**
+   * Nimmt ein Rezept (id, title, description, ingredients mit '|' getrennt) auf oder ersetzt es.
+   */
+  void put(JsonObject recipe) {
+    lock.writeLock().lock();
+    try {
+      changedLocked(recipe.getInteger("id"));
+      removeLocked(recipe.getInteger("id"));
+      addLocked(recipe);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(long recipeId) {
+    lock.writeLock().lock();
+    try {
+      changedLocked((int) recipeId);
+      removeLocked((int) recipeId);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return termsByRecipe.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * {@code false}, wenn die Anfrage nur aus Stoppwörtern oder einzelnen Zeichen besteht (z.B. {@code "a"}).
+   * Der Index kennt solche Begriffe nicht; sie müssen über die Datenbank gesucht werden.
+   */
+  public static boolean indexable(String query) {
+    return !tokenize(query, false).isEmpty();
+  }
+
+  /**
+   * Liefert höchstens {@code limit} Rezept-IDs, absteigend nach Relevanz (bei Gleichstand neuere zuerst).
+   */
+  public List<Integer> search(String query, int limit) {
+    return search(query, null, limit);
+  }
+
+  /**
+   * Wie {@link #search(String, int)}, aber erst ab dem Treffer nach der Rezept-ID {@code after}. Deren Relevanz
+   * wird aus dem aktuellen Index gelesen; ist {@code after} kein Treffer (mehr), ist das Ergebnis leer.
+   * Für Seiten besser {@link #hits} mit einem {@link Cursor}, der die Relevanz selbst enthält.
+   */
+  public List<Integer> search(String query, Integer after, int limit) {
+    Cursor cursor = null;
+    if (after != null) {
+      cursor = cursorAt(query, after);
+      if (cursor == null) {
+        return Collections.emptyList();
+      }
+    }
+    List<Integer> ids = new ArrayList<>();
+    for (Hit hit : hits(query, cursor, limit)) {
+      ids.add(hit.id);
+    }
+    return ids;
+  }
+
+  /**
+   * Der Cursor hinter dem Rezept {@code id} nach dem aktuellen Index, {@code null}, wenn es kein Treffer ist.
+   */
+  public Cursor cursorAt(String query, int id) {
+    Float score = scores(query).get(id);
+    return score != null ? new Cursor(score, id) : null;
+  }
+
+  /**
+   * Höchstens {@code limit} Treffer hinter {@code after} (oder ab dem ersten), absteigend nach Relevanz.
+   */
+  public List<Hit> hits(String query, Cursor after, int limit) {
+    return top(scores(query), after, limit);
+  }
+
+  /**
+   * Ein Treffer mit seiner Relevanz.
+   */
+  public static final class Hit {
+    public final int id;
+    public final float score;
+
+    Hit(int id, float score) {
+      this.id = id;
+      this.score = score;
+    }
+
+    public Cursor cursor() {
+      return new Cursor(score, id);
+    }
+  }
+
+  /**
+   * Position hinter einem Treffer als {@code <Relevanz>:<ID>}. Die Relevanz steht im Cursor selbst, damit die
+   * nächste Seite auch dann stimmt, wenn das Rezept dazwischen geändert oder gelöscht wurde.
+   */
+  public static final class Cursor {
+    final float score;
+    final int id;
+
+    Cursor(float score, int id) {
+      this.score = score;
+      this.id = id;
+    }
+
+    /**
+     * {@code null}, wenn {@code value} kein Cursor dieser Form ist (z.B. nur eine ID).
+     */
+    public static Cursor parse(String value) {
+      if (value == null) {
+        return null;
+      }
+      int colon = value.indexOf(':');
+      if (colon < 0) {
+        return null;
+      }
+      try {
+        float score = Float.parseFloat(value.substring(0, colon));
+        int id = Integer.parseInt(value.substring(colon + 1));
+        return Float.isFinite(score) && id > 0 ? new Cursor(score, id) : null;
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+
+    @Override
+    public String toString() {
+      // Float.toString lässt sich verlustfrei zurücklesen
+      return score + ":" + id;
+    }
+  }
+
+  private Map<Integer, Float> scores(String query) {
+    List<String> raw = tokenize(query, false);
+    if (raw.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    lock.readLock().lock();
+    try {
+      Map<Integer, Float> scores = null;
+      for (int i = 0; i < raw.size(); i++) {
+        boolean last = i == raw.size() - 1;
+        Map<Integer, Float> termScores = match(raw.get(i), last);
+        if (scores == null) {
+          scores = termScores;
+        } else {
+          // UND-Verknüpfung: nur Rezepte behalten, die alle Begriffe enthalten
+          Map<Integer, Float> merged = new HashMap<>();
+          for (Map.Entry<Integer, Float> e : scores.entrySet()) {
+            Float s = termScores.get(e.getKey());
+            if (s != null) {
+              merged.put(e.getKey(), e.getValue() + s);
+            }
+          }
+          scores = merged;
+        }
+        if (scores.isEmpty()) {
+          break;
+        }
+      }
+      return scores;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private static List<Hit> top(Map<Integer, Float> scores, Cursor after, int limit) {
+    if (scores.isEmpty() || limit <= 0) {
+      return Collections.emptyList();
+    }
+    Map.Entry<Integer, Float> cursor = after != null ? new AbstractMap.SimpleEntry<>(after.id, after.score) : null;
+
+    // Nur die besten "limit" Treffer (hinter dem Cursor) sortieren
+    PriorityQueue<Map.Entry<Integer, Float>> top = new PriorityQueue<>(limit + 1, RecipeSearchIndex::compareRank);
+    for (Map.Entry<Integer, Float> e : scores.entrySet()) {
+      if (cursor != null && compareRank(e, cursor) >= 0) {
+        continue;
+      }
+      top.add(e);
+      if (top.size() > limit) {
+        top.poll();
+      }
+    }
+    List<Hit> hits = new ArrayList<>(top.size());
+    while (!top.isEmpty()) {
+      Map.Entry<Integer, Float> e = top.poll();
+      hits.add(new Hit(e.getKey(), e.getValue()));
+    }
+    Collections.reverse(hits);
+    return hits;
+  }
+
+  // aufsteigend: schlechtester Treffer zuerst (Min-Heap)
+  private static int compareRank(Map.Entry<Integer, Float> a, Map.Entry<Integer, Float> b) {
+    int byScore = Float.compare(a.getValue(), b.getValue());
+    return byScore != 0 ? byScore : Integer.compare(a.getKey(), b.getKey());
+  }
+
+  private Map<Integer, Float> match(String rawToken, boolean allowPrefix) {
+    Map<Integer, Float> result = new HashMap<>();
+    String stem = stem(rawToken);
+    Map<Integer, Float> exact = postings.get(stem);
+    if (exact != null) {
+      result.putAll(exact);
+    }
+    if (allowPrefix) {
+      NavigableMap<String, Map<Integer, Float>> range = postings.subMap(stem, false, stem + Character.MAX_VALUE, false);
+      for (Map<Integer, Float> posting : range.values()) {
+        for (Map.Entry<Integer, Float> e : posting.entrySet()) {
+          result.merge(e.getKey(), e.getValue() * PREFIX_FACTOR, Math::max);
+        }
+      }
+    }
+    return result;
+  }
+
+  private void addLocked(JsonObject recipe) {
+    int id = recipe.getInteger("id");
+    Map<String, Float> weights = new HashMap<>();
+    collect(weights, recipe.getString("title"), TITLE_WEIGHT);
+    collect(weights, recipe.getString("ingredients"), INGREDIENT_WEIGHT);
+    collect(weights, recipe.getString("description"), DESCRIPTION_WEIGHT);
+
+    for (Map.Entry<String, Float> e : weights.entrySet()) {
+      postings.computeIfAbsent(e.getKey(), k -> new HashMap<>()).put(id, e.getValue());
+    }
+    termsByRecipe.put(id, weights.keySet());
+  }
+
+  private void removeLocked(int id) {
+    Set<String> terms = termsByRecipe.remove(id);
+    if (terms == null) {
+      return;
+    }
+    for (String term : terms) {
+      Map<Integer, Float> posting = postings.get(term);
+      if (posting != null) {
+        posting.remove(id);
+        if (posting.isEmpty()) {
+          postings.remove(term);
+        }
+      }
+    }
+  }
+
+  // Jeder Begriff zählt pro Rezept mit dem höchsten Feldgewicht, in dem er vorkommt
+  private static void collect(Map<String, Float> weights, String text, float weight) {
+    for (String token : tokenize(text, true)) {
+      weights.merge(token, weight, Math::max);
+    }
+  }
+
+  /**
+   * Zerlegt einen Text in normalisierte Begriffe. Mit {@code stemmed = false} werden die Begriffe
+   * nur gefaltet, aber noch nicht gestemmt (für die Präfixsuche).
+   */
+  static List<String> tokenize(String text, boolean stemmed) {
+    List<String> tokens = new ArrayList<>();
+    if (text == null || text.isEmpty()) {
+      return tokens;
+    }
+    for (String part : fold(text).split("[^a-z0-9]+")) {
+      if (part.length() < 2 || STOP_WORDS.contains(part)) {
+        continue;
+      }
+      tokens.add(stemmed ? stem(part) : part);
+    }
+    return tokens;
+  }
+
+  static String fold(String text) {
+    String lower = text.toLowerCase(Locale.GERMAN)
+      .replace("ä", "ae")
+      .replace("ö", "oe")
+      .replace("ü", "ue")
+      .replace("ß", "ss");
+    // übrige Akzente entfernen (é -> e)
+    return Normalizer.normalize(lower, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+  }
+
+  /**
+   * Leichter deutscher Stemmer: entfernt gängige Flexionsendungen, solange mindestens drei Zeichen bleiben.
+   */
+  static String stem(String token) {
+    String[] suffixes = {"ern", "em", "en", "er", "es", "e", "n", "s"};
+    for (String suffix : suffixes) {
+      if (token.endsWith(suffix) && token.length() - suffix.length() >= 3) {
+        return token.substring(0, token.length() - suffix.length());
+      }
+    }
+    return token;
+  }
+}
@@ -1,24 +1,78 @@
 package com.example.starter;
 
-import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
-import io.vertx.ext.jdbc.JDBCClient;
-import io.vertx.ext.sql.UpdateResult;
 import io.vertx.ext.web.RoutingContext;
-import io.vertx.core.Promise;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class RecipeService {
-  private final JDBCClient dbClient;
 
-  public RecipeService(Vertx vertx, JDBCClient dbClient) {
+  private static final Logger log = LoggerFactory.getLogger(RecipeService.class);
+
+  private final Vertx vertx;
+  private final DatabaseClient dbClient;
+  private final IngredientRepository ingredientRepository;
+  private final RecipeSearchIndex searchIndex;
+  private final IngredientRecipeIndex ingredientIndex;
+  private final IngredientDictionary ingredientDictionary;
+  private final RecipeCache recipeCache;
+  private final InvalidationBus invalidation;
+  private final int searchPageSize;
+
+  // Höchstzahl an Zutaten pro Anfrage an /search/ingredients
+  private static final int MAX_SEARCH_INGREDIENTS = 20;
+
+  public RecipeService(Vertx vertx, DatabaseClient dbClient, IngredientRepository ingredientRepository,
+                       RecipeSearchIndex searchIndex, IngredientRecipeIndex ingredientIndex,
+                       IngredientDictionary ingredientDictionary, RecipeCache recipeCache, InvalidationBus invalidation,
+                       int searchPageSize) {
+    this.vertx = vertx;
     this.dbClient = dbClient;
+    this.ingredientRepository = ingredientRepository;
+    this.searchIndex = searchIndex;
+    this.ingredientIndex = ingredientIndex;
+    this.ingredientDictionary = ingredientDictionary;
+    this.recipeCache = recipeCache;
+    this.invalidation = invalidation;
+    this.searchPageSize = searchPageSize;
+    invalidation.register(InvalidationBus.RECIPES, recipeId -> recipeCache.invalidate(Long.parseLong(recipeId)));
+  }
+
+  /**
+   * Nach jedem erfolgreichen Schreibzugriff auf ein Rezept oder seine Zutaten aufzurufen: verwirft das gecachte
+   * Rezept sofort (die Weiterleitung nach dem Speichern soll schon den neuen Stand sehen), auf den anderen
+   * Knoten über den {@link InvalidationBus}, und veröffentlicht
+   * das Ereignis, auf das Suchindizes und Zähler asynchron reagieren (siehe {@link DomainEvents}).
+   */
+  public void onRecipeChanged(long recipeId) {
+    invalidation.invalidate(InvalidationBus.RECIPES, recipeId);
+    DomainEvents.publish(vertx, new DomainEvents.RecipeUpdated(recipeId));
+  }
+
+  public void onRecipeCreated(long recipeId, int userId) {
+    DomainEvents.publish(vertx, new DomainEvents.RecipeCreated(recipeId, userId));
+  }
+
+  public void onRecipeDeleted(long recipeId, int userId) {
+    invalidation.invalidate(InvalidationBus.RECIPES, recipeId);
+    DomainEvents.publish(vertx, new DomainEvents.RecipeDeleted(recipeId, userId));
   }
 
 
@@ -30,6 +84,10 @@ public class RecipeService {
    * @apiDescription Diese Route sucht Rezepte anhand des Namens und gibt eine HTML-Seite mit den Suchergebnissen zurück.
    *
    * @apiParam {String} name Der Name des Rezepts, nach dem gesucht werden soll.
+   * @apiParam {String} [after] Cursor aus dem Header X-Next-Cursor der vorherigen Seite (über den Suchindex
+   * {@code <Relevanz>:<ID>}, sonst eine ID; beim Streamen die ID des letzten Treffers).
+   * @apiParam {Number} [limit=20] Anzahl der Treffer pro Seite (höchstens 100).
+   * @apiParam {Boolean} [stream=false] Ergebnis zeilenweise streamen (bis zu 10000 Treffer, kein Cursor-Header).
    *
    * @apiSuccess {HTML} page Eine HTML-Seite mit den Suchergebnissen.
    *
@@ -44,254 +102,533 @@ public class RecipeService {
       return;
     }
 
-    // SQL-Abfrage mit Zutaten und Portionen
+    PageRequest page = PageRequest.from(context, searchPageSize);
 
-    String query = "SELECT r.id AS id, r.title, r.description, r.image_url, r.portions, " +
-      "GROUP_CONCAT(CONCAT(i.name, ' (', ri.amount, ' ', ri.unit, ')') SEPARATOR '|') AS ingredients " +
-      "FROM recipes r " +
-      "LEFT JOIN recipe_ingredients ri ON r.id = ri.recipe_id " +
-      "LEFT JOIN ingredients i ON ri.ingredient_id = i.id " +
-      "WHERE r.title LIKE ? " +
-      "GROUP BY r.id";
+    // Bevorzugt über den Suchindex; solange er noch nicht aufgebaut ist oder die Anfrage keine indizierbaren
+    // Begriffe enthält (nur Stoppwörter oder einzelne Zeichen), wie bisher per LIKE
+    if (!searchIndex.isReady() || !RecipeSearchIndex.indexable(recipeName)) {
+      searchRecipesWithLike(context, recipeName, page);
+      return;
+    }
 
+    // Der Cursor enthält Relevanz und ID ("<score>:<id>"), damit die nächste Seite nicht vom aktuellen Stand des
+    // Cursor-Rezepts abhängt. Eine reine ID (Streaming, ältere Links) wird über den aktuellen Index aufgelöst.
+    RecipeSearchIndex.Cursor after = RecipeSearchIndex.Cursor.parse(context.request().getParam("after"));
+    if (after == null && page.after() != null) {
+      after = searchIndex.cursorAt(recipeName, page.after().intValue());
+      if (after == null) {
+        sendSearchResults(context, recipeName, new ArrayList<>(), page, null);
+        return;
+      }
+    }
+
+    if (page.streaming()) {
+      List<Integer> ids = ids(searchIndex.hits(recipeName, after, page.limit()));
+      if (ids.isEmpty()) {
+        sendSearchResults(context, recipeName, new ArrayList<>(), page, null);
+        return;
+      }
+      // Reihenfolge des Index beibehalten
+      Statements.InList in = Statements.in(ids);
+      List<Object> params = new ArrayList<>(in.values);
+      params.addAll(in.values);
+      streamSearchResults(context, recipeName, Statements.SEARCH_STREAM.sql(in), Tuple.tuple(params));
+      return;
+    }
+
+    List<RecipeSearchIndex.Hit> hits = new ArrayList<>(searchIndex.hits(recipeName, after, page.limit() + 1));
+    boolean hasMore = hits.size() > page.limit();
+    if (hasMore) {
+      hits.subList(page.limit(), hits.size()).clear();
+    }
+    String nextCursor = hasMore ? hits.get(hits.size() - 1).cursor().toString() : null;
+    if (nextCursor != null) {
+      context.response().putHeader(PageRequest.NEXT_CURSOR_HEADER, nextCursor);
+    }
+    List<Integer> ids = ids(hits);
+    if (ids.isEmpty()) {
+      sendSearchResults(context, recipeName, new ArrayList<>(), page, null);
+      return;
+    }
 
-    JsonArray params = new JsonArray().add("%" + recipeName + "%");
+    // Nur die Treffer der aktuellen Seite aus der Datenbank laden und in Index-Reihenfolge bringen
+    Statements.InList in = Statements.in(ids);
+    String query = Statements.SEARCH_PAGE.sql(in);
 
-    dbClient.queryWithParams(query, params, res -> {
+    dbClient.query(query, Tuple.tuple(in.values)).onComplete(res -> {
       if (res.succeeded()) {
-        List<JsonObject> recipes = res.result().getRows();
-        context.response().putHeader("content-type", "text/html; charset=UTF-8");
+        Map<Integer, JsonObject> byId = new HashMap<>();
+        res.result().forEach(recipe -> byId.put(recipe.getInteger("id"), recipe));
 
-        StringBuilder htmlResponse = new StringBuilder();
+        List<JsonObject> recipes = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+          JsonObject recipe = byId.get(id);
+          if (recipe != null) recipes.add(recipe); // inzwischen gelöschte Rezepte überspringen
+        }
+        sendSearchResults(context, recipeName, recipes, page, nextCursor);
+      } else {
+        context.response().setStatusCode(500).end("<div class='alert alert-danger text-center'>Fehler bei der Rezeptsuche.</div>");
+      }
+    });
+  }
 
-        // Navigation + Header
-        htmlResponse.append("<!DOCTYPE html><html lang='de'><head>")
-          .append("<meta charset='UTF-8'><meta name='viewport' content='width=device-width, initial-scale=1.0'>")
-          .append("<title>Suchergebnisse</title>")
-          .append("<link href='https://cdn.jsdelivr.net/npm/bootstrap@5.3.0/dist/css/bootstrap.min.css' rel='stylesheet'>")
-          .append("</head><body>")
-          .append("<nav class='navbar navbar-expand-lg navbar-dark bg-success shadow'><div class='container'>")
-          .append("<a class='navbar-brand' href='/'>Rezeptseite</a>")
-          .append("<a class='btn btn-light' href='/homePage.html'>Zurück zur Startseite</a>")
-          .append("</div></nav>")
-          .append("<div class='container mt-5'><h2 class='text-success text-center'>Suchergebnisse für: <span class='fw-bold'>" + recipeName + "</span></h2>");
+  private static List<Integer> ids(List<RecipeSearchIndex.Hit> hits) {
+    List<Integer> ids = new ArrayList<>(hits.size());
+    hits.forEach(hit -> ids.add(hit.id));
+    return ids;
+  }
 
-        if (recipes.isEmpty()) {
-          htmlResponse.append("<div class='alert alert-warning text-center' role='alert'><h3>Kein passendes Rezept gefunden.</h3>")
-            .append("<p>Versuchen Sie es mit einem anderen Suchbegriff.</p></div>");
-        } else {
-          htmlResponse.append("<div class='row'>");
-          for (JsonObject recipe : recipes) {
-            htmlResponse.append("<div class='col-md-4'>")
-              .append("<div class='card shadow-lg mb-4 border-0'>")
-              .append("<img src='").append(recipe.getString("image_url") != null ? recipe.getString("image_url") : "placeholder.jpg")
-              .append("' class='card-img-top rounded-top' alt='Rezeptbild' style='height: 200px; object-fit: cover;'>")
-              .append("<div class='card-body'>")
-              .append("<h5 class='card-title text-success fw-bold'>").append(recipe.getString("title")).append("</h5>")
-              .append("<p class='card-text text-muted'>").append(recipe.getString("description")).append("</p>");
-
-            // Portionen anzeigen
-            htmlResponse.append("<p><strong>Portionen:</strong> ").append(recipe.getInteger("portions")).append("</p>");
-
-            // Zutatenliste als UL
-            String ingredients = recipe.getString("ingredients");
-            if (ingredients != null && !ingredients.isEmpty()) {
-              htmlResponse.append("<h6 class='text-success fw-bold mt-3'>Zutaten:</h6><ul class='text-muted'>");
-              for (String ingredient : ingredients.split("\\|")) {
-                htmlResponse.append("<li>").append(ingredient).append("</li>");
-              }
-              htmlResponse.append("</ul>");
-            }
+  private void searchRecipesWithLike(RoutingContext context, String recipeName, PageRequest page) {
+    Tuple params = Tuple.of("%" + recipeName + "%");
+    String query = page.apply(Statements.SEARCH_LIKE, "r.id", "r.id", params);
 
-            // Buttons (Einkaufsliste + Favoriten + Kommentare mit Fetch)
-            htmlResponse.append("<a href='/recipes/").append(recipe.getInteger("id")).append("' class='btn btn-outline-success w-100 mb-2'>📖 Zur Einkaufsliste hinzufügen</a>")
-              .append("<button class='btn btn-success w-100 favorite-btn' data-recipe-id='").append(recipe.getInteger("id")).append("'>❤️ Zu Favoriten hinzufügen</button>")
-              // Im Suchmethode, beim Generieren des Kommentar-Buttons:
-              .append("<button class='btn btn-primary w-100 comment-btn' data-recipe-id='" + recipe.getInteger("id") + "'>💬 Kommentare </button>")
-              //.append("<button class='btn btn-primary w-100 comment-btn' data-recipe-id='" + recipe.getString("id") + "'>💬 Kommentare </button>")
-              .append("<div class='comments-container' id='comments-" + recipe.getString("id") + "' style='display: none; margin-top: 10px;'></div>")
-              // .append("<div class='comments-list' id='comments-" + recipe.getInteger("id") + "'></div>")
-              //.append("<textarea class='form-control mt-2' placeholder='Schreiben Sie einen Kommentar'></textarea>")
-              //.append("<button class='btn btn-sm btn-primary mt-1 submit-comment' data-recipe-id='" + recipe.getInteger("id") + "'>Posten</button>")
-              .append("</div>")
-              .append("</div></div>");
-            //.append("</div></div></div>");
-          }
-          htmlResponse.append("</div>");
-        }
+    if (page.streaming()) {
+      streamSearchResults(context, recipeName, query, params);
+      return;
+    }
 
-        // Footer
-        htmlResponse.append("</div>")
-          .append("<footer class='bg-dark text-white text-center py-4 mt-5'>")
-          .append("<p>&copy; 2025 Rezeptseite. Alle Rechte vorbehalten.</p>")
-          .append("</footer>")
-          .append("<script>")
-          .append("document.querySelectorAll('.favorite-btn').forEach(button => {")
-          .append("  button.addEventListener('click', function(event) {")
-          .append("    event.preventDefault();")
-          .append("    let recipeId = this.getAttribute('data-recipe-id');")
-          .append("    fetch(`/favorites/` + recipeId, { method: 'POST', credentials: 'include' })")
-          .append("      .then(response => response.text())")
-          .append("      .then(data => alert(data))")
-          .append("      .catch(err => console.error('Fehler:', err));")
-          .append("  });")
-          .append("});");
-
-
-        htmlResponse.append("document.querySelectorAll('.comment-btn').forEach(button => {")
-          .append("  button.addEventListener('click', function(event) {")
-          .append("    event.preventDefault();")
-          .append("    let recipeId = this.getAttribute('data-recipe-id');")
-          .append("    let commentSection = document.getElementById('comments-' + recipeId);")
-          .append("    if (commentSection.style.display === 'none') {")
-          .append("    }")
-          .append("  });")
-          .append("});")
-          .append("</script>");
-
-        htmlResponse.append("<script>")
-          .append("document.querySelectorAll('.comment-btn').forEach(button => {")
-          .append("  button.addEventListener('click', function(event) {")
-          .append("    event.preventDefault();")
-          .append("    let recipeId = this.getAttribute('data-recipe-id');")
-          .append("    window.location.href = '/comment.html?recipeId=' + recipeId;")
-          .append("  });")
-          .append("});")
-          .append("</script>")
-          .append("<script>")
-          .append("document.querySelectorAll('.comment-btn').forEach(button => {")
-          .append("  button.addEventListener('click', function() {")
-          .append("    let recipeId = this.getAttribute('data-recipe-id');")
-          .append("    let commentSection = document.getElementById('comments-' + recipeId);")
-          .append("    if (commentSection.innerHTML === '') {")
-          .append("      fetch('/comments?recipeId=' + recipeId)")
-          .append("        .then(response => response.json())")
-          .append("        .then(comments => {")
-          .append("          comments.forEach(comment => {")
-          .append("            let commentHtml = `<div class='comment-item'><p><strong>${comment.username}:</strong> ${comment.content}</p>`;")
-          .append("            if (comment.isOwner) {")
-          .append("              commentHtml += `<button class='btn btn-sm btn-warning edit-comment' data-comment-id='${comment.id}'>✏️ Bearbeiten</button>`;")
-          .append("              commentHtml += `<button class='btn btn-sm btn-danger delete-comment' data-comment-id='${comment.id}'>🗑️ Löschen</button>`;")
-          .append("              commentHtml += `<div class='edit-form' id='edit-${comment.id}' style='display:none;'>")
-          .append("                                <textarea class='form-control edit-content'>${comment.content}</textarea>")
-          .append("                                <button class='btn btn-sm btn-success save-comment' data-comment-id='${comment.id}'>💾 Speichern</button>")
-          .append("                              </div>`;")
-          .append("            }")
-          .append("            commentHtml += `</div>`;")
-          .append("            commentSection.innerHTML += commentHtml;")
-          .append("          });")
-          .append("          commentSection.style.display = 'block';")
-          .append("        });")
-          .append("    } else {")
-          .append("      commentSection.style.display = (commentSection.style.display === 'none') ? 'block' : 'none';")
-          .append("    }")
-          .append("  });")
-          .append("});")
-          .append("</script>");
-
-        htmlResponse.append("<script>")
-          .append("document.body.addEventListener('click', function(event) {")
-          .append("  if (event.target.classList.contains('edit-comment')) {")
-          .append("    let commentId = event.target.getAttribute('data-comment-id');")
-          .append("    let editForm = document.getElementById(`edit-${commentId}`);")
-          .append("    editForm.style.display = editForm.style.display === 'none' ? 'block' : 'none';")
-          .append("  }")
-          .append("  if (event.target.classList.contains('save-comment')) {")
-          .append("    let commentId = event.target.getAttribute('data-comment-id');")
-          .append("    let newContent = document.querySelector(`#edit-${commentId} .edit-content`).value;")
-          .append("    fetch(`/comments/${commentId}`, {")
-          .append("      method: 'PUT',")
-          .append("      headers: { 'Content-Type': 'application/json' },")
-          .append("      credentials: 'include',")
-          .append("      body: JSON.stringify({ content: newContent })")
-          .append("    })")
-          .append("    .then(response => response.json())")
-          .append("    .then(data => {")
-          .append("      if (data.success) {")
-          .append("        document.querySelector(`.comment-item[data-comment-id='${commentId}'] p`).innerHTML = `<strong>${data.username}:</strong> ${data.content}`;")
-          .append("        document.getElementById(`edit-${commentId}`).style.display = 'none';")
-          .append("      } else { alert('Fehler: ' + data.error); }")
-          .append("    })")
-          .append("    .catch(error => console.error('Fehler:', error));")
-          .append("  }")
-          .append("});")
-
-          .append("document.querySelectorAll('.comment-btn').forEach(button => {")
-          .append("  button.addEventListener('click', function(event) {")
-          .append("    event.preventDefault();")
-          .append("    let recipeId = this.getAttribute('data-recipe-id');")
-          .append("    let commentSection = document.getElementById('comments-' + recipeId);")
-          .append("    if (commentSection.innerHTML === '') {")
-          .append("      fetch('/comments?recipeId=' + recipeId)")
-          .append("        .then(response => response.json())")
-          .append("        .then(comments => {")
-          .append("          comments.forEach(comment => {")
-          .append("            let commentHtml = `<div class='comment-item' data-comment-id='${comment.id}'>")
-          .append("              <p><strong>${comment.username}:</strong> ${comment.content}</p>`;")
-          .append("            if (comment.isOwner) {")
-          .append("              commentHtml += `<button class='btn btn-sm btn-warning edit-comment' data-comment-id='${comment.id}'>✏️ Bearbeiten</button>`;")
-          .append("              commentHtml += `<button class='btn btn-sm btn-danger delete-comment' data-comment-id='${comment.id}'>🗑️ Löschen</button>`;")
-          .append("            }")
-          .append("            commentHtml += `</div>`;")
-          .append("            commentSection.innerHTML += commentHtml;")
-          .append("          });")
-          .append("          commentSection.style.display = 'block';")
-          .append("        });")
-          .append("    }")
-          .append("  });")
-          .append("});")
-          .append("</script>");
-
-
-
-        htmlResponse.append("<script>")
-          .append("document.querySelectorAll('.edit-comment').forEach(button => {")
-          .append("  button.addEventListener('click', function() {")
-          .append("    let commentId = this.getAttribute('data-comment-id');")
-          .append("    let editForm = document.getElementById('edit-' + commentId);")
-          .append("    editForm.style.display = (editForm.style.display === 'none') ? 'block' : 'none';")
-          .append("  });")
-          .append("});")
-
-          .append("document.querySelectorAll('.save-comment').forEach(button => {")
-          .append("  button.addEventListener('click', function() {")
-          .append("    let commentId = this.getAttribute('data-comment-id');")
-          .append("    let newContent = document.querySelector('#edit-' + commentId + ' .edit-content').value;")
-          .append("    fetch('/comments/' + commentId, {")
-          .append("      method: 'PUT',")
-          .append("      headers: { 'Content-Type': 'application/json' },")
-          .append("      body: JSON.stringify({ content: newContent })")
-          .append("    })")
-          .append("    .then(response => response.json())")
-          .append("    .then(data => {")
-          .append("      if (data.success) {")
-          .append("        alert('Kommentar erfolgreich aktualisiert!');")
-          .append("        document.querySelector('.comment-item[data-comment-id=\"' + commentId + '\"] p').innerHTML = '<strong>' + data.username + ':</strong> ' + newContent;")
-          .append("        document.getElementById('edit-' + commentId).style.display = 'none';")
-          .append("      } else {")
-          .append("        alert('Fehler beim Speichern des Kommentars.');")
-          .append("      }")
-          .append("    })")
-          .append("    .catch(err => console.error('Fehler:', err));")
-          .append("  });")
-          .append("});")
-          .append("</script>")
-
-
-
-
-
-          .append("</body></html>");
-
-
-
-        context.response().end(htmlResponse.toString());
+    dbClient.query(query, params).onComplete(res -> {
+      if (res.succeeded()) {
+        List<JsonObject> recipes = res.result();
+        Long next = page.finish(context, recipes, "id");
+        sendSearchResults(context, recipeName, recipes, page, next != null ? String.valueOf(next) : null);
       } else {
         context.response().setStatusCode(500).end("<div class='alert alert-danger text-center'>Fehler bei der Rezeptsuche.</div>");
       }
     });
   }
 
+  /**
+   * @api {get} /search/ingredients Rezepte nach vorhandenen Zutaten suchen
+   * @apiName SearchRecipesByIngredients
+   * @apiGroup Recipes
+   *
+   * @apiDescription "Was kann ich mit X, Y und Z kochen?" Liefert Rezepte, sortiert nach Abdeckung:
+   * zuerst die Rezepte, die die meisten der angegebenen Zutaten verwenden, bei Gleichstand die mit den
+   * wenigsten zusätzlich benötigten Zutaten.
+   *
+   * @apiParam {String} names Kommagetrennte Zutaten (alternativ mehrfach <code>name</code>), höchstens 20.
+   * @apiParam {Boolean} [all=false] Nur Rezepte, die alle angegebenen Zutaten enthalten.
+   * @apiParam {String} [after] Cursor aus dem Header X-Next-Cursor der vorherigen Seite
+   * ({@code <Treffer>:<fehlend>:<ID>}; eine reine ID wird über den aktuellen Index aufgelöst).
+   * @apiParam {Number} [limit=20] Anzahl der Rezepte pro Seite (höchstens 100).
+   *
+   * @apiSuccessExample {json} Erfolgsantwort:
+   *     HTTP/1.1 200 OK
+   *     {
+   *       "ingredients": ["eier", "mehl", "milch"],
+   *       "unknown": ["drachenfrucht"],
+   *       "recipes": [
+   *         { "id": 7, "title": "Pfannkuchen", "matched": 3, "missing": 1, ... }
+   *       ],
+   *       "next_cursor": null
+   *     }
+   *
+   * @apiError (Bad Request 400) BadRequest Es wurden keine Zutaten angegeben.
+   * @apiError (Service Unavailable 503) Unavailable Der Zutaten-Index wird noch aufgebaut.
+   * @apiError (Server Error 500) ServerError Ein Fehler ist bei der Suche aufgetreten.
+   */
+  public void searchByIngredients(RoutingContext context) {
+    List<String> names = new ArrayList<>(context.request().params().getAll("name"));
+    String list = context.request().getParam("names");
+    if (list != null) {
+      names.addAll(Arrays.asList(list.split(",")));
+    }
+    names.removeIf(name -> name == null || name.trim().isEmpty());
+
+    if (names.isEmpty() || names.size() > MAX_SEARCH_INGREDIENTS) {
+      sendJson(context, 400, new JsonObject().put("message", "⚠ Bitte 1 bis " + MAX_SEARCH_INGREDIENTS + " Zutaten angeben!"));
+      return;
+    }
+    if (!ingredientIndex.isReady()) {
+      sendJson(context, 503, new JsonObject().put("message", "⚠ Die Zutaten-Suche wird gerade vorbereitet, bitte gleich nochmal versuchen."));
+      return;
+    }
+
+    boolean requireAll = "true".equalsIgnoreCase(context.request().getParam("all"));
+    PageRequest page = PageRequest.from(context, searchPageSize);
+
+    resolveIngredientIds(names).onComplete(resolved -> {
+      if (resolved.failed()) {
+        sendJson(context, 500, new JsonObject().put("message", "❌ Fehler bei der Zutaten-Suche!"));
+        return;
+      }
+
+      Map<String, Integer> ids = resolved.result();
+      JsonArray unknown = new JsonArray();
+      names.stream().map(IngredientDictionary::key).distinct()
+        .filter(key -> !ids.containsKey(key))
+        .forEach(unknown::add);
+
+      // wie bei der Textsuche steht der Rang im Cursor; eine reine ID wird über den aktuellen Index aufgelöst
+      IngredientRecipeIndex.Cursor after = IngredientRecipeIndex.Cursor.parse(context.request().getParam("after"));
+      boolean lostCursor = false;
+      if (after == null && page.after() != null) {
+        after = ingredientIndex.cursorAt(ids.values(), requireAll, page.after().intValue());
+        lostCursor = after == null;
+      }
+      List<IngredientRecipeIndex.Match> matches = new ArrayList<>(
+        lostCursor || (requireAll && !unknown.isEmpty())
+          ? Collections.emptyList()
+          : ingredientIndex.search(ids.values(), requireAll, after, page.limit() + 1));
+
+      boolean hasMore = matches.size() > page.limit();
+      if (hasMore) {
+        matches.subList(page.limit(), matches.size()).clear();
+      }
+      String nextCursor = hasMore ? matches.get(matches.size() - 1).cursor().toString() : null;
+      if (nextCursor != null) {
+        context.response().putHeader(PageRequest.NEXT_CURSOR_HEADER, nextCursor);
+      }
+
+      JsonObject response = new JsonObject()
+        .put("ingredients", new JsonArray(new ArrayList<>(ids.keySet())))
+        .put("unknown", unknown)
+        .put("next_cursor", nextCursor);
+
+      if (matches.isEmpty()) {
+        sendJson(context, 200, response.put("recipes", new JsonArray()));
+        return;
+      }
+
+      // Nur die Rezepte der aktuellen Seite aus der Datenbank laden
+      List<Object> recipeIds = new ArrayList<>();
+      matches.forEach(m -> recipeIds.add(m.recipeId));
+      Statements.InList in = Statements.in(recipeIds);
+      String query = Statements.RECIPES_BY_IDS.sql(in);
+
+      dbClient.query(query, Tuple.tuple(in.values)).onComplete(res -> {
+        if (res.failed()) {
+          sendJson(context, 500, new JsonObject().put("message", "❌ Fehler bei der Zutaten-Suche!"));
+          return;
+        }
+        Map<Integer, JsonObject> byId = new HashMap<>();
+        res.result().forEach(recipe -> byId.put(recipe.getInteger("id"), recipe));
+
+        JsonArray recipes = new JsonArray();
+        for (IngredientRecipeIndex.Match m : matches) {
+          JsonObject recipe = byId.get(m.recipeId);
+          if (recipe != null) recipes.add(recipe.mergeIn(m.toJson())); // gelöschte Rezepte überspringen
+        }
+        sendJson(context, 200, response.put("recipes", recipes));
+      });
+    });
+  }
+
+  // Zutatennamen -> IDs, zuerst aus dem Wörterbuch, nur unbekannte Namen aus der Datenbank
+  private Future<Map<String, Integer>> resolveIngredientIds(List<String> names) {
+    List<String> missing = new ArrayList<>();
+    Map<String, Integer> ids = ingredientDictionary.resolve(names, missing);
+    if (missing.isEmpty()) {
+      return Future.succeededFuture(ids);
+    }
+
+    Statements.InList in = Statements.in(missing);
+    String query = Statements.INGREDIENTS_BY_NAME.sql(in);
+    return dbClient.query(query, Tuple.tuple(in.values)).map(rows -> {
+      rows.forEach(row -> {
+        ingredientDictionary.put(row.getString("name"), row.getInteger("id"));
+        ids.put(IngredientDictionary.key(row.getString("name")), row.getInteger("id"));
+      });
+      return ids;
+    });
+  }
+
+  private static void sendJson(RoutingContext context, int status, JsonObject body) {
+    context.response()
+      .setStatusCode(status)
+      .putHeader("Content-Type", "application/json")
+      .end(body.encode());
+  }
+
+  private void sendSearchResults(RoutingContext context, String recipeName, List<JsonObject> recipes,
+                                 PageRequest page, String nextCursor) {
+    context.response().putHeader("content-type", "text/html; charset=UTF-8");
+
+    StringBuilder htmlResponse = new StringBuilder(searchPageHead(recipeName));
+    Set<Integer> favorites = FavoriteService.ofRequest(context);
+
+    if (recipes.isEmpty()) {
+      htmlResponse.append(SEARCH_NO_RESULTS);
+    } else {
+      htmlResponse.append("<div class='row'>");
+      for (JsonObject recipe : recipes) {
+        appendSearchCard(htmlResponse, recipe, favorites);
+      }
+      htmlResponse.append("</div>");
+
+      // Link zur nächsten Seite (Keyset-Cursor)
+      if (nextCursor != null) {
+        htmlResponse.append("<div class='text-center mb-4'><a class='btn btn-outline-success' href='/search/recipes?name=")
+          .append(URLEncoder.encode(recipeName, StandardCharsets.UTF_8))
+          .append("&after=").append(URLEncoder.encode(nextCursor, StandardCharsets.UTF_8))
+          .append("&limit=").append(page.limit())
+          .append("'>Weitere Ergebnisse</a></div>");
+      }
+    }
+
+    htmlResponse.append(SEARCH_PAGE_FOOTER);
+    context.response().end(htmlResponse.toString());
+  }
+
+  /**
+   * Streaming-Variante von {@link #sendSearchResults}: der Seitenkopf geht sofort raus,
+   * danach wird jede Zeile direkt als Karte geschrieben.
+   */
+  private void streamSearchResults(RoutingContext context, String recipeName, String query, Tuple params) {
+    context.response().putHeader("content-type", "text/html; charset=UTF-8");
+
+    long[] count = {0};
+    Set<Integer> favorites = FavoriteService.ofRequest(context);
+    ResponseStreamer.stream(dbClient, query, params, context.response(),
+      searchPageHead(recipeName) + "<div class='row'>",
+      row -> {
+        count[0]++;
+        StringBuilder html = new StringBuilder();
+        appendSearchCard(html, row.toJson(), favorites);
+        return html.toString();
+      },
+      () -> "</div>" + (count[0] == 0 ? SEARCH_NO_RESULTS : "") + SEARCH_PAGE_FOOTER);
+  }
+
+  // Navigation + Header
+  private static String searchPageHead(String recipeName) {
+    StringBuilder htmlResponse = new StringBuilder();
+    htmlResponse.append("<!DOCTYPE html><html lang='de'><head>")
+      .append("<meta charset='UTF-8'><meta name='viewport' content='width=device-width, initial-scale=1.0'>")
+      .append("<title>Suchergebnisse</title>")
+      .append("<link href='https://cdn.jsdelivr.net/npm/bootstrap@5.3.0/dist/css/bootstrap.min.css' rel='stylesheet'>")
+      .append("</head><body>")
+      .append("<nav class='navbar navbar-expand-lg navbar-dark bg-success shadow'><div class='container'>")
+      .append("<a class='navbar-brand' href='/'>Rezeptseite</a>")
+      .append("<a class='btn btn-light' href='/homePage.html'>Zurück zur Startseite</a>")
+      .append("</div></nav>")
+      .append("<div class='container mt-5'><h2 class='text-success text-center'>Suchergebnisse für: <span class='fw-bold'>" + recipeName + "</span></h2>");
+    return htmlResponse.toString();
+  }
+
+  private static final String SEARCH_NO_RESULTS =
+    "<div class='alert alert-warning text-center' role='alert'><h3>Kein passendes Rezept gefunden.</h3>"
+      + "<p>Versuchen Sie es mit einem anderen Suchbegriff.</p></div>";
+
+  // favorites: Favoriten des angemeldeten Benutzers (siehe FavoriteService#loadForRequest), steuern den Favoriten-Button
+  private static void appendSearchCard(StringBuilder html, JsonObject recipe, Set<Integer> favorites) {
+    html.append("<div class='col-md-4'>")
+      .append("<div class='card shadow-lg mb-4 border-0'>")
+      .append("<img src='").append(recipe.getString("image_url") != null ? recipe.getString("image_url") : "placeholder.jpg")
+      .append("' class='card-img-top rounded-top' alt='Rezeptbild' style='height: 200px; object-fit: cover;'>")
+      .append("<div class='card-body'>")
+      .append("<h5 class='card-title text-success fw-bold'>").append(recipe.getString("title")).append("</h5>")
+      .append("<p class='card-text text-muted'>").append(recipe.getString("description")).append("</p>");
+
+    // Portionen anzeigen
+    html.append("<p><strong>Portionen:</strong> ").append(recipe.getInteger("portions")).append("</p>");
+
+    // Zutatenliste als UL
+    String ingredients = recipe.getString("ingredients");
+    if (ingredients != null && !ingredients.isEmpty()) {
+      html.append("<h6 class='text-success fw-bold mt-3'>Zutaten:</h6><ul class='text-muted'>");
+      for (String ingredient : ingredients.split("\\|")) {
+        html.append("<li>").append(ingredient).append("</li>");
+      }
+      html.append("</ul>");
+    }
+
+    // Buttons (Einkaufsliste + Favoriten + Kommentare mit Fetch)
+    html.append("<a href='/recipes/").append(recipe.getInteger("id")).append("' class='btn btn-outline-success w-100 mb-2'>📖 Zur Einkaufsliste hinzufügen</a>")
+      .append(favorites.contains(recipe.getInteger("id"))
+        ? "<button class='btn btn-outline-danger w-100 favorite-btn' data-favorite='true' data-recipe-id='" + recipe.getInteger("id") + "'>💔 Aus Favoriten entfernen</button>"
+        : "<button class='btn btn-success w-100 favorite-btn' data-recipe-id='" + recipe.getInteger("id") + "'>❤️ Zu Favoriten hinzufügen</button>")
+      // Im Suchmethode, beim Generieren des Kommentar-Buttons:
+      .append("<button class='btn btn-primary w-100 comment-btn' data-recipe-id='" + recipe.getInteger("id") + "'>💬 Kommentare </button>")
+      //.append("<button class='btn btn-primary w-100 comment-btn' data-recipe-id='" + recipe.getString("id") + "'>💬 Kommentare </button>")
+      .append("<div class='comments-container' id='comments-" + recipe.getString("id") + "' style='display: none; margin-top: 10px;'></div>")
+      // .append("<div class='comments-list' id='comments-" + recipe.getInteger("id") + "'></div>")
+      //.append("<textarea class='form-control mt-2' placeholder='Schreiben Sie einen Kommentar'></textarea>")
+      //.append("<button class='btn btn-sm btn-primary mt-1 submit-comment' data-recipe-id='" + recipe.getInteger("id") + "'>Posten</button>")
+      .append("</div>")
+      .append("</div></div>");
+    //.append("</div></div></div>");
+  }
+
+  // Footer mit den Skripten ist für alle Suchseiten gleich und wird nur einmal gebaut
+  private static final String SEARCH_PAGE_FOOTER = searchPageFooter();
+
+  private static String searchPageFooter() {
+    StringBuilder htmlResponse = new StringBuilder();
+    htmlResponse.append("</div>")
+      .append("<footer class='bg-dark text-white text-center py-4 mt-5'>")
+      .append("<p>&copy; 2025 Rezeptseite. Alle Rechte vorbehalten.</p>")
+      .append("</footer>")
+      .append("<script>")
+      .append("document.querySelectorAll('.favorite-btn').forEach(button => {")
+      .append("  button.addEventListener('click', function(event) {")
+      .append("    event.preventDefault();")
+      .append("    let recipeId = this.getAttribute('data-recipe-id');")
+      .append("    let isFavorite = this.getAttribute('data-favorite') === 'true';")
+      .append("    fetch(`/favorites/` + recipeId, { method: isFavorite ? 'DELETE' : 'POST', credentials: 'include' })")
+      .append("      .then(response => {")
+      .append("        if (response.ok) {")
+      .append("          this.setAttribute('data-favorite', isFavorite ? 'false' : 'true');")
+      .append("          this.className = 'btn w-100 favorite-btn ' + (isFavorite ? 'btn-success' : 'btn-outline-danger');")
+      .append("          this.textContent = isFavorite ? '❤️ Zu Favoriten hinzufügen' : '💔 Aus Favoriten entfernen';")
+      .append("        }")
+      .append("        return response.text();")
+      .append("      })")
+      .append("      .then(data => { if (!isFavorite) alert(data); })")
+      .append("      .catch(err => console.error('Fehler:', err));")
+      .append("  });")
+      .append("});");
+
+
+    htmlResponse.append("document.querySelectorAll('.comment-btn').forEach(button => {")
+      .append("  button.addEventListener('click', function(event) {")
+      .append("    event.preventDefault();")
+      .append("    let recipeId = this.getAttribute('data-recipe-id');")
+      .append("    let commentSection = document.getElementById('comments-' + recipeId);")
+      .append("    if (commentSection.style.display === 'none') {")
+      .append("    }")
+      .append("  });")
+      .append("});")
+      .append("</script>");
+
+    htmlResponse.append("<script>")
+      .append("document.querySelectorAll('.comment-btn').forEach(button => {")
+      .append("  button.addEventListener('click', function(event) {")
+      .append("    event.preventDefault();")
+      .append("    let recipeId = this.getAttribute('data-recipe-id');")
+      .append("    window.location.href = '/comment.html?recipeId=' + recipeId;")
+      .append("  });")
+      .append("});")
+      .append("</script>")
+      .append("<script>")
+      .append("document.querySelectorAll('.comment-btn').forEach(button => {")
+      .append("  button.addEventListener('click', function() {")
+      .append("    let recipeId = this.getAttribute('data-recipe-id');")
+      .append("    let commentSection = document.getElementById('comments-' + recipeId);")
+      .append("    if (commentSection.innerHTML === '') {")
+      .append("      fetch('/comments?recipeId=' + recipeId)")
+      .append("        .then(response => response.json())")
+      .append("        .then(comments => {")
+      .append("          comments.forEach(comment => {")
+      .append("            let commentHtml = `<div class='comment-item'><p><strong>${comment.username}:</strong> ${comment.content}</p>`;")
+      .append("            if (comment.isOwner) {")
+      .append("              commentHtml += `<button class='btn btn-sm btn-warning edit-comment' data-comment-id='${comment.id}'>✏️ Bearbeiten</button>`;")
+      .append("              commentHtml += `<button class='btn btn-sm btn-danger delete-comment' data-comment-id='${comment.id}'>🗑️ Löschen</button>`;")
+      .append("              commentHtml += `<div class='edit-form' id='edit-${comment.id}' style='display:none;'>")
+      .append("                                <textarea class='form-control edit-content'>${comment.content}</textarea>")
+      .append("                                <button class='btn btn-sm btn-success save-comment' data-comment-id='${comment.id}'>💾 Speichern</button>")
+      .append("                              </div>`;")
+      .append("            }")
+      .append("            commentHtml += `</div>`;")
+      .append("            commentSection.innerHTML += commentHtml;")
+      .append("          });")
+      .append("          commentSection.style.display = 'block';")
+      .append("        });")
+      .append("    } else {")
+      .append("      commentSection.style.display = (commentSection.style.display === 'none') ? 'block' : 'none';")
+      .append("    }")
+      .append("  });")
+      .append("});")
+      .append("</script>");
+
+    htmlResponse.append("<script>")
+      .append("document.body.addEventListener('click', function(event) {")
+      .append("  if (event.target.classList.contains('edit-comment')) {")
+      .append("    let commentId = event.target.getAttribute('data-comment-id');")
+      .append("    let editForm = document.getElementById(`edit-${commentId}`);")
+      .append("    editForm.style.display = editForm.style.display === 'none' ? 'block' : 'none';")
+      .append("  }")
+      .append("  if (event.target.classList.contains('save-comment')) {")
+      .append("    let commentId = event.target.getAttribute('data-comment-id');")
+      .append("    let newContent = document.querySelector(`#edit-${commentId} .edit-content`).value;")
+      .append("    fetch(`/comments/${commentId}`, {")
+      .append("      method: 'PUT',")
+      .append("      headers: { 'Content-Type': 'application/json' },")
+      .append("      credentials: 'include',")
+      .append("      body: JSON.stringify({ content: newContent })")
+      .append("    })")
+      .append("    .then(response => response.json())")
+      .append("    .then(data => {")
+      .append("      if (data.success) {")
+      .append("        document.querySelector(`.comment-item[data-comment-id='${commentId}'] p`).innerHTML = `<strong>${data.username}:</strong> ${data.content}`;")
+      .append("        document.getElementById(`edit-${commentId}`).style.display = 'none';")
+      .append("      } else { alert('Fehler: ' + data.error); }")
+      .append("    })")
+      .append("    .catch(error => console.error('Fehler:', error));")
+      .append("  }")
+      .append("});")
+
+      .append("document.querySelectorAll('.comment-btn').forEach(button => {")
+      .append("  button.addEventListener('click', function(event) {")
+      .append("    event.preventDefault();")
+      .append("    let recipeId = this.getAttribute('data-recipe-id');")
+      .append("    let commentSection = document.getElementById('comments-' + recipeId);")
+      .append("    if (commentSection.innerHTML === '') {")
+      .append("      fetch('/comments?recipeId=' + recipeId)")
+      .append("        .then(response => response.json())")
+      .append("        .then(comments => {")
+      .append("          comments.forEach(comment => {")
+      .append("            let commentHtml = `<div class='comment-item' data-comment-id='${comment.id}'>")
+      .append("              <p><strong>${comment.username}:</strong> ${comment.content}</p>`;")
+      .append("            if (comment.isOwner) {")
+      .append("              commentHtml += `<button class='btn btn-sm btn-warning edit-comment' data-comment-id='${comment.id}'>✏️ Bearbeiten</button>`;")
+      .append("              commentHtml += `<button class='btn btn-sm btn-danger delete-comment' data-comment-id='${comment.id}'>🗑️ Löschen</button>`;")
+      .append("            }")
+      .append("            commentHtml += `</div>`;")
+      .append("            commentSection.innerHTML += commentHtml;")
+      .append("          });")
+      .append("          commentSection.style.display = 'block';")
+      .append("        });")
+      .append("    }")
+      .append("  });")
+      .append("});")
+      .append("</script>");
+
+
+
+    htmlResponse.append("<script>")
+      .append("document.querySelectorAll('.edit-comment').forEach(button => {")
+      .append("  button.addEventListener('click', function() {")
+      .append("    let commentId = this.getAttribute('data-comment-id');")
+      .append("    let editForm = document.getElementById('edit-' + commentId);")
+      .append("    editForm.style.display = (editForm.style.display === 'none') ? 'block' : 'none';")
+      .append("  });")
+      .append("});")
+
+      .append("document.querySelectorAll('.save-comment').forEach(button => {")
+      .append("  button.addEventListener('click', function() {")
+      .append("    let commentId = this.getAttribute('data-comment-id');")
+      .append("    let newContent = document.querySelector('#edit-' + commentId + ' .edit-content').value;")
+      .append("    fetch('/comments/' + commentId, {")
+      .append("      method: 'PUT',")
+      .append("      headers: { 'Content-Type': 'application/json' },")
+      .append("      body: JSON.stringify({ content: newContent })")
+      .append("    })")
+      .append("    .then(response => response.json())")
+      .append("    .then(data => {")
+      .append("      if (data.success) {")
+      .append("        alert('Kommentar erfolgreich aktualisiert!');")
+      .append("        document.querySelector('.comment-item[data-comment-id=\"' + commentId + '\"] p').innerHTML = '<strong>' + data.username + ':</strong> ' + newContent;")
+      .append("        document.getElementById('edit-' + commentId).style.display = 'none';")
+      .append("      } else {")
+      .append("        alert('Fehler beim Speichern des Kommentars.');")
+      .append("      }")
+      .append("    })")
+      .append("    .catch(err => console.error('Fehler:', err));")
+      .append("  });")
+      .append("});")
+      .append("</script>")
+
+
+
+
+
+      .append("</body></html>");
+
+    return htmlResponse.toString();
+  }
+
 
   public void deleteRecipe(RoutingContext context) {
     // Prüfen, ob der Benutzer authentifiziert ist
@@ -301,7 +638,7 @@ public class RecipeService {
     }
 
     // Benutzer-ID aus dem Token extrahieren
-    String tokenUserId = context.user().principal().getString("userId");
+    Integer tokenUserId = TokenSessions.userId(context.user());
     if (tokenUserId == null) {
       context.response().setStatusCode(401).end("❌ Kein Benutzer im Token gefunden!");
       return;
@@ -318,22 +655,23 @@ public class RecipeService {
     String pathUserId = context.pathParam("user_id");
 
     // Überprüfen, ob der Benutzer zu diesem Rezept gehört
-    if (pathUserId != null && !pathUserId.equals(tokenUserId)) {
+    if (pathUserId != null && !pathUserId.equals(String.valueOf(tokenUserId))) {
       context.response().setStatusCode(403).end("❌ Du darfst dieses Rezept nicht löschen!");
       return;
     }
 
     // SQL-Query, um das Rezept zu löschen
-    String query = "DELETE FROM recipes WHERE id = ? AND user_id = ?";
-    JsonArray params = new JsonArray().add(recipeId).add(tokenUserId);
+    String query = Statements.RECIPE_DELETE_OWN;
+    Tuple params = Tuple.of(recipeId, tokenUserId);
 
 
-    dbClient.updateWithParams(query, params, res -> {
+    dbClient.update(query, params).onComplete(res -> {
       if (res.succeeded()) {
-        UpdateResult updateResult = res.result(); // Das UpdateResult holen
+        RowSet<Row> updateResult = res.result(); // Das Ergebnis holen
 
-        // Überprüfen, ob UpdateResult korrekt ist und ob eine Zeile betroffen wurde
-        if (updateResult != null && updateResult.getUpdated() > 0) {  // getUpdated() gibt die Anzahl der betroffenen Zeilen zurück
+        // Überprüfen, ob eine Zeile betroffen wurde
+        if (updateResult != null && updateResult.rowCount() > 0) {  // rowCount() gibt die Anzahl der betroffenen Zeilen zurück
+          onRecipeDeleted(Long.parseLong(recipeId), tokenUserId);
           // Rezept erfolgreich gelöscht
           context.response()
             .setStatusCode(302)  // Redirect
@@ -397,7 +735,11 @@ public class RecipeService {
       context.response().setStatusCode(401).end("❌ Nicht authentifiziert!");
       return;
     }
-    String userId = context.user().principal().getString("userId");
+    Integer userId = TokenSessions.userId(context.user());
+    if (userId == null) {
+      context.response().setStatusCode(401).end("❌ Kein Benutzer im Token gefunden!");
+      return;
+    }
 
     // Formulardaten lesen
     String title = context.request().getFormAttribute("title");
@@ -406,82 +748,31 @@ public class RecipeService {
     String imageUrl = "placeholder.jpg"; // Hier ggf. Bild-Upload verarbeiten
 
     // Rezept in Datenbank einfügen
-    String insertRecipe = "INSERT INTO recipes (user_id, title, description, portions, image_url) VALUES (?, ?, ?, ?, ?)";
-    JsonArray params = new JsonArray().add(userId).add(title).add(description).add(portions).add(imageUrl);
-
-    dbClient.updateWithParams(insertRecipe, params, res -> {
-      if (res.succeeded()) {
-        int recipeId = res.result().getKeys().getInteger(0);
-        processIngredients(context, recipeId); // Zutaten verarbeiten
-      } else {
-        context.response().setStatusCode(500).end("❌ Rezept konnte nicht gespeichert werden!");
-      }
-    });
-  }
-
-  private void processIngredients(RoutingContext context, int recipeId) {
-    List<Future> futures = new ArrayList<>();
+    String insertRecipe = Statements.RECIPE_INSERT;
+    Tuple params = Tuple.of(userId, title, description, portions, imageUrl);
 
+    // Zutaten einsammeln, Rezept und Zutaten werden in einer Transaktion gespeichert
     List<String> names = context.request().params().getAll("ingredient_name[]");
     List<String> amounts = context.request().params().getAll("ingredient_amount[]");
     List<String> units = context.request().params().getAll("ingredient_unit[]");
 
+    List<IngredientRepository.IngredientLine> ingredients = new ArrayList<>();
     for (int i = 0; i < names.size(); i++) {
-
-      String name = names.get(i);
-      if (name == null || name.isEmpty()) continue;
-      System.out.println("Zutat wird verarbeitet: " + name + ", " + amounts.get(i) + " " + units.get(i));
-
-
-      // Zutat in 'ingredients' einfügen oder vorhandene ID holen
-      String checkIngredient = "SELECT id FROM ingredients WHERE name = ?";
-      int finalI = i;
-      Promise<Integer> promise = Promise.promise();
-      futures.add(promise.future());
-
-      dbClient.queryWithParams(checkIngredient, new JsonArray().add(name), checkRes -> {
-        if (checkRes.succeeded() && !checkRes.result().getRows().isEmpty()) {
-          int ingredientId = checkRes.result().getRows().get(0).getInteger("id");
-          linkIngredient(recipeId, ingredientId, amounts.get(finalI), units.get(finalI));
-          promise.complete();
-        } else {
-          String insertIngredient = "INSERT INTO ingredients (name) VALUES (?)";
-
-          dbClient.updateWithParams(insertIngredient, new JsonArray().add(name), insertRes -> {
-            if (insertRes.succeeded() && insertRes.result().getKeys().size() > 0) {
-              int ingredientId = insertRes.result().getKeys().getInteger(0);
-              linkIngredient(recipeId, ingredientId, amounts.get(finalI), units.get(finalI));
-              promise.complete();
-            } else {
-              promise.fail("Fehler beim Einfügen der Zutat: " + name);
-            }
-          });
-        }
-      });
-
+      IngredientRepository.IngredientLine line = IngredientRepository.IngredientLine.of(names.get(i),
+        i < amounts.size() ? amounts.get(i) : null,
+        i < units.size() ? units.get(i) : null);
+      if (line != null) ingredients.add(line);
     }
-    // Warten, bis alle Zutaten gespeichert wurden
-    CompositeFuture.all(futures).onComplete(result -> {
-      if (result.succeeded()) {
-        context.response().setStatusCode(303).putHeader("Location", "/profil.html").end();
-      } else {
-        context.response().setStatusCode(500).end("Fehler beim Speichern der Zutaten!");
-      }
-    });
 
-  }
-
-  private void linkIngredient(int recipeId, int ingredientId, String amount, String unit) {
-    String sql = "INSERT INTO recipe_ingredients (recipe_id, ingredient_id, amount, unit) VALUES (?, ?, ?, ?)";
-    dbClient.updateWithParams(sql, new JsonArray().add(recipeId).add(ingredientId).add(amount).add(unit), res -> {
+    ingredientRepository.createRecipe(insertRecipe, params, ingredients).onComplete(res -> {
       if (res.succeeded()) {
-        System.out.println("✅ Zutat erfolgreich mit Rezept verknüpft: " + ingredientId);
+        onRecipeCreated(res.result(), userId);
+        context.response().setStatusCode(303).putHeader("Location", "/profil.html").end();
       } else {
-        System.out.println("❌ Fehler beim Verknüpfen der Zutat mit Rezept!");
+        RequestLog.error(log, context).setCause(res.cause()).log("❌ Rezept konnte nicht gespeichert werden");
+        context.response().setStatusCode(500).end("❌ Rezept konnte nicht gespeichert werden!");
       }
     });
-
-    //dbClient.updateWithParams(sql, new JsonArray().add(recipeId).add(ingredientId).add(amount).add(unit), res -> {});
   }
 
   /**
@@ -492,8 +783,12 @@ public class RecipeService {
    * @apiDescription Diese Route gibt alle Rezepte eines bestimmten Benutzers zurück, einschließlich Titel, Beschreibung, Portionen und Bild-URL.
    *
    * @apiParam {Number} user_id Die ID des Benutzers, dessen Rezepte abgerufen werden sollen.
+   * @apiParam {Number} [after] Cursor (ID des letzten Rezepts der vorherigen Seite).
+   * @apiParam {Number} [limit=20] Anzahl der Rezepte pro Seite (höchstens 100).
+   * @apiParam {Boolean} [stream=false] Ergebnis zeilenweise streamen (bis zu 10000 Rezepte, ohne <code>next_cursor</code>).
    *
-   * @apiSuccess {JSON} response Ein JSON-Objekt mit einer Erfolgsmeldung und einer Liste der Rezepte.
+   * @apiSuccess {JSON} response Ein JSON-Objekt mit einer Erfolgsmeldung, einer Liste der Rezepte und
+   *   {@code next_cursor} (null auf der letzten Seite, sonst auch im Header X-Next-Cursor).
    * @apiSuccessExample {json} Erfolgsantwort:
    *     {
    *       "message": "✅ Rezepte gefunden!",
@@ -528,15 +823,24 @@ public class RecipeService {
       return;
     }
 
-    // SQL-Query zur Abfrage der Rezepte des Benutzers
-    String query = "SELECT id, title, description, portions, image_url FROM recipes WHERE user_id = ?";
-    JsonArray params = new JsonArray().add(pathUserId);
+    // SQL-Query zur Abfrage der Rezepte des Benutzers (seitenweise)
+    PageRequest page = PageRequest.from(context);
+    Tuple params = Tuple.of(pathUserId);
+    String query = page.apply(Statements.RECIPES_PAGE_OF_USER, "id", params);
 
-    dbClient.queryWithParams(query, params, res -> {
+    if (page.streaming()) {
+      ResponseStreamer.streamJson(dbClient, query, params, context.response(),
+        "{\"message\":\"✅ Rezepte gefunden!\",\"recipes\":[", "]}");
+      return;
+    }
+
+    dbClient.query(query, params).onComplete(res -> {
       if (res.succeeded()) {
         // Ergebnisse aus der Datenbank holen
+        List<JsonObject> rows = res.result();
+        Long nextCursor = page.finish(context, rows, "id");
         JsonArray recipes = new JsonArray();
-        res.result().getRows().forEach(row -> {
+        rows.forEach(row -> {
           JsonObject recipe = new JsonObject()
                   .put("id", row.getInteger("id"))
                   .put("title", row.getString("title"))
@@ -549,7 +853,8 @@ public class RecipeService {
         // Antwort zurück an den Client
         JsonObject responseJson = new JsonObject()
                 .put("message", "✅ Rezepte gefunden!")
-                .put("recipes", recipes);
+                .put("recipes", recipes)
+                .put("next_cursor", nextCursor);
 
         context.response()
                 .setStatusCode(200)
@@ -584,6 +889,8 @@ public class RecipeService {
    *
    * @apiError (Bad Request 400) BadRequest Es wurde keine Benutzer-ID oder Rezept-ID angegeben.
    * @apiError (Not Found 404) NotFound Das Rezept wurde nicht gefunden.
+   * @apiHeader {String} [If-None-Match] ETag einer früheren Antwort; ist das Rezept unverändert, kommt 304 ohne Inhalt.
+   * @apiSuccess (Not Modified 304) NotModified Das Rezept hat sich seit dem angegebenen ETag nicht geändert.
    * @apiError (Server Error 500) ServerError Ein Fehler ist aufgetreten, während das Rezept abgerufen wurde.
    */
   public void getRecipeByUserAndById(RoutingContext context) {
@@ -603,24 +910,17 @@ public class RecipeService {
       return;
     }
 
-    // SQL-Query zur Abrufung des Rezepts basierend auf der Rezept-ID und Benutzer-ID
-    String query = "SELECT id, title, description, portions, image_url FROM recipes WHERE id = ? AND user_id = ?";
-    JsonArray params = new JsonArray().add(recipeId).add(pathUserId);
-
-    dbClient.queryWithParams(query, params, res -> {
+    // Rezept aus dem Cache (oder der Datenbank); es muss dem Benutzer aus der URL gehören
+    cachedRecipe(recipeId).onComplete(res -> {
       if (res.succeeded()) {
-        if (res.result().getRows().isEmpty()) {
+        RecipeCache.Entry recipe = res.result();
+        if (recipe == null || !String.valueOf(recipe.userId()).equals(pathUserId)) {
           context.response().setStatusCode(404).end("❌ Rezept nicht gefunden!");
           return;
         }
 
-        // Rezept gefunden, gebe es zurück
-        JsonObject recipe = res.result().getRows().get(0);
-
-        context.response()
-                .setStatusCode(200)
-                .putHeader("Content-Type", "application/json")
-                .end(recipe.encode());
+        // Rezept gefunden, gebe es zurück (oder 304, wenn der Browser es schon hat)
+        RecipeCache.sendSummary(context, recipe);
       } else {
         context.response().setStatusCode(500).end("❌ Fehler beim Abrufen des Rezepts: " + res.cause().getMessage());
       }
@@ -636,6 +936,8 @@ public class RecipeService {
    * @apiDescription Ruft alle Rezepte eines bestimmten Nutzers ab und gibt sie als HTML-Seite zurück.
    *
    * @apiParam {Number} user_id Die ID des Nutzers, dessen Rezepte abgerufen werden sollen.
+   * @apiParam {Number} [after] Cursor aus dem Header X-Next-Cursor der vorherigen Seite.
+   * @apiParam {Number} [limit=20] Anzahl der Rezepte pro Seite (höchstens 100).
    *
    * @apiSuccess  {HTML} HTML-Seite mit einer Liste der Rezepte des Nutzers.
    * @apiSuccessExample {html} Erfolgreiche Antwort:
@@ -684,11 +986,14 @@ public class RecipeService {
       return;
     }
 
-    String query = "SELECT id, title, description, portions, image_url FROM recipes WHERE user_id = ?";
+    PageRequest page = PageRequest.from(context);
+    Tuple params = Tuple.of(userId);
+    String query = page.apply(Statements.RECIPES_PAGE_OF_USER, "id", params);
 
-    dbClient.queryWithParams(query, new JsonArray().add(userId), res -> {
+    dbClient.query(query, params).onComplete(res -> {
       if (res.succeeded()) {
-        List<JsonObject> recipes = res.result().getRows();
+        List<JsonObject> recipes = res.result();
+        Long nextCursor = page.finish(context, recipes, "id");
 
         // HTML-Seite für die Rezepte
         StringBuilder htmlResponse = new StringBuilder("<!DOCTYPE html>");
@@ -720,6 +1025,12 @@ public class RecipeService {
           }
         }
 
+        if (nextCursor != null) {
+          htmlResponse.append("<div class='text-center mb-4'><a class='btn btn-outline-success' href='/users/")
+            .append(userId).append("/recipes?after=").append(nextCursor).append("&limit=").append(page.limit())
+            .append("'>Weitere Rezepte</a></div>");
+        }
+
         htmlResponse.append("</div></body></html>");
 
         context.response().putHeader("Content-Type", "text/html").end(htmlResponse.toString());
@@ -738,6 +1049,7 @@ public class RecipeService {
    * @apiDescription Ruft ein Rezept basierend auf der Rezept-ID ab.
    *
    * @apiParam {Number} recipe_id Die ID des gewünschten Rezepts.
+   * @apiHeader {String} [If-None-Match] ETag einer früheren Antwort; ist das Rezept unverändert, kommt 304 ohne Inhalt.
    *
    * @apiSuccess  {Number} id Die ID des Rezepts.
    * @apiSuccess  {String} title Der Titel des Rezepts.
@@ -784,24 +1096,16 @@ public class RecipeService {
       return;
     }
 
-    // SQL-Query zur Abrufung des Rezepts basierend auf der Rezept-ID
-    String query = "SELECT id, title, description, portions, image_url FROM recipes WHERE id = ?";
-    JsonArray params = new JsonArray().add(recipeId);
-
-    dbClient.queryWithParams(query, params, res -> {
+    // Rezept aus dem Cache (oder der Datenbank)
+    cachedRecipe(recipeId).onComplete(res -> {
       if (res.succeeded()) {
-        if (res.result().getRows().isEmpty()) {
+        if (res.result() == null) {
           context.response().setStatusCode(404).end("❌ Rezept nicht gefunden!");
           return;
         }
 
-        // Rezept gefunden, gebe es zurück
-        JsonObject recipe = res.result().getRows().get(0);
-
-        context.response()
-                .setStatusCode(200)
-                .putHeader("Content-Type", "application/json")
-                .end(recipe.encode());
+        // Rezept gefunden, gebe es zurück (oder 304, wenn der Browser es schon hat)
+        RecipeCache.sendSummary(context, res.result());
       } else {
         context.response().setStatusCode(500).end("❌ Fehler beim Abrufen des Rezepts: " + res.cause().getMessage());
       }
@@ -869,7 +1173,7 @@ public class RecipeService {
     }
 
     // Benutzer-ID aus dem Token extrahieren
-    String tokenUserId = context.user().principal().getString("userId");
+    Integer tokenUserId = TokenSessions.userId(context.user());
     if (tokenUserId == null) {
       context.response().setStatusCode(401).end("❌ Kein Benutzer im Token gefunden!");
       return;
@@ -886,7 +1190,7 @@ public class RecipeService {
     String pathUserId = context.pathParam("user_id");
 
     // Überprüfen, ob der Benutzer zu diesem Rezept gehört
-    if (pathUserId != null && !pathUserId.equals(tokenUserId)) {
+    if (pathUserId != null && !pathUserId.equals(String.valueOf(tokenUserId))) {
       context.response().setStatusCode(403).end("❌ Du darfst dieses Rezept nicht bearbeiten!");
       return;
     }
@@ -905,11 +1209,12 @@ public class RecipeService {
     }
 
     // SQL-Query zur vollständigen Aktualisierung des Rezepts
-    String query = "UPDATE recipes SET title = ?, description = ?, portions = ?, image_url = ? WHERE id = ?";
-    JsonArray params = new JsonArray().add(title).add(description).add(portions).add(imageUrl).add(recipeId);
+    String query = Statements.RECIPE_UPDATE;
+    Tuple params = Tuple.of(title, description, portions, imageUrl, recipeId);
 
-    dbClient.updateWithParams(query, params, res -> {
+    dbClient.update(query, params).onComplete(res -> {
       if (res.succeeded()) {
+        reindex(recipeId);
         // Rezept erfolgreich aktualisiert
         context.response()
                 .setStatusCode(200)
@@ -983,10 +1288,8 @@ public class RecipeService {
     }
 
     // Benutzer-ID aus dem Token extrahieren
-    String tokenUserId = context.user().principal().getString("userId");
+    Integer tokenUserId = TokenSessions.userId(context.user());
     if (tokenUserId == null) {
-      System.out.println("Token User ID: " + tokenUserId);
-
       context.response().setStatusCode(401).end("❌ Kein Benutzer im Token gefunden!");
       return;
     }
@@ -1002,7 +1305,7 @@ public class RecipeService {
     String pathUserId = context.pathParam("user_id");
 
     // Überprüfen, ob der Benutzer zu diesem Rezept gehört
-    if (pathUserId != null && !pathUserId.equals(tokenUserId)) {
+    if (pathUserId != null && !pathUserId.equals(String.valueOf(tokenUserId))) {
       context.response().setStatusCode(403).end("❌ Du darfst dieses Rezept nicht bearbeiten!");
       return;
     }
@@ -1014,35 +1317,28 @@ public class RecipeService {
     Integer portions = body.getInteger("portions");
     String imageUrl = body.getString("image_url");
 
-    // SQL-Query zur partiellen Aktualisierung des Rezepts
-    StringBuilder query = new StringBuilder("UPDATE recipes SET ");
-    JsonArray params = new JsonArray();
-
-    // Dynamisch nur die Felder hinzufügen, die vorhanden sind
+    // Nur die vorhandenen Felder setzen; die Spaltenreihenfolge ist fest, also höchstens 15 SQL-Formen
+    Statements.PartialUpdate.Values patch = Statements.RECIPE_PATCH.values();
     if (title != null) {
-      query.append("title = ?, ");
-      params.add(title);
+      patch.set("title", title);
     }
     if (description != null) {
-      query.append("description = ?, ");
-      params.add(description);
+      patch.set("description", description);
     }
     if (portions != null) {
-      query.append("portions = ?, ");
-      params.add(portions);
+      patch.set("portions", portions);
     }
     if (imageUrl != null) {
-      query.append("image_url = ?, ");
-      params.add(imageUrl);
+      patch.set("image_url", imageUrl);
+    }
+    if (patch.isEmpty()) {
+      context.response().setStatusCode(400).end("⚠ Keine gültigen Daten zum Aktualisieren!");
+      return;
     }
 
-    // Entferne das letzte Komma und füge die WHERE-Klausel hinzu
-    query.setLength(query.length() - 2);
-    query.append(" WHERE id = ?");
-    params.add(recipeId);
-
-    dbClient.updateWithParams(query.toString(), params, res -> {
+    dbClient.update(patch.sql(), patch.tuple(recipeId)).onComplete(res -> {
       if (res.succeeded()) {
+        reindex(recipeId);
         // Rezept erfolgreich aktualisiert
         context.response()
                 .setStatusCode(200)
@@ -1055,4 +1351,21 @@ public class RecipeService {
   }
 
 
+  // Rezept-ID aus dem Pfad; keine Zahl heißt "gibt es nicht"
+  private Future<RecipeCache.Entry> cachedRecipe(String recipeId) {
+    try {
+      return recipeCache.get(Long.parseLong(recipeId));
+    } catch (NumberFormatException e) {
+      return Future.succeededFuture(null);
+    }
+  }
+
+  // Suchindex nach einer Änderung nachziehen; die ID kommt als String aus dem Pfad
+  private void reindex(String recipeId) {
+    try {
+      onRecipeChanged(Long.parseLong(recipeId));
+    } catch (NumberFormatException e) {
+      log.warn("⚠ Ungültige Rezept-ID für den Suchindex: {}", recipeId);
+    }
+  }
 }
@@ -0,0 +1,107 @@
+package com.example.starter;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Request-IDs und Logging im Kontext einer Anfrage.
+ *
+ * Jede Anfrage bekommt eine ID (übernommen aus {@value #HEADER}, sonst neu vergeben), die in der Antwort
+ * zurückgeht und an jeder Logzeile als Schlüssel {@value #REQUEST_ID} hängt. MDC funktioniert auf den
+ * Event-Loops nicht (Callbacks laufen nicht im Thread der Anfrage), deshalb wird die ID als Schlüssel/Wert-Paar
+ * über die Fluent-API von SLF4J mitgegeben: {@code RequestLog.debug(log, ctx).log("...")}. Ist das Level
+ * abgeschaltet, kostet das nur einen Vergleich.
+ *
+ * Ausgaben pro Zeile eines Ergebnisses werden mit {@link #sampleRow} auf die ersten {@value #ROW_SAMPLE} Zeilen
+ * begrenzt, damit DEBUG auch unter Last nicht die Ausgabe flutet.
+ */
+public final class RequestLog {
+
+  public static final String REQUEST_ID = "requestId";
+  public static final String HEADER = "X-Request-Id";
+  public static final String LOG_LEVEL = "LOG_LEVEL";
+  public static final String ROW_SAMPLE = "LOG_ROW_SAMPLE";
+
+  private static final Logger ACCESS = LoggerFactory.getLogger("access");
+  private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+  // kurze, prozessweit eindeutige IDs ohne Zufall pro Anfrage
+  private static final String PREFIX = UUID.randomUUID().toString().substring(0, 8);
+  private static final AtomicLong COUNTER = new AtomicLong();
+
+  private static volatile int rowSample = 3;
+
+  private RequestLog() {
+  }
+
+  /**
+   * Übernimmt {@value #LOG_LEVEL} (falls gesetzt) und {@value #ROW_SAMPLE} aus der Konfiguration.
+   */
+  public static void configure(JsonObject config) {
+    rowSample = config.getInteger(ROW_SAMPLE, 3);
+    String level = config.getString(LOG_LEVEL);
+    if (level != null && LoggerFactory.getILoggerFactory() instanceof LoggerContext) {
+      ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger(Logger.ROOT_LOGGER_NAME)
+        .setLevel(Level.toLevel(level, Level.INFO));
+    }
+  }
+
+  /**
+   * Vergibt die Request-ID; auf Level DEBUG wird außerdem jede Anfrage mit Status und Dauer geloggt
+   * (Logger {@code access}).
+   */
+  public static Handler<RoutingContext> handler() {
+    return ctx -> {
+      String incoming = ctx.request().getHeader(HEADER);
+      String id = incoming != null && VALID_ID.matcher(incoming).matches()
+        ? incoming : PREFIX + "-" + Long.toString(COUNTER.incrementAndGet(), 36);
+      ctx.put(REQUEST_ID, id);
+      ctx.response().putHeader(HEADER, id);
+
+      if (ACCESS.isDebugEnabled()) {
+        long start = System.nanoTime();
+        ctx.addEndHandler(v -> ACCESS.atDebug().addKeyValue(REQUEST_ID, id)
+          .log("{} {} -> {} ({} ms)", ctx.request().method(), ctx.request().path(), ctx.response().getStatusCode(),
+            (System.nanoTime() - start) / 1_000_000));
+      }
+      ctx.next();
+    };
+  }
+
+  public static String id(RoutingContext ctx) {
+    String id = ctx.get(REQUEST_ID);
+    return id != null ? id : "-";
+  }
+
+  public static LoggingEventBuilder debug(Logger log, RoutingContext ctx) {
+    return log.atDebug().addKeyValue(REQUEST_ID, id(ctx));
+  }
+
+  public static LoggingEventBuilder info(Logger log, RoutingContext ctx) {
+    return log.atInfo().addKeyValue(REQUEST_ID, id(ctx));
+  }
+
+  public static LoggingEventBuilder warn(Logger log, RoutingContext ctx) {
+    return log.atWarn().addKeyValue(REQUEST_ID, id(ctx));
+  }
+
+  public static LoggingEventBuilder error(Logger log, RoutingContext ctx) {
+    return log.atError().addKeyValue(REQUEST_ID, id(ctx));
+  }
+
+  /**
+   * {@code true} für die ersten {@value #ROW_SAMPLE} Zeilen (Index ab 0) eines Ergebnisses.
+   */
+  public static boolean sampleRow(Logger log, int index) {
+    return index < rowSample && log.isDebugEnabled();
+  }
+}
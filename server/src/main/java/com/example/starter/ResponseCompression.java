@@ -0,0 +1,78 @@
+package com.example.starter;
+
+import io.netty.handler.codec.compression.Brotli;
+import io.netty.handler.codec.compression.CompressionOptions;
+import io.netty.handler.codec.compression.StandardCompressionOptions;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Komprimierung der HTTP-Antworten (gzip/deflate, je nach Accept-Encoding des Clients).
+ *
+ * Die großen HTML-Seiten (Suche, Kommentare, Profil) schrumpfen damit auf einen Bruchteil. Kleine Antworten
+ * unter {@value #MIN_BYTES} werden nicht komprimiert: dort kostet der gzip-Rahmen mehr, als er spart.
+ * Brotli wird nur verwendet, wenn {@value #BROTLI} gesetzt und brotli4j im Classpath ist.
+ */
+public class ResponseCompression {
+
+  private static final Logger log = LoggerFactory.getLogger(ResponseCompression.class);
+
+  public static final String ENABLED = "HTTP_COMPRESSION";
+  public static final String LEVEL = "HTTP_COMPRESSION_LEVEL";
+  public static final String MIN_BYTES = "HTTP_COMPRESSION_MIN_BYTES";
+  public static final String BROTLI = "HTTP_COMPRESSION_BROTLI";
+
+  private ResponseCompression() {
+  }
+
+  public static HttpServerOptions serverOptions(JsonObject config) {
+    HttpServerOptions options = new HttpServerOptions();
+    if (!config.getBoolean(ENABLED, true)) {
+      return options;
+    }
+
+    int level = config.getInteger(LEVEL, 6);
+    List<CompressionOptions> compressors = new ArrayList<>();
+    if (config.getBoolean(BROTLI, false)) {
+      if (Brotli.isAvailable()) {
+        compressors.add(StandardCompressionOptions.brotli());
+      } else {
+        log.warn("⚠ Brotli ist nicht verfügbar (brotli4j fehlt), es wird nur gzip/deflate verwendet");
+      }
+    }
+    compressors.add(StandardCompressionOptions.gzip(level, 15, 8));
+    compressors.add(StandardCompressionOptions.deflate(level, 15, 8));
+
+    return options
+      .setCompressionSupported(true)
+      .setCompressionLevel(level)
+      .setCompressors(compressors);
+  }
+
+  /**
+   * Markiert Antworten mit bekannter Länge unter der Mindestgröße als {@code identity}, damit der Server
+   * sie unverändert sendet. Muss vor allen anderen Handlern registriert werden.
+   */
+  public static Handler<RoutingContext> minSize(JsonObject config) {
+    int minBytes = config.getInteger(MIN_BYTES, 1024);
+    return ctx -> {
+      ctx.addHeadersEndHandler(v -> {
+        MultiMap headers = ctx.response().headers();
+        String length = headers.get(HttpHeaders.CONTENT_LENGTH);
+        if (length != null && !headers.contains(HttpHeaders.CONTENT_ENCODING) && Long.parseLong(length) < minBytes) {
+          headers.set(HttpHeaders.CONTENT_ENCODING, HttpHeaders.IDENTITY);
+        }
+      });
+      ctx.next();
+    };
+  }
+}
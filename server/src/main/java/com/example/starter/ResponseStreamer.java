@@ -0,0 +1,102 @@
+package com.example.starter;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Schreibt ein Abfrageergebnis zeilenweise als gechunkte HTTP-Antwort.
+ *
+ * Der Kopf ({@code head}) wird sofort gesendet, danach wird jede Zeile einzeln kodiert und geschrieben.
+ * Ist der Sendepuffer voll ({@link HttpServerResponse#writeQueueFull()}), wird das Lesen aus der Datenbank
+ * pausiert, bis der Client wieder Daten annimmt. Pro Anfrage liegt so nur eine Zeile im Speicher.
+ *
+ * Da Status und Header beim ersten Chunk schon gesendet sind, wird bei einem Datenbankfehler mitten
+ * im Stream die Verbindung zurückgesetzt, damit der Client keine abgeschnittene Antwort für vollständig hält.
+ */
+public class ResponseStreamer {
+
+  private static final Logger log = LoggerFactory.getLogger(ResponseStreamer.class);
+
+  /**
+   * @param encoder liefert den Text für eine Zeile oder {@code null}, wenn (noch) nichts zu schreiben ist
+   * @param tail    wird nach der letzten Zeile aufgerufen und als Abschluss geschrieben
+   * @return Anzahl der gelesenen Zeilen
+   */
+  public static Future<Long> stream(DatabaseClient dbClient, String sql, Tuple params, HttpServerResponse response,
+                                    String head, Function<Row, String> encoder, Supplier<String> tail) {
+    return stream(dbClient, sql, params, response, head != null ? Buffer.buffer(head) : null, encoder,
+      () -> Buffer.buffer(tail.get()));
+  }
+
+  /**
+   * Wie oben, mit bereits kodiertem Kopf und Abschluss (z.B. aus dem {@link TemplateCache}).
+   */
+  public static Future<Long> stream(DatabaseClient dbClient, String sql, Tuple params, HttpServerResponse response,
+                                    Buffer head, Function<Row, String> encoder, Supplier<Buffer> tail) {
+    response.setChunked(true);
+    if (head != null && head.length() > 0) {
+      response.write(head);
+    }
+
+    return dbClient.<Long>stream(sql, params, rows -> {
+      Promise<Long> done = Promise.promise();
+      long[] count = {0};
+
+      // Client hat abgebrochen: Cursor schließen und Verbindung freigeben
+      response.closeHandler(v -> done.tryFail("Verbindung vom Client geschlossen"));
+      rows.exceptionHandler(done::tryFail);
+      rows.endHandler(v -> done.tryComplete(count[0]));
+      rows.handler(row -> {
+        if (done.future().isComplete()) {
+          return;
+        }
+        count[0]++;
+        String chunk = encoder.apply(row);
+        if (chunk != null && !chunk.isEmpty()) {
+          response.write(chunk);
+          if (response.writeQueueFull()) {
+            rows.pause();
+            response.drainHandler(v -> rows.resume());
+          }
+        }
+      });
+      return done.future();
+    }).onComplete(res -> {
+      if (res.succeeded()) {
+        response.end(tail.get());
+      } else {
+        log.warn("❌ Fehler beim Streamen der Antwort: {}", res.cause().getMessage());
+        if (!response.closed()) {
+          response.reset();
+        }
+      }
+    });
+  }
+
+  /**
+   * Streamt die Zeilen als JSON-Array, eingebettet zwischen {@code head} und {@code tail}
+   * (z.B. {@code "["} und {@code "]"} oder {@code "{\"recipes\":["} und {@code "]}"}).
+   */
+  public static Future<Long> streamJson(DatabaseClient dbClient, String sql, Tuple params, HttpServerResponse response,
+                                        String head, String tail) {
+    response.putHeader("Content-Type", "application/json");
+    boolean[] first = {true};
+    return stream(dbClient, sql, params, response, head, row -> {
+      String json = row.toJson().encode();
+      if (first[0]) {
+        first[0] = false;
+        return json;
+      }
+      return "," + json;
+    }, () -> tail);
+  }
+}
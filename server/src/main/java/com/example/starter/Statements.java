@@ -0,0 +1,466 @@
+package com.example.starter;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Tuple;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Katalog aller SQL-Statements des Servers und Register ihrer Formen.
+ *
+ * Prepared Statements werden pro Verbindung und SQL-Text gecacht ({@code DB_STATEMENT_CACHE_SIZE}). Jeder neue
+ * Text wird neu vorbereitet und verdrängt andere aus dem Cache; deshalb steht jedes Statement hier, mit
+ * {@code ?} für alle Werte und einer festen Höchstzahl an Texten:
+ * <ul>
+ *   <li>{@link #named} - ein fester Text.</li>
+ *   <li>{@link #paged} - Basis für {@link PageRequest#apply}, zwei Texte (mit und ohne Cursor).</li>
+ *   <li>{@link InQuery} - {@code IN (...)}- bzw. {@code VALUES}-Listen. Sie werden auf die nächste Zweierpotenz
+ *   aufgefüllt, mit dem letzten Wert wiederholt ({@link #in}); bis {@link #MAX_BUCKET} ergibt das
+ *   {@value #BUCKETS} Texte. Doppelte Werte ändern weder {@code IN} noch {@code FIELD}, {@code INSERT IGNORE}
+ *   oder {@code DELETE}. Längere Listen werden nicht aufgefüllt und nicht mitgezählt.</li>
+ *   <li>{@link PartialUpdate} - setzt die Spalten immer in derselben Reihenfolge, höchstens {@code 2^n - 1}
+ *   Texte.</li>
+ * </ul>
+ * {@link #maxShapes()} ist die Summe; {@code DatabaseConfig} warnt beim Start, wenn sie den Statement-Cache
+ * übersteigt. Außerhalb stehen nur die DDL-Skripte der Migrationen, die einmal beim Start laufen, und die
+ * Debug-Ausgaben in {@code DatabaseQueryExecutor}, die der Server nicht aufruft.
+ */
+final class Statements {
+
+  // darüber wird nicht mehr aufgefüllt, so lange Listen sind selten (FAVORITES_BULK_MAX ist 500)
+  static final int MAX_BUCKET = 1024;
+  // Zweierpotenzen von 1 bis MAX_BUCKET
+  static final int BUCKETS = 11;
+
+  private static final String[] PLACEHOLDERS = new String[BUCKETS];
+
+  static {
+    for (int i = 0; i < PLACEHOLDERS.length; i++) {
+      PLACEHOLDERS[i] = String.join(", ", Collections.nCopies(1 << i, "?"));
+    }
+  }
+
+  // Name -> Höchstzahl der Texte, in der Reihenfolge der Registrierung
+  private static final Map<String, Integer> SHAPES = new LinkedHashMap<>();
+  private static final Map<String, String> CATALOGUE = new LinkedHashMap<>();
+  private static final Map<String, InQuery> IN_QUERIES = new LinkedHashMap<>();
+  private static final Map<String, PartialUpdate> PARTIAL_UPDATES = new LinkedHashMap<>();
+
+  // Start und Migrationen
+  static final String PING = named("db.ping", "SELECT 1");
+  static final String MIGRATIONS_APPLIED = named("migration.applied", "SELECT version FROM schema_migrations");
+  static final String MIGRATION_DONE = named("migration.done", "INSERT IGNORE INTO schema_migrations (version) VALUES (?)");
+
+  // Benutzer
+  static final String USER_INSERT = named("user.insert", "INSERT INTO users (name, email, password_hash) VALUES (?, ?, ?)");
+  static final String USER_LOGIN = named("user.login", "SELECT id, password_hash FROM users WHERE email = ?");
+  static final String USER_REHASH = named("user.rehash", "UPDATE users SET password_hash = ? WHERE id = ? AND password_hash = ?");
+  static final String USER_BY_NAME = named("user.by-name", "SELECT id, name, email FROM users WHERE name = ?");
+  static final String USER_BY_ID = named("user.by-id", "SELECT id, name, email FROM users WHERE id = ?");
+  static final String USER_PROFILE = named("user.profile", "SELECT name, email FROM users WHERE id = ?");
+  static final String USERS_ALL = named("user.all", "SELECT id, name, email FROM users");
+  static final String USER_UPDATE = named("user.update", "UPDATE users SET name = ?, email = ?, password_hash = ? WHERE id = ?");
+  static final String USER_DARK_MODE = named("user.dark-mode", "UPDATE users SET dark_mode = ? WHERE id = ?");
+  static final String USER_DELETE = named("user.delete", "DELETE FROM users WHERE id = ?");
+  static final PartialUpdate USER_PATCH = partialUpdate("user.patch", "users", "id = ?", "name", "email", "password_hash");
+
+  // Sessions ("sessions"), Web-Sessions und gesperrte Tokens
+  static final String SESSION_INSERT = named("session.insert", "INSERT INTO sessions (session_id, user_id, expires_at) VALUES (?, ?, ?)");
+  static final String SESSION_LOOKUP = named("session.lookup",
+    "SELECT user_id, expires_at FROM sessions WHERE session_id = ? AND expires_at > ?");
+  static final String SESSION_DELETE = named("session.delete", "DELETE FROM sessions WHERE session_id = ?");
+  static final String SESSION_SWEEP = named("session.sweep", "DELETE FROM sessions WHERE expires_at <= ? LIMIT ?");
+  static final String WEB_SESSION_GET = named("web-session.get",
+    "SELECT data, version, expires_at FROM web_sessions WHERE id = ? AND expires_at > ?");
+  static final String WEB_SESSION_TOUCH = named("web-session.touch", "UPDATE web_sessions SET expires_at = ? WHERE id = ?");
+  static final String WEB_SESSION_UPDATE = named("web-session.update",
+    "UPDATE web_sessions SET data = ?, version = ?, expires_at = ? WHERE id = ? AND version = ?");
+  static final String WEB_SESSION_INSERT = named("web-session.insert",
+    "INSERT IGNORE INTO web_sessions (id, data, version, expires_at) VALUES (?, ?, ?, ?)");
+  static final String WEB_SESSION_DELETE = named("web-session.delete", "DELETE FROM web_sessions WHERE id = ?");
+  static final String WEB_SESSIONS_CLEAR = named("web-session.clear", "DELETE FROM web_sessions");
+  static final String WEB_SESSIONS_COUNT = named("web-session.count", "SELECT COUNT(*) AS n FROM web_sessions WHERE expires_at > ?");
+  static final String WEB_SESSION_SWEEP = named("web-session.sweep", "DELETE FROM web_sessions WHERE expires_at <= ? LIMIT ?");
+  static final String TOKEN_REVOKE = named("token.revoke", "INSERT IGNORE INTO revoked_tokens (jti, expires_at) VALUES (?, ?)");
+  static final String TOKEN_SWEEP = named("token.sweep", "DELETE FROM revoked_tokens WHERE expires_at <= ?");
+  static final String TOKENS_REVOKED = named("token.revoked", "SELECT jti, expires_at FROM revoked_tokens");
+
+  // Rezepte
+  static final String RECIPE_INSERT = named("recipe.insert",
+    "INSERT INTO recipes (user_id, title, description, portions, image_url) VALUES (?, ?, ?, ?, ?)");
+  static final String RECIPE_INSERT_NOW = named("recipe.insert-now",
+    "INSERT INTO recipes (user_id, title, description, portions, image_url, created_at) VALUES (?, ?, ?, ?, ?, NOW())");
+  static final String RECIPE_UPDATE = named("recipe.update",
+    "UPDATE recipes SET title = ?, description = ?, portions = ?, image_url = ? WHERE id = ?");
+  static final String RECIPE_OWNER = named("recipe.owner", "SELECT user_id FROM recipes WHERE id = ?");
+  static final String RECIPE_DELETE = named("recipe.delete", "DELETE FROM recipes WHERE id = ?");
+  static final String RECIPE_DELETE_OWN = named("recipe.delete-own", "DELETE FROM recipes WHERE id = ? AND user_id = ?");
+  static final String RECIPES_OF_USER = named("recipe.of-user", "SELECT * FROM recipes WHERE user_id = ?");
+  static final String RECIPE_CARDS_OF_USER = named("recipe.cards-of-user",
+    "SELECT title, description, portions, image_url FROM recipes WHERE user_id = ?");
+  static final String RECIPE_DETAIL = named("recipe.detail",
+    "SELECT r.id AS recipe_id, r.user_id, r.title, r.description, r.portions, r.image_url, " +
+      "i.id AS ingredient_id, i.name AS ingredient_name, ri.amount AS ingredient_amount, ri.unit AS ingredient_unit " +
+      "FROM recipes r " +
+      "LEFT JOIN recipe_ingredients ri ON r.id = ri.recipe_id " +
+      "LEFT JOIN ingredients i ON ri.ingredient_id = i.id " +
+      "WHERE r.id = ?");
+  // Rezepte mit Zutaten, nach Rezept sortiert, damit jede Karte fertig geschrieben werden kann,
+  // sobald die Zeilen des nächsten Rezepts kommen
+  static final String MY_RECIPES = named("recipe.mine",
+    "SELECT r.id AS recipe_id, r.title, r.description, r.portions, r.image_url, " +
+      "i.name AS ingredient_name, ri.amount AS ingredient_amount, ri.unit AS ingredient_unit " +
+      "FROM recipes r " +
+      "LEFT JOIN recipe_ingredients ri ON r.id = ri.recipe_id " +
+      "LEFT JOIN ingredients i ON ri.ingredient_id = i.id " +
+      "WHERE r.user_id = ? ORDER BY r.id");
+  static final String RECIPES_PAGE_OF_USER = paged("recipe.page-of-user",
+    "SELECT id, title, description, portions, image_url FROM recipes WHERE user_id = ?");
+  static final InQuery RECIPES_BY_IDS = inQuery("recipe.by-ids",
+    "SELECT id, title, description, portions, image_url FROM recipes WHERE id IN ({in})");
+  static final InQuery RECIPE_OWNERS = inQuery("recipe.owners", "SELECT DISTINCT user_id FROM recipes WHERE id IN ({in})");
+  static final PartialUpdate RECIPE_PATCH = partialUpdate("recipe.patch", "recipes", "id = ?",
+    "title", "description", "portions", "image_url");
+
+  // Suche: Rezept mit Zutaten und Portionen, ein Eintrag pro Rezept
+  static final String SEARCH_SELECT = "SELECT r.id AS id, r.title, r.description, r.image_url, r.portions, " +
+    "GROUP_CONCAT(CONCAT(i.name, ' (', ri.amount, ' ', ri.unit, ')') SEPARATOR '|') AS ingredients " +
+    "FROM recipes r " +
+    "LEFT JOIN recipe_ingredients ri ON r.id = ri.recipe_id " +
+    "LEFT JOIN ingredients i ON ri.ingredient_id = i.id ";
+  static final InQuery SEARCH_PAGE = inQuery("search.page", SEARCH_SELECT + "WHERE r.id IN ({in}) GROUP BY r.id");
+  static final InQuery SEARCH_STREAM = inQuery("search.stream",
+    SEARCH_SELECT + "WHERE r.id IN ({in}) GROUP BY r.id ORDER BY FIELD(r.id, {in})");
+  static final String SEARCH_LIKE = paged("search.like", SEARCH_SELECT + "WHERE r.title LIKE ?");
+  // Suchindex: Titel, Beschreibung und Zutatennamen
+  private static final String INDEX_SELECT =
+    "SELECT r.id, r.title, r.description, GROUP_CONCAT(i.name SEPARATOR '|') AS ingredients " +
+      "FROM recipes r " +
+      "LEFT JOIN recipe_ingredients ri ON r.id = ri.recipe_id " +
+      "LEFT JOIN ingredients i ON ri.ingredient_id = i.id ";
+  static final String INDEX_LOAD = named("search-index.load", INDEX_SELECT + "GROUP BY r.id");
+  static final String INDEX_RECIPE = named("search-index.recipe", INDEX_SELECT + "WHERE r.id = ? GROUP BY r.id");
+
+  // Zutaten
+  static final String INGREDIENTS_LOAD = named("ingredient.load", "SELECT id, name FROM ingredients ORDER BY id LIMIT ?");
+  static final InQuery INGREDIENTS_INSERT = valuesQuery("ingredient.insert", "INSERT IGNORE INTO ingredients (name) VALUES {in}");
+  static final InQuery INGREDIENTS_BY_NAME = inQuery("ingredient.by-name", "SELECT id, name FROM ingredients WHERE name IN ({in})");
+  static final String RECIPE_INGREDIENT_INSERT = named("recipe-ingredient.insert",
+    "INSERT INTO recipe_ingredients (recipe_id, ingredient_id, amount, unit) VALUES (?, ?, ?, ?)");
+  static final String RECIPE_INGREDIENTS_ALL = named("recipe-ingredient.all", "SELECT recipe_id, ingredient_id FROM recipe_ingredients");
+  static final String RECIPE_INGREDIENTS_OF = named("recipe-ingredient.of",
+    "SELECT ingredient_id FROM recipe_ingredients WHERE recipe_id = ?");
+
+  // Favoriten
+  static final String FAVORITE_INSERT = named("favorite.insert",
+    "INSERT IGNORE INTO favorites (user_id, recipe_id) SELECT ?, id FROM recipes WHERE id = ?");
+  static final String FAVORITE_DELETE = named("favorite.delete", "DELETE FROM favorites WHERE user_id = ? AND recipe_id = ?");
+  static final String FAVORITE_EXISTS = named("favorite.exists", "SELECT 1 FROM favorites WHERE user_id = ? AND recipe_id = ?");
+  static final String FAVORITE_IDS = named("favorite.ids", "SELECT recipe_id FROM favorites WHERE user_id = ?");
+  static final InQuery FAVORITES_INSERT = inQuery("favorite.bulk-insert",
+    "INSERT IGNORE INTO favorites (user_id, recipe_id) SELECT ?, id FROM recipes WHERE id IN ({in})");
+  static final InQuery FAVORITES_DELETE = inQuery("favorite.bulk-delete",
+    "DELETE FROM favorites WHERE user_id = ? AND recipe_id IN ({in})");
+  static final String FAVORITES_PAGE = paged("favorite.page",
+    "SELECT r.id, r.title, r.description, r.image_url FROM recipes r JOIN favorites f ON r.id = f.recipe_id WHERE f.user_id = ?");
+
+  // Kommentare
+  static final String COMMENT_INSERT = named("comment.insert", "INSERT INTO comments (user_id, recipe_id, content) VALUES (?, ?, ?)");
+  static final String COMMENT_OWNER = named("comment.owner", "SELECT user_id FROM comments WHERE id = ?");
+  static final String COMMENT_BY_ID = named("comment.by-id", "SELECT id, user_id, recipe_id FROM comments WHERE id = ?");
+  static final String COMMENT_UPDATE = named("comment.update", "UPDATE comments SET content = ? WHERE id = ?");
+  static final String COMMENT_DELETE = named("comment.delete", "DELETE FROM comments WHERE id = ?");
+  static final String COMMENTS_OF_RECIPE = named("comment.of-recipe",
+    "SELECT c.id, c.content, c.user_id, u.username FROM comments c JOIN users u ON c.user_id = u.id WHERE c.recipe_id = ?");
+  static final String COMMENTS_PAGE = paged("comment.page",
+    "SELECT c.id, u.id AS user_id, u.name, c.content, c.created_at FROM comments c JOIN users u ON c.user_id = u.id WHERE c.recipe_id = ?");
+
+  // Zähler und Erfolge (user_stats)
+  static final String STATS_RECOUNT = named("stats.recount",
+    "INSERT INTO user_stats (user_id, recipe_count, favorites_received, comments_received) " +
+      "SELECT ?, (SELECT COUNT(*) FROM recipes WHERE user_id = ?), " +
+      "(SELECT COUNT(*) FROM favorites f JOIN recipes r ON r.id = f.recipe_id WHERE r.user_id = ?), " +
+      "(SELECT COUNT(*) FROM comments c JOIN recipes r ON r.id = c.recipe_id WHERE r.user_id = ?) " +
+      "ON DUPLICATE KEY UPDATE recipe_count = VALUES(recipe_count), favorites_received = VALUES(favorites_received), " +
+      "comments_received = VALUES(comments_received)");
+  // je Zähler ein Text; die Spalte kommt aus UserStats, nie aus dem Request
+  private static final Map<String, String> STATS_ADD = Map.of(
+    UserStats.RECIPES, namedStatsAdd(UserStats.RECIPES),
+    UserStats.FAVORITES_RECEIVED, namedStatsAdd(UserStats.FAVORITES_RECEIVED),
+    UserStats.COMMENTS_RECEIVED, namedStatsAdd(UserStats.COMMENTS_RECEIVED));
+  static final String STATS_LEVEL = named("stats.level", "SELECT recipe_count, achievement_level FROM user_stats WHERE user_id = ?");
+  static final String STATS_PROMOTE = named("stats.promote",
+    "UPDATE user_stats SET achievement = ?, achievement_level = ? WHERE user_id = ? AND achievement_level < ?");
+  static final String STATS_OF_USER = named("stats.of-user",
+    "SELECT recipe_count, favorites_received, comments_received, achievement FROM user_stats WHERE user_id = ?");
+  // ältere Einträge (vor user_stats) nicht doppelt anlegen
+  static final String ACHIEVEMENT_INSERT = named("achievement.insert",
+    "INSERT INTO achievements (user_id, achievement_type) SELECT ?, ? FROM DUAL " +
+      "WHERE NOT EXISTS (SELECT 1 FROM achievements WHERE user_id = ? AND achievement_type = ?)");
+
+  private Statements() {
+  }
+
+  private static void register(String name, int shapes) {
+    if (SHAPES.putIfAbsent(name, shapes) != null) {
+      throw new IllegalStateException("Statement doppelt im Katalog: " + name);
+    }
+  }
+
+  private static String named(String name, String sql) {
+    register(name, 1);
+    CATALOGUE.put(name, sql);
+    return sql;
+  }
+
+  private static String paged(String name, String base) {
+    register(name, 2);
+    return base;
+  }
+
+  private static InQuery inQuery(String name, String template) {
+    return listQuery(name, template, "?");
+  }
+
+  private static InQuery valuesQuery(String name, String template) {
+    return listQuery(name, template, "(?)");
+  }
+
+  private static InQuery listQuery(String name, String template, String element) {
+    register(name, BUCKETS);
+    InQuery query = new InQuery(template, element);
+    IN_QUERIES.put(name, query);
+    return query;
+  }
+
+  private static PartialUpdate partialUpdate(String name, String table, String where, String... columns) {
+    PartialUpdate update = new PartialUpdate(table, where, columns);
+    register(name, update.maxShapes());
+    PARTIAL_UPDATES.put(name, update);
+    return update;
+  }
+
+  private static String namedStatsAdd(String column) {
+    return named("stats.add." + column, "INSERT INTO user_stats (user_id, " + column + ") VALUES (?, ?) " +
+      "ON DUPLICATE KEY UPDATE " + column + " = GREATEST(" + column + " + ?, 0)");
+  }
+
+  /**
+   * Erhöht bzw. senkt einen Zähler aus {@link UserStats} (nie unter 0).
+   */
+  static String statsAdd(String column) {
+    String sql = STATS_ADD.get(column);
+    if (sql == null) {
+      throw new IllegalArgumentException("Unbekannter Zähler: " + column);
+    }
+    return sql;
+  }
+
+  /**
+   * Alle festen Statements (Name -> SQL) in der Reihenfolge des Katalogs.
+   */
+  static Map<String, String> catalogue() {
+    return Collections.unmodifiableMap(CATALOGUE);
+  }
+
+  /**
+   * Höchstzahl der SQL-Texte aller registrierten Statements, also der Einträge, die der Statement-Cache einer
+   * Verbindung halten muss, damit nichts verdrängt wird.
+   */
+  static int maxShapes() {
+    int shapes = 0;
+    for (int count : SHAPES.values()) {
+      shapes += count;
+    }
+    return shapes;
+  }
+
+  static JsonObject stats() {
+    JsonObject lists = new JsonObject();
+    IN_QUERIES.forEach((name, query) -> lists.put(name, query.usedShapes()));
+    JsonObject updates = new JsonObject();
+    PARTIAL_UPDATES.forEach((name, update) -> updates.put(name, update.usedShapes()));
+    return new JsonObject()
+      .put("registered", SHAPES.size())
+      .put("maxShapes", maxShapes())
+      .put("usedListShapes", lists)
+      .put("usedUpdateShapes", updates);
+  }
+
+  /**
+   * Ein Statement mit einer Liste an den Stellen {@code {in}} (auch mehrfach, z.B. für {@code FIELD}). Die Texte
+   * je Listenlänge werden einmal gebaut.
+   */
+  static final class InQuery {
+    private final String[] parts;
+    private final String element;
+    private final Map<Integer, String> texts = new ConcurrentHashMap<>();
+
+    private InQuery(String template, String element) {
+      this.parts = template.split("\\{in}", -1);
+      this.element = element;
+    }
+
+    String sql(InList in) {
+      int size = in.values.size();
+      if (size > MAX_BUCKET) {
+        return build(size);
+      }
+      return texts.computeIfAbsent(size, this::build);
+    }
+
+    int usedShapes() {
+      return texts.size();
+    }
+
+    private String build(int size) {
+      String list = "?".equals(element) ? placeholders(size) : String.join(", ", Collections.nCopies(size, element));
+      return String.join(list, parts);
+    }
+  }
+
+  /**
+   * Ein {@code UPDATE}, das nur die gesetzten Spalten ändert. Die Spalten stehen immer in der Reihenfolge der
+   * Deklaration, egal in welcher Reihenfolge sie gesetzt werden; jeder Text wird einmal gebaut.
+   */
+  static final class PartialUpdate {
+    private final String table;
+    private final String where;
+    private final List<String> columns;
+    private final Map<Integer, String> texts = new ConcurrentHashMap<>();
+
+    private PartialUpdate(String table, String where, String... columns) {
+      this.table = table;
+      this.where = where;
+      this.columns = List.of(columns);
+    }
+
+    Values values() {
+      return new Values(this);
+    }
+
+    int maxShapes() {
+      return (1 << columns.size()) - 1;
+    }
+
+    int usedShapes() {
+      return texts.size();
+    }
+
+    private String sql(int mask) {
+      return texts.computeIfAbsent(mask, m -> {
+        List<String> assignments = new ArrayList<>(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+          if ((m & (1 << i)) != 0) {
+            assignments.add(columns.get(i) + " = ?");
+          }
+        }
+        return "UPDATE " + table + " SET " + String.join(", ", assignments) + " WHERE " + where;
+      });
+    }
+
+    /**
+     * Die Werte eines Aufrufs; nur Spalten des {@link PartialUpdate}s sind erlaubt.
+     */
+    static final class Values {
+      private final PartialUpdate update;
+      private final Object[] values;
+      private int mask;
+
+      private Values(PartialUpdate update) {
+        this.update = update;
+        this.values = new Object[update.columns.size()];
+      }
+
+      Values set(String column, Object value) {
+        int index = update.columns.indexOf(column);
+        if (index < 0) {
+          throw new IllegalArgumentException("Spalte nicht im Teil-Update von " + update.table + ": " + column);
+        }
+        values[index] = value;
+        mask |= 1 << index;
+        return this;
+      }
+
+      boolean isEmpty() {
+        return mask == 0;
+      }
+
+      String sql() {
+        if (mask == 0) {
+          throw new IllegalStateException("Teil-Update ohne Spalten");
+        }
+        return update.sql(mask);
+      }
+
+      /**
+       * Die gesetzten Werte in Spaltenreihenfolge, danach {@code whereValues}.
+       */
+      Tuple tuple(Object... whereValues) {
+        Tuple tuple = Tuple.tuple();
+        for (int i = 0; i < values.length; i++) {
+          if ((mask & (1 << i)) != 0) {
+            tuple.addValue(values[i]);
+          }
+        }
+        for (Object value : whereValues) {
+          tuple.addValue(value);
+        }
+        return tuple;
+      }
+    }
+  }
+
+  /**
+   * Eine aufgefüllte Liste: {@link #placeholders} gehört in das {@code IN (...)}, {@link #values} in das Tupel.
+   */
+  static final class InList {
+    final String placeholders;
+    final List<Object> values;
+
+    private InList(String placeholders, List<Object> values) {
+      this.placeholders = placeholders;
+      this.values = values;
+    }
+  }
+
+  /**
+   * {@code values} darf nicht leer sein.
+   */
+  static InList in(Collection<?> values) {
+    if (values.isEmpty()) {
+      throw new IllegalArgumentException("IN-Liste ohne Werte");
+    }
+    int size = bucket(values.size());
+    List<Object> padded = new ArrayList<>(size);
+    padded.addAll(values);
+    Object last = padded.get(padded.size() - 1);
+    while (padded.size() < size) {
+      padded.add(last);
+    }
+    return new InList(placeholders(size), padded);
+  }
+
+  /**
+   * Die nächste Zweierpotenz ab {@code size}, über {@link #MAX_BUCKET} die Länge selbst.
+   */
+  static int bucket(int size) {
+    if (size > MAX_BUCKET) {
+      return size;
+    }
+    return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+  }
+
+  static String placeholders(int count) {
+    if (count <= MAX_BUCKET && Integer.bitCount(count) == 1) {
+      return PLACEHOLDERS[Integer.numberOfTrailingZeros(count)];
+    }
+    return String.join(", ", Collections.nCopies(count, "?"));
+  }
+}
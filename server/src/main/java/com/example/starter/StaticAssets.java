@@ -0,0 +1,216 @@
+package com.example.starter;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.FileSystem;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.http.impl.MimeMapping;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.StaticHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Auslieferung von {@code frontend/} mit starken ETags, Cache-Control und vorkomprimierten Dateien.
+ *
+ * Beim Start wird jede Datei einmal gelesen: Aus dem Inhalt entsteht ein ETag, und Textdateien (HTML, CSS,
+ * JS, ...) ab {@code HTTP_COMPRESSION_MIN_BYTES} werden mit höchster Stufe gzip-komprimiert im Speicher
+ * abgelegt. Unterstützt der Client gzip, geht die fertige komprimierte Fassung raus, ohne pro Request zu
+ * komprimieren. Bilder sind schon komprimiert und werden unverändert vom {@link StaticHandler} gesendet.
+ *
+ * Cache-Control ist {@code public, max-age=STATIC_MAX_AGE_S} ohne {@code immutable}, weil die Dateinamen
+ * keine Versionsangabe tragen; nach Ablauf fragt der Browser mit If-None-Match nach und bekommt 304.
+ * Bis der Index geladen ist, liefert der StaticHandler alles allein aus.
+ */
+public class StaticAssets implements Handler<RoutingContext> {
+
+  private static final Logger log = LoggerFactory.getLogger(StaticAssets.class);
+
+  public static final String MAX_AGE_S = "STATIC_MAX_AGE_S";
+
+  private static final Set<String> COMPRESSIBLE = new HashSet<>(Arrays.asList(
+    "html", "htm", "css", "js", "mjs", "json", "map", "svg", "txt", "xml", "csv"));
+  private static final Set<String> ALREADY_COMPRESSED = new HashSet<>(Arrays.asList(
+    "png", "jpg", "jpeg", "gif", "webp", "ico", "gz", "br", "zip", "woff", "woff2", "mp4"));
+
+  /**
+   * Eine Datei mit ETag und, falls sich das lohnt, ihrer gzip-Fassung.
+   */
+  static final class Asset {
+    final String etag;
+    final String contentType;
+    final Buffer gzip;
+    final String gzipEtag;
+
+    Asset(String etag, String contentType, Buffer gzip) {
+      this.etag = etag;
+      this.contentType = contentType;
+      this.gzip = gzip;
+      // eigene Darstellung, eigener starker ETag
+      this.gzipEtag = gzip != null ? etag.substring(0, etag.length() - 1) + "-gz\"" : null;
+    }
+  }
+
+  private final String root;
+  private final long maxAgeSeconds;
+  private final int minCompressBytes;
+  private final Map<String, Asset> assets = new ConcurrentHashMap<>();
+
+  public StaticAssets(String root, JsonObject config) {
+    this.root = root;
+    this.maxAgeSeconds = config.getInteger(MAX_AGE_S, 3600);
+    this.minCompressBytes = config.getInteger(ResponseCompression.MIN_BYTES, 1024);
+  }
+
+  /**
+   * Liest alle Dateien unter {@code root} (auch aus dem Classpath) auf einem Worker-Thread ein.
+   */
+  public Future<Integer> load(Vertx vertx) {
+    return vertx.executeBlocking(() -> {
+        FileSystem fs = vertx.fileSystem();
+        scan(fs, root, "");
+        return assets.size();
+      }, false)
+      .onSuccess(count -> log.info("✅ Statische Dateien indiziert: {}", count))
+      .onFailure(err -> log.warn("⚠ Statische Dateien konnten nicht indiziert werden: {}", err.getMessage()));
+  }
+
+  private void scan(FileSystem fs, String dir, String prefix) {
+    for (String entry : fs.readDirBlocking(dir)) {
+      String name = new File(entry).getName();
+      String relative = dir + "/" + name;
+      if (fs.propsBlocking(relative).isDirectory()) {
+        scan(fs, relative, prefix + "/" + name);
+      } else {
+        Buffer content = fs.readFileBlocking(relative);
+        assets.put(prefix + "/" + name, new Asset(RecipeCache.etag(content), contentType(name), precompress(name, content)));
+      }
+    }
+  }
+
+  private Buffer precompress(String name, Buffer content) {
+    String suffix = suffix(name);
+    if (content.length() < minCompressBytes || ALREADY_COMPRESSED.contains(suffix) || !COMPRESSIBLE.contains(suffix)) {
+      return null;
+    }
+    Buffer gzip = gzip(content);
+    return gzip.length() < content.length() ? gzip : null;
+  }
+
+  static Buffer gzip(Buffer content) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length() / 3 + 32);
+    try (GZIPOutputStream out = new GZIPOutputStream(bytes) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+      out.write(content.getBytes());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return Buffer.buffer(bytes.toByteArray());
+  }
+
+  /**
+   * Der {@link StaticHandler} für alles, was dieser Handler nicht selbst beantwortet.
+   */
+  public StaticHandler staticHandler() {
+    return StaticHandler.create(root)
+      .setCachingEnabled(true)
+      .setMaxAgeSeconds(maxAgeSeconds)
+      .setSendVaryHeader(true)
+      .skipCompressionForSuffixes(ALREADY_COMPRESSED);
+  }
+
+  @Override
+  public void handle(RoutingContext ctx) {
+    HttpMethod method = ctx.request().method();
+    Asset asset = method == HttpMethod.GET || method == HttpMethod.HEAD ? assets.get(ctx.normalizedPath()) : null;
+    if (asset == null) {
+      ctx.next();
+      return;
+    }
+
+    boolean gzip = asset.gzip != null && acceptsGzip(ctx.request().getHeader(HttpHeaders.ACCEPT_ENCODING));
+    String etag = gzip ? asset.gzipEtag : asset.etag;
+    HttpServerResponse response = ctx.response()
+      .putHeader(HttpHeaders.ETAG, etag)
+      .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=" + maxAgeSeconds);
+    if (asset.gzip != null) {
+      response.putHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    if (RecipeCache.matches(ctx.request().getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+      response.setStatusCode(304).end();
+      return;
+    }
+    if (!gzip) {
+      ctx.next(); // Datei, Content-Type und Range-Requests übernimmt der StaticHandler
+      return;
+    }
+
+    response
+      .putHeader(HttpHeaders.CONTENT_TYPE, asset.contentType)
+      .putHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+    if (method == HttpMethod.HEAD) {
+      response.putHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(asset.gzip.length())).end();
+    } else {
+      response.end(asset.gzip);
+    }
+  }
+
+  Asset asset(String path) {
+    return assets.get(path);
+  }
+
+  /**
+   * {@code true}, wenn gzip im Accept-Encoding steht und nicht mit {@code q=0} ausgeschlossen ist.
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String part : acceptEncoding.split(",")) {
+      String[] tokens = part.trim().split(";");
+      String coding = tokens[0].trim();
+      if (coding.equalsIgnoreCase("gzip") || coding.equals("*")) {
+        for (int i = 1; i < tokens.length; i++) {
+          String param = tokens[i].trim().replace(" ", "");
+          if (param.equals("q=0") || param.startsWith("q=0.") && param.substring(4).replace("0", "").isEmpty()) {
+            return false;
+          }
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String contentType(String name) {
+    String type = MimeMapping.getMimeTypeForFilename(name);
+    if (type == null) {
+      return "application/octet-stream";
+    }
+    return type.startsWith("text/") || type.equals("application/javascript") || type.equals("application/json")
+      ? type + ";charset=UTF-8" : type;
+  }
+
+  private static String suffix(String name) {
+    int dot = name.lastIndexOf('.');
+    return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,89 @@
+package com.example.starter;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.shareddata.ClusterSerializable;
+import io.vertx.ext.auth.VertxContextPRNG;
+import io.vertx.ext.web.sstore.AbstractSession;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Die Web-Session des {@link DbSessionStore} und ihr Binärformat in {@code web_sessions.data}.
+ *
+ * Baut nur auf der öffentlichen Basisklasse {@link AbstractSession} und {@link ClusterSerializable} auf, nicht
+ * auf Klassen aus {@code impl}-Paketen von Vert.x. Das Format beginnt mit einem Versionsbyte
+ * ({@value #FORMAT}), danach folgen ID, Timeout, letzter Zugriff, Version und die Daten. Ein führendes
+ * Nullbyte kennzeichnet Zeilen ohne Versionsbyte aus der ersten Fassung des Stores; sie haben dasselbe Layout
+ * und werden weiter gelesen. Unbekannte Formate ergeben beim Lesen {@code null}, die Session gilt dann als
+ * abgelaufen.
+ */
+final class StoredSession extends AbstractSession implements ClusterSerializable {
+
+  static final byte FORMAT = 1;
+  private static final byte FORMAT_UNVERSIONED = 0;
+
+  StoredSession(VertxContextPRNG prng) {
+    super(prng);
+  }
+
+  StoredSession(VertxContextPRNG prng, long timeout, int length) {
+    super(prng, timeout, length);
+  }
+
+  static Buffer encode(StoredSession session) {
+    Buffer buffer = Buffer.buffer();
+    session.writeToBuffer(buffer);
+    return buffer;
+  }
+
+  /**
+   * {@code null}, wenn {@code data} in einem unbekannten Format vorliegt.
+   */
+  static StoredSession decode(Buffer data, VertxContextPRNG prng) {
+    if (data.length() == 0) {
+      return null;
+    }
+    byte format = data.getByte(0);
+    if (format != FORMAT && format != FORMAT_UNVERSIONED) {
+      return null;
+    }
+    StoredSession session = new StoredSession(prng);
+    session.readFields(format == FORMAT ? 1 : 0, data);
+    return session;
+  }
+
+  @Override
+  public void writeToBuffer(Buffer buffer) {
+    byte[] id = id().getBytes(StandardCharsets.UTF_8);
+    buffer.appendByte(FORMAT)
+      .appendInt(id.length)
+      .appendBytes(id)
+      .appendLong(timeout())
+      .appendLong(lastAccessed())
+      .appendInt(version());
+    writeDataToBuffer(buffer);
+  }
+
+  @Override
+  public int readFromBuffer(int pos, Buffer buffer) {
+    byte format = buffer.getByte(pos);
+    if (format != FORMAT) {
+      throw new IllegalStateException("Unbekanntes Session-Format: " + format);
+    }
+    return readFields(pos + 1, buffer);
+  }
+
+  private int readFields(int pos, Buffer buffer) {
+    int length = buffer.getInt(pos);
+    pos += 4;
+    setId(new String(buffer.getBytes(pos, pos + length), StandardCharsets.UTF_8));
+    pos += length;
+    setTimeout(buffer.getLong(pos));
+    pos += 8;
+    setLastAccessed(buffer.getLong(pos));
+    pos += 8;
+    setVersion(buffer.getInt(pos));
+    pos += 4;
+    return readDataFromBuffer(pos, buffer);
+  }
+}
@@ -0,0 +1,193 @@
+package com.example.starter;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lädt HTML-Vorlagen aus {@code frontend/} einmalig und zerlegt sie an den Platzhaltern {@code {{NAME}}}.
+ *
+ * Die festen Textstücke liegen danach als fertig kodierte {@link Buffer} vor; beim Rendern werden nur noch
+ * die Werte eingesetzt, ohne die Datei erneut zu lesen oder zu durchsuchen. Für gestreamte Seiten liefert
+ * {@link Template#head} / {@link Template#tail} die Teile vor und hinter einem Platzhalter.
+ *
+ * Unveränderliche HTML-Schnipsel können als {@link #fragment fertige Fragmente} abgelegt werden.
+ *
+ * Mit {@value #DEV_MODE} = true werden die Dateien alle {@value #DEV_POLL_MS} ms auf Änderungen geprüft und
+ * bei Bedarf neu geladen.
+ */
+public class TemplateCache {
+
+  private static final Logger log = LoggerFactory.getLogger(TemplateCache.class);
+
+  public static final String DEV_MODE = "TEMPLATE_DEV_MODE";
+  static final long DEV_POLL_MS = 1000;
+
+  private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{([A-Za-z0-9_]+)}}");
+
+  /**
+   * Eine zerlegte Vorlage: {@code literals.size() == placeholders.size() + 1}.
+   */
+  public static final class Template {
+    private final List<Buffer> literals;
+    private final List<String> placeholders;
+    // Größe der letzten Ausgabe, damit der Puffer beim nächsten Mal nicht wachsen muss
+    private volatile int sizeHint;
+
+    Template(List<Buffer> literals, List<String> placeholders) {
+      this.literals = literals;
+      this.placeholders = placeholders;
+      int size = 0;
+      for (Buffer literal : literals) {
+        size += literal.length();
+      }
+      this.sizeHint = size;
+    }
+
+    static Template parse(String text) {
+      List<Buffer> literals = new ArrayList<>();
+      List<String> placeholders = new ArrayList<>();
+      Matcher m = PLACEHOLDER.matcher(text);
+      int pos = 0;
+      while (m.find()) {
+        literals.add(Buffer.buffer(text.substring(pos, m.start())));
+        placeholders.add(m.group(1));
+        pos = m.end();
+      }
+      literals.add(Buffer.buffer(text.substring(pos)));
+      return new Template(Collections.unmodifiableList(literals), Collections.unmodifiableList(placeholders));
+    }
+
+    public List<String> placeholders() {
+      return placeholders;
+    }
+
+    /**
+     * Setzt alle Platzhalter ein; fehlende Werte werden zu einem leeren Text.
+     */
+    public Buffer render(Map<String, ?> values) {
+      return render(values, 0, placeholders.size());
+    }
+
+    /**
+     * Alles vor dem ersten Vorkommen von {@code placeholder}, mit eingesetzten Werten.
+     * Kommt der Platzhalter nicht vor, ist das die ganze Seite.
+     */
+    public Buffer head(String placeholder, Map<String, ?> values) {
+      int index = placeholders.indexOf(placeholder);
+      return render(values, 0, index >= 0 ? index : placeholders.size());
+    }
+
+    /**
+     * Alles hinter dem ersten Vorkommen von {@code placeholder}, mit eingesetzten Werten.
+     * Kommt der Platzhalter nicht vor, ist das Ergebnis leer.
+     */
+    public Buffer tail(String placeholder, Map<String, ?> values) {
+      int index = placeholders.indexOf(placeholder);
+      return index >= 0 ? render(values, index + 1, placeholders.size()) : Buffer.buffer();
+    }
+
+    // Literale from..to und die Platzhalter dazwischen
+    private Buffer render(Map<String, ?> values, int from, int to) {
+      Buffer out = Buffer.buffer(sizeHint);
+      out.appendBuffer(literals.get(from));
+      for (int i = from; i < to; i++) {
+        Object value = values != null ? values.get(placeholders.get(i)) : null;
+        if (value != null) {
+          out.appendString(value.toString());
+        }
+        out.appendBuffer(literals.get(i + 1));
+      }
+      if (from == 0 && to == placeholders.size()) {
+        sizeHint = out.length();
+      }
+      return out;
+    }
+  }
+
+  private final Vertx vertx;
+  private final String baseDir;
+  private final boolean devMode;
+
+  private final Map<String, Future<Template>> templates = new ConcurrentHashMap<>();
+  private final Map<String, Long> modified = new ConcurrentHashMap<>();
+  private final Map<String, Buffer> fragments = new ConcurrentHashMap<>();
+
+  public TemplateCache(Vertx vertx, JsonObject config) {
+    this(vertx, "frontend", config.getBoolean(DEV_MODE, false));
+  }
+
+  TemplateCache(Vertx vertx, String baseDir, boolean devMode) {
+    this.vertx = vertx;
+    this.baseDir = baseDir;
+    this.devMode = devMode;
+    if (devMode) {
+      vertx.setPeriodic(DEV_POLL_MS, id -> checkForChanges());
+      log.warn("⚠ Vorlagen-Entwicklungsmodus: Änderungen an {}/ werden neu geladen", baseDir);
+    }
+  }
+
+  /**
+   * Liefert die zerlegte Vorlage; gelesen wird nur beim ersten Aufruf (bzw. nach einer Änderung im Dev-Modus).
+   * Ein fehlgeschlagenes Laden wird nicht gemerkt, der nächste Aufruf versucht es erneut.
+   */
+  public Future<Template> get(String name) {
+    Future<Template> cached = templates.get(name);
+    if (cached != null) {
+      return cached;
+    }
+    Future<Template> loading = vertx.fileSystem().readFile(path(name))
+      .map(file -> Template.parse(file.toString()))
+      .onSuccess(template -> log.debug("✅ Vorlage geladen: {}", name))
+      .onFailure(err -> {
+        templates.remove(name);
+        log.error("❌ Vorlage {} konnte nicht geladen werden: {}", name, err.getMessage());
+      });
+    Future<Template> previous = templates.putIfAbsent(name, loading);
+    return previous != null ? previous : loading;
+  }
+
+  /**
+   * Liefert ein fertig kodiertes, unveränderliches HTML-Fragment; {@code html} wird nur einmal aufgerufen.
+   * Der Buffer wird beim Senden nicht verändert und kann daher für alle Antworten geteilt werden.
+   */
+  public Buffer fragment(String key, Supplier<String> html) {
+    return fragments.computeIfAbsent(key, k -> Buffer.buffer(html.get()));
+  }
+
+  public boolean devMode() {
+    return devMode;
+  }
+
+  private String path(String name) {
+    return baseDir + "/" + name;
+  }
+
+  private void checkForChanges() {
+    for (String name : templates.keySet()) {
+      vertx.fileSystem().props(path(name)).onComplete(res -> {
+        if (res.failed()) {
+          return;
+        }
+        long lastModified = res.result().lastModifiedTime();
+        Long known = modified.put(name, lastModified);
+        if (known != null && known != lastModified) {
+          templates.remove(name);
+          log.info("⚠ Vorlage geändert, wird neu geladen: {}", name);
+        }
+      });
+    }
+  }
+}
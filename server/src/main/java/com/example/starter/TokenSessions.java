@@ -0,0 +1,249 @@
+package com.example.starter;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.Cookie;
+import io.vertx.core.http.CookieSameSite;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.auth.JWTOptions;
+import io.vertx.ext.auth.User;
+import io.vertx.ext.auth.authentication.TokenCredentials;
+import io.vertx.ext.auth.jwt.JWTAuth;
+import io.vertx.ext.auth.jwt.JWTAuthOptions;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zustandslose Sessions mit signierten Tokens ({@code SESSION_MODE=jwt}).
+ *
+ * Beim Login werden zwei HS256-JWTs als HttpOnly-Cookies gesetzt: ein kurzlebiges Access-Token
+ * ({@value #ACCESS_COOKIE}, {@value #ACCESS_TTL_S}) und ein langlebiges Refresh-Token
+ * ({@value #REFRESH_COOKIE}, {@value #REFRESH_TTL_S}). Die Benutzer-ID wird allein durch Prüfen der Signatur
+ * ermittelt, ohne Abfrage der Tabelle {@code sessions}. Ist das Access-Token abgelaufen, wird mit dem
+ * Refresh-Token im selben Request ein neues Access-Token ausgestellt. Das Refresh-Token wird dabei bewusst
+ * nicht rotiert, sonst würden parallele Requests mit abgelaufenem Access-Token sich gegenseitig abmelden.
+ *
+ * Für den Logout werden die Token-IDs ({@code jti}) bis zu ihrem Ablauf in {@code revoked_tokens} eingetragen.
+ * Die Sperrliste wird im Speicher gehalten und alle {@value #REVOCATION_SYNC_S} Sekunden mit der Datenbank
+ * abgeglichen, damit auch Logouts über andere Server-Prozesse greifen. Sie enthält nur noch nicht abgelaufene
+ * Tokens und bleibt daher klein.
+ *
+ * Signiert wird mit {@value #JWT_SECRET} aus der Konfiguration (siehe {@link #createAuth}); ohne eigenen
+ * Schlüssel startet der Token-Modus nicht.
+ */
+public class TokenSessions {
+
+  private static final Logger log = LoggerFactory.getLogger(TokenSessions.class);
+
+  public static final String SESSION_MODE = "SESSION_MODE";
+  public static final String ACCESS_TTL_S = "JWT_ACCESS_TTL_S";
+  public static final String REFRESH_TTL_S = "JWT_REFRESH_TTL_S";
+  public static final String REVOCATION_SYNC_S = "JWT_REVOCATION_SYNC_S";
+  public static final String JWT_SECRET = "JWT_SECRET";
+
+  // stand früher fest im Code und ist damit öffentlich
+  private static final String PUBLIC_SECRET = "geheimesSchluessel";
+
+  public static final String ACCESS_COOKIE = "access-token";
+  public static final String REFRESH_COOKIE = "refresh-token";
+
+  private static final String TYPE_ACCESS = "access";
+  private static final String TYPE_REFRESH = "refresh";
+
+  private final DatabaseClient dbClient;
+  private final JWTAuth jwtAuth;
+  private final int accessTtlSeconds;
+  private final int refreshTtlSeconds;
+
+  // jti -> Ablauf (Epoch-Sekunden)
+  private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+  public TokenSessions(Vertx vertx, DatabaseClient dbClient, JWTAuth jwtAuth, JsonObject config) {
+    this.dbClient = dbClient;
+    this.jwtAuth = jwtAuth;
+    this.accessTtlSeconds = config.getInteger(ACCESS_TTL_S, 15 * 60);
+    this.refreshTtlSeconds = config.getInteger(REFRESH_TTL_S, 14 * 24 * 3600);
+
+    syncRevocations();
+    vertx.setPeriodic(config.getInteger(REVOCATION_SYNC_S, 30) * 1000L, id -> syncRevocations());
+  }
+
+  /**
+   * {@code true}, wenn {@code SESSION_MODE=jwt} konfiguriert ist (Standard: {@code db}).
+   */
+  public static boolean enabled(JsonObject config) {
+    return "jwt".equalsIgnoreCase(config.getString(SESSION_MODE, "db"));
+  }
+
+  /**
+   * HS256 mit dem Schlüssel aus {@value #JWT_SECRET}. Fehlt er oder ist es noch der alte, öffentlich bekannte
+   * Schlüssel, startet der Server im Token-Modus nicht. Im Modus {@code db} werden selbst keine Tokens
+   * ausgestellt; dann gilt ein zufälliger Schlüssel nur für diesen Prozess.
+   */
+  public static JWTAuth createAuth(Vertx vertx, JsonObject config) {
+    String secret = config.getString(JWT_SECRET, "");
+    if (secret.isBlank() || PUBLIC_SECRET.equals(secret)) {
+      if (enabled(config)) {
+        throw new IllegalStateException(JWT_SECRET + " fehlt oder ist der öffentliche Standardwert (SESSION_MODE=jwt)");
+      }
+      log.warn("⚠ {} nicht gesetzt, API-Tokens werden mit einem zufälligen Schlüssel geprüft", JWT_SECRET);
+      byte[] random = new byte[32];
+      new SecureRandom().nextBytes(random);
+      secret = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+    }
+    return JWTAuth.create(vertx, new JWTAuthOptions()
+      .addJwk(new JsonObject()
+        .put("kty", "oct")
+        .put("k", secret)
+        .put("alg", "HS256")));
+  }
+
+  /**
+   * Für die API-Routen hinter dem {@code JWTAuthHandler}: nur Access-Tokens. Ein Refresh-Token aus dem Cookie
+   * ist mit demselben Schlüssel signiert und würde sonst als Bearer-Token akzeptiert.
+   */
+  public static void requireAccessToken(RoutingContext context) {
+    if (!isAccessToken(context.user())) {
+      context.fail(401);
+      return;
+    }
+    context.next();
+  }
+
+  static boolean isAccessToken(User user) {
+    if (user == null) {
+      return false;
+    }
+    JsonObject claims = claims(user);
+    return TYPE_ACCESS.equals(claims.getString("typ")) && claims.getInteger("uid") != null;
+  }
+
+  /**
+   * Die Benutzer-ID aus dem {@code uid}-Claim, den {@link #requireAccessToken} geprüft hat; {@code null} ohne
+   * gültiges Access-Token. Andere Claims (etwa {@code userId}) gibt der Server nicht aus und zählen nicht.
+   */
+  public static Integer userId(User user) {
+    return isAccessToken(user) ? claims(user).getInteger("uid") : null;
+  }
+
+  private static JsonObject claims(User user) {
+    return user.attributes().getJsonObject("accessToken", user.principal());
+  }
+
+  /**
+   * Stellt Access- und Refresh-Token für den Benutzer aus und setzt sie als Cookies.
+   */
+  public void issue(RoutingContext context, int userId) {
+    issueAccess(context, userId);
+    context.response().addCookie(cookie(REFRESH_COOKIE, token(userId, TYPE_REFRESH, refreshTtlSeconds), refreshTtlSeconds));
+  }
+
+  private void issueAccess(RoutingContext context, int userId) {
+    context.response().addCookie(cookie(ACCESS_COOKIE, accessToken(userId), accessTtlSeconds));
+  }
+
+  String accessToken(int userId) {
+    return token(userId, TYPE_ACCESS, accessTtlSeconds);
+  }
+
+  /**
+   * Liefert die Benutzer-ID aus dem Access-Token, notfalls über das Refresh-Token, sonst -1.
+   */
+  public Future<Integer> resolve(RoutingContext context) {
+    return verify(context.getCookie(ACCESS_COOKIE), TYPE_ACCESS)
+      .map(principal -> principal.getInteger("uid"))
+      .recover(err -> verify(context.getCookie(REFRESH_COOKIE), TYPE_REFRESH)
+        .map(principal -> {
+          int userId = principal.getInteger("uid");
+          issueAccess(context, userId);
+          return userId;
+        }))
+      .otherwise(-1);
+  }
+
+  /**
+   * Sperrt beide Tokens des Requests (soweit noch gültig) und löscht die Cookies.
+   */
+  public Future<Void> logout(RoutingContext context) {
+    Future<Void> access = verify(context.getCookie(ACCESS_COOKIE), TYPE_ACCESS).compose(this::revoke).otherwiseEmpty();
+    Future<Void> refresh = verify(context.getCookie(REFRESH_COOKIE), TYPE_REFRESH).compose(this::revoke).otherwiseEmpty();
+    context.response().addCookie(cookie(ACCESS_COOKIE, "", 0));
+    context.response().addCookie(cookie(REFRESH_COOKIE, "", 0));
+    return Future.all(access, refresh).mapEmpty();
+  }
+
+  public boolean hasTokens(RoutingContext context) {
+    return context.getCookie(ACCESS_COOKIE) != null || context.getCookie(REFRESH_COOKIE) != null;
+  }
+
+  public JsonObject stats() {
+    return new JsonObject().put("revoked", revoked.size());
+  }
+
+  private String token(int userId, String type, int ttlSeconds) {
+    JsonObject claims = new JsonObject()
+      .put("uid", userId)
+      .put("typ", type)
+      .put("jti", UUID.randomUUID().toString());
+    return jwtAuth.generateToken(claims, new JWTOptions().setAlgorithm("HS256").setExpiresInSeconds(ttlSeconds));
+  }
+
+  private Future<JsonObject> verify(Cookie cookie, String type) {
+    if (cookie == null || cookie.getValue().isEmpty()) {
+      return Future.failedFuture("kein Token");
+    }
+    return jwtAuth.authenticate(new TokenCredentials(cookie.getValue()))
+      // die geprüften Claims inkl. "exp" stehen in den Attributen, principal() enthält "exp" nicht
+      .map(user -> user.attributes().getJsonObject("accessToken", user.principal()))
+      .compose(principal -> {
+        if (!type.equals(principal.getString("typ")) || principal.getInteger("uid") == null) {
+          return Future.failedFuture("falscher Token-Typ");
+        }
+        if (revoked.containsKey(principal.getString("jti"))) {
+          return Future.failedFuture("Token gesperrt");
+        }
+        return Future.succeededFuture(principal);
+      });
+  }
+
+  private Future<Void> revoke(JsonObject principal) {
+    String jti = principal.getString("jti");
+    long expiresAt = principal.getLong("exp", nowSeconds() + refreshTtlSeconds);
+    revoked.put(jti, expiresAt);
+    return dbClient.update(Statements.TOKEN_REVOKE, Tuple.of(jti, expiresAt))
+      .onFailure(err -> log.warn("⚠ Token-Sperre konnte nicht gespeichert werden: {}", err.getMessage()))
+      .mapEmpty();
+  }
+
+  /**
+   * Übernimmt Sperren anderer Prozesse und vergisst abgelaufene Tokens (in der Datenbank und im Speicher).
+   */
+  private void syncRevocations() {
+    long now = nowSeconds();
+    revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    dbClient.update(Statements.TOKEN_SWEEP, Tuple.of(now))
+      .compose(v -> dbClient.query(Statements.TOKENS_REVOKED))
+      .onSuccess(rows -> rows.forEach(row -> revoked.put(row.getString("jti"), row.getLong("expires_at"))))
+      .onFailure(err -> log.warn("⚠ Token-Sperrliste konnte nicht geladen werden: {}", err.getMessage()));
+  }
+
+  private static Cookie cookie(String name, String value, int maxAgeSeconds) {
+    return Cookie.cookie(name, value)
+      .setHttpOnly(true)
+      .setSameSite(CookieSameSite.LAX)
+      .setPath("/")
+      .setMaxAge(maxAgeSeconds);
+  }
+
+  private static long nowSeconds() {
+    return System.currentTimeMillis() / 1000;
+  }
+}
@@ -1,20 +1,28 @@
 package com.example.starter;
 
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
-import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
-import io.vertx.ext.jdbc.JDBCClient;
 import io.vertx.ext.web.RoutingContext;
-import org.mindrot.jbcrypt.BCrypt;
+import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.util.List;
 
 
 public class UserService {
-  private final JDBCClient dbClient;
+
+  private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
+  private final DatabaseClient dbClient;
+  private final HashingExecutor hashing;
+  private final PasswordHasher passwordHasher;
   //private AuthService authService;
-  public UserService(Vertx vertx, JDBCClient dbClient) {
+  public UserService(Vertx vertx, DatabaseClient dbClient, HashingExecutor hashing, PasswordHasher passwordHasher) {
     //this.authService = authService;
     this.dbClient = dbClient;
+    this.hashing = hashing;
+    this.passwordHasher = passwordHasher;
   }
 
 
@@ -39,11 +47,11 @@ public class UserService {
       return;
     }
 
-    String query = "SELECT id, name, email FROM users WHERE name = ?";
+    String query = Statements.USER_BY_NAME;
 
-    dbClient.queryWithParams(query, new JsonArray().add(username), res -> {
-      if (res.succeeded() && res.result().getRows().size() > 0) {
-        List<JsonObject> users = res.result().getRows();
+    dbClient.query(query, Tuple.of(username)).onComplete(res -> {
+      if (res.succeeded() && res.result().size() > 0) {
+        List<JsonObject> users = res.result();
 
         // HTML-Kopf
         StringBuilder htmlResponse = new StringBuilder("<!DOCTYPE html>");
@@ -106,12 +114,12 @@ public class UserService {
 
   public void getUserById(RoutingContext context) {
     int userId = Integer.parseInt(context.pathParam("id"));
-    String query = "SELECT id, name, email FROM users WHERE id = ?";
+    String query = Statements.USER_BY_ID;
 
-    dbClient.queryWithParams(query, new JsonArray().add(userId), res -> {
-      if (res.succeeded() && res.result().getRows().size() > 0) {
+    dbClient.query(query, Tuple.of(userId)).onComplete(res -> {
+      if (res.succeeded() && res.result().size() > 0) {
         context.response().putHeader("Content-Type", "application/json")
-          .end(res.result().getRows().get(0).encode());
+          .end(res.result().get(0).encode());
       } else {
         context.response().setStatusCode(404).end("❌ Nutzer nicht gefunden!");
       }
@@ -149,18 +157,18 @@ public class UserService {
       return;
     }
 
-    // Passwort hashen
-    String hashedPassword = BCrypt.hashpw(password, BCrypt.gensalt());
-
-    String query = "UPDATE users SET name = ?, email = ?, password_hash = ? WHERE id = ?";
+    String query = Statements.USER_UPDATE;
 
-    dbClient.updateWithParams(query, new JsonArray().add(name).add(email).add(hashedPassword).add(userId), res -> {
-      if (res.succeeded()) {
-        context.response().setStatusCode(200).end("✅ Nutzer erfolgreich aktualisiert!");
-      } else {
-        context.response().setStatusCode(500).end("❌ Fehler beim Aktualisieren des Nutzers!");
-      }
-    });
+    // Passwort im Hash-Pool hashen, BCrypt würde den Event-Loop blockieren
+    hashing.submit("update", () -> passwordHasher.hash(password))
+      .compose(hashedPassword -> dbClient.update(query, Tuple.of(name, email, hashedPassword, userId)))
+      .onComplete(res -> {
+        if (res.succeeded()) {
+          context.response().setStatusCode(200).end("✅ Nutzer erfolgreich aktualisiert!");
+        } else if (!HashingExecutor.handleRejected(context, res.cause())) {
+          context.response().setStatusCode(500).end("❌ Fehler beim Aktualisieren des Nutzers!");
+        }
+      });
   }
 
   // 🔹 Nutzer teilweise aktualisieren (PATCH - NUR EINZELNE FELDER)
@@ -168,39 +176,33 @@ public class UserService {
     int userId = Integer.parseInt(context.pathParam("id"));
     JsonObject body = context.getBodyAsJson();
 
-    StringBuilder query = new StringBuilder("UPDATE users SET ");
-    JsonArray params = new JsonArray();
-
-    if (body.containsKey("name")) {
-      query.append("name = ?, ");
-      params.add(body.getString("name"));
-    }
-    if (body.containsKey("email")) {
-      query.append("email = ?, ");
-      params.add(body.getString("email"));
-    }
-    if (body.containsKey("password")) {
-      // Passwort hashen, bevor es in die Datenbank kommt
-      String hashedPassword = BCrypt.hashpw(body.getString("password"), BCrypt.gensalt());
-      query.append("password_hash = ?, ");
-      params.add(hashedPassword);
-    }
-
     // Falls keine Daten übermittelt wurden, Fehler zurückgeben
-    if (params.size() == 0) {
+    if (!body.containsKey("name") && !body.containsKey("email") && !body.containsKey("password")) {
       context.response().setStatusCode(400).end("⚠ Keine gültigen Daten zum Aktualisieren!");
       return;
     }
 
-    // Letztes Komma entfernen und WHERE-Klausel hinzufügen
-    query.setLength(query.length() - 2);
-    query.append(" WHERE id = ?");
-    params.add(userId);
+    // Passwort im Hash-Pool hashen, bevor es in die Datenbank kommt
+    Future<String> passwordHash = body.containsKey("password")
+      ? hashing.submit("update", () -> passwordHasher.hash(body.getString("password")))
+      : Future.succeededFuture();
 
-    dbClient.updateWithParams(query.toString(), params, res -> {
+    passwordHash.compose(hashedPassword -> {
+      Statements.PartialUpdate.Values update = Statements.USER_PATCH.values();
+      if (body.containsKey("name")) {
+        update.set("name", body.getString("name"));
+      }
+      if (body.containsKey("email")) {
+        update.set("email", body.getString("email"));
+      }
+      if (hashedPassword != null) {
+        update.set("password_hash", hashedPassword);
+      }
+      return dbClient.update(update.sql(), update.tuple(userId));
+    }).onComplete(res -> {
       if (res.succeeded()) {
         context.response().setStatusCode(200).end("✅ Nutzer teilweise aktualisiert!");
-      } else {
+      } else if (!HashingExecutor.handleRejected(context, res.cause())) {
         context.response().setStatusCode(500).end("❌ Fehler beim Teil-Update des Nutzers!");
       }
     });
@@ -210,15 +212,15 @@ public class UserService {
   public void getAllUsers(RoutingContext context) {
 
 
-    String query = "SELECT id, name, email FROM users";
+    String query = Statements.USERS_ALL;
 
-    dbClient.query(query, res -> {
+    dbClient.query(query).onComplete(res -> {
       if (res.succeeded()) {
 
         context.response().putHeader("Content-Type", "application/json")
-          .end(new JsonObject().put("users", res.result().getRows()).encode());
+          .end(new JsonObject().put("users", res.result()).encode());
       } else {
-        System.out.println("❌ Fehler: " + res.cause().getMessage());
+        RequestLog.error(log, context).log("❌ Nutzer konnten nicht abgerufen werden: {}", res.cause().getMessage());
         context.response().setStatusCode(500).end("❌ Fehler beim Abrufen der Nutzer!");
    }
 });
@@ -0,0 +1,230 @@
+package com.example.starter;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.SqlConnection;
+import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Zähler pro Benutzer (eigene Rezepte, erhaltene Favoriten, erhaltene Kommentare) und die Erfolge, die sich
+ * aus der Zahl der Rezepte ergeben.
+ *
+ * Der Zähler hört auf die {@link DomainEvents} zu Rezepten, Favoriten und Kommentaren und passt die Zeile in
+ * {@code user_stats} um ±1 an; sobald die Rezeptzahl eine Schwelle aus {@link #TIERS} erreicht, wird der
+ * Erfolg vergeben. Zähler und Erfolgsstufe werden in einer Transaktion geändert; der Erfolg wird nur
+ * eingetragen, wenn die Stufe dabei tatsächlich steigt, also genau einmal. Die Routen lesen nur noch die eine
+ * Zeile (bzw. den Cache) statt zu zählen.
+ *
+ * Kaskadierende Löschungen (Rezept gelöscht -> Favoriten/Kommentare weg) zählt der Consumer für den
+ * Besitzer neu. Wird ein Benutzerkonto gelöscht, werden die von ihm vergebenen Favoriten und Kommentare bei
+ * den anderen Benutzern erst bei deren nächster Neuzählung korrigiert.
+ */
+public class UserStats {
+
+  private static final Logger log = LoggerFactory.getLogger(UserStats.class);
+
+  public static final String CACHE_MAX_ENTRIES = "USER_STATS_CACHE_MAX_ENTRIES";
+  public static final String CACHE_TTL_S = "USER_STATS_CACHE_TTL_S";
+
+  /**
+   * Ein Erfolg ab einer Mindestzahl eigener Rezepte. {@code level} steigt mit der Schwelle.
+   */
+  static final class Tier {
+    final int level;
+    final int minRecipes;
+    final String name;
+
+    Tier(int level, int minRecipes, String name) {
+      this.level = level;
+      this.minRecipes = minRecipes;
+      this.name = name;
+    }
+  }
+
+  static final List<Tier> TIERS = Collections.unmodifiableList(Arrays.asList(
+    new Tier(1, 1, "Koch-Anfänger"),
+    new Tier(2, 3, "Koch-Lehrling"),
+    new Tier(3, 6, "Rezept-Experte"),
+    new Tier(4, 11, "Goldener Stern-Koch")
+  ));
+
+  // Spalten in user_stats; nur diese Namen landen im SQL
+  static final String RECIPES = "recipe_count";
+  static final String FAVORITES_RECEIVED = "favorites_received";
+  static final String COMMENTS_RECEIVED = "comments_received";
+
+  private final Vertx vertx;
+  private final DatabaseClient dbClient;
+  private final RecipeCache recipeCache;
+  private final InvalidationBus invalidation;
+  private final LruCache<Integer, JsonObject> cache;
+  // wird bei jeder Änderung erhöht, damit parallele Ladevorgänge nichts Veraltetes ablegen
+  private final AtomicLong generation = new AtomicLong();
+
+  public UserStats(Vertx vertx, DatabaseClient dbClient, RecipeCache recipeCache, InvalidationBus invalidation,
+                   JsonObject config) {
+    this.vertx = vertx;
+    this.dbClient = dbClient;
+    this.recipeCache = recipeCache;
+    this.invalidation = invalidation;
+    this.cache = new LruCache<>(config.getInteger(CACHE_MAX_ENTRIES, 10_000), config.getInteger(CACHE_TTL_S, 600) * 1000L);
+    invalidation.register(InvalidationBus.USER_STATS, userId -> evict(Integer.parseInt(userId)));
+  }
+
+  /**
+   * Meldet die Consumer für die Ereignisse an; Rezept-Ereignisse nennen den Besitzer, bei Favoriten und
+   * Kommentaren wird er über den RecipeCache ermittelt. Nur lokal: im Cluster zählt allein der Knoten, auf
+   * dem geschrieben wurde, sonst würde jeder Knoten die Zeile in der Datenbank ändern.
+   */
+  public Future<Void> start() {
+    return Future.all(Arrays.asList(
+      DomainEvents.localConsumer(vertx, DomainEvents.RecipeCreated.class,
+        e -> track(e, add(e.userId, RECIPES, 1))),
+      // mit dem Rezept sind auch seine Favoriten und Kommentare weg
+      DomainEvents.localConsumer(vertx, DomainEvents.RecipeDeleted.class,
+        e -> track(e, recount(e.userId))),
+      DomainEvents.localConsumer(vertx, DomainEvents.FavoriteToggled.class,
+        e -> track(e, addForOwner(e.recipeId, FAVORITES_RECEIVED, e.added ? 1 : -1))),
+      DomainEvents.localConsumer(vertx, DomainEvents.FavoritesChanged.class,
+        e -> track(e, recountOwners(e.recipeIds))),
+      DomainEvents.localConsumer(vertx, DomainEvents.CommentAdded.class,
+        e -> track(e, addForOwner(e.recipeId, COMMENTS_RECEIVED, 1))),
+      DomainEvents.localConsumer(vertx, DomainEvents.CommentDeleted.class,
+        e -> track(e, addForOwner(e.recipeId, COMMENTS_RECEIVED, -1)))
+    )).mapEmpty();
+  }
+
+  private static void track(DomainEvents.Event event, Future<Void> done) {
+    done.onFailure(err -> log.warn("⚠ Zähler für {} nicht aktualisiert: {}", event.toJson().encode(), err.getMessage()));
+  }
+
+  private Future<Void> addForOwner(int recipeId, String column, int delta) {
+    return recipeCache.get(recipeId).compose(recipe -> recipe != null
+      ? add(recipe.userId(), column, delta)
+      : Future.succeededFuture()); // Rezept inzwischen gelöscht, dann wurde der Besitzer schon neu gezählt
+  }
+
+  /**
+   * Ändert einen Zähler um {@code delta} (nie unter 0) und vergibt ggf. den nächsten Erfolg.
+   */
+  Future<Void> add(int userId, String column, int delta) {
+    return dbClient.withTransaction(conn -> conn
+        .preparedQuery(Statements.statsAdd(column))
+        .execute(Tuple.of(userId, Math.max(delta, 0), delta))
+        .compose(v -> column.equals(RECIPES) && delta > 0 ? grant(conn, userId) : Future.<Void>succeededFuture()))
+      .onComplete(res -> invalidate(userId));
+  }
+
+  /**
+   * Zählt alle Zähler des Benutzers neu und vergibt ggf. den nächsten Erfolg.
+   */
+  public Future<Void> recount(int userId) {
+    return dbClient.withTransaction(conn -> conn.preparedQuery(Statements.STATS_RECOUNT)
+        .execute(Tuple.of(userId, userId, userId, userId))
+        .compose(v -> grant(conn, userId)))
+      .onComplete(res -> invalidate(userId));
+  }
+
+  private void invalidate(int userId) {
+    invalidation.invalidate(InvalidationBus.USER_STATS, userId);
+  }
+
+  private void evict(int userId) {
+    generation.incrementAndGet();
+    cache.invalidate(userId);
+  }
+
+  private Future<Void> recountOwners(List<Integer> recipeIds) {
+    if (recipeIds.isEmpty()) {
+      return Future.succeededFuture();
+    }
+    Statements.InList in = Statements.in(recipeIds);
+    return dbClient.query(Statements.RECIPE_OWNERS.sql(in), Tuple.tuple(in.values))
+      .compose(rows -> {
+        Future<Void> chain = Future.succeededFuture();
+        for (JsonObject row : rows) {
+          int owner = row.getInteger("user_id");
+          chain = chain.compose(v -> recount(owner));
+        }
+        return chain;
+      });
+  }
+
+  // Läuft in der Transaktion, die den Zähler geändert hat; die Zeile ist bis zum Commit gesperrt
+  private Future<Void> grant(SqlConnection conn, int userId) {
+    return conn.preparedQuery(Statements.STATS_LEVEL)
+      .execute(Tuple.of(userId))
+      .compose(rows -> {
+        if (rows.size() == 0) {
+          return Future.succeededFuture();
+        }
+        int recipes = rows.iterator().next().getInteger("recipe_count");
+        int level = rows.iterator().next().getInteger("achievement_level");
+        Tier tier = tierFor(recipes);
+        if (tier == null || tier.level <= level) {
+          return Future.succeededFuture();
+        }
+        return conn.preparedQuery(Statements.STATS_PROMOTE)
+          .execute(Tuple.of(tier.name, tier.level, userId, tier.level))
+          .compose(updated -> {
+            if (updated.rowCount() == 0) {
+              return Future.<Void>succeededFuture(); // Stufe schon vergeben
+            }
+            // ältere Einträge (vor user_stats) nicht doppelt anlegen
+            return conn.preparedQuery(Statements.ACHIEVEMENT_INSERT)
+              .execute(Tuple.of(userId, tier.name, userId, tier.name))
+              .onSuccess(v -> log.info("✅ Erfolg vergeben an Benutzer {}: {}", userId, tier.name))
+              .mapEmpty();
+          });
+      });
+  }
+
+  /**
+   * Die höchste erreichte Stufe für {@code recipes} eigene Rezepte, {@code null} unter der ersten Schwelle.
+   */
+  static Tier tierFor(int recipes) {
+    Tier reached = null;
+    for (Tier tier : TIERS) {
+      if (recipes >= tier.minRecipes) {
+        reached = tier;
+      }
+    }
+    return reached;
+  }
+
+  /**
+   * Zähler und aktueller Erfolg ({@code null}, solange keiner erreicht ist) des Benutzers.
+   */
+  public Future<JsonObject> of(int userId) {
+    JsonObject cached = cache.get(userId);
+    if (cached != null) {
+      return Future.succeededFuture(cached);
+    }
+    long loadGeneration = generation.get();
+    return dbClient.query(Statements.STATS_OF_USER, Tuple.of(userId))
+      .map(rows -> {
+        JsonObject row = rows.isEmpty() ? new JsonObject() : rows.get(0);
+        JsonObject stats = new JsonObject()
+          .put("recipes", row.getInteger("recipe_count", 0))
+          .put("favorites_received", row.getInteger("favorites_received", 0))
+          .put("comments_received", row.getInteger("comments_received", 0))
+          .put("achievement", row.getString("achievement"));
+        if (generation.get() == loadGeneration) {
+          cache.put(userId, stats);
+        }
+        return stats;
+      });
+  }
+
+  public JsonObject stats() {
+    return cache.stats();
+  }
+}
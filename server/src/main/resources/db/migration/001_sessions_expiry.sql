@@ -0,0 +1,14 @@
+-- Sessions laufen ab (Epoch-Sekunden) und werden per session_id über einen Index gefunden
+CREATE TABLE IF NOT EXISTS sessions (
+  session_id VARCHAR(64) NOT NULL PRIMARY KEY,
+  user_id INT NOT NULL,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+ALTER TABLE sessions ADD COLUMN IF NOT EXISTS expires_at BIGINT NOT NULL DEFAULT 0;
+
+-- bestehende Sessions nicht sofort verwerfen, sondern ihnen die normale Laufzeit geben
+UPDATE sessions SET expires_at = UNIX_TIMESTAMP() + 7 * 24 * 3600 WHERE expires_at = 0;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_sessions_session_id ON sessions (session_id);
+CREATE INDEX IF NOT EXISTS idx_sessions_expires_at ON sessions (expires_at);
@@ -0,0 +1,6 @@
+-- Gesperrte JWTs (SESSION_MODE=jwt), nur bis zu ihrem Ablauf (Epoch-Sekunden)
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+  jti CHAR(36) NOT NULL PRIMARY KEY,
+  expires_at BIGINT NOT NULL,
+  INDEX idx_revoked_tokens_expires_at (expires_at)
+);
@@ -0,0 +1,33 @@
+-- Erfolge (bisher nur in bestehenden Datenbanken angelegt)
+CREATE TABLE IF NOT EXISTS achievements (
+  id INT AUTO_INCREMENT PRIMARY KEY,
+  user_id INT NOT NULL,
+  achievement_type VARCHAR(100) NOT NULL,
+  achieved_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Zähler pro Benutzer, gepflegt von UserStats; achievement ist der höchste erreichte Erfolg
+CREATE TABLE IF NOT EXISTS user_stats (
+  user_id INT NOT NULL PRIMARY KEY,
+  recipe_count INT NOT NULL DEFAULT 0,
+  favorites_received INT NOT NULL DEFAULT 0,
+  comments_received INT NOT NULL DEFAULT 0,
+  achievement VARCHAR(100) NULL,
+  achievement_level INT NOT NULL DEFAULT 0,
+  FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- einmalig aus den vorhandenen Daten befüllen, Stufen wie UserStats.TIERS
+INSERT IGNORE INTO user_stats (user_id, recipe_count, favorites_received, comments_received)
+SELECT u.id,
+  (SELECT COUNT(*) FROM recipes r WHERE r.user_id = u.id),
+  (SELECT COUNT(*) FROM favorites f JOIN recipes r ON r.id = f.recipe_id WHERE r.user_id = u.id),
+  (SELECT COUNT(*) FROM comments c JOIN recipes r ON r.id = c.recipe_id WHERE r.user_id = u.id)
+FROM users u;
+
+UPDATE user_stats SET
+  achievement_level = CASE WHEN recipe_count >= 11 THEN 4 WHEN recipe_count >= 6 THEN 3 WHEN recipe_count >= 3 THEN 2 WHEN recipe_count >= 1 THEN 1 ELSE 0 END,
+  achievement = CASE WHEN recipe_count >= 11 THEN 'Goldener Stern-Koch' WHEN recipe_count >= 6 THEN 'Rezept-Experte'
+    WHEN recipe_count >= 3 THEN 'Koch-Lehrling' WHEN recipe_count >= 1 THEN 'Koch-Anfänger' ELSE NULL END
+WHERE achievement_level = 0;
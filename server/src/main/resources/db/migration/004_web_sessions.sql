@@ -0,0 +1,9 @@
+-- Vert.x-Web-Sessions für WEB_SESSION_STORE=db: Binärformat von Vert.x, Version für parallele Änderungen,
+-- Ablauf in Epoch-Sekunden
+CREATE TABLE IF NOT EXISTS web_sessions (
+  id VARCHAR(64) NOT NULL PRIMARY KEY,
+  data VARBINARY(4096) NOT NULL,
+  version INT NOT NULL DEFAULT 0,
+  expires_at BIGINT NOT NULL,
+  INDEX idx_web_sessions_expires_at (expires_at)
+);
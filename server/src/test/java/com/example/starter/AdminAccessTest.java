@@ -0,0 +1,41 @@
+package com.example.starter;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.SocketAddress;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdminAccessTest {
+
+  private static final SocketAddress LOCAL = SocketAddress.inetSocketAddress(50000, "127.0.0.1");
+  private static final SocketAddress LOCAL_V6 = SocketAddress.inetSocketAddress(50000, "0:0:0:0:0:0:0:1");
+  private static final SocketAddress REMOTE = SocketAddress.inetSocketAddress(50000, "203.0.113.7");
+
+  @Test
+  void adminNurMitToken() {
+    AdminAccess admin = AdminAccess.admin(new JsonObject().put(AdminAccess.ADMIN_TOKEN, "s3cret"));
+    assertFalse(admin.allowed(LOCAL, null), "localhost allein reicht für /admin nicht");
+    assertFalse(admin.allowed(REMOTE, "Bearer falsch"));
+    assertTrue(admin.allowed(REMOTE, "Bearer s3cret"));
+
+    AdminAccess closed = AdminAccess.admin(new JsonObject());
+    assertFalse(closed.allowed(LOCAL, "Bearer "));
+  }
+
+  @Test
+  void metricsAusAllowlistOderMitToken() {
+    AdminAccess metrics = AdminAccess.metrics(new JsonObject().put(AdminAccess.METRICS_TOKEN, "scrape"));
+    assertTrue(metrics.allowed(LOCAL, null));
+    assertTrue(metrics.allowed(LOCAL_V6, null));
+    assertFalse(metrics.allowed(REMOTE, null));
+    assertTrue(metrics.allowed(REMOTE, "Bearer scrape"));
+  }
+
+  @Test
+  void allowlistNurMitIpAdressen() {
+    assertEquals(2, AdminAccess.allowlist(" 10.0.0.1, ::1 ,, prometheus.local").size());
+  }
+}
@@ -0,0 +1,19 @@
+package com.example.starter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AppLauncherTest {
+
+  @Test
+  void erkenntAngegebeneInstanzen() {
+    assertTrue(AppLauncher.instancesOnCommandLine(Arrays.asList("run", "com.example.starter.MainVerticle", "-instances", "1")));
+    assertTrue(AppLauncher.instancesOnCommandLine(Arrays.asList("run", "--instances=1")));
+    assertFalse(AppLauncher.instancesOnCommandLine(Arrays.asList("run", "com.example.starter.MainVerticle", "-conf", "instances.json")));
+    assertFalse(AppLauncher.instancesOnCommandLine(null));
+  }
+}
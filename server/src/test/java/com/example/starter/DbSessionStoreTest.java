@@ -0,0 +1,67 @@
+package com.example.starter;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.auth.VertxContextPRNG;
+import io.vertx.ext.web.sstore.impl.SharedDataSessionImpl;
+import io.vertx.junit5.VertxExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(VertxExtension.class)
+public class DbSessionStoreTest {
+
+  @Test
+  void kleinUndVersionBleibtOhneAenderung(Vertx vertx) {
+    VertxContextPRNG prng = VertxContextPRNG.current(vertx);
+    StoredSession session = new StoredSession(prng, 30 * 60 * 1000, 32);
+    session.put("darkMode", true);
+    session.incrementVersion();
+    int version = session.version();
+
+    Buffer data = StoredSession.encode(session);
+    assertTrue(data.length() < 200, "Session mit einem Flag sollte klein bleiben: " + data.length());
+    assertEquals(StoredSession.FORMAT, data.getByte(0));
+
+    StoredSession decoded = StoredSession.decode(data, prng);
+    assertEquals(session.id(), decoded.id());
+    assertEquals(Boolean.TRUE, decoded.get("darkMode"));
+    assertEquals(version, decoded.version());
+
+    // gelesen, aber nicht geändert -> gleiche Version, also kein Schreiben
+    decoded.incrementVersion();
+    assertEquals(version, decoded.version());
+    decoded.put("darkMode", false);
+    decoded.incrementVersion();
+    assertEquals(version + 1, decoded.version());
+  }
+
+  @Test
+  void liestZeilenOhneVersionsbyteUndVerwirftUnbekannteFormate(Vertx vertx) {
+    VertxContextPRNG prng = VertxContextPRNG.current(vertx);
+    // so hat die erste Fassung des Stores geschrieben
+    SharedDataSessionImpl legacy = new SharedDataSessionImpl(prng, 30 * 60 * 1000, 32);
+    legacy.put("darkMode", true);
+    Buffer data = Buffer.buffer();
+    legacy.writeToBuffer(data);
+
+    StoredSession decoded = StoredSession.decode(data, prng);
+    assertEquals(legacy.id(), decoded.id());
+    assertEquals(Boolean.TRUE, decoded.get("darkMode"));
+    assertEquals(legacy.timeout(), decoded.timeout());
+
+    assertNull(StoredSession.decode(Buffer.buffer().appendByte((byte) 99), prng));
+    assertNull(StoredSession.decode(Buffer.buffer(), prng));
+  }
+
+  @Test
+  void ablaufErstNachHalberLaufzeitVerlaengern() {
+    assertFalse(DbSessionStore.expiryDue(1_000, 1_000 + 900, 1_800));
+    assertTrue(DbSessionStore.expiryDue(1_000, 1_000 + 901, 1_800));
+  }
+}
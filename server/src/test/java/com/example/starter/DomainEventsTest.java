@@ -0,0 +1,41 @@
+package com.example.starter;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(VertxExtension.class)
+public class DomainEventsTest {
+
+  @Test
+  void lokalKommtDasselbeObjektAn(Vertx vertx, VertxTestContext testContext) {
+    DomainEvents.register(vertx);
+    DomainEvents.FavoriteToggled event = new DomainEvents.FavoriteToggled(7, 42, true);
+    DomainEvents.consumer(vertx, DomainEvents.FavoriteToggled.class, received -> testContext.verify(() -> {
+      assertSame(event, received);
+      testContext.completeNow();
+    })).onComplete(testContext.succeeding(v -> DomainEvents.publish(vertx, event)));
+  }
+
+  @Test
+  void ueberDasNetzAlsJson() {
+    DomainEvents.Codec<DomainEvents.FavoritesChanged> codec =
+      new DomainEvents.Codec<>("test", DomainEvents.FavoritesChanged::fromJson);
+    Buffer buffer = Buffer.buffer("xx");
+    codec.encodeToWire(buffer, new DomainEvents.FavoritesChanged(7, Arrays.asList(3, 1)));
+
+    DomainEvents.FavoritesChanged decoded = codec.decodeFromWire(2, buffer);
+    assertEquals(7, decoded.userId);
+    assertEquals(Arrays.asList(3, 1), decoded.recipeIds);
+    assertThrows(UnsupportedOperationException.class, () -> decoded.recipeIds.add(5));
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.starter;
+
+import io.vertx.core.json.JsonArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FavoriteServiceTest {
+
+  @Test
+  void liestRezeptIdsOhneDuplikate() {
+    assertEquals(Arrays.asList(3, 1), FavoriteService.ids(new JsonArray().add(3).add(1).add(3)));
+    assertEquals(Collections.emptyList(), FavoriteService.ids(null));
+    assertEquals(Collections.emptyList(), FavoriteService.ids(new JsonArray()));
+  }
+
+  @Test
+  void lehntUngueltigeIdsAb() {
+    assertNull(FavoriteService.ids("1,2"));
+    assertNull(FavoriteService.ids(new JsonArray().add("1")));
+    assertNull(FavoriteService.ids(new JsonArray().add(1.5)));
+    assertNull(FavoriteService.ids(new JsonArray().add(0)));
+  }
+
+  @Test
+  void erkenntGleicheIdInAddUndRemove() {
+    assertTrue(FavoriteService.overlaps(Arrays.asList(1, 2), Arrays.asList(3, 2)));
+    assertFalse(FavoriteService.overlaps(Arrays.asList(1, 2), Arrays.asList(3)));
+    assertFalse(FavoriteService.overlaps(Collections.emptyList(), Arrays.asList(3)));
+  }
+}
@@ -0,0 +1,51 @@
+package com.example.starter;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(VertxExtension.class)
+public class HashingExecutorTest {
+
+  @Test
+  void lehntAbWennPoolUndWarteschlangeVollSind(Vertx vertx, VertxTestContext testContext) {
+    HashingExecutor hashing = new HashingExecutor(vertx, 1, 1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    // ein Hash läuft, einer wartet, der dritte wird abgelehnt
+    hashing.submit("bcrypt", () -> {
+      release.await();
+      return "a";
+    });
+    hashing.submit("bcrypt", () -> "b").onComplete(testContext.succeeding(hash -> testContext.verify(() -> {
+      JsonObject stats = hashing.stats().getJsonObject("operations").getJsonObject("bcrypt");
+      assertEquals(2L, stats.getLong("count"));
+      assertEquals(1L, stats.getLong("rejected"));
+      testContext.completeNow();
+    })));
+    hashing.submit("bcrypt", () -> "c").onComplete(testContext.failing(err -> testContext.verify(() -> {
+      assertTrue(err instanceof RejectedExecutionException);
+      release.countDown();
+    })));
+  }
+
+  @Test
+  void gibtPlatzFreiWennDieAufgabeNieLaeuft(Vertx vertx, VertxTestContext testContext) {
+    HashingExecutor hashing = new HashingExecutor(vertx, 1, 1);
+    hashing.close();
+
+    hashing.submit("bcrypt", () -> "a").onComplete(testContext.failing(err -> testContext.verify(() -> {
+      assertEquals(0, hashing.stats().getInteger("pending"));
+      testContext.completeNow();
+    })));
+  }
+}
@@ -0,0 +1,90 @@
+package com.example.starter;
+
+import io.vertx.core.Promise;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IngredientRecipeIndexTest {
+
+  private static final int EIER = 1, MEHL = 2, MILCH = 3, ZUCKER = 4, SPECK = 5;
+
+  private static List<Integer> ids(List<IngredientRecipeIndex.Match> matches) {
+    return matches.stream().map(m -> m.recipeId).collect(Collectors.toList());
+  }
+
+  @Test
+  void sortiertNachAbdeckung() {
+    IngredientRecipeIndex index = new IngredientRecipeIndex(null);
+    index.put(10, Arrays.asList(EIER, MEHL, MILCH, ZUCKER)); // 3 Treffer, 1 fehlt
+    index.put(11, Arrays.asList(EIER, MEHL, MILCH));         // 3 Treffer, nichts fehlt
+    index.put(12, Arrays.asList(EIER, SPECK));               // 1 Treffer, 1 fehlt
+    index.put(13, Arrays.asList(ZUCKER));                    // kein Treffer
+
+    List<Integer> query = Arrays.asList(EIER, MEHL, MILCH);
+    assertEquals(Arrays.asList(11, 10, 12), ids(index.search(query, false, null, 10)));
+    assertEquals(Arrays.asList(11, 10), ids(index.search(query, true, null, 10)));
+
+    // Keyset: Seite hinter Rezept 11
+    IngredientRecipeIndex.Cursor after11 = index.cursorAt(query, false, 11);
+    assertEquals("3:0:11", after11.toString());
+    assertEquals(Arrays.asList(10), ids(index.search(query, false, after11, 1)));
+
+    IngredientRecipeIndex.Match first = index.search(query, false, null, 1).get(0);
+    assertEquals(3, first.matched);
+    assertEquals(0, first.missing);
+
+    index.remove(11);
+    index.put(12, Arrays.asList(ZUCKER));
+    assertEquals(Arrays.asList(10), ids(index.search(query, false, null, 10)));
+    assertTrue(index.search(Arrays.asList(SPECK), false, null, 10).isEmpty());
+  }
+
+  @Test
+  void cursorUeberlebtGeloeschtesRezept() {
+    IngredientRecipeIndex index = new IngredientRecipeIndex(null);
+    index.put(10, Arrays.asList(EIER, MEHL, MILCH, ZUCKER));
+    index.put(11, Arrays.asList(EIER, MEHL, MILCH));
+    index.put(12, Arrays.asList(EIER, SPECK));
+    List<Integer> query = Arrays.asList(EIER, MEHL, MILCH);
+
+    IngredientRecipeIndex.Cursor cursor = index.search(query, false, null, 1).get(0).cursor();
+    IngredientRecipeIndex.Cursor parsed = IngredientRecipeIndex.Cursor.parse(cursor.toString());
+
+    // das Rezept der letzten Seite ist inzwischen gelöscht bzw. hat keine passenden Zutaten mehr
+    index.remove(11);
+    assertEquals(Arrays.asList(10, 12), ids(index.search(query, false, parsed, 10)));
+    index.put(11, Arrays.asList(ZUCKER));
+    assertEquals(Arrays.asList(10, 12), ids(index.search(query, false, parsed, 10)));
+    assertNull(index.cursorAt(query, false, 11));
+
+    assertNull(IngredientRecipeIndex.Cursor.parse("11"));
+    assertNull(IngredientRecipeIndex.Cursor.parse("3:x:11"));
+  }
+
+  @Test
+  void aenderungenWaehrendDesAufbausGehenNichtVerloren() {
+    IngredientRecipeIndex index = new IngredientRecipeIndex(null);
+    Promise<List<JsonObject>> snapshot = Promise.promise();
+    index.build(snapshot::future);
+
+    index.remove(10);
+    index.put(11, Arrays.asList(SPECK));
+
+    snapshot.complete(Arrays.asList(row(10, EIER), row(11, EIER), row(12, EIER)));
+
+    assertEquals(Arrays.asList(12), ids(index.search(Arrays.asList(EIER), false, null, 10)));
+    assertEquals(Arrays.asList(11), ids(index.search(Arrays.asList(SPECK), false, null, 10)));
+  }
+
+  private static JsonObject row(int recipeId, int ingredientId) {
+    return new JsonObject().put("recipe_id", recipeId).put("ingredient_id", ingredientId);
+  }
+}
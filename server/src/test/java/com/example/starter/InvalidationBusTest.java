@@ -0,0 +1,68 @@
+package com.example.starter;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InvalidationBusTest {
+
+  private final InvalidationBus.InMemoryTransport transport = new InvalidationBus.InMemoryTransport();
+  private final AtomicLong clock = new AtomicLong(1_000);
+
+  private InvalidationBus node(List<String> evicted) {
+    InvalidationBus bus = new InvalidationBus(transport, 500, clock::get);
+    bus.register(InvalidationBus.RECIPES, evicted::add);
+    bus.start();
+    return bus;
+  }
+
+  @Test
+  void verwirftAufAllenKnotenGenauEinmal() {
+    List<String> onA = new ArrayList<>();
+    List<String> onB = new ArrayList<>();
+    List<String> onC = new ArrayList<>();
+    InvalidationBus a = node(onA);
+    node(onB);
+    node(onC);
+
+    a.invalidate(InvalidationBus.RECIPES, 42L);
+
+    assertEquals(List.of("42"), onA);
+    assertEquals(List.of("42"), onB);
+    assertEquals(List.of("42"), onC);
+    JsonObject sent = a.stats().getJsonObject("caches").getJsonObject(InvalidationBus.RECIPES);
+    assertEquals(1L, sent.getLong("sent"));
+    assertEquals(0L, sent.getLong("applied"));
+  }
+
+  @Test
+  void zaehltVerspaeteteNachrichten() {
+    List<String> onB = new ArrayList<>();
+    node(new ArrayList<>());
+    InvalidationBus b = node(onB);
+
+    transport.publish(new JsonObject().put("node", "x").put("cache", InvalidationBus.RECIPES).put("key", "7").put("sent_at", 900L));
+    transport.publish(new JsonObject().put("node", "x").put("cache", InvalidationBus.RECIPES).put("key", "8").put("sent_at", 0L));
+    transport.publish(new JsonObject().put("node", "x").put("cache", "unbekannt").put("key", "9").put("sent_at", 1_000L));
+
+    assertEquals(List.of("7", "8"), onB);
+    JsonObject stats = b.stats();
+    JsonObject recipes = stats.getJsonObject("caches").getJsonObject(InvalidationBus.RECIPES);
+    assertEquals(2L, recipes.getLong("applied"));
+    assertEquals(1L, recipes.getLong("late"));
+    assertEquals(2L, recipes.getJsonObject("lag").getLong("count"));
+    assertEquals(1L, stats.getLong("unknown"));
+  }
+
+  @Test
+  void unbekannterCacheIstEinFehler() {
+    InvalidationBus bus = node(new ArrayList<>());
+    assertThrows(IllegalArgumentException.class, () -> bus.invalidate("unbekannt", 1));
+  }
+}
@@ -0,0 +1,43 @@
+package com.example.starter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class LruCacheTest {
+
+  @Test
+  void evicts_least_recently_used_entry() {
+    LruCache<String, Integer> cache = new LruCache<>(2, 1000);
+    cache.put("a", 1);
+    cache.put("b", 2);
+    cache.get("a");
+    cache.put("c", 3);
+
+    assertEquals(1, cache.get("a"));
+    assertNull(cache.get("b"));
+    assertEquals(3, cache.get("c"));
+    assertEquals(1, cache.evictions());
+  }
+
+  @Test
+  void expires_entries_after_their_ttl() {
+    AtomicLong now = new AtomicLong(0);
+    LruCache<String, Integer> cache = new LruCache<>(10, 1000, now::get);
+    cache.put("positiv", 7);
+    cache.put("negativ", -1, 100);
+
+    now.set(500);
+    assertNull(cache.get("negativ"));
+    assertEquals(7, cache.get("positiv"));
+
+    now.set(1000);
+    assertNull(cache.get("positiv"));
+    assertEquals(1, cache.hits());
+    assertEquals(2, cache.misses());
+    assertEquals(2, cache.expirations());
+  }
+}
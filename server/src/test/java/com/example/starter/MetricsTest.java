@@ -0,0 +1,43 @@
+package com.example.starter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsTest {
+
+  @Test
+  void fasstStatementsGleicherFormZusammen() {
+    Metrics metrics = new Metrics();
+    assertEquals("SELECT id FROM recipes WHERE id IN (?...)",
+      metrics.shape("SELECT id\n   FROM recipes WHERE id IN (?, ?,?)"));
+    assertEquals(metrics.shape("SELECT id FROM recipes WHERE id IN (?, ?)"),
+      metrics.shape("SELECT id FROM recipes WHERE id IN (?, ?, ?, ?)"));
+  }
+
+  @Test
+  void schreibtPrometheusHistogramme() {
+    Metrics metrics = new Metrics();
+    metrics.recordRequest("GET /recipes/:recipe_id", 200, 3_000_000);
+    metrics.recordRequest("GET /recipes/:recipe_id", 200, 40_000_000);
+    metrics.recordRequest("GET /recipes/:recipe_id", 404, 1_000_000_000);
+
+    String text = metrics.prometheus();
+    assertTrue(text.contains("http_server_requests_seconds_bucket{method=\"GET\",route=\"/recipes/:recipe_id\",le=\"0.005\"} 1\n"));
+    assertTrue(text.contains("http_server_requests_seconds_bucket{method=\"GET\",route=\"/recipes/:recipe_id\",le=\"+Inf\"} 3\n"));
+    assertTrue(text.contains("http_server_responses_total{method=\"GET\",route=\"/recipes/:recipe_id\",status=\"404\"} 1\n"));
+    assertEquals("statement=\"a \\\"b\\\"\"", Metrics.label("statement", "a \"b\""));
+  }
+
+  @Test
+  void schaetztQuantileAusDenBuckets() {
+    Metrics.Histogram histogram = new Metrics.Histogram();
+    for (int i = 0; i < 99; i++) {
+      histogram.record(2_000_000); // 2 ms
+    }
+    histogram.record(800_000_000); // 800 ms
+    assertTrue(histogram.quantileMs(0.5) <= 2.5);
+    assertTrue(histogram.quantileMs(0.999) > 500);
+  }
+}
@@ -0,0 +1,60 @@
+package com.example.starter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst die Dauer einer Passwortprüfung je BCrypt-Kostenfaktor (inkl. p99), um
+ * {@value PasswordHasher#PASSWORD_BCRYPT_COST} passend zum Latenzbudget des Logins zu wählen.
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) org.openjdk.jmh.Main PasswordHasherBenchmark
+ * </pre>
+ *
+ * Pro Login kommt die Wartezeit im {@link HashingExecutor} hinzu: Bei {@code n} gleichzeitigen Logins und
+ * {@code HASH_POOL_SIZE} Threads wartet der letzte etwa {@code n / HASH_POOL_SIZE} Prüfungen lang.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class PasswordHasherBenchmark {
+
+  @Param({"10", "11", "12", "13"})
+  public int cost;
+
+  private PasswordHasher hasher;
+  private String storedHash;
+  private String legacyHash;
+
+  @Setup
+  public void setup() {
+    hasher = new PasswordHasher.Delegating(new PasswordHasher.Bcrypt(cost), new PasswordHasher.LegacySha512());
+    storedHash = hasher.hash("geheim123");
+    legacyHash = new PasswordHasher.LegacySha512().hash("geheim123");
+  }
+
+  @Benchmark
+  public boolean verify() {
+    return hasher.verify("geheim123", storedHash);
+  }
+
+  @Benchmark
+  public boolean verifyLegacy() {
+    return hasher.verify("geheim123", legacyHash);
+  }
+}
@@ -0,0 +1,40 @@
+package com.example.starter;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PasswordHasherTest {
+
+  @Test
+  void bcryptMitKostenImHash() {
+    PasswordHasher hasher = PasswordHasher.fromConfig(new JsonObject().put(PasswordHasher.PASSWORD_BCRYPT_COST, 5));
+    String hash = hasher.hash("geheim");
+    assertTrue(hash.startsWith("$2a$05$"));
+    assertTrue(hasher.verify("geheim", hash));
+    assertFalse(hasher.verify("falsch", hash));
+    assertFalse(hasher.needsRehash(hash));
+
+    // höhere Kosten konfiguriert -> alter Hash gilt noch, wird aber erneuert
+    PasswordHasher stronger = PasswordHasher.fromConfig(new JsonObject().put(PasswordHasher.PASSWORD_BCRYPT_COST, 6));
+    assertTrue(stronger.verify("geheim", hash));
+    assertTrue(stronger.needsRehash(hash));
+    assertEquals(5, PasswordHasher.Bcrypt.costOf(hash));
+  }
+
+  @Test
+  void alteSha512HashesWerdenAkzeptiertUndErsetzt() {
+    PasswordHasher hasher = PasswordHasher.fromConfig(new JsonObject().put(PasswordHasher.PASSWORD_BCRYPT_COST, 4));
+    String legacy = new PasswordHasher.LegacySha512().hash("geheim");
+    assertEquals(128, legacy.length());
+    assertTrue(hasher.verify("geheim", legacy));
+    assertFalse(hasher.verify("falsch", legacy));
+    assertTrue(hasher.needsRehash(legacy));
+
+    assertFalse(hasher.verify("geheim", "kein-hash"));
+    assertFalse(hasher.verify("geheim", null));
+  }
+}
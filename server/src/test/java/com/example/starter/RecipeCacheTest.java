@@ -0,0 +1,30 @@
+package com.example.starter;
+
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RecipeCacheTest {
+
+  @Test
+  void etagHaengtNurVomInhaltAb() {
+    String etag = RecipeCache.etag(Buffer.buffer("{\"id\":1}"));
+    assertEquals(etag, RecipeCache.etag(Buffer.buffer("{\"id\":1}")));
+    assertNotEquals(etag, RecipeCache.etag(Buffer.buffer("{\"id\":2}")));
+    assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+  }
+
+  @Test
+  void vergleichtIfNoneMatch() {
+    String etag = RecipeCache.etag(Buffer.buffer("rezept"));
+    assertTrue(RecipeCache.matches(etag, etag));
+    assertTrue(RecipeCache.matches("\"alt\", W/" + etag, etag));
+    assertTrue(RecipeCache.matches("*", etag));
+    assertFalse(RecipeCache.matches("\"alt\"", etag));
+    assertFalse(RecipeCache.matches(null, etag));
+  }
+}
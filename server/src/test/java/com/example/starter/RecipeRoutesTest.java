@@ -0,0 +1,86 @@
+package com.example.starter;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.auth.JWTOptions;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Die API-Routen für Rezepte mit echten, vom Server ausgestellten Tokens (ohne Datenbank: die Antworten
+ * entstehen vor dem ersten Zugriff).
+ */
+@ExtendWith(VertxExtension.class)
+public class RecipeRoutesTest {
+
+  private static final int PORT = 8897;
+  private static final JsonObject CONFIG = new JsonObject()
+    .put("DB_VERIFY_ON_START", false)
+    .put("DB_MIGRATE_ON_START", false)
+    .put("HTTP_PORT", PORT)
+    .put(TokenSessions.SESSION_MODE, "jwt")
+    .put(TokenSessions.JWT_SECRET, "test-schluessel-nur-fuer-tests");
+
+  private AppContext app;
+
+  @BeforeEach
+  void deploy(Vertx vertx, VertxTestContext testContext) {
+    vertx.deployVerticle(new MainVerticle(), new DeploymentOptions().setConfig(CONFIG))
+      .compose(id -> AppContext.get(vertx, CONFIG))
+      .onComplete(testContext.succeeding(app -> {
+        this.app = app;
+        testContext.completeNow();
+      }));
+  }
+
+  @Test
+  void ausgestelltesTokenErreichtDenHandler(Vertx vertx, VertxTestContext testContext) {
+    String token = app.tokenSessions().accessToken(1);
+    HttpClient client = vertx.createHttpClient();
+
+    // eigenes Rezept ohne Felder: Benutzer erkannt, Anfrage abgelehnt
+    patch(client, "/users/1/recipes/5", token)
+      .compose(own -> {
+        testContext.verify(() -> assertEquals(400, own.statusCode()));
+        return patch(client, "/users/2/recipes/5", token);
+      })
+      .onComplete(testContext.succeeding(foreign -> testContext.verify(() -> {
+        assertEquals(403, foreign.statusCode());
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void zusaetzlicherUserIdClaimZaehltNicht(Vertx vertx, VertxTestContext testContext) {
+    String token = app.jwtAuth().generateToken(new JsonObject().put("uid", 1).put("typ", "access").put("userId", "2"),
+      new JWTOptions().setAlgorithm("HS256").setExpiresInSeconds(60));
+
+    patch(vertx.createHttpClient(), "/users/2/recipes/5", token)
+      .onComplete(testContext.succeeding(res -> testContext.verify(() -> {
+        assertEquals(403, res.statusCode());
+        testContext.completeNow();
+      })));
+  }
+
+  private static Future<HttpClientResponse> patch(HttpClient client, String path, String token) {
+    RequestOptions options = new RequestOptions()
+      .setMethod(HttpMethod.PATCH)
+      .setHost("localhost")
+      .setPort(PORT)
+      .setURI(path)
+      .putHeader("Authorization", "Bearer " + token)
+      .putHeader("Content-Type", "application/json");
+    return client.request(options).compose(request -> request.send("{}"));
+  }
+}
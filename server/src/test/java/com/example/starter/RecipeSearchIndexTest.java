@@ -0,0 +1,101 @@
+package com.example.starter;
+
+import io.vertx.core.Promise;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RecipeSearchIndexTest {
+
+  private static JsonObject recipe(int id, String title, String description, String ingredients) {
+    return new JsonObject()
+      .put("id", id)
+      .put("title", title)
+      .put("description", description)
+      .put("ingredients", ingredients);
+  }
+
+  @Test
+  void normalisiertUmlauteUndEndungen() {
+    assertEquals(Arrays.asList("kaes", "spaetzl"), RecipeSearchIndex.tokenize("Käse-Spätzle", true));
+    assertEquals(RecipeSearchIndex.stem("tomaten"), RecipeSearchIndex.stem("tomate"));
+    assertEquals(Arrays.asList("strasse"), RecipeSearchIndex.tokenize("die Straße", false));
+  }
+
+  @Test
+  void nurStoppwoerterSindNichtIndizierbar() {
+    assertFalse(RecipeSearchIndex.indexable("a"));
+    assertFalse(RecipeSearchIndex.indexable("und die"));
+    assertTrue(RecipeSearchIndex.indexable("die Suppe"));
+  }
+
+  @Test
+  void rankingUndPraefixsuche() {
+    RecipeSearchIndex index = new RecipeSearchIndex(null);
+    index.put(recipe(1, "Tomatensuppe", "Mit frischen Kräutern", "Tomaten|Zwiebel"));
+    index.put(recipe(2, "Nudeln mit Soße", "Dazu passen Tomaten", "Nudeln|Sahne"));
+    index.put(recipe(3, "Tomate Mozzarella", "Schnell gemacht", "Tomate|Mozzarella|Basilikum"));
+
+    // Titel vor Zutaten vor Beschreibung
+    assertEquals(Arrays.asList(3, 1, 2), index.search("Tomaten", 10));
+    assertEquals(Arrays.asList(3), index.search("Tomaten", 1));
+    // nächste Seite hinter Rezept 3
+    assertEquals(Arrays.asList(1, 2), index.search("Tomaten", 3, 10));
+
+    // unfertiges letztes Wort, alle Begriffe müssen passen
+    assertEquals(Arrays.asList(3), index.search("tomate mozz", 10));
+    assertTrue(index.search("sahne mozzarella", 10).isEmpty());
+
+    // Änderungen und Löschungen werden übernommen
+    index.put(recipe(2, "Nudeln mit Pesto", "", "Nudeln|Basilikum"));
+    assertEquals(Arrays.asList(2), index.search("pesto", 10));
+    index.remove(3);
+    assertTrue(index.search("mozzarella", 10).isEmpty());
+    assertEquals(2, index.size());
+  }
+
+  @Test
+  void cursorMitRelevanzUeberstehtLoeschenDesCursorRezepts() {
+    RecipeSearchIndex index = new RecipeSearchIndex(null);
+    index.put(recipe(1, "Tomatensuppe", "Mit frischen Kräutern", "Tomaten|Zwiebel"));
+    index.put(recipe(2, "Nudeln mit Soße", "Dazu passen Tomaten", "Nudeln|Sahne"));
+    index.put(recipe(3, "Tomate Mozzarella", "Schnell gemacht", "Tomate|Mozzarella|Basilikum"));
+
+    RecipeSearchIndex.Cursor cursor = index.hits("Tomaten", null, 1).get(0).cursor();
+    RecipeSearchIndex.Cursor parsed = RecipeSearchIndex.Cursor.parse(cursor.toString());
+    index.remove(3);
+
+    assertTrue(index.search("Tomaten", 3, 10).isEmpty(), "über die ID allein geht die Position verloren");
+    assertEquals(Arrays.asList(1, 2), index.hits("Tomaten", parsed, 10).stream().map(hit -> hit.id).collect(Collectors.toList()));
+    assertNull(RecipeSearchIndex.Cursor.parse("3"));
+    assertNull(RecipeSearchIndex.Cursor.parse("NaN:3"));
+  }
+
+  @Test
+  void aenderungenWaehrendDesAufbausGehenNichtVerloren() {
+    RecipeSearchIndex index = new RecipeSearchIndex(null);
+    Promise<List<JsonObject>> snapshot = Promise.promise();
+    index.build(snapshot::future);
+
+    // Ereignisse, die eintreffen, während die Ladeabfrage noch läuft
+    index.remove(1);
+    index.put(recipe(2, "Linsensuppe", "", "Linsen"));
+
+    snapshot.complete(Arrays.asList(
+      recipe(1, "Tomatensuppe", "", "Tomaten"),
+      recipe(2, "Tomatensalat", "", "Tomaten"),
+      recipe(3, "Tomatensauce", "", "Tomaten")));
+
+    assertTrue(index.isReady());
+    assertEquals(Arrays.asList(3), index.search("Tomaten", 10));
+    assertEquals(Arrays.asList(2), index.search("Linsen", 10));
+  }
+}
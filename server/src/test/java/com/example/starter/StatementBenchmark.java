@@ -0,0 +1,112 @@
+package com.example.starter;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Tuple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Vergleicht vorbereitete (und gecachte) Statements mit Ad-hoc-SQL, bei dem die Werte im Text stehen, für die
+ * Abfrage von {@code /meine-rezepte} und die Trefferseite von {@code /search/recipes}.
+ *
+ * Braucht eine erreichbare Datenbank mit Rezepten; Zugangsdaten wie beim Server (conf/config.json,
+ * Umgebungsvariablen, System-Properties).
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) org.openjdk.jmh.Main StatementBenchmark
+ * </pre>
+ *
+ * {@code searchPrepared} nutzt wie {@link RecipeService} eine aufgefüllte IN-Liste ({@link Statements#SEARCH_PAGE}),
+ * {@code searchPreparedExact} eine Liste genau passender Länge, die bei wechselnden Seitengrößen jedes Mal
+ * eine neue Form ergibt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class StatementBenchmark {
+
+  @Param({"5", "20"})
+  public int ids;
+
+  private Vertx vertx;
+  private DatabaseClient dbClient;
+  private Pool pool;
+  private int userId;
+  private List<Integer> recipeIds;
+  private int round;
+
+  @Setup
+  public void setup() {
+    vertx = Vertx.vertx();
+    JsonObject config = await(ConfigLoader.load(vertx, new JsonObject()));
+    dbClient = DatabaseConfig.connect(vertx, config);
+    pool = dbClient.getPool();
+    userId = await(dbClient.query("SELECT user_id FROM recipes GROUP BY user_id ORDER BY COUNT(*) DESC LIMIT 1"))
+      .get(0).getInteger("user_id");
+    recipeIds = await(dbClient.query("SELECT id FROM recipes ORDER BY id LIMIT ?", Tuple.of(ids))).stream()
+      .map(row -> row.getInteger("id"))
+      .collect(Collectors.toList());
+  }
+
+  @TearDown
+  public void tearDown() {
+    await(dbClient.close());
+    await(vertx.close());
+  }
+
+  @Benchmark
+  public int myRecipesPrepared() {
+    return await(pool.preparedQuery(Statements.MY_RECIPES).execute(Tuple.of(userId))).size();
+  }
+
+  @Benchmark
+  public int myRecipesAdHoc() {
+    return await(pool.query(Statements.MY_RECIPES.replace("?", String.valueOf(userId))).execute()).size();
+  }
+
+  @Benchmark
+  public int searchPrepared() {
+    Statements.InList in = Statements.in(recipeIds);
+    return await(pool.preparedQuery(Statements.SEARCH_PAGE.sql(in)).execute(Tuple.tuple(in.values))).size();
+  }
+
+  @Benchmark
+  public int searchPreparedExact() {
+    // wechselnde Länge wie bei unterschiedlich vollen Trefferseiten
+    List<Integer> page = recipeIds.subList(0, 1 + (round++ % recipeIds.size()));
+    String sql = Statements.SEARCH_SELECT + "WHERE r.id IN (" + Statements.placeholders(page.size()) + ") GROUP BY r.id";
+    return await(pool.preparedQuery(sql).execute(Tuple.tuple(new ArrayList<>(page)))).size();
+  }
+
+  @Benchmark
+  public int searchAdHoc() {
+    String literals = recipeIds.stream().map(String::valueOf).collect(Collectors.joining(", "));
+    return await(pool.query(Statements.SEARCH_SELECT + "WHERE r.id IN (" + literals + ") GROUP BY r.id").execute()).size();
+  }
+
+  private static <T> T await(Future<T> future) {
+    return future.toCompletionStage().toCompletableFuture().join();
+  }
+}
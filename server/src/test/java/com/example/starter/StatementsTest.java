@@ -0,0 +1,89 @@
+package com.example.starter;
+
+import io.vertx.sqlclient.Tuple;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StatementsTest {
+
+  @Test
+  void fuelltAufZweierpotenzAuf() {
+    Statements.InList in = Statements.in(Arrays.asList(4, 8, 15));
+    assertEquals("?, ?, ?, ?", in.placeholders);
+    assertEquals(Arrays.asList(4, 8, 15, 15), in.values);
+
+    assertEquals(1, Statements.bucket(1));
+    assertEquals(2, Statements.bucket(2));
+    assertEquals(32, Statements.bucket(21));
+    assertEquals(512, Statements.bucket(500));
+    assertEquals(Statements.MAX_BUCKET + 1, Statements.bucket(Statements.MAX_BUCKET + 1));
+  }
+
+  @Test
+  void wenigeFormenFuerVieleLaengen() {
+    long shapes = IntStream.rangeClosed(1, 500)
+      .mapToObj(n -> Statements.in(Collections.nCopies(n, 1)).placeholders)
+      .distinct()
+      .count();
+    assertEquals(10, shapes);
+  }
+
+  @Test
+  void leereListeIstEinFehler() {
+    List<Integer> empty = Collections.emptyList();
+    assertThrows(IllegalArgumentException.class, () -> Statements.in(empty));
+  }
+
+  @Test
+  void teilUpdateHatFesteSpaltenreihenfolge() {
+    Statements.PartialUpdate.Values first = Statements.RECIPE_PATCH.values()
+      .set("portions", 4)
+      .set("title", "Suppe");
+    Statements.PartialUpdate.Values second = Statements.RECIPE_PATCH.values()
+      .set("title", "Eintopf")
+      .set("portions", 2);
+
+    assertEquals("UPDATE recipes SET title = ?, portions = ? WHERE id = ?", first.sql());
+    assertEquals(first.sql(), second.sql());
+    Tuple tuple = first.tuple(7);
+    assertEquals("Suppe", tuple.getValue(0));
+    assertEquals(4, tuple.getValue(1));
+    assertEquals(7, tuple.getValue(2));
+  }
+
+  @Test
+  void teilUpdateKenntNurSeineSpalten() {
+    Statements.PartialUpdate.Values update = Statements.USER_PATCH.values();
+    assertTrue(update.isEmpty());
+    assertThrows(IllegalStateException.class, update::sql);
+    assertThrows(IllegalArgumentException.class, () -> update.set("is_admin", true));
+  }
+
+  @Test
+  void listenStatementsSetzenDieListeUeberallEin() {
+    Statements.InList in = Statements.in(Arrays.asList(4, 8, 15));
+    assertEquals(Statements.SEARCH_SELECT + "WHERE r.id IN (?, ?, ?, ?) GROUP BY r.id ORDER BY FIELD(r.id, ?, ?, ?, ?)",
+      Statements.SEARCH_STREAM.sql(in));
+    assertEquals("INSERT IGNORE INTO ingredients (name) VALUES (?), (?), (?), (?)", Statements.INGREDIENTS_INSERT.sql(in));
+    assertEquals(Statements.BUCKETS, Integer.numberOfTrailingZeros(Statements.MAX_BUCKET) + 1);
+  }
+
+  @Test
+  void katalogBleibtBegrenzt() {
+    assertEquals(15, Statements.RECIPE_PATCH.maxShapes());
+    assertEquals(7, Statements.USER_PATCH.maxShapes());
+    // feste Texte, je zwei pro Seitenabfrage, je BUCKETS pro Listen-Statement, dazu die Teil-Updates
+    int expected = Statements.catalogue().size() + 4 * 2 + 8 * Statements.BUCKETS + 15 + 7;
+    assertEquals(expected, Statements.maxShapes());
+    assertTrue(Statements.maxShapes() < 256, "Katalog passt nicht mehr in den Standard-Statement-Cache");
+    assertThrows(IllegalArgumentException.class, () -> Statements.statsAdd("is_admin"));
+  }
+}
@@ -0,0 +1,44 @@
+package com.example.starter;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(VertxExtension.class)
+public class StaticAssetsTest {
+
+  @Test
+  void komprimiertNurTextdateien(Vertx vertx, VertxTestContext testContext) {
+    StaticAssets assets = new StaticAssets("frontend", new JsonObject());
+    assets.load(vertx).onComplete(testContext.succeeding(count -> testContext.verify(() -> {
+      StaticAssets.Asset html = assets.asset("/profil.html");
+      assertNotNull(html.gzip);
+      assertTrue(html.gzip.length() < vertx.fileSystem().readFileBlocking("frontend/profil.html").length());
+      assertNotEquals(html.etag, html.gzipEtag);
+
+      // Bilder sind schon komprimiert, kleine Dateien lohnen nicht
+      assertNull(assets.asset("/homepage.png").gzip);
+      assertNull(assets.asset("/favorite.css").gzip);
+      testContext.completeNow();
+    })));
+  }
+
+  @Test
+  void liestAcceptEncoding() {
+    assertTrue(StaticAssets.acceptsGzip("gzip, deflate, br"));
+    assertTrue(StaticAssets.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+    assertTrue(StaticAssets.acceptsGzip("*"));
+    assertFalse(StaticAssets.acceptsGzip("gzip;q=0"));
+    assertFalse(StaticAssets.acceptsGzip("deflate"));
+    assertFalse(StaticAssets.acceptsGzip(null));
+  }
+}
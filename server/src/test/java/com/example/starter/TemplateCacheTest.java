@@ -0,0 +1,30 @@
+package com.example.starter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TemplateCacheTest {
+
+  @Test
+  void zerlegtAnPlatzhaltern() {
+    TemplateCache.Template template = TemplateCache.Template.parse(
+      "<h1>{{TITEL}}</h1><ul>{{LISTE}}</ul><a href='/users/{{user_id}}'>{{recipe.id}}</a>");
+    assertEquals(Arrays.asList("TITEL", "LISTE", "user_id"), template.placeholders());
+
+    Map<String, Object> values = new HashMap<>();
+    values.put("TITEL", "Rezepte");
+    values.put("user_id", 7);
+    assertEquals("<h1>Rezepte</h1><ul></ul><a href='/users/7'>{{recipe.id}}</a>", template.render(values).toString());
+
+    // Teile vor und hinter dem gestreamten Platzhalter
+    assertEquals("<h1>Rezepte</h1><ul>", template.head("LISTE", values).toString());
+    assertEquals("</ul><a href='/users/7'>{{recipe.id}}</a>", template.tail("LISTE", values).toString());
+    assertEquals("", template.tail("FEHLT", Collections.emptyMap()).toString());
+  }
+}
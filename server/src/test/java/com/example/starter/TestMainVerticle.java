@@ -1,23 +1,49 @@
 package com.example.starter;
 import com.example.starter.MainVerticle;
 
+import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
 @ExtendWith(VertxExtension.class)
 public class TestMainVerticle {
 
+  // Ohne erreichbare Datenbank die Verbindungsprüfung beim Start überspringen
+  private static final JsonObject CONFIG = new JsonObject().put("DB_VERIFY_ON_START", false).put("DB_MIGRATE_ON_START", false);
+
+  private String deploymentId;
+
   @BeforeEach
   void deploy_verticle(Vertx vertx, VertxTestContext testContext) {
-    vertx.deployVerticle(new MainVerticle()).onComplete(testContext.succeeding(id -> testContext.completeNow()));
+    DeploymentOptions options = new DeploymentOptions().setConfig(CONFIG);
+    vertx.deployVerticle(new MainVerticle(), options).onComplete(testContext.succeeding(id -> {
+      deploymentId = id;
+      testContext.completeNow();
+    }));
   }
 
   @Test
   void verticle_deployed(Vertx vertx, VertxTestContext testContext) throws Throwable {
     testContext.completeNow();
   }
+
+  @Test
+  void gemeinsameServicesUeberlebenDieErsteInstanz(Vertx vertx, VertxTestContext testContext) {
+    AppContext.get(vertx, CONFIG)
+      .compose(app -> vertx.undeploy(deploymentId).compose(v -> AppContext.get(vertx, CONFIG))
+        .onComplete(testContext.succeeding(again -> testContext.verify(() -> {
+          // nur noch der InfraVerticle mit Pool, Timern und Consumern
+          assertEquals(1, vertx.deploymentIDs().size());
+          assertSame(app, again);
+          testContext.completeNow();
+        }))));
+  }
 }
@@ -0,0 +1,44 @@
+package com.example.starter;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.auth.JWTOptions;
+import io.vertx.ext.auth.authentication.TokenCredentials;
+import io.vertx.ext.auth.jwt.JWTAuth;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(VertxExtension.class)
+public class TokenSessionsTest {
+
+  @Test
+  void tokenModusStartetNichtOhneEigenenSchluessel(Vertx vertx) {
+    JsonObject jwt = new JsonObject().put(TokenSessions.SESSION_MODE, "jwt");
+    assertThrows(IllegalStateException.class, () -> TokenSessions.createAuth(vertx, jwt));
+    assertThrows(IllegalStateException.class, () -> TokenSessions.createAuth(vertx, jwt.copy().put(TokenSessions.JWT_SECRET, "geheimesSchluessel")));
+  }
+
+  @Test
+  void refreshTokenIstKeinAccessToken(Vertx vertx, VertxTestContext testContext) {
+    JWTAuth auth = TokenSessions.createAuth(vertx, new JsonObject().put(TokenSessions.JWT_SECRET, "test-schluessel-nur-fuer-tests"));
+    JWTOptions options = new JWTOptions().setAlgorithm("HS256").setExpiresInSeconds(60);
+    String access = auth.generateToken(new JsonObject().put("uid", 1).put("typ", "access"), options);
+    String refresh = auth.generateToken(new JsonObject().put("uid", 1).put("typ", "refresh"), options);
+
+    auth.authenticate(new TokenCredentials(access))
+      .compose(user -> {
+        testContext.verify(() -> assertTrue(TokenSessions.isAccessToken(user)));
+        return auth.authenticate(new TokenCredentials(refresh));
+      })
+      .onComplete(testContext.succeeding(user -> testContext.verify(() -> {
+        assertFalse(TokenSessions.isAccessToken(user));
+        testContext.completeNow();
+      })));
+  }
+}
@@ -0,0 +1,30 @@
+package com.example.starter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UserStatsTest {
+
+  @Test
+  void stufenWieBisher() {
+    assertNull(UserStats.tierFor(0));
+    assertEquals("Koch-Anfänger", UserStats.tierFor(1).name);
+    assertEquals("Koch-Anfänger", UserStats.tierFor(2).name);
+    assertEquals("Koch-Lehrling", UserStats.tierFor(3).name);
+    assertEquals("Koch-Lehrling", UserStats.tierFor(5).name);
+    assertEquals("Rezept-Experte", UserStats.tierFor(6).name);
+    assertEquals("Rezept-Experte", UserStats.tierFor(10).name);
+    assertEquals("Goldener Stern-Koch", UserStats.tierFor(11).name);
+  }
+
+  @Test
+  void stufenSteigenMitDerSchwelle() {
+    for (int i = 1; i < UserStats.TIERS.size(); i++) {
+      assertEquals(UserStats.TIERS.get(i - 1).level + 1, UserStats.TIERS.get(i).level);
+      assertTrue(UserStats.TIERS.get(i - 1).minRecipes < UserStats.TIERS.get(i).minRecipes);
+    }
+  }
+}